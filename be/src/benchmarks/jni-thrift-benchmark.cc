@@ -0,0 +1,144 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+#include <iostream>
+
+#include "common/init.h"
+#include "gen-cpp/Frontend_types.h"
+#include "rpc/jni-thrift-util.h"
+#include "util/benchmark.h"
+#include "util/cpu-info.h"
+#include "util/jni-util.h"
+
+#include "common/names.h"
+
+// Benchmark to measure the cost of passing large Thrift messages through JNI. Each
+// iteration sends a TExecRequest with many scan ranges to the JVM, where it is
+// deserialized and serialized again, and deserializes the returned copy. It compares
+// the default transport of JniCall (TBinaryProtocol in byte[]) with direct ByteBuffers
+// (see CallJniMethodWithDirectBuffers()) using TBinaryProtocol and TCompactProtocol.
+// The requests range from below to far above the 64KB direct buffer that each JVM
+// thread reuses. Larger responses are serialized twice in the JVM to size their
+// direct buffer exactly, see DirectBufferOutputTransport.
+//
+// Results are not checked in since they depend heavily on the JVM and its settings.
+// Run with e.g.:
+//   be/build/latest/benchmarks/jni-thrift-benchmark
+
+using namespace impala;
+
+namespace {
+
+jclass benchmark_util_cl;
+jmethodID echo_id;
+jmethodID echo_direct_id;
+
+struct TestData {
+  TExecRequest request;
+};
+
+// Returns a TExecRequest with 'num_ranges' HDFS scan ranges, similar to the one of a
+// query that scans a large table.
+TExecRequest CreateExecRequest(int num_ranges) {
+  TExecRequest request;
+  request.stmt_type = TStmtType::QUERY;
+  TScanRangeSpec spec;
+  for (int i = 0; i < num_ranges; ++i) {
+    THdfsFileSplit split;
+    split.relative_path = Substitute("part-$0-5e3e8b2a0c1d4f7e_data.0.parq", i);
+    split.offset = 0;
+    split.length = 256L * 1024 * 1024;
+    split.partition_id = i % 1000;
+    split.file_length = split.length;
+    split.file_compression = THdfsCompression::NONE;
+    split.mtime = 1600000000000L + i;
+    split.partition_path_hash = i * 31;
+    TScanRangeLocationList ranges;
+    ranges.scan_range.__set_hdfs_file_split(split);
+    for (int j = 0; j < 3; ++j) {
+      TScanRangeLocation location;
+      location.host_idx = (i + j) % 100;
+      location.__set_volume_id(j);
+      ranges.locations.push_back(location);
+    }
+    spec.concrete_ranges.push_back(ranges);
+  }
+  spec.__isset.concrete_ranges = true;
+  TPlanExecInfo plan_exec_info;
+  plan_exec_info.__set_per_node_scan_ranges({{0, spec}});
+  TQueryExecRequest query_exec_request;
+  query_exec_request.__set_plan_exec_info({plan_exec_info});
+  request.__set_query_exec_request(query_exec_request);
+  return request;
+}
+
+void TestByteArray(int batch_size, void* d) {
+  TestData* data = reinterpret_cast<TestData*>(d);
+  for (int i = 0; i < batch_size; ++i) {
+    TExecRequest result;
+    ABORT_IF_ERROR(JniCall::static_method(benchmark_util_cl, echo_id)
+        .with_thrift_arg(data->request).Call(&result));
+  }
+}
+
+void TestDirectBuffer(int batch_size, void* d, bool compact) {
+  TestData* data = reinterpret_cast<TestData*>(d);
+  for (int i = 0; i < batch_size; ++i) {
+    TExecRequest result;
+    ABORT_IF_ERROR(CallJniMethodWithDirectBuffers(nullptr, benchmark_util_cl,
+        echo_direct_id, data->request, compact, &result));
+  }
+}
+
+void TestDirectBufferBinary(int batch_size, void* d) {
+  TestDirectBuffer(batch_size, d, false);
+}
+
+void TestDirectBufferCompact(int batch_size, void* d) {
+  TestDirectBuffer(batch_size, d, true);
+}
+
+Status Init() {
+  JNIEnv* env = JniUtil::GetJNIEnv();
+  // The class is part of the FE test classes.
+  RETURN_IF_ERROR(JniUtil::GetGlobalClassRef(env,
+      "org/apache/impala/testutil/JniThriftBenchmarkUtil", &benchmark_util_cl));
+  JniMethodDescriptor echo = {"echoExecRequest", "([B)[B", &echo_id};
+  RETURN_IF_ERROR(JniUtil::LoadStaticJniMethod(env, benchmark_util_cl, &echo));
+  JniMethodDescriptor echo_direct = {"echoExecRequestDirect",
+      "(Ljava/nio/ByteBuffer;Z)Ljava/nio/ByteBuffer;", &echo_direct_id};
+  return JniUtil::LoadStaticJniMethod(env, benchmark_util_cl, &echo_direct);
+}
+
+}
+
+int main(int argc, char** argv) {
+  impala::InitCommonRuntime(argc, argv, true, impala::TestInfo::BE_TEST);
+  ABORT_IF_ERROR(Init());
+  cout << Benchmark::GetMachineInfo() << endl;
+
+  for (int num_ranges : {100, 1000, 10000, 100000}) {
+    TestData data;
+    data.request = CreateExecRequest(num_ranges);
+    Benchmark suite(Substitute("exec request with $0 scan ranges", num_ranges), false);
+    suite.AddBenchmark("byte[] binary", TestByteArray, &data);
+    suite.AddBenchmark("direct binary", TestDirectBufferBinary, &data);
+    suite.AddBenchmark("direct compact", TestDirectBufferCompact, &data);
+    cout << suite.Measure(num_ranges < 100000 ? 500 : 5000, 1) << endl;
+  }
+  return 0;
+}
@@ -88,6 +88,25 @@ DEFINE_int64(topic_update_tbl_max_wait_time_ms, 120000, "Maximum time "
      "table lock. A value of 0 disables the timeout based locking which means topic "
      "update thread will always block until table lock is acquired.");
 
+DEFINE_int32(topic_update_parallelism, 4, "Number of threads catalog's topic update "
+     "thread uses to lock and serialize tables in parallel when building a catalog "
+     "topic update. Topic items are still added to the update in catalog order. A "
+     "value of 1 serializes all tables on the topic update thread itself.");
+
+DEFINE_int32(hms_event_processing_threads, 1, "Number of threads catalogd uses to "
+     "process metastore events. Events on the same table are always processed in order "
+     "while events on unrelated tables are processed in parallel if this is greater "
+     "than 1. In that case successive ADD_PARTITION, ALTER_PARTITION and INSERT events "
+     "on a table are also applied with a single table refresh. A value of 1 processes "
+     "all the events serially.");
+
+DEFINE_bool(incremental_file_metadata_refresh, false, "If true, refreshing the file "
+     "metadata of a table skips listing partition directories whose modification time "
+     "has not changed since they were last listed, and reuses their file descriptors. "
+     "Only applies to non-transactional tables on HDFS that are not listed recursively. "
+     "Appending to existing files does not change the modification time of their "
+     "directory, so such changes are not picked up while this is enabled.");
+
 DEFINE_int32(max_wait_time_for_sync_ddl_s, 0, "Maximum time (in seconds) until "
      "which a sync ddl operation will wait for the updated tables "
      "to be the added to the catalog topic. A value of 0 means sync ddl operation will "
@@ -133,6 +152,40 @@ const string CATALOG_SERVER_TOPIC_PROCESSING_TIMES =
 const string CATALOG_SERVER_PARTIAL_FETCH_RPC_QUEUE_LEN =
     "catalog.partial-fetch-rpc.queue-len";
 
+const string CATALOG_SERVER_TOPIC_UPDATE_CATALOG_OBJECTS_TIME =
+    "catalog-server.topic-update.catalog-objects-time-ms";
+const string CATALOG_SERVER_TOPIC_UPDATE_TABLE_WAIT_TIME =
+    "catalog-server.topic-update.table-wait-time-ms";
+const string CATALOG_SERVER_TOPIC_UPDATE_TABLE_SERIALIZATION_TIME =
+    "catalog-server.topic-update.table-serialization-time-ms";
+const string CATALOG_SERVER_TOPIC_UPDATE_OTHER_OBJECTS_TIME =
+    "catalog-server.topic-update.other-objects-time-ms";
+const string CATALOG_SERVER_TOPIC_UPDATE_DELETED_OBJECTS_TIME =
+    "catalog-server.topic-update.deleted-objects-time-ms";
+const string CATALOG_SERVER_TOPIC_UPDATE_TOTAL_TIME =
+    "catalog-server.topic-update.total-time-ms";
+
+const string CATALOG_SERVER_DELETE_LOG_SIZE = "catalog-server.delete-log.size";
+const string CATALOG_SERVER_TOPIC_UPDATE_LOG_SIZE =
+    "catalog-server.topic-update-log.size";
+const string CATALOG_SERVER_TOPIC_UPDATE_NUM_WAITS =
+    "catalog-server.topic-update.num-waits";
+const string CATALOG_SERVER_TOPIC_UPDATE_WAIT_TIME =
+    "catalog-server.topic-update.wait-time-ms";
+
+const string CATALOG_SERVER_FILE_METADATA_LOAD_NUM_THREADS =
+    "catalog-server.file-metadata-load.$0.num-threads";
+const string CATALOG_SERVER_FILE_METADATA_LOAD_NUM_QUEUED_TASKS =
+    "catalog-server.file-metadata-load.$0.queued-paths";
+const string CATALOG_SERVER_FILE_METADATA_LOAD_NUM_ACTIVE_LOADS =
+    "catalog-server.file-metadata-load.$0.active-loads";
+const string CATALOG_SERVER_FILE_METADATA_LOAD_QUEUE_WAIT_TIME =
+    "catalog-server.file-metadata-load.$0.queue-wait-time-mean-ms";
+const string CATALOG_SERVER_FILE_METADATA_LOAD_NUM_PATHS_LOADED =
+    "catalog-server.file-metadata-load.$0.paths-loaded";
+const string CATALOG_SERVER_FILE_METADATA_LOAD_FILES_LOADED_RATE =
+    "catalog-server.file-metadata-load.$0.files-loaded-1min-rate";
+
 const string CATALOG_WEB_PAGE = "/catalog";
 const string CATALOG_TEMPLATE = "catalog.tmpl";
 const string CATALOG_OBJECT_WEB_PAGE = "/catalog_object";
@@ -277,6 +330,25 @@ CatalogServer::CatalogServer(MetricGroup* metrics)
       CATALOG_SERVER_TOPIC_PROCESSING_TIMES);
   partial_fetch_rpc_queue_len_metric_ =
       metrics->AddGauge(CATALOG_SERVER_PARTIAL_FETCH_RPC_QUEUE_LEN, 0);
+  topic_update_catalog_objects_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_CATALOG_OBJECTS_TIME, 0);
+  topic_update_table_wait_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_TABLE_WAIT_TIME, 0);
+  topic_update_table_serialization_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_TABLE_SERIALIZATION_TIME, 0);
+  topic_update_other_objects_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_OTHER_OBJECTS_TIME, 0);
+  topic_update_deleted_objects_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_DELETED_OBJECTS_TIME, 0);
+  topic_update_total_time_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_TOTAL_TIME, 0);
+  delete_log_size_metric_ = metrics->AddGauge(CATALOG_SERVER_DELETE_LOG_SIZE, 0);
+  topic_update_log_size_metric_ =
+      metrics->AddGauge(CATALOG_SERVER_TOPIC_UPDATE_LOG_SIZE, 0);
+  topic_update_num_waits_metric_ =
+      metrics->AddCounter(CATALOG_SERVER_TOPIC_UPDATE_NUM_WAITS, 0);
+  topic_update_wait_time_metric_ =
+      metrics->AddCounter(CATALOG_SERVER_TOPIC_UPDATE_WAIT_TIME, 0);
 }
 
 Status CatalogServer::Start() {
@@ -450,11 +522,64 @@ void CatalogServer::UpdateCatalogTopicCallback(
     }
     partial_fetch_rpc_queue_len_metric_->SetValue(
         response.catalog_partial_fetch_rpc_queue_len);
+    if (response.__isset.topic_update_phase_times) {
+      const TCatalogTopicUpdatePhaseTimes& phase_times =
+          response.topic_update_phase_times;
+      topic_update_catalog_objects_time_metric_->SetValue(
+          phase_times.catalog_objects_ms);
+      topic_update_table_wait_time_metric_->SetValue(phase_times.table_wait_ms);
+      topic_update_table_serialization_time_metric_->SetValue(
+          phase_times.table_serialization_ms);
+      topic_update_other_objects_time_metric_->SetValue(phase_times.other_objects_ms);
+      topic_update_deleted_objects_time_metric_->SetValue(
+          phase_times.deleted_objects_ms);
+      topic_update_total_time_metric_->SetValue(phase_times.total_ms);
+    }
+    if (response.__isset.update_log_metrics) {
+      const TCatalogUpdateLogMetrics& log_metrics = response.update_log_metrics;
+      delete_log_size_metric_->SetValue(log_metrics.delete_log_size);
+      topic_update_log_size_metric_->SetValue(log_metrics.topic_update_log_size);
+      topic_update_num_waits_metric_->SetValue(log_metrics.num_topic_update_waits);
+      topic_update_wait_time_metric_->SetValue(log_metrics.topic_update_wait_time_ms);
+    }
+    for (const TFileMetadataLoadPoolMetrics& pool_metrics :
+         response.file_metadata_load_pool_metrics) {
+      UpdateFileMetadataLoadPoolMetrics(pool_metrics);
+    }
     TEventProcessorMetrics eventProcessorMetrics = response.event_metrics;
     MetastoreEventMetrics::refresh(&eventProcessorMetrics);
   }
 }
 
+void CatalogServer::UpdateFileMetadataLoadPoolMetrics(
+    const TFileMetadataLoadPoolMetrics& pool_metrics) {
+  const string& fs_type = pool_metrics.fs_type;
+  auto it = file_metadata_load_pool_metrics_.find(fs_type);
+  if (it == file_metadata_load_pool_metrics_.end()) {
+    FileMetadataLoadPoolMetrics m;
+    m.num_threads =
+        metrics_->AddGauge(CATALOG_SERVER_FILE_METADATA_LOAD_NUM_THREADS, 0, fs_type);
+    m.num_queued_tasks = metrics_->AddGauge(
+        CATALOG_SERVER_FILE_METADATA_LOAD_NUM_QUEUED_TASKS, 0, fs_type);
+    m.num_active_loads = metrics_->AddGauge(
+        CATALOG_SERVER_FILE_METADATA_LOAD_NUM_ACTIVE_LOADS, 0, fs_type);
+    m.queue_wait_time_mean_ms = metrics_->AddDoubleGauge(
+        CATALOG_SERVER_FILE_METADATA_LOAD_QUEUE_WAIT_TIME, 0, fs_type);
+    m.num_paths_loaded = metrics_->AddCounter(
+        CATALOG_SERVER_FILE_METADATA_LOAD_NUM_PATHS_LOADED, 0, fs_type);
+    m.files_loaded_1min_rate = metrics_->AddDoubleGauge(
+        CATALOG_SERVER_FILE_METADATA_LOAD_FILES_LOADED_RATE, 0, fs_type);
+    it = file_metadata_load_pool_metrics_.emplace(fs_type, m).first;
+  }
+  FileMetadataLoadPoolMetrics& m = it->second;
+  m.num_threads->SetValue(pool_metrics.num_threads);
+  m.num_queued_tasks->SetValue(pool_metrics.num_queued_tasks);
+  m.num_active_loads->SetValue(pool_metrics.num_active_loads);
+  m.queue_wait_time_mean_ms->SetValue(pool_metrics.queue_wait_time_mean_ms);
+  m.num_paths_loaded->SetValue(pool_metrics.num_paths_loaded);
+  m.files_loaded_1min_rate->SetValue(pool_metrics.files_loaded_1min_rate);
+}
+
 void CatalogServer::CatalogUrlCallback(const Webserver::WebRequest& req,
     Document* document) {
   GetCatalogUsage(document);
@@ -530,6 +655,10 @@ void CatalogServer::GetCatalogUsage(Document* document) {
     DCHECK(large_table.__isset.memory_estimate_bytes);
     tbl_obj.AddMember("mem_estimate", large_table.memory_estimate_bytes,
         document->GetAllocator());
+    if (large_table.__isset.memory_estimate_bytes_per_partition) {
+      tbl_obj.AddMember("mem_estimate_per_partition",
+          large_table.memory_estimate_bytes_per_partition, document->GetAllocator());
+    }
     large_tables.PushBack(tbl_obj, document->GetAllocator());
   }
   Value has_large_tables;
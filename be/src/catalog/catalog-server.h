@@ -17,6 +17,7 @@
 
 #pragma once
 
+#include <map>
 #include <mutex>
 #include <string>
 #include <vector>
@@ -102,6 +103,38 @@ class CatalogServer {
   /// Tracks the partial fetch RPC call queue length on the Catalog server.
   IntGauge* partial_fetch_rpc_queue_len_metric_;
 
+  /// Break down of the time taken preparing the last catalog update. See
+  /// TCatalogTopicUpdatePhaseTimes for the phases.
+  IntGauge* topic_update_catalog_objects_time_metric_;
+  IntGauge* topic_update_table_wait_time_metric_;
+  IntGauge* topic_update_table_serialization_time_metric_;
+  IntGauge* topic_update_other_objects_time_metric_;
+  IntGauge* topic_update_deleted_objects_time_metric_;
+  IntGauge* topic_update_total_time_metric_;
+
+  /// Sizes of the delete and topic update logs of the catalog, and the number of times
+  /// and total time operations waited for topic updates. See TCatalogUpdateLogMetrics.
+  IntGauge* delete_log_size_metric_;
+  IntGauge* topic_update_log_size_metric_;
+  IntCounter* topic_update_num_waits_metric_;
+  IntCounter* topic_update_wait_time_metric_;
+
+  /// Metrics of the file metadata loading pool of a filesystem type. See
+  /// TFileMetadataLoadPoolMetrics.
+  struct FileMetadataLoadPoolMetrics {
+    IntGauge* num_threads;
+    IntGauge* num_queued_tasks;
+    IntGauge* num_active_loads;
+    DoubleGauge* queue_wait_time_mean_ms;
+    IntCounter* num_paths_loaded;
+    DoubleGauge* files_loaded_1min_rate;
+  };
+
+  /// Metrics of the file metadata loading pools by filesystem type. The metrics of a
+  /// pool are registered the first time it is reported by the catalog. Only accessed
+  /// by catalog_metrics_refresh_thread_.
+  std::map<std::string, FileMetadataLoadPoolMetrics> file_metadata_load_pool_metrics_;
+
   /// Thread that polls the catalog for any updates.
   std::unique_ptr<Thread> catalog_update_gathering_thread_;
 
@@ -161,6 +194,11 @@ class CatalogServer {
   /// Executed by the catalog_metrics_refresh_thread_. Refreshes certain catalog metrics.
   [[noreturn]] void RefreshMetrics();
 
+  /// Updates the metrics of a file metadata loading pool, registering them first if
+  /// the pool was not reported before.
+  void UpdateFileMetadataLoadPoolMetrics(
+      const TFileMetadataLoadPoolMetrics& pool_metrics);
+
   /// Example output:
   /// "databases": [
   ///         {
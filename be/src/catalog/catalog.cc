@@ -28,6 +28,8 @@
 
 using namespace impala;
 
+DECLARE_bool(jni_direct_thrift_buffers);
+DECLARE_bool(jni_compact_thrift_protocol);
 
 DEFINE_bool(load_catalog_in_background, false,
     "If true, loads catalog metadata in the background. If false, metadata is loaded "
@@ -42,6 +44,17 @@ DEFINE_int32(max_hdfs_partitions_parallel_load, 5,
 DEFINE_int32(max_nonhdfs_partitions_parallel_load, 20,
     "(Advanced) Number of threads used to load block metadata for tables that do not "
     "support the notion of blocks/storage IDs. Currently supported for S3/ADLS.");
+DEFINE_int32(max_hdfs_file_metadata_loading_threads, 32,
+    "(Advanced) Maximum number of threads loading file metadata from HDFS based "
+    "filesystems across all the tables that are loaded at the same time. Each table "
+    "uses at most max_hdfs_partitions_parallel_load of them and the threads are shared "
+    "fairly between the tables.");
+DEFINE_int32(max_nonhdfs_file_metadata_loading_threads, 128,
+    "(Advanced) Maximum number of threads per filesystem type loading file metadata "
+    "from filesystems that do not support the notion of blocks/storage IDs, across all "
+    "the tables that are loaded at the same time. Each table uses at most "
+    "max_nonhdfs_partitions_parallel_load of them and the threads are shared fairly "
+    "between the tables.");
 DEFINE_int32(initial_hms_cnxn_timeout_s, 120,
     "Number of seconds catalogd will wait to establish an initial connection to the HMS "
     "before exiting.");
@@ -59,6 +72,9 @@ Catalog::Catalog() {
     {"getCatalogObject", "([B)[B", &get_catalog_object_id_},
     {"getJsonCatalogObject", "([B)Ljava/lang/String;", &get_json_catalog_object_id_},
     {"getPartialCatalogObject", "([B)[B", &get_partial_catalog_object_id_},
+    {"getPartialCatalogObjectDirect",
+        "(Ljava/nio/ByteBuffer;Z)Ljava/nio/ByteBuffer;",
+        &get_partial_catalog_object_direct_id_},
     {"getCatalogDelta", "([B)[B", &get_catalog_delta_id_},
     {"getCatalogUsage", "()[B", &get_catalog_usage_id_},
     {"getOperationUsage", "()[B", &get_operation_usage_id_},
@@ -99,6 +115,11 @@ Status Catalog::GetJsonCatalogObject(const TCatalogObject& req, string* res) {
 
 Status Catalog::GetPartialCatalogObject(const TGetPartialCatalogObjectRequest& req,
     TGetPartialCatalogObjectResponse* resp) {
+  if (FLAGS_jni_direct_thrift_buffers) {
+    return CallJniMethodWithDirectBuffers(catalog_, nullptr,
+        get_partial_catalog_object_direct_id_, req, FLAGS_jni_compact_thrift_protocol,
+        resp);
+  }
   return JniUtil::CallJniMethod(catalog_, get_partial_catalog_object_id_, req, resp);
 }
 
@@ -148,6 +148,8 @@ class Catalog {
   jmethodID get_catalog_object_id_;  // JniCatalog.getCatalogObject()
   jmethodID get_json_catalog_object_id_;  // JniCatalog.getJsonCatalogObject()
   jmethodID get_partial_catalog_object_id_;  // JniCatalog.getPartialCatalogObject()
+  // JniCatalog.getPartialCatalogObjectDirect()
+  jmethodID get_partial_catalog_object_direct_id_;
   jmethodID get_catalog_delta_id_;  // JniCatalog.getCatalogDelta()
   jmethodID get_catalog_version_id_;  // JniCatalog.getCatalogVersion()
   jmethodID get_catalog_usage_id_; // JniCatalog.getCatalogUsage()
@@ -79,6 +79,17 @@ DEFINE_bool(mem_limit_includes_jvm, false,
     "If true, --mem_limit will include the JVM's max heap size and committed memory in "
     "the process memory limit.");
 
+DEFINE_bool(jni_direct_thrift_buffers, false, "(Advanced) If true, the largest Thrift "
+    "messages exchanged with the frontend and the catalog, i.e. the TExecRequest of "
+    "queries and the responses of partial catalog object fetches, are passed through "
+    "JNI in direct ByteBuffers of native memory instead of Java byte arrays. This avoids "
+    "copying them between the native and the Java heap.");
+
+DEFINE_bool(jni_compact_thrift_protocol, false, "(Advanced) If true, the Thrift "
+    "messages that are passed in direct ByteBuffers are serialized with "
+    "TCompactProtocol instead of TBinaryProtocol. Only used if "
+    "--jni_direct_thrift_buffers is true.");
+
 static const string buffer_pool_limit_help_msg = "(Advanced) Limit on buffer pool size. "
      + Substitute(MEM_UNITS_HELP_MSG, "the process memory limit (minus the JVM heap if "
        "--mem_limit_includes_jvm is true)") + " "
@@ -152,6 +152,18 @@ const string HdfsScanNodeBase::HDFS_SPLIT_STATS_DESC =
 // Determines how many unexpected remote bytes trigger an error in the runtime state
 const int UNEXPECTED_REMOTE_BYTES_WARN_THRESHOLD = 64 * 1024 * 1024;
 
+// Converts a bound of a FileColumnBoundsPB, which has one of the integer or date fields
+// set, to a TColumnValue.
+static TColumnValue ColumnValuePBToThrift(const ColumnValuePB& value_pb) {
+  TColumnValue value;
+  if (value_pb.has_byte_val()) value.__set_byte_val(value_pb.byte_val());
+  if (value_pb.has_short_val()) value.__set_short_val(value_pb.short_val());
+  if (value_pb.has_int_val()) value.__set_int_val(value_pb.int_val());
+  if (value_pb.has_long_val()) value.__set_long_val(value_pb.long_val());
+  if (value_pb.has_date_val()) value.__set_date_val(value_pb.date_val());
+  return value;
+}
+
 Status HdfsScanPlanNode::Init(const TPlanNode& tnode, FragmentState* state) {
   RETURN_IF_ERROR(ScanPlanNode::Init(tnode, state));
 
@@ -284,6 +296,13 @@ Status HdfsScanPlanNode::ProcessScanRangesAndInitSharedState(FragmentState* stat
         file_desc->mtime = split.mtime();
         file_desc->file_compression = CompressionTypePBToThrift(split.file_compression());
         file_desc->file_format = partition_desc->file_format();
+        for (const FileColumnBoundsPB& bounds_pb : split.column_bounds()) {
+          TFileColumnBounds bounds;
+          bounds.filter_id = bounds_pb.filter_id();
+          bounds.lower_bound = ColumnValuePBToThrift(bounds_pb.lower_bound());
+          bounds.upper_bound = ColumnValuePBToThrift(bounds_pb.upper_bound());
+          file_desc->column_bounds.push_back(move(bounds));
+        }
         RETURN_IF_ERROR(HdfsFsCache::instance()->GetConnection(
             native_file_path, &file_desc->fs, &fs_cache));
         shared_state_.per_type_files_[partition_desc->file_format()].push_back(file_desc);
@@ -712,6 +731,31 @@ bool HdfsScanNodeBase::FilePassesFilterPredicates(
           filter_ctxs)) {
     return false;
   }
+  return FileOverlapsMinMaxFilters(filter_ctxs, file);
+}
+
+bool HdfsScanNodeBase::FileOverlapsMinMaxFilters(
+    const vector<FilterContext>& filter_ctxs, const HdfsFileDesc* file) {
+  for (const TFileColumnBounds& bounds : file->column_bounds) {
+    for (const FilterContext& ctx : filter_ctxs) {
+      if (ctx.filter->id() != bounds.filter_id) continue;
+      if (!ctx.filter->HasFilter()) break;
+      MinMaxFilter* minmax_filter = ctx.filter->get_min_max();
+      // The values of an always-true filter are meaningless, an always-false filter
+      // is handled in PartitionPassesFilters().
+      if (minmax_filter == nullptr || minmax_filter->AlwaysTrue()
+          || minmax_filter->AlwaysFalse()) {
+        break;
+      }
+      float overlap_ratio = minmax_filter->ComputeOverlapRatio(
+          ctx.filter->type(), bounds.lower_bound, bounds.upper_bound);
+      if (overlap_ratio <= 0.0) {
+        ctx.stats->IncrCounters(FilterStats::FILES_KEY, 1, 1, 1);
+        return false;
+      }
+      break;
+    }
+  }
   return true;
 }
 
@@ -32,6 +32,7 @@
 #include "codegen/codegen-fn-ptr.h"
 #include "exec/filter-context.h"
 #include "exec/scan-node.h"
+#include "gen-cpp/PlanNodes_types.h"
 #include "runtime/descriptors.h"
 #include "runtime/io/request-context.h"
 #include "runtime/io/request-ranges.h"
@@ -83,6 +84,10 @@ struct HdfsFileDesc {
   /// Splits (i.e. raw byte ranges) for this file, assigned to this scan node.
   std::vector<io::ScanRange*> splits;
 
+  /// Bounds of the columns in this file that are targeted by min/max runtime filters,
+  /// if the planner could get them from the file metadata of the table format.
+  std::vector<TFileColumnBounds> column_bounds;
+
   /// Some useful typedefs for creating HdfsFileDesc related data structures.
   /// This is a pair for partition ID and filename which uniquely identifies a file.
   typedef pair<int64_t, std::string> PartitionFileKey;
@@ -824,6 +829,12 @@ class HdfsScanNodeBase : public ScanNode {
   bool FilePassesFilterPredicates(const std::vector<FilterContext>& filter_ctxs,
       const THdfsFileFormat::type& file_type, HdfsFileDesc* file);
 
+  /// Returns false if the values of a min/max filter in 'filter_ctxs' don't overlap the
+  /// bounds of its target column in 'file', i.e. if no row of 'file' can pass the
+  /// filter. Returns true otherwise, also if the filters have not arrived.
+  bool FileOverlapsMinMaxFilters(
+      const std::vector<FilterContext>& filter_ctxs, const HdfsFileDesc* file);
+
   /// Stops periodic counters and aggregates counter values for the entire scan node.
   /// This should be called as soon as the scan node is complete to get the most accurate
   /// counter values.
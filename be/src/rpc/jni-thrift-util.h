@@ -67,6 +67,53 @@ Status DeserializeThriftMsg(JNIEnv* env, jbyteArray serialized_msg, T* deseriali
   return Status::OK();
 }
 
+/// Calls 'method' with the Thrift message 'arg' and deserializes its Thrift result into
+/// 'response'. Unlike JniCall, both messages are passed in direct java.nio.ByteBuffers
+/// instead of byte[], so they are not copied between native memory and the Java heap:
+/// the JNI method reads 'arg' in place from the serialization buffer here and returns
+/// its result in a direct buffer that is deserialized in place. The JNI method must
+/// take (ByteBuffer, boolean) and return a ByteBuffer, the boolean argument is
+/// 'compact', which selects TCompactProtocol instead of TBinaryProtocol for both
+/// messages. The method is called on 'obj', or is a static method of 'cls' if 'obj' is
+/// null.
+template <class T, class R>
+Status CallJniMethodWithDirectBuffers(jobject obj, jclass cls, jmethodID method,
+    const T& arg, bool compact, R* response) {
+  DCHECK((obj != nullptr) ^ (cls != nullptr));
+  JNIEnv* env = JniUtil::GetJNIEnv();
+  JniLocalFrame jni_frame;
+  RETURN_IF_ERROR(jni_frame.push(env));
+
+  ThriftSerializer serializer(compact, 100 * 1024);
+  uint8_t* arg_buffer = nullptr;
+  uint32_t arg_size = 0;
+  RETURN_IF_ERROR(serializer.SerializeToBuffer(&arg, &arg_size, &arg_buffer));
+  jobject arg_obj = env->NewDirectByteBuffer(arg_buffer, arg_size);
+  RETURN_ERROR_IF_EXC(env);
+  if (arg_obj == nullptr) return Status("couldn't construct direct ByteBuffer");
+
+  jvalue args[2];
+  memset(args, 0, sizeof(args));
+  args[0].l = arg_obj;
+  args[1].z = compact;
+  jobject result_obj = obj != nullptr ?
+      env->CallObjectMethodA(obj, method, args) :
+      env->CallStaticObjectMethodA(cls, method, args);
+  RETURN_ERROR_IF_EXC(env);
+  DCHECK(result_obj != nullptr) << "Call returned unexpected null ByteBuffer";
+
+  uint8_t* result_buffer =
+      reinterpret_cast<uint8_t*>(env->GetDirectBufferAddress(result_obj));
+  jlong result_size = env->GetDirectBufferCapacity(result_obj);
+  if (result_buffer == nullptr || result_size < 0) {
+    return Status("JNI method did not return a direct ByteBuffer");
+  }
+  // The result buffer stays valid until the local frame is popped, the Java side does
+  // not reuse it before the next call on this thread.
+  uint32_t len = result_size;
+  return DeserializeThriftMsg(result_buffer, &len, compact, response);
+}
+
 }
 
 #endif
@@ -114,6 +114,15 @@ DEFINE_int32_hidden(local_catalog_cache_expiration_s, 60 * 60,
     "of the catalog cache within each impalad. Even if the configured "
     "cache capacity has not been reached, items are removed from the cache "
     "if they have not been accessed in this amount of time.");
+DEFINE_int32_hidden(local_catalog_offheap_cache_mb, 0,
+    "If --use_local_catalog is enabled, configures the size of an off-heap second "
+    "tier of the catalog cache within each impalad. Partition metadata evicted from "
+    "the heap-based cache is serialized into memory-mapped files of this total size "
+    "instead of being dropped. Set to 0 to disable.");
+DEFINE_string_hidden(local_catalog_offheap_cache_dir, "",
+    "If --local_catalog_offheap_cache_mb is set, the directory in which the "
+    "memory-mapped files backing the off-heap catalog cache are created. The files "
+    "are unlinked right after being mapped. Defaults to the JVM's temp directory.");
 DEFINE_int32_hidden(local_catalog_max_fetch_retries, 40,
     "If --use_local_catalog is enabled, configures the maximum number of times "
     "the frontend retries when fetching a metadata object from the impalad "
@@ -134,6 +134,9 @@ Status Scheduler::GenerateScanRanges(const vector<TFileSplitGeneratorSpec>& spec
       hdfs_scan_range.__set_offset(scan_range_offset);
       hdfs_scan_range.__set_partition_id(spec.partition_id);
       hdfs_scan_range.__set_partition_path_hash(spec.partition_path_hash);
+      if (spec.__isset.column_bounds) {
+        hdfs_scan_range.__set_column_bounds(spec.column_bounds);
+      }
       TScanRange scan_range;
       scan_range.__set_hdfs_file_split(hdfs_scan_range);
       TScanRangeLocationList scan_range_list;
@@ -1098,6 +1101,16 @@ void Scheduler::AssignmentCtx::SelectExecutorOnHost(
   }
 }
 
+/// Converts the numeric fields of 'value' that can be set in a TFileColumnBounds.
+static void TColumnValueToColumnValuePB(const TColumnValue& value,
+    ColumnValuePB* value_pb) {
+  if (value.__isset.byte_val) value_pb->set_byte_val(value.byte_val);
+  if (value.__isset.short_val) value_pb->set_short_val(value.short_val);
+  if (value.__isset.int_val) value_pb->set_int_val(value.int_val);
+  if (value.__isset.long_val) value_pb->set_long_val(value.long_val);
+  if (value.__isset.date_val) value_pb->set_date_val(value.date_val);
+}
+
 void TScanRangeToScanRangePB(const TScanRange& tscan_range, ScanRangePB* scan_range_pb) {
   if (tscan_range.__isset.hdfs_file_split) {
     HdfsFileSplitPB* hdfs_file_split = scan_range_pb->mutable_hdfs_file_split();
@@ -1111,6 +1124,12 @@ void TScanRangeToScanRangePB(const TScanRange& tscan_range, ScanRangePB* scan_ra
     hdfs_file_split->set_mtime(tscan_range.hdfs_file_split.mtime);
     hdfs_file_split->set_partition_path_hash(
         tscan_range.hdfs_file_split.partition_path_hash);
+    for (const TFileColumnBounds& bounds : tscan_range.hdfs_file_split.column_bounds) {
+      FileColumnBoundsPB* bounds_pb = hdfs_file_split->add_column_bounds();
+      bounds_pb->set_filter_id(bounds.filter_id);
+      TColumnValueToColumnValuePB(bounds.lower_bound, bounds_pb->mutable_lower_bound());
+      TColumnValueToColumnValuePB(bounds.upper_bound, bounds_pb->mutable_upper_bound());
+    }
   }
   if (tscan_range.__isset.hbase_key_range) {
     HBaseKeyRangePB* hbase_key_range = scan_range_pb->mutable_hbase_key_range();
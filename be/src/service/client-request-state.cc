@@ -84,6 +84,7 @@ DECLARE_int32(krpc_port);
 DECLARE_int32(catalog_service_port);
 DECLARE_string(catalog_service_host);
 DECLARE_int64(max_result_cache_size);
+DECLARE_int32(hs2_metadata_op_page_size);
 DECLARE_bool(use_local_catalog);
 
 namespace impala {
@@ -835,6 +836,15 @@ Status ClientRequestState::Finalize(bool check_inflight, const Status* cause) {
     // Update result set cache metrics, and update mem limit accounting before tearing
     // down the coordinator.
     ClearResultCache();
+    // Release the rows of a metadata operation that were not fetched.
+    if (metadata_op_handle_ >= 0) {
+      Status status = frontend_->CloseHiveServer2MetadataOp(metadata_op_handle_);
+      if (!status.ok()) {
+        LOG(WARNING) << "Failed to close metadata operation of query "
+                     << PrintId(query_id()) << ": " << status.GetDetail();
+      }
+      metadata_op_handle_ = -1;
+    }
   }
   // Wait until the audit events are flushed.
   if (wait_thread_.get() != nullptr) {
@@ -853,17 +863,54 @@ Status ClientRequestState::Finalize(bool check_inflight, const Status* cause) {
 }
 
 Status ClientRequestState::Exec(const TMetadataOpRequest& exec_request) {
-  TResultSet metadata_op_result;
   // Like the other Exec(), fill out as much profile information as we're able to.
   summary_profile_->AddInfoString("Query Type", PrintThriftEnum(TStmtType::DDL));
-  RETURN_IF_ERROR(frontend_->ExecHiveServer2MetadataOp(exec_request,
-      &metadata_op_result));
-  result_metadata_ = metadata_op_result.schema;
-  request_result_set_.reset(new vector<TResultRow>(metadata_op_result.rows));
+  if (FLAGS_hs2_metadata_op_page_size > 0) {
+    // Only produce the first page of the result here, FetchRowsInternal() fetches the
+    // next pages on demand.
+    TMetadataOpRequest request = exec_request;
+    request.__set_fetch_size(FLAGS_hs2_metadata_op_page_size);
+    TMetadataOpPage page;
+    RETURN_IF_ERROR(frontend_->OpenHiveServer2MetadataOp(request, &page));
+    result_metadata_ = page.result_set.schema;
+    request_result_set_.reset(new vector<TResultRow>(page.result_set.rows));
+    if (!page.eos) metadata_op_handle_ = page.handle;
+  } else {
+    TResultSet metadata_op_result;
+    RETURN_IF_ERROR(frontend_->ExecHiveServer2MetadataOp(exec_request,
+        &metadata_op_result));
+    result_metadata_ = metadata_op_result.schema;
+    request_result_set_.reset(new vector<TResultRow>(metadata_op_result.rows));
+  }
   UpdateNonErrorExecState(ExecState::RUNNING);
   return Status::OK();
 }
 
+Status ClientRequestState::FetchMetadataOpRows(const int32_t max_rows) {
+  DCHECK_GE(metadata_op_handle_, 0);
+  TFetchMetadataOpRowsRequest request;
+  request.__set_handle(metadata_op_handle_);
+  // max_rows <= 0 means no limit
+  request.__set_max_rows(
+      max_rows <= 0 ? 0 : std::max(max_rows, FLAGS_hs2_metadata_op_page_size));
+  TMetadataOpPage page;
+  // Temporarily release lock so calls to Cancel() are not blocked while the frontend
+  // loads and authorizes tables. fetch_rows_lock_ (already held) ensures that we do not
+  // fetch multiple pages concurrently.
+  lock_.unlock();
+  Status status = frontend_->FetchHiveServer2MetadataOpRows(request, &page);
+  lock_.lock();
+  // The frontend closes the operation after its last row or if it fails.
+  if (!status.ok() || page.eos) metadata_op_handle_ = -1;
+  RETURN_IF_ERROR(status);
+  // Check if the operation was closed during the call.
+  if (!query_status_.ok()) return query_status_;
+  // Keep the rows that were already returned so that fetches can be restarted.
+  request_result_set_->insert(request_result_set_->end(),
+      page.result_set.rows.begin(), page.result_set.rows.end());
+  return Status::OK();
+}
+
 Status ClientRequestState::WaitAsync() {
   // TODO: IMPALA-7396: thread creation fault inject is disabled because it is not
   // handled correctly.
@@ -1092,6 +1139,10 @@ Status ClientRequestState::FetchRowsInternal(const int32_t max_rows,
   if (eos_.Load()) return Status::OK();
 
   if (request_result_set_ != NULL) {
+    // Fetch the next page of a metadata operation once all fetched rows were returned.
+    if (metadata_op_handle_ >= 0 && num_rows_fetched_ == request_result_set_->size()) {
+      RETURN_IF_ERROR(FetchMetadataOpRows(max_rows));
+    }
     int num_rows = 0;
     const vector<TResultRow>& all_rows = (*(request_result_set_.get()));
     // max_rows <= 0 means no limit
@@ -1101,7 +1152,7 @@ Status ClientRequestState::FetchRowsInternal(const int32_t max_rows,
       ++num_rows_fetched_;
       ++num_rows;
     }
-    eos_.Store(num_rows_fetched_ == all_rows.size());
+    eos_.Store(num_rows_fetched_ == all_rows.size() && metadata_op_handle_ < 0);
     return Status::OK();
   }
 
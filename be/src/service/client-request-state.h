@@ -519,6 +519,11 @@ class ClientRequestState {
   /// statements. For example, EXPLAIN, LOAD, and SHOW use this.
   boost::scoped_ptr<std::vector<TResultRow>> request_result_set_;
 
+  /// Handle of the frontend metadata operation whose remaining rows are appended to
+  /// request_result_set_ as they are fetched, or -1 if all rows were produced. See
+  /// --hs2_metadata_op_page_size.
+  int64_t metadata_op_handle_ = -1;
+
   /// Cache of the first result_cache_max_size_ query results to allow clients to restart
   /// fetching from the beginning of the result set. This cache is appended to in
   /// FetchInternal(), and set to NULL if its bound is exceeded. If the bound is exceeded,
@@ -701,6 +706,11 @@ class ClientRequestState {
   Status FetchRowsInternal(const int32_t max_rows, QueryResultSet* fetched_rows,
       int64_t block_on_wait_time_us) WARN_UNUSED_RESULT;
 
+  /// Fetches the next page of at least 'max_rows' rows of the metadata operation
+  /// 'metadata_op_handle_' from the frontend and appends them to request_result_set_.
+  /// Caller needs to hold fetch_rows_lock_ and lock_, which is released during the call.
+  Status FetchMetadataOpRows(const int32_t max_rows) WARN_UNUSED_RESULT;
+
   /// Gather and publish all required updates to the metastore.
   /// For transactional queries:
   /// If everything goes well the Hive transaction is committed by the Catalogd,
@@ -33,6 +33,8 @@
 #ifndef NDEBUG
 DECLARE_int32(stress_catalog_init_delay_ms);
 #endif
+DECLARE_bool(jni_direct_thrift_buffers);
+DECLARE_bool(jni_compact_thrift_protocol);
 
 using namespace impala;
 
@@ -77,11 +79,40 @@ DEFINE_string(authorized_proxy_group_config_delimiter, ",",
 DEFINE_string(kudu_master_hosts, "", "Specifies the default Kudu master(s). The given "
     "value should be a comma separated list of hostnames or IP addresses; ports are "
     "optional.");
+DEFINE_int32(frontend_plan_cache_mb, 0, "(Advanced) Size in MB of the coordinator's "
+    "cache of query plans, keyed by the normalized statement text, the session "
+    "database and the query options. A cached plan is reused as long as the catalog "
+    "versions of the tables it references are unchanged. Only used for queries on HDFS "
+    "and Iceberg tables when authorization is disabled. Set to 0 to disable.");
+DEFINE_int32(iceberg_manifest_cache_mb, 0, "(Advanced) Size in MB of the coordinator's "
+    "cache of parsed Iceberg manifests, which is used to plan the data files of Iceberg "
+    "scans without reading the manifests of the table from storage for every query. "
+    "Set to 0 to disable.");
+DEFINE_int32(kudu_table_metadata_cache_ttl_s, 0, "(Advanced) Time in seconds that the "
+    "coordinator caches the schema and partitioning of Kudu tables opened for planning, "
+    "so that planning queries on Kudu tables doesn't need a request to the Kudu master "
+    "for every query. Cached metadata is also dropped when the table is refreshed or "
+    "altered in Impala. Set to 0 to disable.");
+DEFINE_int32(hbase_region_stats_cache_staleness_s, 0, "(Advanced) Maximum age in seconds "
+    "of the regions, region sizes and row samples of HBase tables that the coordinator "
+    "caches to plan HBase scans without contacting HBase for every query. Cached tables "
+    "are refreshed in the background. Set to 0 to disable.");
+DEFINE_int32(authz_metadata_cache_size, 0, "(Advanced) Maximum number of authorization "
+    "decisions that the coordinator caches per user and catalog object to filter the "
+    "results of metadata operations, e.g. SHOW TABLES or the GetTables() and "
+    "GetColumns() HiveServer2 calls. The cache is cleared when the authorization "
+    "policies change. Set to 0 to disable.");
+DEFINE_int32(authz_metadata_cache_ttl_s, 30, "(Advanced) Time in seconds after which "
+    "the decisions cached with --authz_metadata_cache_size expire. Bounds how long "
+    "policy changes that are not seen by the coordinator's policy refresh, e.g. tag "
+    "updates, take to apply to metadata operations.");
 
 Frontend::Frontend() {
   JniMethodDescriptor methods[] = {
     {"<init>", "([BZ)V", &fe_ctor_},
     {"createExecRequest", "([B)[B", &create_exec_request_id_},
+    {"createExecRequestDirect", "(Ljava/nio/ByteBuffer;Z)Ljava/nio/ByteBuffer;",
+        &create_exec_request_direct_id_},
     {"getExplainPlan", "([B)Ljava/lang/String;", &get_explain_plan_id_},
     {"getHadoopConfig", "([B)[B", &get_hadoop_config_id_},
     {"getAllHadoopConfigs", "()[B", &get_hadoop_configs_id_},
@@ -103,6 +134,9 @@ Frontend::Frontend() {
     {"getRoles", "([B)[B", &show_roles_id_},
     {"getPrincipalPrivileges", "([B)[B", &get_principal_privileges_id_},
     {"execHiveServer2MetadataOp", "([B)[B", &exec_hs2_metadata_op_id_},
+    {"openHiveServer2MetadataOp", "([B)[B", &open_hs2_metadata_op_id_},
+    {"fetchHiveServer2MetadataOpRows", "([B)[B", &fetch_hs2_metadata_op_rows_id_},
+    {"closeHiveServer2MetadataOp", "(J)V", &close_hs2_metadata_op_id_},
     {"setCatalogIsReady", "()V", &set_catalog_is_ready_id_},
     {"waitForCatalog", "()V", &wait_for_catalog_id_},
     {"loadTableData", "([B)[B", &load_table_data_id_},
@@ -241,6 +275,10 @@ Status Frontend::GetCatalogObject(const TCatalogObject& req,
 
 Status Frontend::GetExecRequest(
     const TQueryCtx& query_ctx, TExecRequest* result) {
+  if (FLAGS_jni_direct_thrift_buffers) {
+    return CallJniMethodWithDirectBuffers(fe_, nullptr, create_exec_request_direct_id_,
+        query_ctx, FLAGS_jni_compact_thrift_protocol, result);
+  }
   return JniUtil::CallJniMethod(fe_, create_exec_request_id_, query_ctx, result);
 }
 
@@ -263,6 +301,20 @@ Status Frontend::ExecHiveServer2MetadataOp(const TMetadataOpRequest& request,
   return JniUtil::CallJniMethod(fe_, exec_hs2_metadata_op_id_, request, result);
 }
 
+Status Frontend::OpenHiveServer2MetadataOp(const TMetadataOpRequest& request,
+    TMetadataOpPage* result) {
+  return JniUtil::CallJniMethod(fe_, open_hs2_metadata_op_id_, request, result);
+}
+
+Status Frontend::FetchHiveServer2MetadataOpRows(
+    const TFetchMetadataOpRowsRequest& request, TMetadataOpPage* result) {
+  return JniUtil::CallJniMethod(fe_, fetch_hs2_metadata_op_rows_id_, request, result);
+}
+
+Status Frontend::CloseHiveServer2MetadataOp(int64_t handle) {
+  return JniUtil::CallJniMethod(fe_, close_hs2_metadata_op_id_, handle);
+}
+
 Status Frontend::GetAllHadoopConfigs(TGetAllHadoopConfigsResponse* result) {
   return JniUtil::CallJniMethod(fe_, get_hadoop_configs_id_, result);
 }
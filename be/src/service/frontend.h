@@ -153,6 +153,22 @@ class Frontend {
   Status ExecHiveServer2MetadataOp(const TMetadataOpRequest& request,
       TResultSet* result);
 
+  /// Calls FE to start a HiveServer2 metadata operation whose result is fetched in pages
+  /// of at most 'request.fetch_size' rows and returns the first page in 'result'. If
+  /// 'result->eos' is false, the next pages are fetched with
+  /// FetchHiveServer2MetadataOpRows() using 'result->handle'. Operations whose rows are
+  /// not all fetched must be closed with CloseHiveServer2MetadataOp().
+  Status OpenHiveServer2MetadataOp(const TMetadataOpRequest& request,
+      TMetadataOpPage* result);
+
+  /// Calls FE to fetch the next page of a metadata operation opened with
+  /// OpenHiveServer2MetadataOp().
+  Status FetchHiveServer2MetadataOpRows(const TFetchMetadataOpRowsRequest& request,
+      TMetadataOpPage* result);
+
+  /// Calls FE to close a metadata operation opened with OpenHiveServer2MetadataOp().
+  Status CloseHiveServer2MetadataOp(int64_t handle);
+
   /// Returns all Hadoop configurations in key, value form in result.
   Status GetAllHadoopConfigs(TGetAllHadoopConfigsResponse* result);
 
@@ -225,6 +241,7 @@ class Frontend {
  private:
   jobject fe_;  // instance of org.apache.impala.service.JniFrontend
   jmethodID create_exec_request_id_;  // JniFrontend.createExecRequest()
+  jmethodID create_exec_request_direct_id_;  // JniFrontend.createExecRequestDirect()
   jmethodID get_explain_plan_id_;  // JniFrontend.getExplainPlan()
   jmethodID get_hadoop_config_id_;  // JniFrontend.getHadoopConfig(byte[])
   jmethodID get_hadoop_configs_id_;  // JniFrontend.getAllHadoopConfigs()
@@ -246,6 +263,10 @@ class Frontend {
   jmethodID show_roles_id_; // JniFrontend.getRoles
   jmethodID get_principal_privileges_id_; // JniFrontend.getPrincipalPrivileges
   jmethodID exec_hs2_metadata_op_id_; // JniFrontend.execHiveServer2MetadataOp
+  jmethodID open_hs2_metadata_op_id_; // JniFrontend.openHiveServer2MetadataOp
+  // JniFrontend.fetchHiveServer2MetadataOpRows
+  jmethodID fetch_hs2_metadata_op_rows_id_;
+  jmethodID close_hs2_metadata_op_id_; // JniFrontend.closeHiveServer2MetadataOp
   jmethodID load_table_data_id_; // JniFrontend.loadTableData
   jmethodID set_catalog_is_ready_id_; // JniFrontend.setCatalogIsReady
   jmethodID wait_for_catalog_id_; // JniFrontend.waitForCatalog
@@ -174,6 +174,13 @@ DEFINE_int64(max_result_cache_size, 100000L, "Maximum number of query results a
     "option guards against unreasonably large result caches requested by clients. "
     "Requests exceeding this maximum will be rejected.");
 
+DEFINE_int32(hs2_metadata_op_page_size, 1024, "Number of rows of the HiveServer2 "
+    "GetSchemas(), GetTables(), GetColumns() and GetFunctions() results that are "
+    "produced by the frontend at a time. The rows are produced, and the tables they "
+    "reference loaded and authorized, while the client fetches them, so the first rows "
+    "are returned without processing all matching databases first. If <= 0, the whole "
+    "result is produced when the operation is executed.");
+
 DEFINE_int32(max_audit_event_log_file_size, 5000, "The maximum size (in queries) of the "
     "audit event log file before a new one is created (if event logging is enabled)");
 DEFINE_string(audit_event_log_dir, "", "The directory in which audit event log files are "
@@ -1504,6 +1511,15 @@ Status ImpalaServer::UpdateCatalogMetrics() {
   RETURN_IF_ERROR(exec_env_->frontend()->GetCatalogMetrics(&metrics));
   ImpaladMetrics::CATALOG_NUM_DBS->SetValue(metrics.num_dbs);
   ImpaladMetrics::CATALOG_NUM_TABLES->SetValue(metrics.num_tables);
+  if (metrics.__isset.authz_cache_hit_count) {
+    ImpaladMetrics::CATALOG_AUTHZ_CACHE_HIT_COUNT->SetValue(
+        metrics.authz_cache_hit_count);
+    ImpaladMetrics::CATALOG_AUTHZ_CACHE_MISS_COUNT->SetValue(
+        metrics.authz_cache_miss_count);
+    ImpaladMetrics::CATALOG_AUTHZ_CACHE_HIT_RATE->SetValue(metrics.authz_cache_hit_rate);
+    ImpaladMetrics::CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME->SetValue(
+        metrics.authz_cache_avg_check_time);
+  }
   if (!FLAGS_use_local_catalog) return Status::OK();
   DCHECK(metrics.__isset.cache_eviction_count);
   DCHECK(metrics.__isset.cache_hit_count);
@@ -1532,6 +1548,16 @@ Status ImpalaServer::UpdateCatalogMetrics() {
   ImpaladMetrics::CATALOG_CACHE_LOAD_EXCEPTION_RATE->SetValue(
       metrics.cache_load_exception_rate);
   ImpaladMetrics::CATALOG_CACHE_MISS_RATE->SetValue(metrics.cache_miss_rate);
+  if (metrics.__isset.cache_offheap_hit_count) {
+    ImpaladMetrics::CATALOG_CACHE_OFFHEAP_HIT_COUNT->SetValue(
+        metrics.cache_offheap_hit_count);
+    ImpaladMetrics::CATALOG_CACHE_OFFHEAP_MISS_COUNT->SetValue(
+        metrics.cache_offheap_miss_count);
+    ImpaladMetrics::CATALOG_CACHE_OFFHEAP_SPILL_COUNT->SetValue(
+        metrics.cache_offheap_spill_count);
+    ImpaladMetrics::CATALOG_CACHE_OFFHEAP_EVICTION_COUNT->SetValue(
+        metrics.cache_offheap_eviction_count);
+  }
   return Status::OK();
 
 }
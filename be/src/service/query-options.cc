@@ -1117,6 +1117,20 @@ Status impala::SetQueryOption(const string& key, const string& value,
       case TImpalaQueryOptions::MINMAX_FILTER_PARTITION_COLUMNS:
         query_options->__set_minmax_filter_partition_columns(IsTrue(value));
         break;
+      case TImpalaQueryOptions::MAX_JOIN_ENUMERATION_TABLES: {
+        StringParser::ParseResult result;
+        const int32_t max_tables =
+            StringParser::StringToInt<int32_t>(value.c_str(), value.length(), &result);
+        if (result != StringParser::PARSE_SUCCESS || max_tables < 0 || max_tables > 16) {
+          return Status(Substitute("Invalid max join enumeration tables: '$0'. "
+              "Only integer value in [0, 16] is allowed.", value));
+        }
+        query_options->__set_max_join_enumeration_tables(max_tables);
+        break;
+      }
+      case TImpalaQueryOptions::RUNTIME_FILTER_COST_BASED_SELECTION:
+        query_options->__set_runtime_filter_cost_based_selection(IsTrue(value));
+        break;
       default:
         if (IsRemovedQueryOption(key)) {
           LOG(WARNING) << "Ignoring attempt to set removed query option '" << key << "'";
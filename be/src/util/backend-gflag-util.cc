@@ -39,6 +39,14 @@ DECLARE_int32(non_impala_java_vlog);
 DECLARE_int32(num_metadata_loading_threads);
 DECLARE_int32(max_hdfs_partitions_parallel_load);
 DECLARE_int32(max_nonhdfs_partitions_parallel_load);
+DECLARE_int32(max_hdfs_file_metadata_loading_threads);
+DECLARE_int32(max_nonhdfs_file_metadata_loading_threads);
+DECLARE_int32(frontend_plan_cache_mb);
+DECLARE_int32(iceberg_manifest_cache_mb);
+DECLARE_int32(kudu_table_metadata_cache_ttl_s);
+DECLARE_int32(hbase_region_stats_cache_staleness_s);
+DECLARE_int32(authz_metadata_cache_size);
+DECLARE_int32(authz_metadata_cache_ttl_s);
 DECLARE_int32(initial_hms_cnxn_timeout_s);
 DECLARE_int32(kudu_operation_timeout_ms);
 DECLARE_int64(inc_stats_size_limit_bytes);
@@ -59,6 +67,8 @@ DECLARE_bool(invalidate_tables_on_memory_pressure);
 DECLARE_double(invalidate_tables_gc_old_gen_full_threshold);
 DECLARE_double(invalidate_tables_fraction_on_memory_pressure);
 DECLARE_int32(local_catalog_max_fetch_retries);
+DECLARE_int32(local_catalog_offheap_cache_mb);
+DECLARE_string(local_catalog_offheap_cache_dir);
 DECLARE_int64(kudu_scanner_thread_estimated_bytes_per_column);
 DECLARE_int64(kudu_scanner_thread_max_estimated_bytes);
 DECLARE_int32(catalog_max_parallel_partial_fetch_rpc);
@@ -88,6 +98,9 @@ DECLARE_bool(use_customized_user_groups_mapper_for_ranger);
 DECLARE_bool(compact_catalog_topic);
 DECLARE_bool(enable_incremental_metadata_updates);
 DECLARE_int64(topic_update_tbl_max_wait_time_ms);
+DECLARE_int32(topic_update_parallelism);
+DECLARE_int32(hms_event_processing_threads);
+DECLARE_bool(incremental_file_metadata_refresh);
 DECLARE_int32(catalog_max_lock_skipped_topic_updates);
 DECLARE_string(scratch_dirs);
 DECLARE_int32(max_wait_time_for_sync_ddl_s);
@@ -240,6 +253,8 @@ Status PopulateThriftBackendGflags(TBackendGflags& cfg) {
   cfg.__set_invalidate_tables_fraction_on_memory_pressure(
       FLAGS_invalidate_tables_fraction_on_memory_pressure);
   cfg.__set_local_catalog_max_fetch_retries(FLAGS_local_catalog_max_fetch_retries);
+  cfg.__set_local_catalog_offheap_cache_mb(FLAGS_local_catalog_offheap_cache_mb);
+  cfg.__set_local_catalog_offheap_cache_dir(FLAGS_local_catalog_offheap_cache_dir);
   cfg.__set_kudu_scanner_thread_estimated_bytes_per_column(
       FLAGS_kudu_scanner_thread_estimated_bytes_per_column);
   cfg.__set_kudu_scanner_thread_max_estimated_bytes(
@@ -280,6 +295,20 @@ Status PopulateThriftBackendGflags(TBackendGflags& cfg) {
   cfg.__set_enable_incremental_metadata_updates(
       FLAGS_enable_incremental_metadata_updates);
   cfg.__set_topic_update_tbl_max_wait_time_ms(FLAGS_topic_update_tbl_max_wait_time_ms);
+  cfg.__set_topic_update_parallelism(FLAGS_topic_update_parallelism);
+  cfg.__set_hms_event_processing_threads(FLAGS_hms_event_processing_threads);
+  cfg.__set_incremental_file_metadata_refresh(FLAGS_incremental_file_metadata_refresh);
+  cfg.__set_max_hdfs_file_metadata_loading_threads(
+      FLAGS_max_hdfs_file_metadata_loading_threads);
+  cfg.__set_max_nonhdfs_file_metadata_loading_threads(
+      FLAGS_max_nonhdfs_file_metadata_loading_threads);
+  cfg.__set_frontend_plan_cache_mb(FLAGS_frontend_plan_cache_mb);
+  cfg.__set_iceberg_manifest_cache_mb(FLAGS_iceberg_manifest_cache_mb);
+  cfg.__set_kudu_table_metadata_cache_ttl_s(FLAGS_kudu_table_metadata_cache_ttl_s);
+  cfg.__set_hbase_region_stats_cache_staleness_s(
+      FLAGS_hbase_region_stats_cache_staleness_s);
+  cfg.__set_authz_metadata_cache_size(FLAGS_authz_metadata_cache_size);
+  cfg.__set_authz_metadata_cache_ttl_s(FLAGS_authz_metadata_cache_ttl_s);
   cfg.__set_catalog_max_lock_skipped_topic_updates(
       FLAGS_catalog_max_lock_skipped_topic_updates);
   cfg.__set_saml2_keystore_path(FLAGS_saml2_keystore_path);
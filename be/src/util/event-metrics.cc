@@ -17,6 +17,7 @@
 
 #include "util/event-metrics.h"
 
+#include <algorithm>
 #include <ostream>
 #include <unordered_map>
 
@@ -48,6 +49,11 @@ string MetastoreEventMetrics::EVENTS_RECEIVED_15MIN_METRIC_NAME =
     "events-processor.events-received-15min-rate";
 string MetastoreEventMetrics::LAST_SYNCED_EVENT_ID_METRIC_NAME =
     "events-processor.last-synced-event-id";
+string MetastoreEventMetrics::EVENTS_LAG_METRIC_NAME = "events-processor.events-lag";
+string MetastoreEventMetrics::NUMBER_EVENTS_BATCHED_METRIC_NAME =
+    "events-processor.events-batched";
+string MetastoreEventMetrics::MAX_WORKER_QUEUE_DEPTH_METRIC_NAME =
+    "events-processor.max-worker-queue-depth";
 
 IntCounter* MetastoreEventMetrics::NUM_EVENTS_RECEIVED_COUNTER = nullptr;
 IntCounter* MetastoreEventMetrics::NUM_EVENTS_SKIPPED_COUNTER = nullptr;
@@ -61,6 +67,9 @@ DoubleGauge* MetastoreEventMetrics::EVENTS_RECEIVED_1MIN_RATE = nullptr;
 DoubleGauge* MetastoreEventMetrics::EVENTS_RECEIVED_5MIN_RATE = nullptr;
 DoubleGauge* MetastoreEventMetrics::EVENTS_RECEIVED_15MIN_RATE = nullptr;
 IntCounter* MetastoreEventMetrics::LAST_SYNCED_EVENT_ID = nullptr;
+IntGauge* MetastoreEventMetrics::EVENTS_LAG = nullptr;
+IntCounter* MetastoreEventMetrics::NUM_EVENTS_BATCHED_COUNTER = nullptr;
+IntGauge* MetastoreEventMetrics::MAX_WORKER_QUEUE_DEPTH = nullptr;
 
 // Initialize all the metrics for the events metric group
 void MetastoreEventMetrics::InitMetastoreEventMetrics(MetricGroup* metric_group) {
@@ -87,6 +96,11 @@ void MetastoreEventMetrics::InitMetastoreEventMetrics(MetricGroup* metric_group)
       event_metrics->AddDoubleGauge(EVENTS_RECEIVED_15MIN_METRIC_NAME, 0.0);
   LAST_SYNCED_EVENT_ID =
       event_metrics->AddCounter(LAST_SYNCED_EVENT_ID_METRIC_NAME, 0);
+  EVENTS_LAG = event_metrics->AddGauge(EVENTS_LAG_METRIC_NAME, 0);
+  NUM_EVENTS_BATCHED_COUNTER =
+      event_metrics->AddCounter(NUMBER_EVENTS_BATCHED_METRIC_NAME, 0);
+  MAX_WORKER_QUEUE_DEPTH =
+      event_metrics->AddGauge(MAX_WORKER_QUEUE_DEPTH_METRIC_NAME, 0);
 }
 
 void MetastoreEventMetrics::refresh(TEventProcessorMetrics* response) {
@@ -121,5 +135,16 @@ void MetastoreEventMetrics::refresh(TEventProcessorMetrics* response) {
   if(response->__isset.last_synced_event_id){
     LAST_SYNCED_EVENT_ID->SetValue(response->last_synced_event_id);
   }
+  if (response->__isset.events_lag) {
+    EVENTS_LAG->SetValue(response->events_lag);
+  }
+  if (response->__isset.events_batched) {
+    NUM_EVENTS_BATCHED_COUNTER->SetValue(response->events_batched);
+  }
+  if (response->__isset.worker_queue_depths
+      && !response->worker_queue_depths.empty()) {
+    MAX_WORKER_QUEUE_DEPTH->SetValue(*std::max_element(
+        response->worker_queue_depths.begin(), response->worker_queue_depths.end()));
+  }
 }
 } // namespace impala
@@ -64,6 +64,15 @@ class MetastoreEventMetrics {
   /// Last metastore event id that the catalog server synced to.
   static IntCounter* LAST_SYNCED_EVENT_ID;
 
+  /// Number of metastore events which are not synced yet, as of the last poll.
+  static IntGauge* EVENTS_LAG;
+
+  /// Total number of events which were merged into a single table refresh.
+  static IntCounter* NUM_EVENTS_BATCHED_COUNTER;
+
+  /// Largest number of events queued for one of the event processing workers.
+  static IntGauge* MAX_WORKER_QUEUE_DEPTH;
+
  private:
   /// Following metric names must match with the key in metrics.json
 
@@ -93,6 +102,15 @@ class MetastoreEventMetrics {
 
   /// Metric name for last metastore event id that the catalog server synced to.
   static std::string LAST_SYNCED_EVENT_ID_METRIC_NAME;
+
+  /// Metric name for the number of events which are not synced yet.
+  static std::string EVENTS_LAG_METRIC_NAME;
+
+  /// Metric name for the number of events merged into a single table refresh.
+  static std::string NUMBER_EVENTS_BATCHED_METRIC_NAME;
+
+  /// Metric name for the largest number of events queued for a worker.
+  static std::string MAX_WORKER_QUEUE_DEPTH_METRIC_NAME;
 };
 
 } // namespace impala
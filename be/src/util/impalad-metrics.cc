@@ -124,6 +124,22 @@ const char* ImpaladMetricKeys::CATALOG_CACHE_REQUEST_COUNT =
     "catalog.cache.request-count";
 const char* ImpaladMetricKeys::CATALOG_CACHE_TOTAL_LOAD_TIME =
     "catalog.cache.total-load-time";
+const char* ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_HIT_COUNT =
+    "catalog.cache.offheap.hit-count";
+const char* ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_MISS_COUNT =
+    "catalog.cache.offheap.miss-count";
+const char* ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_SPILL_COUNT =
+    "catalog.cache.offheap.spill-count";
+const char* ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_EVICTION_COUNT =
+    "catalog.cache.offheap.eviction-count";
+const char* ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_HIT_COUNT =
+    "catalog.authz-cache.hit-count";
+const char* ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_MISS_COUNT =
+    "catalog.authz-cache.miss-count";
+const char* ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_HIT_RATE =
+    "catalog.authz-cache.hit-rate";
+const char* ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME =
+    "catalog.authz-cache.average-check-time";
 const char* ImpaladMetricKeys::NUM_FILES_OPEN_FOR_INSERT =
     "impala-server.num-files-open-for-insert";
 const char* ImpaladMetricKeys::IMPALA_SERVER_NUM_OPEN_HS2_SESSIONS =
@@ -187,6 +203,12 @@ IntCounter* ImpaladMetrics::CATALOG_CACHE_LOAD_SUCCESS_COUNT = nullptr;
 IntCounter* ImpaladMetrics::CATALOG_CACHE_MISS_COUNT = nullptr;
 IntCounter* ImpaladMetrics::CATALOG_CACHE_REQUEST_COUNT = nullptr;
 IntCounter* ImpaladMetrics::CATALOG_CACHE_TOTAL_LOAD_TIME = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_CACHE_OFFHEAP_HIT_COUNT = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_CACHE_OFFHEAP_MISS_COUNT = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_CACHE_OFFHEAP_SPILL_COUNT = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_CACHE_OFFHEAP_EVICTION_COUNT = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_AUTHZ_CACHE_HIT_COUNT = nullptr;
+IntCounter* ImpaladMetrics::CATALOG_AUTHZ_CACHE_MISS_COUNT = nullptr;
 IntCounter* ImpaladMetrics::DEBUG_ACTION_NUM_FAIL = nullptr;
 
 // Gauges
@@ -215,6 +237,8 @@ DoubleGauge* ImpaladMetrics::CATALOG_CACHE_AVG_LOAD_TIME = nullptr;
 DoubleGauge* ImpaladMetrics::CATALOG_CACHE_HIT_RATE = nullptr;
 DoubleGauge* ImpaladMetrics::CATALOG_CACHE_LOAD_EXCEPTION_RATE = nullptr;
 DoubleGauge* ImpaladMetrics::CATALOG_CACHE_MISS_RATE = nullptr;
+DoubleGauge* ImpaladMetrics::CATALOG_AUTHZ_CACHE_HIT_RATE = nullptr;
+DoubleGauge* ImpaladMetrics::CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME = nullptr;
 
 // Properties
 BooleanProperty* ImpaladMetrics::CATALOG_READY = nullptr;
@@ -245,6 +269,16 @@ void ImpaladMetrics::InitCatalogMetrics(MetricGroup* m) {
       catalog_metrics->AddProperty<string>(ImpaladMetricKeys::CATALOG_SERVICE_ID, "");
   CATALOG_READY =
       catalog_metrics->AddProperty<bool>(ImpaladMetricKeys::CATALOG_READY, false);
+  // Metrics of the cache of authorization decisions for metadata operations. Valid
+  // only when --authz_metadata_cache_size is set.
+  CATALOG_AUTHZ_CACHE_HIT_COUNT = catalog_metrics->AddCounter(
+      ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_HIT_COUNT, 0);
+  CATALOG_AUTHZ_CACHE_MISS_COUNT = catalog_metrics->AddCounter(
+      ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_MISS_COUNT, 0);
+  CATALOG_AUTHZ_CACHE_HIT_RATE = catalog_metrics->AddDoubleGauge(
+      ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_HIT_RATE, 0);
+  CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME = catalog_metrics->AddDoubleGauge(
+      ImpaladMetricKeys::CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME, 0);
   // CatalogdMetaProvider cache metrics. Valid only when --use_local_catalog is set.
   if (FLAGS_use_local_catalog) {
     CATALOG_CACHE_AVG_LOAD_TIME = catalog_metrics->AddDoubleGauge(
@@ -271,6 +305,14 @@ void ImpaladMetrics::InitCatalogMetrics(MetricGroup* m) {
         catalog_metrics->AddCounter(ImpaladMetricKeys::CATALOG_CACHE_REQUEST_COUNT, 0);
     CATALOG_CACHE_TOTAL_LOAD_TIME =
         catalog_metrics->AddCounter(ImpaladMetricKeys::CATALOG_CACHE_TOTAL_LOAD_TIME, 0);
+    CATALOG_CACHE_OFFHEAP_HIT_COUNT = catalog_metrics->AddCounter(
+        ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_HIT_COUNT, 0);
+    CATALOG_CACHE_OFFHEAP_MISS_COUNT = catalog_metrics->AddCounter(
+        ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_MISS_COUNT, 0);
+    CATALOG_CACHE_OFFHEAP_SPILL_COUNT = catalog_metrics->AddCounter(
+        ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_SPILL_COUNT, 0);
+    CATALOG_CACHE_OFFHEAP_EVICTION_COUNT = catalog_metrics->AddCounter(
+        ImpaladMetricKeys::CATALOG_CACHE_OFFHEAP_EVICTION_COUNT, 0);
   }
 }
 
@@ -195,6 +195,37 @@ class ImpaladMetricKeys {
   /// Total time spent in Impalad Catalog cache loading new values.
   static const char* CATALOG_CACHE_TOTAL_LOAD_TIME;
 
+  /// Number of partition lookups served by the off-heap tier of the Impalad Catalog
+  /// cache after missing the heap-based cache.
+  static const char* CATALOG_CACHE_OFFHEAP_HIT_COUNT;
+
+  /// Number of partition lookups that missed both tiers of the Impalad Catalog cache.
+  static const char* CATALOG_CACHE_OFFHEAP_MISS_COUNT;
+
+  /// Number of partitions spilled to the off-heap tier of the Impalad Catalog cache
+  /// after being evicted from the heap-based cache.
+  static const char* CATALOG_CACHE_OFFHEAP_SPILL_COUNT;
+
+  /// Number of partitions dropped from the off-heap tier of the Impalad Catalog cache
+  /// to make room for newly spilled ones.
+  static const char* CATALOG_CACHE_OFFHEAP_EVICTION_COUNT;
+
+  /// Number of authorization checks of metadata operations that were served by the
+  /// authorization decision cache.
+  static const char* CATALOG_AUTHZ_CACHE_HIT_COUNT;
+
+  /// Number of authorization checks of metadata operations that missed the
+  /// authorization decision cache.
+  static const char* CATALOG_AUTHZ_CACHE_MISS_COUNT;
+
+  /// Ratio of authorization checks of metadata operations that were served by the
+  /// authorization decision cache.
+  static const char* CATALOG_AUTHZ_CACHE_HIT_RATE;
+
+  /// Average time of the authorization checks that missed the authorization decision
+  /// cache.
+  static const char* CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME;
+
   /// Number of files open for insert
   static const char* NUM_FILES_OPEN_FOR_INSERT;
 
@@ -279,6 +310,12 @@ class ImpaladMetrics {
   static IntCounter* CATALOG_CACHE_MISS_COUNT;
   static IntCounter* CATALOG_CACHE_REQUEST_COUNT;
   static IntCounter* CATALOG_CACHE_TOTAL_LOAD_TIME;
+  static IntCounter* CATALOG_CACHE_OFFHEAP_HIT_COUNT;
+  static IntCounter* CATALOG_CACHE_OFFHEAP_MISS_COUNT;
+  static IntCounter* CATALOG_CACHE_OFFHEAP_SPILL_COUNT;
+  static IntCounter* CATALOG_CACHE_OFFHEAP_EVICTION_COUNT;
+  static IntCounter* CATALOG_AUTHZ_CACHE_HIT_COUNT;
+  static IntCounter* CATALOG_AUTHZ_CACHE_MISS_COUNT;
   static IntCounter* DEBUG_ACTION_NUM_FAIL;
 
   // Gauges
@@ -291,6 +328,8 @@ class ImpaladMetrics {
   static DoubleGauge* CATALOG_CACHE_HIT_RATE;
   static DoubleGauge* CATALOG_CACHE_LOAD_EXCEPTION_RATE;
   static DoubleGauge* CATALOG_CACHE_MISS_RATE;
+  static DoubleGauge* CATALOG_AUTHZ_CACHE_HIT_RATE;
+  static DoubleGauge* CATALOG_AUTHZ_CACHE_AVG_CHECK_TIME;
   static IntGauge* IMPALA_SERVER_NUM_OPEN_BEESWAX_SESSIONS;
   static IntGauge* IMPALA_SERVER_NUM_OPEN_HS2_SESSIONS;
   static MetricGroup* IO_MGR_METRICS;
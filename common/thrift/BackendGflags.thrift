@@ -215,4 +215,30 @@ struct TBackendGflags {
   95: required bool invalidate_hms_cache_on_ddls
 
   96: required string startup_filesystem_check_directories
+
+  97: required i32 local_catalog_offheap_cache_mb
+
+  98: required string local_catalog_offheap_cache_dir
+
+  99: required i32 topic_update_parallelism
+
+  100: required i32 hms_event_processing_threads
+
+  101: required bool incremental_file_metadata_refresh
+
+  102: required i32 max_hdfs_file_metadata_loading_threads
+
+  103: required i32 max_nonhdfs_file_metadata_loading_threads
+
+  104: required i32 frontend_plan_cache_mb
+
+  105: required i32 authz_metadata_cache_size
+
+  106: required i32 authz_metadata_cache_ttl_s
+
+  107: required i32 iceberg_manifest_cache_mb
+
+  108: required i32 kudu_table_metadata_cache_ttl_s
+
+  109: required i32 hbase_region_stats_cache_staleness_s
 }
@@ -113,6 +113,19 @@ struct TGetCatalogMetricsResult {
   12: optional double cache_hit_rate
   13: optional double cache_load_exception_rate
   14: optional double cache_miss_rate
+  // Following metrics are set only if the off-heap partition metadata tier of the
+  // local catalog cache is enabled.
+  15: optional i64 cache_offheap_hit_count
+  16: optional i64 cache_offheap_miss_count
+  17: optional i64 cache_offheap_spill_count
+  18: optional i64 cache_offheap_eviction_count
+  // Following metrics are set only if the cache of authorization decisions for metadata
+  // operations is enabled, see --authz_metadata_cache_size.
+  19: optional i64 authz_cache_hit_count
+  20: optional i64 authz_cache_miss_count
+  21: optional double authz_cache_hit_rate
+  // Average time in nanoseconds of the authorization checks on cache misses.
+  22: optional double authz_cache_avg_check_time
 }
 
 // Arguments to getDbs, which returns a list of dbs that match an optional pattern
@@ -528,6 +541,32 @@ struct TMetadataOpRequest {
   10: optional Query.TSessionState session
   11: optional TCLIService.TGetPrimaryKeysReq get_primary_keys_req
   12: optional TCLIService.TGetCrossReferenceReq get_cross_reference_req
+
+  // Maximum number of rows of the first page if the result is fetched in pages with
+  // JniFrontend.openHiveServer2MetadataOp(). All rows are returned if not positive.
+  13: optional i32 fetch_size
+}
+
+// Input parameter to JniFrontend.fetchHiveServer2MetadataOpRows()
+struct TFetchMetadataOpRowsRequest {
+  // Handle of the operation, see TMetadataOpPage.
+  1: required i64 handle
+
+  // Maximum number of rows to return. All remaining rows are returned if not positive.
+  2: required i32 max_rows
+}
+
+// Result of JniFrontend.openHiveServer2MetadataOp() and
+// JniFrontend.fetchHiveServer2MetadataOpRows(): the next rows of a HiveServer2 metadata
+// operation.
+struct TMetadataOpPage {
+  1: required Results.TResultSet result_set
+
+  // True if there are no more rows. The operation is closed implicitly in that case.
+  2: required bool eos
+
+  // Handle to fetch the next rows with. Only set if 'eos' is false.
+  3: optional i64 handle
 }
 
 // Tracks accesses to Catalog objects for use during auditing. This information, paired
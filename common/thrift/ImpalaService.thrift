@@ -693,6 +693,22 @@ enum TImpalaQueryOptions {
   //     ALWAYS     - always write Parquet Bloom filters, even if the row group is fully
   //                  dictionary encoded
   PARQUET_BLOOM_FILTER_WRITE = 134
+
+  // Maximum number of tables in a join block for which the planner chooses the join
+  // order by a cost-based enumeration of left-deep join trees instead of the greedy
+  // heuristic. The enumeration only applies to blocks of inner joins whose inputs all
+  // have cardinality estimates, and falls back to the greedy heuristic if it exceeds
+  // the planner's limit on enumerated joins. Valid values are 0 to 16; 0 disables the
+  // enumeration.
+  MAX_JOIN_ENUMERATION_TABLES = 135
+
+  // If true, the planner estimates the scan bytes each bloom runtime filter saves from
+  // its selectivity and the size of its target scans, and drops filters whose benefit
+  // is below the cost of building and publishing them. The remaining filters are
+  // ranked by their net benefit when applying MAX_NUM_RUNTIME_FILTERS, and bloom
+  // filters are sized by the NDV of the build-side expression. Rejected filters are
+  // listed in the EXTENDED explain plan.
+  RUNTIME_FILTER_COST_BASED_SELECTION = 136
 }
 
 // The summary of a DML statement.
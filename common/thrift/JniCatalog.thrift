@@ -785,6 +785,10 @@ struct TTableUsageMetrics {
 
   // The 99th percentile table loading time
   10: optional i64 p99_loading_time_ns
+
+  // Estimated memory usage of that table divided by its number of partitions. Only set
+  // for HDFS tables.
+  11: optional i64 memory_estimate_bytes_per_partition
 }
 
 // Response to a GetCatalogUsage request.
@@ -878,6 +882,15 @@ struct TEventProcessorMetrics {
 
   // Last metastore event id that the catalog server synced to
   10: optional i64 last_synced_event_id
+
+  // Number of metastore events which are not synced yet, as of the last poll
+  11: optional i64 events_lag
+
+  // Total number of events which were merged into a single table refresh
+  12: optional i64 events_batched
+
+  // Number of events queued for each worker if events are processed in parallel
+  13: optional list<i32> worker_queue_depths
 }
 
 struct TCatalogHmsCacheApiMetrics {
@@ -936,6 +949,68 @@ struct TCatalogdHmsCacheMetrics {
   6: optional double api_requests_15min_rate
 }
 
+// Breakdown of the time spent building the last catalog topic update.
+struct TCatalogTopicUpdatePhaseTimes {
+  // Wall time spent adding databases, tables and functions to the update.
+  1: required i64 catalog_objects_ms
+
+  // Part of 'catalog_objects_ms' the topic update thread spent waiting for tables to
+  // be serialized by the worker threads.
+  2: required i64 table_wait_ms
+
+  // Time spent locking and serializing tables, summed over all worker threads.
+  3: required i64 table_serialization_ms
+
+  // Wall time spent adding data sources, cache pools, principals and authorization
+  // cache invalidation markers to the update.
+  4: required i64 other_objects_ms
+
+  // Wall time spent adding deleted objects to the update.
+  5: required i64 deleted_objects_ms
+
+  // Total wall time spent building the update.
+  6: required i64 total_ms
+}
+
+// Metrics of the catalog-wide file metadata loading pool of a filesystem type.
+struct TFileMetadataLoadPoolMetrics {
+  // Filesystem type of the pool, e.g. HDFS or S3.
+  1: required string fs_type
+
+  // Number of loading threads of the pool.
+  2: required i32 num_threads
+
+  // Number of paths waiting for a loading thread.
+  3: required i32 num_queued_tasks
+
+  // Number of table loads that have paths queued or being loaded.
+  4: required i32 num_active_loads
+
+  // Mean time paths recently waited for a loading thread.
+  5: required double queue_wait_time_mean_ms
+
+  // Total number of paths loaded.
+  6: required i64 num_paths_loaded
+
+  // Number of files loaded per second, averaged over the last minute.
+  7: required double files_loaded_1min_rate
+}
+
+// Metrics of the logs the catalogd keeps to build topic updates.
+struct TCatalogUpdateLogMetrics {
+  // Number of deleted catalog objects in the delete log.
+  1: required i64 delete_log_size
+
+  // Number of catalog objects in the topic update log.
+  2: required i64 topic_update_log_size
+
+  // Number of times an operation, e.g. one using SYNC_DDL, waited for a topic update.
+  3: required i64 num_topic_update_waits
+
+  // Total time operations waited for topic updates.
+  4: required i64 topic_update_wait_time_ms
+}
+
 // Response to GetCatalogServerMetrics() call.
 struct TGetCatalogServerMetricsResponse {
   // Partial fetch RPC queue length.
@@ -946,6 +1021,15 @@ struct TGetCatalogServerMetricsResponse {
 
   // get the catalogd Hive metastore server metrics, if configured
   3: optional TCatalogdHmsCacheMetrics catalogd_hms_cache_metrics
+
+  // Phase timings of the last catalog topic update, if any was built yet.
+  4: optional TCatalogTopicUpdatePhaseTimes topic_update_phase_times
+
+  // Metrics of the file metadata loading pool of each filesystem type that was used.
+  5: optional list<TFileMetadataLoadPoolMetrics> file_metadata_load_pool_metrics
+
+  // Metrics of the delete and topic update logs.
+  6: optional TCatalogUpdateLogMetrics update_log_metrics
 }
 
 // Request to copy the generated testcase from a given input path.
@@ -195,6 +195,17 @@ struct TRuntimeFilterDesc {
 // - T<subclass>: all other operational parameters that are the same across
 //   all plan fragments
 
+// Lower and upper bound of the non-NULL values of a column in a file, taken from the
+// file metadata of the table format (e.g. Iceberg manifests). Executors skip the file if
+// the values of the min/max runtime filter 'filter_id' don't overlap the bounds. The
+// bounds have the type of the filter. Corresponds to FileColumnBoundsPB and should be
+// kept in sync with it.
+struct TFileColumnBounds {
+  1: required i32 filter_id
+  2: required Data.TColumnValue lower_bound
+  3: required Data.TColumnValue upper_bound
+}
+
 // Specification of a subsection of a single HDFS file. Corresponds to HdfsFileSpiltPB and
 // should be kept in sync with it.
 struct THdfsFileSplit {
@@ -225,6 +236,9 @@ struct THdfsFileSplit {
   // Java's String.hashCode(), which is consistent. For testing purposes, this can use
   // any consistent hash.
   9: required i32 partition_path_hash
+
+  // Bounds of the columns that min/max runtime filters of the scan target in this file.
+  10: optional list<TFileColumnBounds> column_bounds
 }
 
 // Key range for single THBaseScanNode. Corresponds to HBaseKeyRangePB and should be kept
@@ -261,6 +275,9 @@ struct TFileSplitGeneratorSpec {
 
   // Hash of the partition path
   5: required i32 partition_path_hash
+
+  // Copied to the 'column_bounds' of the generated THdfsFileSplits.
+  6: optional list<TFileColumnBounds> column_bounds
 }
 
 // Specification of an individual data range which is held in its entirety
@@ -546,6 +546,12 @@ struct TQueryOptions {
   // See comment in ImpalaService.thrift
   135: optional TParquetBloomFilterWrite parquet_bloom_filter_write =
       TParquetBloomFilterWrite.IF_NO_DICT;
+
+  // See comment in ImpalaService.thrift
+  136: optional i32 max_join_enumeration_tables = 0;
+
+  // See comment in ImpalaService.thrift
+  137: optional bool runtime_filter_cost_based_selection = false;
 }
 
 // Impala currently has three types of sessions: Beeswax, HiveServer2 and external
@@ -351,6 +351,38 @@ public class MetastoreShim {
         frontend, req.getCatalogName(), req.getSchemaName(), user);
   }
 
+  /**
+   * Returns an iterator over the result of the GetSchemas, GetTables, GetColumns or
+   * GetFunctions operation 'request', or null for other operations.
+   */
+  public static MetadataOp.ResultIterator createMetadataOpIterator(
+      Frontend frontend, TMetadataOpRequest request, User user) throws ImpalaException {
+    switch (request.opcode) {
+      case GET_SCHEMAS: {
+        TGetSchemasReq req = request.getGet_schemas_req();
+        return MetadataOp.createGetSchemasIterator(
+            frontend, req.getCatalogName(), req.getSchemaName(), user);
+      }
+      case GET_TABLES: {
+        TGetTablesReq req = request.getGet_tables_req();
+        return MetadataOp.createGetTablesIterator(frontend, req.getCatalogName(),
+            req.getSchemaName(), req.getTableName(), req.getTableTypes(), user);
+      }
+      case GET_COLUMNS: {
+        TGetColumnsReq req = request.getGet_columns_req();
+        return MetadataOp.createGetColumnsIterator(frontend, req.getCatalogName(),
+            req.getSchemaName(), req.getTableName(), req.getColumnName(), user);
+      }
+      case GET_FUNCTIONS: {
+        TGetFunctionsReq req = request.getGet_functions_req();
+        return MetadataOp.createGetFunctionsIterator(frontend, req.getCatalogName(),
+            req.getSchemaName(), req.getFunctionName(), user);
+      }
+      default:
+        return null;
+    }
+  }
+
   /**
    * Supported HMS-3 types
    */
@@ -35,6 +35,7 @@ import org.apache.impala.catalog.Type;
 import org.apache.impala.common.AnalysisException;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.RuntimeEnv;
+import org.apache.impala.rewrite.ConstantExprEvaluator;
 import org.apache.impala.rewrite.ExprRewriter;
 import org.apache.impala.thrift.TAccessEvent;
 import org.apache.impala.thrift.TClientRequest;
@@ -62,6 +63,11 @@ public class AnalysisContext {
   private FeCatalog catalog_;
   private AnalysisResult analysisResult_;
 
+  // Evaluator of constant exprs shared by the analyzers of the current statement, so
+  // that re-analysis reuses the folded constants. Set by the first createAnalyzer() call
+  // of analyzeAndAuthorize().
+  private ConstantExprEvaluator constantExprEvaluator_;
+
   // Use Hive's scheme for auto-generating column labels. Only used for testing.
   private boolean useHiveColLabels_;
 
@@ -416,6 +422,11 @@ public class AnalysisContext {
       AuthorizationContext authzCtx) {
     Analyzer result = new Analyzer(stmtTableCache, queryCtx_, authzFactory_, authzCtx);
     result.setUseHiveColLabels(useHiveColLabels_);
+    if (constantExprEvaluator_ == null) {
+      constantExprEvaluator_ = result.getConstantExprEvaluator();
+    } else {
+      result.setConstantExprEvaluator(constantExprEvaluator_);
+    }
     return result;
   }
 
@@ -432,6 +443,7 @@ public class AnalysisContext {
     analysisResult_ = new AnalysisResult();
     analysisResult_.stmt_ = stmt;
     catalog_ = stmtTableCache.catalog;
+    constantExprEvaluator_ = null;
 
     // Analyze statement and record exception.
     AnalysisException analysisException = null;
@@ -518,8 +530,15 @@ public class AnalysisContext {
     ExprRewriter rewriter = analysisResult_.analyzer_.getExprRewriter();
     if (analysisResult_.requiresExprRewrite()) {
       rewriter.reset();
+      if (queryCtx_.client_request.query_options.enable_expr_rewrites) {
+        // Fold the constant exprs of the whole statement with a single BE call before
+        // the rewrite rules run.
+        shouldReAnalyze = analysisResult_.analyzer_.getConstantExprEvaluator()
+            .foldStmtConstants(analysisResult_.stmt_) > 0;
+      }
       analysisResult_.stmt_.rewriteExprs(rewriter);
-      shouldReAnalyze = rewriter.changed();
+      rewriter.addCountersToProfile();
+      shouldReAnalyze |= rewriter.changed();
     }
     if (analysisResult_.requiresSubqueryRewrite()) {
       new StmtRewriter.SubqueryRewriter().rewrite(analysisResult_);
@@ -561,13 +580,17 @@ public class AnalysisContext {
     // re-analysis.
     ImmutableList<PrivilegeRequest> origPrivReqs =
         analysisResult_.analyzer_.getPrivilegeReqs();
+    // The exprs that made the plan depend on the query context may have been folded.
+    boolean planDependsOnQueryCtx = analysisResult_.analyzer_.planDependsOnQueryCtx();
 
-    // Re-analyze the stmt with a new analyzer.
+    // Re-analyze the stmt with a new analyzer. Only the BE evaluation results of constant
+    // exprs are shared with the previous pass, see createAnalyzer().
     analysisResult_.analyzer_ = createAnalyzer(stmtTableCache, authzCtx);
     // Restore privilege requests found during the previous pass
     for (PrivilegeRequest req : origPrivReqs) {
       analysisResult_.analyzer_.registerPrivReq(req);
     }
+    if (planDependsOnQueryCtx) analysisResult_.analyzer_.setPlanDependsOnQueryCtx();
     // Only collect privilege requests in need.
     analysisResult_.analyzer_.setEnablePrivChecks(collectPrivileges);
     analysisResult_.stmt_.reset();
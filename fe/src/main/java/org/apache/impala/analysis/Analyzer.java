@@ -68,6 +68,7 @@ import org.apache.impala.compat.MetastoreShim;
 import org.apache.impala.planner.JoinNode;
 import org.apache.impala.planner.PlanNode;
 import org.apache.impala.rewrite.BetweenToCompoundRule;
+import org.apache.impala.rewrite.ConstantExprEvaluator;
 import org.apache.impala.rewrite.ConvertToCNFRule;
 import org.apache.impala.rewrite.EqualityDisjunctsToInRule;
 import org.apache.impala.rewrite.ExprRewriteRule;
@@ -83,7 +84,6 @@ import org.apache.impala.rewrite.SimplifyConditionalsRule;
 import org.apache.impala.rewrite.SimplifyDistinctFromRule;
 import org.apache.impala.rewrite.CountDistinctToNdvRule;
 import org.apache.impala.rewrite.DefaultNdvScaleRule;
-import org.apache.impala.service.FeSupport;
 import org.apache.impala.thrift.TAccessEvent;
 import org.apache.impala.thrift.TCatalogObjectType;
 import org.apache.impala.thrift.TLineageGraph;
@@ -96,6 +96,7 @@ import org.apache.impala.util.Graph.RandomAccessibleGraph;
 import org.apache.impala.util.Graph.SccCondensedGraph;
 import org.apache.impala.util.Graph.WritableGraph;
 import org.apache.impala.util.IntIterator;
+import org.apache.impala.util.KuduTableCache;
 import org.apache.impala.util.KuduUtil;
 import org.apache.impala.util.ListMap;
 import org.apache.impala.util.MetaStoreUtil;
@@ -242,6 +243,9 @@ public class Analyzer {
     return globalState_.hasTopLevelAcidCollectionTableRef;
   }
 
+  public void setPlanDependsOnQueryCtx() { globalState_.planDependsOnQueryCtx = true; }
+  public boolean planDependsOnQueryCtx() { return globalState_.planDependsOnQueryCtx; }
+
   public boolean setHasPlanHints() { return globalState_.hasPlanHints = true; }
   public boolean hasPlanHints() { return globalState_.hasPlanHints; }
   public void setHasWithClause() { hasWithClause_ = true; }
@@ -381,6 +385,10 @@ public class Analyzer {
     // select item from complextypestbl.int_array;
     public boolean hasTopLevelAcidCollectionTableRef = false;
 
+    // True if the plan of the statement depends on more than the statement and the
+    // catalog, e.g. because it calls a UDF or now(). Such plans are not cached.
+    public boolean planDependsOnQueryCtx = false;
+
     // all registered conjuncts (map from expr id to conjunct). We use a LinkedHashMap to
     // preserve the order in which conjuncts are added.
     public final Map<ExprId, Expr> conjuncts = new LinkedHashMap<>();
@@ -492,6 +500,12 @@ public class Analyzer {
     // Expr rewriter for normalizing and rewriting expressions.
     private final ExprRewriter exprRewriter_;
 
+    // Evaluates constant exprs for FoldConstantsRule and constant predicates. May be
+    // shared with the analyzers used to re-analyze the same query, so that re-analysis
+    // does not evaluate the same constant exprs in the BE again, see
+    // setConstantExprEvaluator().
+    private ConstantExprEvaluator constantExprEvaluator_;
+
     // Total number of expressions across the statement (including all subqueries). This
     // is used to enforce a limit on the total number of expressions. Incremented by
     // incrementNumStmtExprs(). Note that this does not include expressions that do not
@@ -537,6 +551,7 @@ public class Analyzer {
         rules.add(DefaultNdvScaleRule.INSTANCE);
       }
       exprRewriter_ = new ExprRewriter(rules);
+      constantExprEvaluator_ = new ConstantExprEvaluator(queryCtx);
     }
   };
 
@@ -983,6 +998,12 @@ public class Analyzer {
   public TableRef getTableRef(TupleId tid) { return tableRefMap_.get(tid); }
   public ExprRewriter getConstantFolder() { return globalState_.constantFolder_; }
   public ExprRewriter getExprRewriter() { return globalState_.exprRewriter_; }
+  public ConstantExprEvaluator getConstantExprEvaluator() {
+    return globalState_.constantExprEvaluator_;
+  }
+  public void setConstantExprEvaluator(ConstantExprEvaluator evaluator) {
+    globalState_.constantExprEvaluator_ = Preconditions.checkNotNull(evaluator);
+  }
 
   /**
    * Given a "table alias"."column alias", return the SlotDescriptor
@@ -1465,7 +1486,7 @@ public class Analyzer {
           // aliases and having it analyzed is needed for the following EvalPredicate() call
           conjunct.analyze(this);
         }
-        if (!FeSupport.EvalPredicate(conjunct, globalState_.queryCtx)) {
+        if (!globalState_.constantExprEvaluator_.evalPredicate(conjunct)) {
           if (fromHavingClause) {
             hasEmptyResultSet_ = true;
           } else {
@@ -2379,7 +2400,7 @@ public class Analyzer {
    */
   public boolean isTrueWithNullSlots(Expr p) throws InternalException {
     Expr nullTuplePred = substituteNullSlots(p);
-    return FeSupport.EvalPredicate(nullTuplePred, getQueryCtx());
+    return globalState_.constantExprEvaluator_.evalPredicate(nullTuplePred);
   }
 
   /**
@@ -2968,12 +2989,18 @@ public class Analyzer {
       globalState_.kuduTables.put(tableName, kuduTable);
     }
 
-    // Last, get the KuduTable via a request to the Kudu server using openTable and
-    // add it to the global state state cache for future use.
+    // Last, get the KuduTable from the coordinator's cache, if enabled, or via a request
+    // to the Kudu server using openTable and add it to the global state state cache for
+    // future use.
     if (kuduTable == null) {
       try {
-        KuduClient client = KuduUtil.getKuduClient(feKuduTable.getKuduMasterHosts());
-        kuduTable = client.openTable(feKuduTable.getKuduTableName());
+        KuduTableCache cache = KuduTableCache.get();
+        if (cache != null) {
+          kuduTable = cache.getTable(feKuduTable);
+        } else {
+          KuduClient client = KuduUtil.getKuduClient(feKuduTable.getKuduMasterHosts());
+          kuduTable = client.openTable(feKuduTable.getKuduTableName());
+        }
         globalState_.kuduTables.put(tableName, kuduTable);
       } catch (Exception ex) {
         throw new AnalysisException("Unable to open the Kudu table: " + tableName, ex);
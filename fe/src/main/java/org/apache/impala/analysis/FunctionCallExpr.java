@@ -629,6 +629,13 @@ public class FunctionCallExpr extends Expr {
     if (fn_ == null || (!isInternalFnCall_ && !fn_.userVisible())) {
       throw new AnalysisException(getFunctionNotFoundError(argTypes));
     }
+    // The results of UDFs and nondeterministic builtins may differ between queries.
+    // Scalar builtins without arguments are mostly computed from the query context,
+    // e.g. now() or user(), and are folded into the plan.
+    if (!fnName_.isBuiltin() || isNondeterministicBuiltinFn()
+        || (isScalarFunction() && children_.isEmpty())) {
+      analyzer.setPlanDependsOnQueryCtx();
+    }
 
     // NDV() can optionally take a second argument which must be an integer literal
     // in the range from 1 to 10. Perform the analysis here.
@@ -213,7 +213,16 @@ public abstract class LiteralExpr extends Expr implements Comparable<LiteralExpr
           constExpr.toSql(), e.getMessage()));
       return null;
     }
+    return createFromColumnValue(constExpr, val);
+  }
 
+  /**
+   * Returns the result 'val' of evaluating the constant expr 'constExpr' in the BE as a
+   * LiteralExpr of the type of 'constExpr'. Returns null if the result cannot be
+   * represented as a LiteralExpr, see createBounded().
+   */
+  public static LiteralExpr createFromColumnValue(Expr constExpr, TColumnValue val)
+      throws AnalysisException {
     LiteralExpr result = null;
     switch (constExpr.getType().getPrimitiveType()) {
       case NULL_TYPE:
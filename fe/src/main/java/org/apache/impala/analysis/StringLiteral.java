@@ -82,8 +82,14 @@ public class StringLiteral extends LiteralExpr {
   @Override
   protected void toThrift(TExprNode msg) {
     msg.node_type = TExprNodeType.STRING_LITERAL;
-    String val = (needsUnescaping_) ? getUnescapedValue() : value_;
-    msg.string_literal = new TStringLiteral(val);
+    msg.string_literal = new TStringLiteral(getBackendValue());
+  }
+
+  /**
+   * Returns the value of this literal as it is passed to the BE.
+   */
+  public String getBackendValue() {
+    return (needsUnescaping_) ? getUnescapedValue() : value_;
   }
 
   /**
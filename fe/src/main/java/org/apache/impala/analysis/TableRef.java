@@ -439,6 +439,8 @@ public class TableRef extends StmtNode {
   protected void analyzeTableSample(Analyzer analyzer) throws AnalysisException {
     if (sampleParams_ == null) return;
     sampleParams_.analyze(analyzer);
+    // Without REPEATABLE, the planner picks a new random seed for each query.
+    if (!sampleParams_.hasRandomSeed()) analyzer.setPlanDependsOnQueryCtx();
     if (!(this instanceof BaseTableRef)
         || !(resolvedPath_.destTable() instanceof FeFsTable)) {
       throw new AnalysisException(
@@ -83,6 +83,12 @@ public interface AuthorizationChecker {
    */
   void invalidateAuthorizationCache();
 
+  /**
+   * Returns a number that changes whenever the policies or roles used by this checker
+   * change. Used to invalidate cached authorization decisions.
+   */
+  long getPolicyVersion();
+
   /**
    * Returns whether the given table needs column masking or row filtering when read by
    * the given user.
@@ -398,4 +398,11 @@ public abstract class BaseAuthorizationChecker implements AuthorizationChecker {
    * Invalidates an authorization cache.
    */
   public abstract void invalidateAuthorizationCache();
+
+  /**
+   * Returns the version of the policies used by this checker. The policies of the
+   * default implementation never change.
+   */
+  @Override
+  public long getPolicyVersion() { return 0; }
 }
@@ -224,6 +224,9 @@ public class RangerAuthorizationChecker extends BaseAuthorizationChecker {
     }
   }
 
+  @Override
+  public long getPolicyVersion() { return plugin_.getPolicyVersion(); }
+
   @Override
   public AuthorizationContext createAuthorizationContext(boolean doAudits,
       String sqlStmt, TSessionState sessionState, Optional<EventSequence> timeline) {
@@ -22,6 +22,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerRoles;
+import org.apache.ranger.plugin.util.ServicePolicies;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -41,6 +43,11 @@ public class RangerImpalaPlugin extends RangerBasePlugin {
   private static String APP_ID = null;
   private static boolean BLOCK_UPDATE_IF_TABLE_MASK_SPECIFIED = true;
 
+  // Incremented whenever new policies or roles are set, either by the background policy
+  // refresher or by refreshPoliciesAndTags(). Not initialized explicitly since the base
+  // class may set policies before the fields of this class are initialized.
+  private long policyVersion_;
+
   private RangerImpalaPlugin(String serviceType, String appId) {
     super(serviceType, appId);
   }
@@ -55,6 +62,22 @@ public class RangerImpalaPlugin extends RangerBasePlugin {
             .HIVE_BLOCK_UPDATE_IF_ROWFILTER_COLUMNMASK_SPECIFIED_DEFAULT_VALUE);
   }
 
+  @Override
+  public void setPolicies(ServicePolicies policies) {
+    super.setPolicies(policies);
+    incrementPolicyVersion();
+  }
+
+  @Override
+  public void setRoles(RangerRoles roles) {
+    super.setRoles(roles);
+    incrementPolicyVersion();
+  }
+
+  private synchronized void incrementPolicyVersion() { ++policyVersion_; }
+
+  public synchronized long getPolicyVersion() { return policyVersion_; }
+
   public boolean blockUpdateIfTableMaskSpecified() {
     return BLOCK_UPDATE_IF_TABLE_MASK_SPECIFIED;
   }
@@ -18,9 +18,8 @@
 package org.apache.impala.catalog;
 
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.apache.impala.thrift.TCatalogObject;
 import com.google.common.base.Preconditions;
@@ -53,17 +52,21 @@ import com.google.common.collect.ImmutableList;
  *   since the last catalog topic update. Once the catalog topic update is constructed,
  *   the old entries in the log are garbage collected to prevent the log from growing
  *   indefinitely.
+ *
+ * The log is indexed by catalog version in a concurrent skip list, so DDL threads that
+ * add removed objects never block the topic update thread that scans and garbage
+ * collects ranges of the log, or each other.
  */
 public class CatalogDeltaLog {
   // Map of the catalog version an object was removed from the catalog
   // to the catalog object, ordered by catalog version.
-  private SortedMap<Long, TCatalogObject> removedCatalogObjects_ =
-      new TreeMap<Long, TCatalogObject>();
+  private final ConcurrentNavigableMap<Long, TCatalogObject> removedCatalogObjects_ =
+      new ConcurrentSkipListMap<>();
 
   /**
    * Adds a new item to the map of removed catalog objects.
    */
-  public synchronized void addRemovedObject(TCatalogObject catalogObject) {
+  public void addRemovedObject(TCatalogObject catalogObject) {
     Preconditions.checkNotNull(catalogObject);
     removedCatalogObjects_.put(catalogObject.getCatalog_version(), catalogObject);
   }
@@ -72,11 +75,9 @@ public class CatalogDeltaLog {
    * Retrieve all the removed catalog objects with versions in range
    * (fromVersion, toVersion].
    */
-  public synchronized List<TCatalogObject> retrieveObjects(long fromVersion,
-      long toVersion) {
-    SortedMap<Long, TCatalogObject> objects =
-        removedCatalogObjects_.subMap(fromVersion + 1, toVersion + 1);
-    return ImmutableList.<TCatalogObject>copyOf(objects.values());
+  public List<TCatalogObject> retrieveObjects(long fromVersion, long toVersion) {
+    return ImmutableList.copyOf(
+        removedCatalogObjects_.subMap(fromVersion, false, toVersion, true).values());
   }
 
   /**
@@ -85,13 +86,8 @@ public class CatalogDeltaLog {
    * log anymore because they are consistent with the state store's view of the
    * catalog.
    */
-  public synchronized void garbageCollect(long currentCatalogVersion) {
-    // Nothing will be garbage collected so avoid creating a new object.
-    if (!removedCatalogObjects_.isEmpty() &&
-        removedCatalogObjects_.firstKey() < currentCatalogVersion) {
-      removedCatalogObjects_ = new TreeMap<Long, TCatalogObject>(
-          removedCatalogObjects_.tailMap(currentCatalogVersion));
-    }
+  public void garbageCollect(long currentCatalogVersion) {
+    removedCatalogObjects_.headMap(currentCatalogVersion).clear();
   }
 
   /**
@@ -99,16 +95,19 @@ public class CatalogDeltaLog {
    * object's catalog version. Returns true if there was a matching object that was
    * removed after this object, false otherwise.
    */
-  public synchronized boolean wasObjectRemovedAfter(TCatalogObject catalogObject) {
+  public boolean wasObjectRemovedAfter(TCatalogObject catalogObject) {
     Preconditions.checkNotNull(catalogObject);
-    if (removedCatalogObjects_.isEmpty()) return false;
-
     // Get all the items that were removed after the catalog version of this object.
-    SortedMap<Long, TCatalogObject> candidateObjects =
-        removedCatalogObjects_.tailMap(catalogObject.getCatalog_version());
-    for (Map.Entry<Long, TCatalogObject> entry: candidateObjects.entrySet()) {
-      if (Catalog.keyEquals(catalogObject, entry.getValue())) return true;
+    for (TCatalogObject removedObject:
+         removedCatalogObjects_.tailMap(catalogObject.getCatalog_version()).values()) {
+      if (Catalog.keyEquals(catalogObject, removedObject)) return true;
     }
     return false;
   }
+
+  /**
+   * Returns the number of removed catalog objects in the log. Only an estimate while
+   * the log is modified concurrently.
+   */
+  public int size() { return removedCatalogObjects_.size(); }
 }
@@ -22,16 +22,22 @@ import static org.apache.impala.thrift.TCatalogObjectType.TABLE;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -86,6 +92,8 @@ import org.apache.impala.thrift.TCatalogdHmsCacheMetrics;
 import org.apache.impala.thrift.TCatalogInfoSelector;
 import org.apache.impala.thrift.TCatalogObject;
 import org.apache.impala.thrift.TCatalogObjectType;
+import org.apache.impala.thrift.TCatalogTopicUpdatePhaseTimes;
+import org.apache.impala.thrift.TCatalogUpdateLogMetrics;
 import org.apache.impala.thrift.TCatalogUpdateResult;
 import org.apache.impala.thrift.TDatabase;
 import org.apache.impala.thrift.TEventProcessorMetrics;
@@ -128,11 +136,13 @@ import org.slf4j.LoggerFactory;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Specialized Catalog that implements the CatalogService specific Catalog
@@ -275,6 +285,25 @@ public class CatalogServiceCatalog extends Catalog {
 
   private final TopicUpdateLog topicUpdateLog_ = new TopicUpdateLog();
 
+  // Locks and serializes tables for getCatalogDelta() in parallel. Null if
+  // --topic_update_parallelism is 1, in which case tables are serialized by the topic
+  // update thread itself.
+  private final ExecutorService topicUpdateTblPool_;
+
+  // Receives the topic items of getCatalogDelta(). Only replaced by tests, which have no
+  // catalog server to pass the items to.
+  private TopicItemSink topicItemSink_ = FeSupport::NativeAddPendingTopicItem;
+
+  // Phase timings of the last topic update built by getCatalogDelta().
+  private volatile TCatalogTopicUpdatePhaseTimes lastTopicUpdatePhaseTimes_;
+
+  // Number of tables per thread of 'topicUpdateTblPool_' that are locked and serialized
+  // ahead of the table whose topic items are passed to the BE.
+  private static final int TOPIC_UPDATE_TABLES_IN_FLIGHT_PER_THREAD = 2;
+
+  // Topic updates that take longer than this are logged with their phase timings.
+  private static final long TOPIC_UPDATE_SLOW_LOG_THRESHOLD_MS = 10000;
+
   private final String localLibraryPath_;
 
   private CatalogdTableInvalidator catalogdTableInvalidator_;
@@ -337,6 +366,13 @@ public class CatalogServiceCatalog extends Catalog {
         .getBackendCfg().topic_update_tbl_max_wait_time_ms;
     Preconditions.checkState(topicUpdateTblLockMaxWaitTimeMs_ >= 0,
         "topic_update_tbl_max_wait_time_ms must be positive");
+    int topicUpdateParallelism = BackendConfig.INSTANCE.getTopicUpdateParallelism();
+    Preconditions.checkState(topicUpdateParallelism > 0,
+        "topic_update_parallelism must be positive");
+    topicUpdateTblPool_ = topicUpdateParallelism == 1 ? null :
+        Executors.newFixedThreadPool(topicUpdateParallelism,
+            new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("TopicUpdateTableSerializer-%d").build());
     catalogServiceId_ = catalogServiceId;
     tableLoadingMgr_ = new TableLoadingMgr(this, numLoadingThreads);
     loadInBackground_ = loadInBackground;
@@ -680,9 +716,20 @@ public class CatalogServiceCatalog extends Catalog {
     long fromVersion;
     long toVersion;
     long lastResetStartVersion;
-    // The keys of the updated topics.
+    // The keys of the updated topics. The keys collected by a context created by
+    // newTableContext() are added to the ones of its parent by flush().
     Set<String> updatedCatalogObjects;
     TSerializer serializer;
+    // Set for contexts created by newTableContext(). Topic items, partition meta
+    // summaries and the updates of the catalog state that record what was sent, e.g.
+    // topic update log entries, are buffered here until flush() is called, instead of
+    // being applied right away. A table context that is never flushed leaves no trace.
+    final GetCatalogDeltaContext parent;
+    final List<PendingTopicItem> pendingItems;
+    final List<PartitionMetaSummary> pendingSummaries;
+    final List<Runnable> pendingUpdates;
+    // Total time spent in addTableToCatalogDelta() by the table contexts, in ns.
+    final AtomicLong tableSerializationNs;
 
     GetCatalogDeltaContext(long nativeCatalogServerPtr, long fromVersion, long toVersion,
         long lastResetStartVersion)
@@ -693,6 +740,79 @@ public class CatalogServiceCatalog extends Catalog {
       this.lastResetStartVersion = lastResetStartVersion;
       updatedCatalogObjects = new HashSet<>();
       serializer = new TSerializer(new TBinaryProtocol.Factory());
+      this.parent = null;
+      pendingItems = null;
+      pendingSummaries = null;
+      pendingUpdates = null;
+      tableSerializationNs = new AtomicLong();
+    }
+
+    private GetCatalogDeltaContext(GetCatalogDeltaContext parent) {
+      nativeCatalogServerPtr = parent.nativeCatalogServerPtr;
+      fromVersion = parent.fromVersion;
+      toVersion = parent.toVersion;
+      lastResetStartVersion = parent.lastResetStartVersion;
+      updatedCatalogObjects = new HashSet<>();
+      // TSerializer is not thread-safe.
+      serializer = new TSerializer(new TBinaryProtocol.Factory());
+      this.parent = parent;
+      pendingItems = new ArrayList<>();
+      pendingSummaries = new ArrayList<>();
+      pendingUpdates = new ArrayList<>();
+      tableSerializationNs = parent.tableSerializationNs;
+    }
+
+    /**
+     * Returns a context that collects the topic items of a single table on a worker
+     * thread. Its items are added to the topic update by calling flush() on it.
+     */
+    GetCatalogDeltaContext newTableContext() {
+      return new GetCatalogDeltaContext(this);
+    }
+
+    /**
+     * Passes the buffered topic items to the BE in the order they were added, applies
+     * the buffered catalog state updates and logs the buffered partition meta
+     * summaries. Must be called by the topic update thread.
+     */
+    void flush() {
+      Preconditions.checkNotNull(pendingItems);
+      for (PendingTopicItem item: pendingItems) {
+        addTopicItemToBackend(item.key, item.version, item.data, item.delete,
+            item.isV1Key, item.summary, item.partName);
+      }
+      pendingItems.clear();
+      parent.updatedCatalogObjects.addAll(updatedCatalogObjects);
+      updatedCatalogObjects.clear();
+      for (Runnable update: pendingUpdates) update.run();
+      pendingUpdates.clear();
+      for (PartitionMetaSummary summary: pendingSummaries) {
+        if (summary.hasUpdates()) LOG.info(summary.toString());
+      }
+      pendingSummaries.clear();
+    }
+
+    /**
+     * Runs 'update', which records in the catalog state that an object was added to or
+     * skipped from this topic update. For table contexts it is deferred until flush().
+     */
+    void runOnFlush(Runnable update) {
+      if (pendingUpdates != null) {
+        pendingUpdates.add(update);
+      } else {
+        update.run();
+      }
+    }
+
+    /**
+     * Logs 'summary' once all its topic items were passed to the BE.
+     */
+    void logPartitionMetaSummary(PartitionMetaSummary summary) {
+      if (pendingSummaries != null) {
+        pendingSummaries.add(summary);
+      } else if (summary.hasUpdates()) {
+        LOG.info(summary.toString());
+      }
     }
 
     void addCatalogObject(TCatalogObject obj, boolean delete) throws TException {
@@ -703,8 +823,9 @@ public class CatalogServiceCatalog extends Catalog {
         PartitionMetaSummary summary) throws TException {
       String key = Catalog.toCatalogObjectKey(obj);
       if (obj.type != TCatalogObjectType.CATALOG) {
-        topicUpdateLog_.add(key,
-            new TopicUpdateLog.Entry(0, obj.getCatalog_version(), toVersion, 0));
+        TopicUpdateLog.Entry entry =
+            new TopicUpdateLog.Entry(0, obj.getCatalog_version(), toVersion, 0);
+        runOnFlush(() -> topicUpdateLog_.add(key, entry));
         if (!delete) updatedCatalogObjects.add(key);
       }
       // TODO: TSerializer.serialize() returns a copy of the internal byte array, which
@@ -712,15 +833,7 @@ public class CatalogServiceCatalog extends Catalog {
       if (topicMode_ == TopicMode.FULL || topicMode_ == TopicMode.MIXED) {
         String v1Key = CatalogServiceConstants.CATALOG_TOPIC_V1_PREFIX + key;
         byte[] data = serializer.serialize(obj);
-        int actualSize = FeSupport.NativeAddPendingTopicItem(nativeCatalogServerPtr,
-            v1Key, obj.catalog_version, data, delete);
-        if (actualSize < 0) {
-          LOG.error("NativeAddPendingTopicItem failed in BE. key=" + v1Key + ", delete="
-              + delete + ", data_size=" + data.length);
-        } else if (summary != null && obj.type == HDFS_PARTITION) {
-          summary.update(true, delete, obj.hdfs_partition.partition_name,
-              obj.catalog_version, data.length, actualSize);
-        }
+        addTopicItem(v1Key, obj, data, delete, true, summary);
       }
 
       if (topicMode_ == TopicMode.MINIMAL || topicMode_ == TopicMode.MIXED) {
@@ -731,19 +844,37 @@ public class CatalogServiceCatalog extends Catalog {
         if (minimalObject != null) {
           byte[] data = serializer.serialize(minimalObject);
           String v2Key = CatalogServiceConstants.CATALOG_TOPIC_V2_PREFIX + key;
-          int actualSize = FeSupport.NativeAddPendingTopicItem(nativeCatalogServerPtr,
-              v2Key, obj.catalog_version, data, delete);
-          if (actualSize < 0) {
-            LOG.error("NativeAddPendingTopicItem failed in BE. key=" + v2Key + ", delete="
-                + delete + ", data_size=" + data.length);
-          } else if (summary != null && obj.type == HDFS_PARTITION) {
-            summary.update(false, delete, obj.hdfs_partition.partition_name,
-                obj.catalog_version, data.length, actualSize);
-          }
+          addTopicItem(v2Key, minimalObject, data, delete, false, summary);
         }
       }
     }
 
+    private void addTopicItem(String key, TCatalogObject obj, byte[] data,
+        boolean delete, boolean isV1Key, PartitionMetaSummary summary) {
+      // Only partitions are accounted in the summary.
+      if (obj.type != HDFS_PARTITION) summary = null;
+      String partName = summary == null ? null : obj.hdfs_partition.partition_name;
+      if (pendingItems != null) {
+        pendingItems.add(new PendingTopicItem(key, obj.catalog_version, data, delete,
+            isV1Key, summary, partName));
+      } else {
+        addTopicItemToBackend(key, obj.catalog_version, data, delete, isV1Key, summary,
+            partName);
+      }
+    }
+
+    private void addTopicItemToBackend(String key, long version, byte[] data,
+        boolean delete, boolean isV1Key, PartitionMetaSummary summary, String partName) {
+      int actualSize = topicItemSink_.add(nativeCatalogServerPtr, key, version, data,
+          delete);
+      if (actualSize < 0) {
+        LOG.error("NativeAddPendingTopicItem failed in BE. key=" + key + ", delete="
+            + delete + ", data_size=" + data.length);
+      } else if (summary != null) {
+        summary.update(isV1Key, delete, partName, version, data.length, actualSize);
+      }
+    }
+
     private TCatalogObject getMinimalObjectForV2(TCatalogObject obj) {
       Preconditions.checkState(topicMode_ == TopicMode.MINIMAL ||
           topicMode_ == TopicMode.MIXED);
@@ -814,6 +945,43 @@ public class CatalogServiceCatalog extends Catalog {
     boolean isFullUpdate() { return fromVersion == 0; }
   }
 
+  /**
+   * Receives the topic items of a topic update. Has the signature of
+   * FeSupport.NativeAddPendingTopicItem(), which is used outside of tests.
+   */
+  @VisibleForTesting
+  interface TopicItemSink {
+    int add(long nativeCatalogServerPtr, String key, long version, byte[] data,
+        boolean delete);
+  }
+
+  @VisibleForTesting
+  void setTopicItemSink(TopicItemSink sink) { topicItemSink_ = sink; }
+
+  /**
+   * A serialized topic item buffered by a table context of GetCatalogDeltaContext.
+   */
+  private static class PendingTopicItem {
+    final String key;
+    final long version;
+    final byte[] data;
+    final boolean delete;
+    final boolean isV1Key;
+    final PartitionMetaSummary summary;
+    final String partName;
+
+    PendingTopicItem(String key, long version, byte[] data, boolean delete,
+        boolean isV1Key, PartitionMetaSummary summary, String partName) {
+      this.key = key;
+      this.version = version;
+      this.data = data;
+      this.delete = delete;
+      this.isV1Key = isV1Key;
+      this.summary = summary;
+      this.partName = partName;
+    }
+  }
+
   /**
    * Creates a partition meta summary for the given table name.
    */
@@ -845,9 +1013,35 @@ public class CatalogServiceCatalog extends Catalog {
     } finally {
       versionLock_.readLock().unlock();
     }
-    for (Db db: getAllDbs()) {
-      addDatabaseToCatalogDelta(db, ctx);
+    Stopwatch totalSw = Stopwatch.createStarted();
+    Stopwatch phaseSw = Stopwatch.createStarted();
+    TCatalogTopicUpdatePhaseTimes phaseTimes = new TCatalogTopicUpdatePhaseTimes();
+    phaseTimes.setTable_wait_ms(0);
+    // Tables make up the bulk of the delta. If enabled, they are locked and serialized
+    // in parallel by 'topicUpdateTblPool_' a bounded number of tables ahead of this
+    // thread, which passes the finished ones to the BE in catalog order.
+    List<Db> dbs = getAllDbs();
+    List<List<Table>> tables = new ArrayList<>(dbs.size());
+    List<Table> allTables = new ArrayList<>();
+    for (Db db: dbs) {
+      List<Table> dbTables = getAllTables(db);
+      tables.add(dbTables);
+      allTables.addAll(dbTables);
+    }
+    TableDeltaWindow window = topicUpdateTblPool_ == null ? null :
+        new TableDeltaWindow(allTables, ctx, phaseTimes);
+    try {
+      for (int i = 0; i < dbs.size(); ++i) {
+        addDatabaseToCatalogDelta(dbs.get(i), tables.get(i), window, ctx);
+      }
+    } finally {
+      // Only has an effect if a table failed and the remaining ones were not consumed.
+      if (window != null) window.cancel();
     }
+    phaseTimes.setCatalog_objects_ms(phaseSw.elapsed(TimeUnit.MILLISECONDS));
+    phaseTimes.setTable_serialization_ms(
+        TimeUnit.NANOSECONDS.toMillis(ctx.tableSerializationNs.get()));
+    phaseSw.reset().start();
     for (DataSource dataSource: getAllDataSources()) {
       addDataSourceToCatalogDelta(dataSource, ctx);
     }
@@ -863,6 +1057,8 @@ public class CatalogServiceCatalog extends Catalog {
     for (AuthzCacheInvalidation authzCacheInvalidation: getAllAuthzCacheInvalidation()) {
       addAuthzCacheInvalidationToCatalogDelta(authzCacheInvalidation, ctx);
     }
+    phaseTimes.setOther_objects_ms(phaseSw.elapsed(TimeUnit.MILLISECONDS));
+    phaseSw.reset().start();
     // Identify the catalog objects that were removed from the catalog for which their
     // versions are in range ('ctx.fromVersion', 'ctx.toVersion']. We need to make sure
     // that we don't include "deleted" objects that were re-added to the catalog.
@@ -905,6 +1101,7 @@ public class CatalogServiceCatalog extends Catalog {
         if (deleteSummary.hasUpdates()) LOG.info(deleteSummary.toString());
       }
     }
+    phaseTimes.setDeleted_objects_ms(phaseSw.elapsed(TimeUnit.MILLISECONDS));
     // Each topic update should contain a single "TCatalog" object which is used to
     // pass overall state on the catalog, such as the current version and the
     // catalog service id. By setting the catalog version to the latest catalog
@@ -921,12 +1118,95 @@ public class CatalogServiceCatalog extends Catalog {
     topicUpdateLog_.garbageCollectUpdateLogEntries(ctx.toVersion);
     lastSentTopicUpdate_.set(ctx.toVersion);
     // Notify any operation that is waiting on the next topic update.
-    synchronized (topicUpdateLog_) {
-      topicUpdateLog_.notifyAll();
+    topicUpdateLog_.notifyTopicUpdate(ctx.toVersion);
+    phaseTimes.setTotal_ms(totalSw.elapsed(TimeUnit.MILLISECONDS));
+    lastTopicUpdatePhaseTimes_ = phaseTimes;
+    if (phaseTimes.total_ms > TOPIC_UPDATE_SLOW_LOG_THRESHOLD_MS) {
+      LOG.info("Slow topic update ({}, {}]: {}", ctx.fromVersion, ctx.toVersion,
+          phaseTimes);
+    } else if (LOG.isTraceEnabled()) {
+      LOG.trace("Topic update ({}, {}]: {}", ctx.fromVersion, ctx.toVersion,
+          phaseTimes);
     }
     return ctx.toVersion;
   }
 
+  /**
+   * Returns the phase timings of the last topic update or null if no topic update was
+   * built yet.
+   */
+  public TCatalogTopicUpdatePhaseTimes getTopicUpdatePhaseTimes() {
+    return lastTopicUpdatePhaseTimes_;
+  }
+
+  /**
+   * Adds the tables of a topic update to their own table contexts of 'ctx' on
+   * 'topicUpdateTblPool_'. Tables are submitted in catalog order, at most
+   * 'maxInFlight_' of them ahead of the table that is consumed by flushNext(). This
+   * bounds the number of serialized tables held in memory to a few per thread of the
+   * pool, however large the catalog is. Tables that were submitted but not consumed,
+   * e.g. because an earlier table failed, are dropped by cancel() without side effects,
+   * since the catalog state updates of a table context are only applied by flush().
+   */
+  private class TableDeltaWindow {
+    private final Iterator<Table> tables_;
+    private final GetCatalogDeltaContext ctx_;
+    private final TCatalogTopicUpdatePhaseTimes phaseTimes_;
+    private final int maxInFlight_;
+    private final Deque<Future<GetCatalogDeltaContext>> inFlight_ = new ArrayDeque<>();
+
+    TableDeltaWindow(List<Table> tables, GetCatalogDeltaContext ctx,
+        TCatalogTopicUpdatePhaseTimes phaseTimes) {
+      tables_ = tables.iterator();
+      ctx_ = ctx;
+      phaseTimes_ = phaseTimes;
+      maxInFlight_ = TOPIC_UPDATE_TABLES_IN_FLIGHT_PER_THREAD *
+          BackendConfig.INSTANCE.getTopicUpdateParallelism();
+      fill();
+    }
+
+    private void fill() {
+      while (inFlight_.size() < maxInFlight_ && tables_.hasNext()) {
+        Table tbl = tables_.next();
+        inFlight_.add(topicUpdateTblPool_.submit(() -> {
+          GetCatalogDeltaContext tblCtx = ctx_.newTableContext();
+          addTableToCatalogDelta(tbl, tblCtx);
+          return tblCtx;
+        }));
+      }
+    }
+
+    /**
+     * Waits for the next table in catalog order, passes its topic items to the BE and
+     * submits the next table to the pool.
+     */
+    void flushNext(Table tbl) throws TException {
+      Future<GetCatalogDeltaContext> f = Preconditions.checkNotNull(inFlight_.poll());
+      Stopwatch sw = Stopwatch.createStarted();
+      GetCatalogDeltaContext tblCtx;
+      try {
+        tblCtx = f.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while adding table " +
+            tbl.getFullName() + " to the topic update", e);
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), TException.class);
+        throw new IllegalStateException(
+            "Failed to add table " + tbl.getFullName() + " to the topic update", e);
+      }
+      phaseTimes_.setTable_wait_ms(
+          phaseTimes_.table_wait_ms + sw.elapsed(TimeUnit.MILLISECONDS));
+      fill();
+      tblCtx.flush();
+    }
+
+    void cancel() {
+      for (Future<GetCatalogDeltaContext> f: inFlight_) f.cancel(false);
+      inFlight_.clear();
+    }
+  }
+
   /**
    * Evaluates if the information from an event (serviceId and versionNumber) matches to
    * the catalog object. If there is match, the in-flight version for that object is
@@ -1160,7 +1440,8 @@ public class CatalogServiceCatalog extends Catalog {
    * ('ctx.fromVersion', 'ctx.toVersion']. It iterates through all the tables and
    * functions of this database to determine if they can be included in the topic update.
    */
-  private void addDatabaseToCatalogDelta(Db db, GetCatalogDeltaContext ctx)
+  private void addDatabaseToCatalogDelta(Db db, List<Table> tables,
+      @Nullable TableDeltaWindow window, GetCatalogDeltaContext ctx)
       throws TException {
     long dbVersion = db.getCatalogVersion();
     if (dbVersion > ctx.fromVersion && dbVersion <= ctx.toVersion) {
@@ -1169,8 +1450,12 @@ public class CatalogServiceCatalog extends Catalog {
       catalogDb.setDb(db.toThrift());
       ctx.addCatalogObject(catalogDb, false);
     }
-    for (Table tbl: getAllTables(db)) {
-      addTableToCatalogDelta(tbl, ctx);
+    for (Table tbl: tables) {
+      if (window == null) {
+        addTableToCatalogDelta(tbl, ctx);
+      } else {
+        window.flushNext(tbl);
+      }
     }
     for (Function fn: getAllFunctions(db)) {
       addFunctionToCatalogDelta(fn, ctx);
@@ -1289,6 +1574,16 @@ public class CatalogServiceCatalog extends Catalog {
    */
   private void addTableToCatalogDelta(Table tbl, GetCatalogDeltaContext ctx)
       throws TException  {
+    long startNs = System.nanoTime();
+    try {
+      addTableToCatalogDeltaImpl(tbl, ctx);
+    } finally {
+      ctx.tableSerializationNs.addAndGet(System.nanoTime() - startNs);
+    }
+  }
+
+  private void addTableToCatalogDeltaImpl(Table tbl, GetCatalogDeltaContext ctx)
+      throws TException  {
     TopicUpdateLog.Entry topicUpdateEntry =
         topicUpdateLog_.getOrCreateLogEntry(tbl.getUniqueName());
     Preconditions.checkNotNull(topicUpdateEntry);
@@ -1322,12 +1617,12 @@ public class CatalogServiceCatalog extends Catalog {
       } else {
         LOG.info("Table {} (version={}) is skipping topic update ({}, {}]",
             tbl.getFullName(), tblVersion, ctx.fromVersion, ctx.toVersion);
-        topicUpdateLog_.add(tbl.getUniqueName(),
-            new TopicUpdateLog.Entry(
-                topicUpdateEntry.getNumSkippedTopicUpdates() + 1,
-                topicUpdateEntry.getLastSentVersion(),
-                topicUpdateEntry.getLastSentCatalogUpdate(),
-                topicUpdateEntry.getNumSkippedUpdatesLockContention()));
+        TopicUpdateLog.Entry skippedEntry = new TopicUpdateLog.Entry(
+            topicUpdateEntry.getNumSkippedTopicUpdates() + 1,
+            topicUpdateEntry.getLastSentVersion(),
+            topicUpdateEntry.getLastSentCatalogUpdate(),
+            topicUpdateEntry.getNumSkippedUpdatesLockContention());
+        ctx.runOnFlush(() -> topicUpdateLog_.add(tbl.getUniqueName(), skippedEntry));
       }
     }
   }
@@ -1433,16 +1728,18 @@ public class CatalogServiceCatalog extends Catalog {
       // if the last version skipped by topic update is not same as the last version
       // sent, it means the table was updated and topic update thread is lagging
       // behind.
-      topicUpdateLog_.add(hdfsTable.getUniqueName(),
-          new TopicUpdateLog.Entry(
-              topicUpdateEntry.getNumSkippedTopicUpdates(),
-              topicUpdateEntry.getLastSentVersion(),
-              topicUpdateEntry.getLastSentCatalogUpdate(),
-              topicUpdateEntry.getNumSkippedUpdatesLockContention() + 1));
-      // we keep track of the table version when topic update thread had to skip the
-      // table from updates so that next iteration can determine if we need to
-      // increment the lock contention counter in topic update entry again.
-      hdfsTable.setLastVersionSeenByTopicUpdate(tblVersion);
+      TopicUpdateLog.Entry skippedEntry = new TopicUpdateLog.Entry(
+          topicUpdateEntry.getNumSkippedTopicUpdates(),
+          topicUpdateEntry.getLastSentVersion(),
+          topicUpdateEntry.getLastSentCatalogUpdate(),
+          topicUpdateEntry.getNumSkippedUpdatesLockContention() + 1);
+      ctx.runOnFlush(() -> {
+        topicUpdateLog_.add(hdfsTable.getUniqueName(), skippedEntry);
+        // we keep track of the table version when topic update thread had to skip the
+        // table from updates so that next iteration can determine if we need to
+        // increment the lock contention counter in topic update entry again.
+        hdfsTable.setLastVersionSeenByTopicUpdate(tblVersion);
+      });
     }
     return false;
   }
@@ -1472,12 +1769,12 @@ public class CatalogServiceCatalog extends Catalog {
         topicUpdateEntry.getNumSkippedTopicUpdates() < MAX_NUM_SKIPPED_TOPIC_UPDATES) {
       LOG.info("Table " + tbl.getFullName() + " is skipping topic update " +
           ctx.toVersion);
-      topicUpdateLog_.add(tableUniqueName,
-          new TopicUpdateLog.Entry(
-              topicUpdateEntry.getNumSkippedTopicUpdates() + 1,
-              topicUpdateEntry.getLastSentVersion(),
-              topicUpdateEntry.getLastSentCatalogUpdate(),
-              topicUpdateEntry.getNumSkippedUpdatesLockContention()));
+      TopicUpdateLog.Entry skippedEntry = new TopicUpdateLog.Entry(
+          topicUpdateEntry.getNumSkippedTopicUpdates() + 1,
+          topicUpdateEntry.getLastSentVersion(),
+          topicUpdateEntry.getLastSentCatalogUpdate(),
+          topicUpdateEntry.getNumSkippedUpdatesLockContention());
+      ctx.runOnFlush(() -> topicUpdateLog_.add(tableUniqueName, skippedEntry));
       return;
     }
     try {
@@ -1499,31 +1796,39 @@ public class CatalogServiceCatalog extends Catalog {
 
   private void addHdfsPartitionsToCatalogDelta(HdfsTable hdfsTable,
       GetCatalogDeltaContext ctx) throws TException {
-    // Reset the max sent partition id if we are collecting a full update (e.g. due to
+    // Send all partitions again if we are collecting a full update (e.g. due to
     // statestored restarts).
-    if (ctx.isFullUpdate()) hdfsTable.resetMaxSentPartitionId();
+    long prevMaxSentId = ctx.isFullUpdate() ? HdfsPartition.INITIAL_PARTITION_ID - 1 :
+        hdfsTable.getMaxSentPartitionId();
 
     PartitionMetaSummary updateSummary = createPartitionMetaSummary(
         hdfsTable.getFullName());
 
     // Add updates for new partitions.
-    long maxSentId = hdfsTable.getMaxSentPartitionId();
-    for (TCatalogObject catalogPart : hdfsTable.getNewPartitionsSinceLastUpdate()) {
+    long maxSentId = prevMaxSentId;
+    for (TCatalogObject catalogPart : hdfsTable.getPartitionsAfter(prevMaxSentId)) {
       maxSentId = Math.max(maxSentId, catalogPart.getHdfs_partition().getId());
       ctx.addCatalogObject(catalogPart, false, updateSummary);
     }
-    hdfsTable.setMaxSentPartitionId(maxSentId);
 
-    for (HdfsPartition part : hdfsTable.getDroppedPartitions()) {
+    List<HdfsPartition> droppedParts = hdfsTable.getDroppedPartitions();
+    for (HdfsPartition part : droppedParts) {
       TCatalogObject removedPart = part.toMinimalTCatalogObject();
       if (!ctx.updatedCatalogObjects.contains(
           Catalog.toCatalogObjectKey(removedPart))) {
         ctx.addCatalogObject(removedPart, true, updateSummary);
       }
     }
-    hdfsTable.resetDroppedPartitions();
+    // The partitions are only marked as sent once they were passed to the BE. Only the
+    // dropped partitions that were sent are removed, since more partitions may be
+    // dropped before that.
+    final long newMaxSentId = maxSentId;
+    ctx.runOnFlush(() -> {
+      hdfsTable.setMaxSentPartitionId(newMaxSentId);
+      hdfsTable.removeDroppedPartitions(droppedParts);
+    });
 
-    if (updateSummary.hasUpdates()) LOG.info(updateSummary.toString());
+    ctx.logPartitionMetaSummary(updateSummary);
   }
 
   /**
@@ -2997,6 +3302,17 @@ public class CatalogServiceCatalog extends Catalog {
 
   public CatalogDeltaLog getDeleteLog() { return deleteLog_; }
 
+  /**
+   * Returns the sizes of the delete and topic update logs and how long operations
+   * waited for topic updates.
+   */
+  public TCatalogUpdateLogMetrics getUpdateLogMetrics() {
+    TCatalogUpdateLogMetrics metrics = new TCatalogUpdateLogMetrics();
+    metrics.setDelete_log_size(deleteLog_.size());
+    topicUpdateLog_.populateMetrics(metrics);
+    return metrics;
+  }
+
   /**
    * Returns the version of the topic update that an operation using SYNC_DDL must wait
    * for in order to ensure that its result set ('result') has been broadcast to all the
@@ -3043,13 +3359,7 @@ public class CatalogServiceCatalog extends Catalog {
             FeCatalogUtils.debugString(result.updated_catalog_objects),
             FeCatalogUtils.debugString(result.removed_catalog_objects));
         // Wait for the next topic update.
-        synchronized(topicUpdateLog_) {
-          try {
-            topicUpdateLog_.wait(TOPIC_UPDATE_WAIT_TIMEOUT_MS);
-          } catch (InterruptedException e) {
-            // Ignore
-          }
-        }
+        topicUpdateLog_.waitForTopicUpdate(TOPIC_UPDATE_WAIT_TIMEOUT_MS);
         long currentTopicUpdate = lastSentTopicUpdate_.get();
         // Don't count time-based exits from the wait() toward the maxNumAttempts
         // threshold.
@@ -3140,7 +3450,8 @@ public class CatalogServiceCatalog extends Catalog {
   /**
    * Retrieves information about the current catalog usage including:
    * 1. the tables with the most frequently accessed.
-   * 2. the tables with the highest memory requirements.
+   * 2. the tables with the highest memory requirements, including the memory per
+   *    partition of HDFS tables.
    * 3. the tables with the highest file counts.
    * 4. the tables with the longest table loading time.
    */
@@ -3156,6 +3467,10 @@ public class CatalogServiceCatalog extends Catalog {
       TTableUsageMetrics tableUsageMetrics =
           new TTableUsageMetrics(largeTable.getTableName().toThrift());
       tableUsageMetrics.setMemory_estimate_bytes(largeTable.getEstimatedMetadataSize());
+      if (largeTable instanceof HdfsTable) {
+        tableUsageMetrics.setMemory_estimate_bytes_per_partition(
+            ((HdfsTable) largeTable).getEstimatedMetadataSizePerPartition());
+      }
       usage.addToLarge_tables(tableUsageMetrics);
     }
     for (Table frequentTable : catalogTableMetrics.getFrequentlyAccessedTables()) {
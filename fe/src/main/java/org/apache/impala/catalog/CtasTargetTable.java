@@ -76,6 +76,9 @@ public abstract class CtasTargetTable implements FeTable {
     return msTable_;
   }
 
+  @Override
+  public long getCatalogVersion() { return Catalog.INITIAL_CATALOG_VERSION; }
+
   @Override
   public String getStorageHandlerClassName() {
     return null;
@@ -38,6 +38,7 @@ import org.apache.impala.analysis.ToSqlUtils;
 import org.apache.impala.catalog.CatalogObject.ThriftObjectType;
 import org.apache.impala.catalog.HdfsPartition.FileDescriptor;
 import org.apache.impala.catalog.local.CatalogdMetaProvider;
+import org.apache.impala.catalog.local.OffHeapPartitionStore;
 import org.apache.impala.catalog.local.LocalCatalog;
 import org.apache.impala.catalog.local.MetaProvider;
 import org.apache.impala.service.BackendConfig;
@@ -419,6 +420,14 @@ public abstract class FeCatalogUtils {
     metrics.setCache_hit_rate(stats.hitRate());
     metrics.setCache_load_exception_rate(stats.loadExceptionRate());
     metrics.setCache_miss_rate(stats.missRate());
+
+    OffHeapPartitionStore offHeapStore =
+        ((CatalogdMetaProvider) provider).getOffHeapStore();
+    if (offHeapStore == null) return;
+    metrics.setCache_offheap_hit_count(offHeapStore.getHitCount());
+    metrics.setCache_offheap_miss_count(offHeapStore.getMissCount());
+    metrics.setCache_offheap_spill_count(offHeapStore.getSpillCount());
+    metrics.setCache_offheap_eviction_count(offHeapStore.getEvictionCount());
   }
 
 
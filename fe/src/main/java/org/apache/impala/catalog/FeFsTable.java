@@ -187,6 +187,15 @@ public interface FeFsTable extends FeTable {
    */
   Set<Long> getNullPartitionIds(int colIdx);
 
+  /**
+   * @return an index over the partition key values, built from the partition value
+   * maps and the null partition ids. Implementations may cache the index until their
+   * partitions change.
+   */
+  default PartitionKeyIndex getPartitionKeyIndex() {
+    return PartitionKeyIndex.create(this);
+  }
+
   /**
    * Returns the full partition objects for the given partition IDs, which must
    * have been obtained by prior calls to the above methods.
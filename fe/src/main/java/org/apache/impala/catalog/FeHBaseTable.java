@@ -102,9 +102,9 @@ public interface FeHBaseTable extends FeTable {
     private static final Logger LOG = LoggerFactory.getLogger(FeHBaseTable.class);
     // Maximum deviation from the average to stop querying more regions
     // to estimate the row count
-    private static final double DELTA_FROM_AVERAGE = 0.15;
+    static final double DELTA_FROM_AVERAGE = 0.15;
     // Minimum number of regions that are checked to estimate the row count
-    private static final int MIN_NUM_REGIONS_TO_CHECK = 5;
+    static final int MIN_NUM_REGIONS_TO_CHECK = 5;
 
     // constants from Hive's HBaseSerDe.java copied here to avoid dependending on
     // hive-hbase-handler (and its transitive dependencies) These are user facing
@@ -371,19 +371,17 @@ public interface FeHBaseTable extends FeTable {
             tbl.getHBaseTableName(), Bytes.toString(startRowKey),
             Bytes.toString(endRowKey));
       }
+      HBaseRegionStatsCache cache = HBaseRegionStatsCache.get();
+      if (cache != null) {
+        Pair<Long, Long> result = cache.getEstimatedRowStats(tbl, startRowKey, endRowKey);
+        if (result != null) return result;
+      }
       long startTime = System.currentTimeMillis();
-      boolean isCompressed = false;
-      long rowCount;
-      long rowSize;
       try {
         ClusterStatus clusterStatus = getClusterStatus();
         // Check to see if things are compressed.
         // If they are we'll estimate a compression factor.
-        HColumnDescriptor[] columnFamilies = tbl.getColumnFamilies();
-        Preconditions.checkNotNull(columnFamilies);
-        for (HColumnDescriptor desc : columnFamilies) {
-          isCompressed |= desc.getCompression() != Compression.Algorithm.NONE;
-        }
+        boolean isCompressed = isCompressed(tbl);
 
         // Fetch all regions for the key range
         List<HRegionLocation> locations = getRegionsInRange(tbl, startRowKey, endRowKey);
@@ -421,26 +419,14 @@ public interface FeHBaseTable extends FeTable {
         for (final HRegionLocation location : locations) {
           totalSize += getRegionSize(location, clusterStatus);
         }
-        if (totalSize == 0) {
-          rowCount = totalEstimatedRows;
-        } else if (statsSize.mean() < 1) {
-          // No meaningful row width found. The < 1 handles both the
-          // no row case and the potential case where the average is
-          // too small to be meaningful.
-          LOG.warn("Table {}: no data available to compute " +
-              "row count estimate for key range ('{}', '{}')",
-              tbl.getFullName(), Bytes.toString(startRowKey), Bytes.toString(endRowKey));
-          return new Pair<>(-1L, -1L);
-        } else {
-          rowCount = (long) (totalSize / statsSize.mean());
-        }
-        rowSize = (long) statsSize.mean();
+        Pair<Long, Long> result = computeRowStats(tbl, startRowKey, endRowKey,
+            totalEstimatedRows, statsSize, totalSize);
         if (LOG.isTraceEnabled()) {
           LOG.trace("getEstimatedRowStats results: rowCount={}, rowSize={}, " +
-              "timeElapsed={}ms", rowCount, rowSize,
+              "timeElapsed={}ms", result.first, result.second,
               System.currentTimeMillis() - startTime);
         }
-        return new Pair<>(rowCount, rowSize);
+        return result;
       } catch (IOException ioe) {
         // Print the stack trace, but we'll ignore it
         // as this is just an estimate.
@@ -450,6 +436,44 @@ public interface FeHBaseTable extends FeTable {
       }
     }
 
+    /**
+     * Returns the estimated row count and row size of a key range of 'tbl' from the
+     * per-region estimates of the sampled regions in 'statsSize' and
+     * 'totalEstimatedRows', and the total size 'totalSize' of the regions in the range.
+     * Returns -1 for both if the sampled rows don't give a meaningful row size.
+     */
+    static Pair<Long, Long> computeRowStats(FeHBaseTable tbl, byte[] startRowKey,
+        byte[] endRowKey, long totalEstimatedRows, StatsHelper<Long> statsSize,
+        long totalSize) {
+      long rowCount;
+      if (totalSize == 0) {
+        rowCount = totalEstimatedRows;
+      } else if (statsSize.mean() < 1) {
+        // No meaningful row width found. The < 1 handles both the
+        // no row case and the potential case where the average is
+        // too small to be meaningful.
+        LOG.warn("Table {}: no data available to compute " +
+            "row count estimate for key range ('{}', '{}')",
+            tbl.getFullName(), Bytes.toString(startRowKey), Bytes.toString(endRowKey));
+        return new Pair<>(-1L, -1L);
+      } else {
+        rowCount = (long) (totalSize / statsSize.mean());
+      }
+      return new Pair<>(rowCount, (long) statsSize.mean());
+    }
+
+    /**
+     * Returns true if any column family of 'tbl' is compressed.
+     */
+    static boolean isCompressed(FeHBaseTable tbl) {
+      HColumnDescriptor[] columnFamilies = tbl.getColumnFamilies();
+      Preconditions.checkNotNull(columnFamilies);
+      for (HColumnDescriptor desc : columnFamilies) {
+        if (desc.getCompression() != Compression.Algorithm.NONE) return true;
+      }
+      return false;
+    }
+
     /**
      * Returns statistics on this table as a tabular result set. Used for the
      * SHOW TABLE STATS statement. The schema of the returned TResultSet is set
@@ -533,6 +557,19 @@ public interface FeHBaseTable extends FeTable {
     private static Pair<Long, Long> getEstimatedRowStatsForRegion(FeHBaseTable tbl,
         HRegionLocation location, boolean isCompressed, ClusterStatus clusterStatus)
         throws IOException {
+      Pair<Long, Long> sample = sampleRegion(tbl.getHBaseTableName(), location);
+      // If there are no rows then no need to estimate.
+      if (sample.first == 0) return new Pair<>(0L, 0L);
+      return estimateRegionRowStats(sample.first, sample.second,
+          getRegionSize(location, clusterStatus), isCompressed);
+    }
+
+    /**
+     * Reads a small sample of the rows of a single region and returns a pair with the
+     * number of non-empty rows read and their total size in bytes.
+     */
+    static Pair<Long, Long> sampleRegion(String hbaseTableName,
+        HRegionLocation location) throws IOException {
       HRegionInfo info = location.getRegionInfo();
 
       Scan s = new Scan(info.getStartKey());
@@ -549,7 +586,7 @@ public interface FeHBaseTable extends FeTable {
       long currentRowSize = 0;
       long currentRowCount = 0;
 
-      try (org.apache.hadoop.hbase.client.Table table = getHBaseTable(tbl);
+      try (org.apache.hadoop.hbase.client.Table table = getHBaseTable(hbaseTableName);
           ResultScanner rs = table.getScanner(s)) {
         // Get the the ROW_COUNT_ESTIMATE_BATCH_SIZE fetched rows
         // for a representative sample
@@ -576,10 +613,17 @@ public interface FeHBaseTable extends FeTable {
         }
       }
 
-      // If there are no rows then no need to estimate.
-      if (currentRowCount == 0) return new Pair<>(0L, 0L);
-      // Get the size.
-      long currentSize = getRegionSize(location, clusterStatus);
+      return new Pair<>(currentRowCount, currentRowSize);
+    }
+
+    /**
+     * Estimates the number of rows of a region of 'currentSize' bytes from a sample of
+     * 'currentRowCount' rows with 'currentRowSize' bytes, and returns a pair with the
+     * estimated row count and the estimated size in bytes per row.
+     */
+    static Pair<Long, Long> estimateRegionRowStats(long currentRowCount,
+        long currentRowSize, long currentSize, boolean isCompressed) {
+      Preconditions.checkArgument(currentRowCount > 0);
       // estimate the number of rows.
       double bytesPerRow = currentRowSize / (double) currentRowCount;
       if (currentSize == 0) {
@@ -598,7 +642,7 @@ public interface FeHBaseTable extends FeTable {
      * Returns the size of the given region in bytes. Simply returns the storefile size
      * for this region from the ClusterStatus. Returns 0 in case of an error.
      */
-    private static long getRegionSize(HRegionLocation location,
+    static long getRegionSize(HRegionLocation location,
         ClusterStatus clusterStatus) {
       HRegionInfo info = location.getRegionInfo();
       ServerLoad serverLoad = clusterStatus.getLoad(location.getServerName());
@@ -650,8 +694,14 @@ public interface FeHBaseTable extends FeTable {
      */
     public static List<HRegionLocation> getRegionsInRange(FeHBaseTable tbl,
         final byte[] startKey, final byte[] endKey) throws IOException {
+      return getRegionsInRange(tbl.getHBaseTableName(), startKey, endKey);
+    }
+
+    static List<HRegionLocation> getRegionsInRange(String hbaseTableName,
+        final byte[] startKey, final byte[] endKey) throws IOException {
       long startTime = System.currentTimeMillis();
-      try (org.apache.hadoop.hbase.client.Table hbaseTbl = getHBaseTable(tbl)) {
+      try (org.apache.hadoop.hbase.client.Table hbaseTbl =
+          getHBaseTable(hbaseTableName)) {
         final boolean endKeyIsEndOfTable = Bytes.equals(endKey, HConstants.EMPTY_END_ROW);
         if ((Bytes.compareTo(startKey, endKey) > 0) && !endKeyIsEndOfTable) {
           throw new IllegalArgumentException(
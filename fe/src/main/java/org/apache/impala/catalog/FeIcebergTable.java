@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FileStatus;
@@ -56,8 +60,11 @@ import org.apache.impala.thrift.TResultSetMetadata;
 import org.apache.impala.util.IcebergUtil;
 import org.apache.impala.util.ListMap;
 import org.apache.impala.util.TResultRowBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
 
 /**
@@ -229,6 +236,11 @@ public interface FeIcebergTable extends FeFsTable {
     return getFeFsTable().getNullPartitionIds(colIdx);
   }
 
+  @Override
+  default PartitionKeyIndex getPartitionKeyIndex() {
+    return getFeFsTable().getPartitionKeyIndex();
+  }
+
   @Override
   default List<? extends FeFsPartition> loadPartitions(Collection<Long> ids) {
     return getFeFsTable().loadPartitions(ids);
@@ -253,6 +265,12 @@ public interface FeIcebergTable extends FeFsTable {
    * Utility functions
    */
   public static abstract class Utils {
+    private final static Logger LOG = LoggerFactory.getLogger(Utils.class);
+
+    // Number of data files whose FileDescriptors a single task of loadFileDescriptors()
+    // loads.
+    private static final int FILE_DESCRIPTOR_LOAD_BATCH_SIZE = 1000;
+
     /**
      * Returns true if FeIcebergTable file format is columnar: parquet or orc
      */
@@ -452,16 +470,115 @@ public interface FeIcebergTable extends FeFsTable {
      */
     public static Map<String, HdfsPartition.FileDescriptor> loadAllPartition(
         FeIcebergTable table) throws IOException, TableLoadingException {
-      // Empty predicates
-      List<DataFile> dataFileList = IcebergUtil.getIcebergDataFiles(table,
-          new ArrayList<>(), /*timeTravelSpecl=*/null);
+      return loadAllPartition(table, -1, null);
+    }
 
+    /**
+     * Get all FileDescriptor of the current snapshot of 'table'. 'oldFileDescMap' may
+     * hold the FileDescriptors of an earlier snapshot 'oldSnapshotId' of the table. In
+     * that case, the data files added and removed since then are computed from the
+     * manifests of the snapshots in between, and only the added files are loaded from
+     * the filesystem. If the changes cannot be computed that way, all data files of the
+     * table are listed but the FileDescriptors of files with an unchanged path and
+     * length are still reused, since Iceberg never modifies data files in place.
+     */
+    public static Map<String, HdfsPartition.FileDescriptor> loadAllPartition(
+        FeIcebergTable table, long oldSnapshotId,
+        Map<String, HdfsPartition.FileDescriptor> oldFileDescMap)
+        throws IOException, TableLoadingException {
       Map<String, HdfsPartition.FileDescriptor> fileDescMap = new HashMap<>();
-      for (DataFile file : dataFileList) {
-        HdfsPartition.FileDescriptor fileDesc = getFileDescriptor(
-            new Path(file.path().toString()),
-            new Path(table.getIcebergTableLocation()), table.getHostIndex());
-        fileDescMap.put(IcebergUtil.getDataFilePathHash(file), fileDesc);
+      if (table.snapshotId() == -1) return fileDescMap;
+      Map<String, DataFile> filesToLoad = new HashMap<>();
+      IcebergUtil.DataFileDelta delta = null;
+      if (oldFileDescMap != null && oldSnapshotId != -1) {
+        delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId);
+      }
+      if (delta != null) {
+        fileDescMap.putAll(oldFileDescMap);
+        fileDescMap.keySet().removeAll(delta.removedPathHashes);
+        filesToLoad.putAll(delta.addedFiles);
+      } else {
+        // Empty predicates
+        for (DataFile file : IcebergUtil.getIcebergDataFiles(table, new ArrayList<>(),
+            /*timeTravelSpecl=*/null)) {
+          String pathHash = IcebergUtil.getDataFilePathHash(file);
+          HdfsPartition.FileDescriptor oldFileDesc =
+              oldFileDescMap == null ? null : oldFileDescMap.get(pathHash);
+          if (oldFileDesc != null
+              && oldFileDesc.getFileLength() == file.fileSizeInBytes()) {
+            fileDescMap.put(pathHash, oldFileDesc);
+          } else {
+            filesToLoad.put(pathHash, file);
+          }
+        }
+      }
+      if (oldFileDescMap != null) {
+        LOG.info("Reusing {} and loading {} file descriptors of Iceberg table {} {}",
+            fileDescMap.size(), filesToLoad.size(), table.getFullName(),
+            delta != null ? "from snapshot delta" : "after listing all data files");
+      }
+      fileDescMap.putAll(loadFileDescriptors(table, filesToLoad));
+      return fileDescMap;
+    }
+
+    /**
+     * Loads the FileDescriptors of 'dataFiles', which are keyed by their path hash.
+     * The FileSystem calls are issued in batches of FILE_DESCRIPTOR_LOAD_BATCH_SIZE
+     * files on the FileMetadataLoadScheduler pool of the table's filesystem.
+     */
+    private static Map<String, HdfsPartition.FileDescriptor> loadFileDescriptors(
+        FeIcebergTable table, Map<String, DataFile> dataFiles)
+        throws IOException, TableLoadingException {
+      Map<String, HdfsPartition.FileDescriptor> fileDescMap = new ConcurrentHashMap<>();
+      if (dataFiles.isEmpty()) return fileDescMap;
+      Path tableLoc = new Path(table.getIcebergTableLocation());
+      FileSystem fs = FileSystemUtil.getFileSystemForPath(tableLoc);
+      ListMap<TNetworkAddress> hostIndex = table.getHostIndex();
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (List<Map.Entry<String, DataFile>> batch : Iterables.partition(
+          dataFiles.entrySet(), FILE_DESCRIPTOR_LOAD_BATCH_SIZE)) {
+        tasks.add(() -> {
+          for (Map.Entry<String, DataFile> entry : batch) {
+            FileStatus fileStatus =
+                fs.getFileStatus(new Path(entry.getValue().path().toString()));
+            fileDescMap.put(entry.getKey(),
+                getFileDescriptor(fs, tableLoc, fileStatus, hostIndex));
+          }
+          return null;
+        });
+      }
+      if (tasks.size() == 1) {
+        try {
+          tasks.get(0).call();
+        } catch (IOException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new TableLoadingException("Error loading file descriptors", e);
+        }
+        return fileDescMap;
+      }
+      int maxParallelism = Math.min(tasks.size(),
+          ParallelFileMetadataLoader.getMaxParallelLoads(fs));
+      List<Future<Void>> futures =
+          FileMetadataLoadScheduler.get().submitAll(fs, tasks, maxParallelism);
+      // Unless interrupted, wait for all tasks so none of them still runs on return.
+      Exception firstError = null;
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (firstError == null) firstError = e;
+        } catch (InterruptedException e) {
+          // Stop waiting and drop the tasks that did not start yet.
+          Thread.currentThread().interrupt();
+          for (Future<Void> f : futures) f.cancel(false);
+          throw new TableLoadingException("Interrupted while loading file " +
+              "descriptors of Iceberg table " + table.getFullName(), e);
+        }
+      }
+      if (firstError != null) {
+        throw new TableLoadingException("Error loading file descriptors of Iceberg " +
+            "table " + table.getFullName(), firstError);
       }
       return fileDescMap;
     }
@@ -42,6 +42,13 @@ public interface FeTable {
   /** @see CatalogObject#isLoaded() */
   boolean isLoaded();
 
+  /**
+   * @return the catalog version of the table's metadata, or
+   * Catalog.INITIAL_CATALOG_VERSION if the table is not versioned by the catalog.
+   * @see CatalogObject#getCatalogVersion()
+   */
+  long getCatalogVersion();
+
   /**
    * @return the metastore.api.Table object this Table was created from. Returns null
    * if the derived Table object was not created from a metastore Table (ex. InlineViews).
@@ -0,0 +1,334 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.impala.common.FileSystemUtil;
+import org.apache.impala.service.BackendConfig;
+import org.apache.impala.thrift.TFileMetadataLoadPoolMetrics;
+import org.apache.impala.util.ThreadNameAnnotator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+/**
+ * Catalog-wide scheduler for the file metadata loading tasks issued by
+ * ParallelFileMetadataLoader.
+ *
+ * There is one long-lived pool of daemon threads per filesystem type (e.g. HDFS, S3),
+ * created on first use. The size of a pool is a global cap on the number of concurrent
+ * listing calls against that filesystem, regardless of how many tables are being loaded
+ * at the same time. HDFS-like filesystems that support storage ids get a smaller cap
+ * than object stores, see ParallelFileMetadataLoader for the rationale.
+ *
+ * Tasks of a single load call form a queue that is served fairly: idle threads take
+ * one task at a time from the queues in round-robin order, so a table with many
+ * partitions cannot starve tables that are loaded after it. In addition, no more than
+ * the per-load parallelism of a queue's tasks run at the same time.
+ *
+ * Each pool tracks the time tasks spend waiting for a thread and the number of paths
+ * and files it loaded, see getPoolMetrics().
+ */
+public class FileMetadataLoadScheduler {
+  private final static Logger LOG =
+      LoggerFactory.getLogger(FileMetadataLoadScheduler.class);
+
+  private static FileMetadataLoadScheduler INSTANCE;
+
+  /**
+   * Tasks of a single submitAll() call.
+   */
+  private static class TaskQueue {
+    // Maximum number of tasks of this queue that run at the same time.
+    final int maxParallelism;
+    final Deque<QueuedTask> tasks = new ArrayDeque<>();
+    // Number of tasks taken from this queue that have not finished yet.
+    int numRunning = 0;
+    // True if this queue is in the ready list of its pool.
+    boolean inReadyList = false;
+
+    TaskQueue(int maxParallelism) { this.maxParallelism = maxParallelism; }
+
+    boolean isReady() { return !tasks.isEmpty() && numRunning < maxParallelism; }
+  }
+
+  private static class QueuedTask {
+    final TaskQueue queue;
+    final FutureTask<Void> future;
+    final long enqueueTimeNs = System.nanoTime();
+
+    QueuedTask(TaskQueue queue, FutureTask<Void> future) {
+      this.queue = queue;
+      this.future = future;
+    }
+  }
+
+  /**
+   * Threads and queues for a single filesystem type.
+   */
+  @VisibleForTesting
+  static class FsPool {
+    private final String fsType_;
+    private final int numThreads_;
+    private final List<Thread> threads_ = new ArrayList<>();
+
+    // Queues that have tasks that may be started, in the order they are served.
+    @GuardedBy("this")
+    private final Deque<TaskQueue> readyQueues_ = new ArrayDeque<>();
+    @GuardedBy("this")
+    private int numQueuedTasks_ = 0;
+    // Number of queues that have queued or running tasks.
+    @GuardedBy("this")
+    private int numActiveQueues_ = 0;
+    @GuardedBy("this")
+    private boolean isShutdown_ = false;
+
+    private final Timer queueWaitTimer_ = new Timer();
+    private final Meter filesLoaded_ = new Meter();
+    private final AtomicLong numPathsLoaded_ = new AtomicLong();
+
+    FsPool(String fsType, int numThreads) {
+      Preconditions.checkArgument(numThreads > 0);
+      fsType_ = fsType;
+      numThreads_ = numThreads;
+      ThreadFactory threadFactory = new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("FileMetadataLoader-" + fsType + "-%d")
+          .build();
+      for (int i = 0; i < numThreads; ++i) {
+        Thread thread = threadFactory.newThread(this::runWorker);
+        threads_.add(thread);
+        thread.start();
+      }
+      LOG.info("Started {} file metadata loading threads for {}", numThreads, fsType);
+    }
+
+    /**
+     * Queues 'tasks' as a new queue of which at most 'maxParallelism' tasks run at the
+     * same time. Returns the futures of the tasks in the same order.
+     */
+    synchronized List<Future<Void>> submitAll(Collection<Callable<Void>> tasks,
+        int maxParallelism) {
+      Preconditions.checkArgument(maxParallelism > 0);
+      Preconditions.checkState(!isShutdown_, "Pool %s is shut down", fsType_);
+      List<Future<Void>> futures = new ArrayList<>(tasks.size());
+      if (tasks.isEmpty()) return futures;
+      TaskQueue queue = new TaskQueue(maxParallelism);
+      for (Callable<Void> task : tasks) {
+        FutureTask<Void> future = new FutureTask<>(task);
+        queue.tasks.add(new QueuedTask(queue, future));
+        futures.add(future);
+      }
+      numQueuedTasks_ += tasks.size();
+      ++numActiveQueues_;
+      queue.inReadyList = true;
+      readyQueues_.addLast(queue);
+      notifyAll();
+      return futures;
+    }
+
+    /**
+     * Stops accepting tasks. The threads of the pool exit once all the tasks that were
+     * submitted before have finished.
+     */
+    synchronized void shutdown() {
+      isShutdown_ = true;
+      notifyAll();
+    }
+
+    /**
+     * Waits up to 'timeoutMs' for the threads to exit after shutdown(). Returns true if
+     * all of them exited.
+     */
+    @VisibleForTesting
+    boolean awaitTermination(long timeoutMs) throws InterruptedException {
+      long deadlineMs = System.currentTimeMillis() + timeoutMs;
+      for (Thread thread : threads_) {
+        thread.join(Math.max(1, deadlineMs - System.currentTimeMillis()));
+        if (thread.isAlive()) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Blocks until a task may be started and takes it from the queue that is next in
+     * turn. The queue goes back to the end of the ready list if it may start more
+     * tasks. Returns null once the pool is shut down and no tasks are queued.
+     */
+    private synchronized QueuedTask takeTask() throws InterruptedException {
+      while (readyQueues_.isEmpty()) {
+        if (isShutdown_ && numQueuedTasks_ == 0) return null;
+        wait();
+      }
+      TaskQueue queue = readyQueues_.removeFirst();
+      QueuedTask task = queue.tasks.removeFirst();
+      --numQueuedTasks_;
+      // Wakes up the idle threads so that they exit.
+      if (isShutdown_ && numQueuedTasks_ == 0) notifyAll();
+      ++queue.numRunning;
+      queue.inReadyList = queue.isReady();
+      if (queue.inReadyList) readyQueues_.addLast(queue);
+      return task;
+    }
+
+    private synchronized void finishTask(TaskQueue queue) {
+      --queue.numRunning;
+      if (queue.tasks.isEmpty() && queue.numRunning == 0) {
+        --numActiveQueues_;
+      } else if (!queue.inReadyList && queue.isReady()) {
+        queue.inReadyList = true;
+        readyQueues_.addLast(queue);
+        notifyAll();
+      }
+    }
+
+    private void runWorker() {
+      while (true) {
+        QueuedTask task;
+        try {
+          task = takeTask();
+        } catch (InterruptedException e) {
+          LOG.warn("File metadata loading thread interrupted, exiting", e);
+          return;
+        }
+        if (task == null) return;
+        queueWaitTimer_.update(System.nanoTime() - task.enqueueTimeNs,
+            TimeUnit.NANOSECONDS);
+        try {
+          // The FutureTask captures any exception for the submitter.
+          task.future.run();
+        } finally {
+          finishTask(task.queue);
+        }
+      }
+    }
+
+    void recordLoad(FileMetadataLoader loader) {
+      numPathsLoaded_.incrementAndGet();
+      filesLoaded_.mark(loader.getStats().loadedFiles);
+    }
+
+    synchronized TFileMetadataLoadPoolMetrics getMetrics() {
+      TFileMetadataLoadPoolMetrics metrics = new TFileMetadataLoadPoolMetrics();
+      metrics.setFs_type(fsType_);
+      metrics.setNum_threads(numThreads_);
+      metrics.setNum_queued_tasks(numQueuedTasks_);
+      metrics.setNum_active_loads(numActiveQueues_);
+      metrics.setQueue_wait_time_mean_ms(
+          queueWaitTimer_.getSnapshot().getMean() / 1000000.0);
+      metrics.setNum_paths_loaded(numPathsLoaded_.get());
+      metrics.setFiles_loaded_1min_rate(filesLoaded_.getOneMinuteRate());
+      return metrics;
+    }
+
+    @VisibleForTesting
+    long getNumQueueWaits() { return queueWaitTimer_.getCount(); }
+  }
+
+  private final int maxHdfsThreads_;
+  private final int maxNonHdfsThreads_;
+  private final Map<String, FsPool> pools_ = new ConcurrentHashMap<>();
+
+  @VisibleForTesting
+  FileMetadataLoadScheduler(int maxHdfsThreads, int maxNonHdfsThreads) {
+    Preconditions.checkArgument(maxHdfsThreads > 0);
+    Preconditions.checkArgument(maxNonHdfsThreads > 0);
+    maxHdfsThreads_ = maxHdfsThreads;
+    maxNonHdfsThreads_ = maxNonHdfsThreads;
+  }
+
+  public static synchronized FileMetadataLoadScheduler get() {
+    if (INSTANCE == null) {
+      BackendConfig cfg = BackendConfig.INSTANCE;
+      INSTANCE = new FileMetadataLoadScheduler(cfg.maxHdfsFileMetadataLoadingThreads(),
+          cfg.maxNonHdfsFileMetadataLoadingThreads());
+    }
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the metrics of the pools that were created so far, or null if the
+   * scheduler was never used.
+   */
+  public static synchronized List<TFileMetadataLoadPoolMetrics> getPoolMetrics() {
+    if (INSTANCE == null) return null;
+    List<TFileMetadataLoadPoolMetrics> ret = new ArrayList<>();
+    for (FsPool pool : INSTANCE.pools_.values()) ret.add(pool.getMetrics());
+    return ret;
+  }
+
+  /**
+   * Loads all 'loaders' on the pool of the filesystem 'fs', running at most
+   * 'maxParallelism' of them at the same time. Worker threads are annotated with
+   * 'logPrefix' while they run a loader. Returns the futures of the loads in the
+   * iteration order of 'loaders'.
+   */
+  public List<Future<Void>> loadAll(FileSystem fs,
+      Collection<FileMetadataLoader> loaders, int maxParallelism, String logPrefix) {
+    FsPool pool = getPool(fs);
+    List<Callable<Void>> tasks = new ArrayList<>(loaders.size());
+    for (FileMetadataLoader loader : loaders) {
+      tasks.add(() -> {
+        try (ThreadNameAnnotator tna = new ThreadNameAnnotator(logPrefix)) {
+          loader.load();
+        }
+        pool.recordLoad(loader);
+        return null;
+      });
+    }
+    return pool.submitAll(tasks, maxParallelism);
+  }
+
+  /**
+   * Runs 'tasks' on the pool of the filesystem 'fs', at most 'maxParallelism' of them at
+   * the same time. Returns the futures of the tasks in the iteration order of 'tasks'.
+   */
+  public List<Future<Void>> submitAll(FileSystem fs, Collection<Callable<Void>> tasks,
+      int maxParallelism) {
+    return getPool(fs).submitAll(tasks, maxParallelism);
+  }
+
+  @VisibleForTesting
+  FsPool getPool(FileSystem fs) {
+    FileSystemUtil.FsType fsType = FileSystemUtil.FsType.getFsType(fs.getScheme());
+    String poolName = fsType != null ? fsType.name() : fs.getScheme().toUpperCase();
+    boolean supportsStorageIds = FileSystemUtil.supportsStorageIds(fs);
+    return pools_.computeIfAbsent(poolName, (name) -> new FsPool(name,
+        supportsStorageIds ? maxHdfsThreads_ : maxNonHdfsThreads_));
+  }
+}
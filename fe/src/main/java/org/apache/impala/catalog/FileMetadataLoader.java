@@ -42,6 +42,7 @@ import org.apache.impala.util.ThreadNameAnnotator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +56,11 @@ public class FileMetadataLoader {
   private final static Logger LOG = LoggerFactory.getLogger(FileMetadataLoader.class);
   private static final Configuration CONF = new Configuration();
 
+  // A directory modification time is only recorded if the directory was last modified
+  // at least this long before it was listed. Changes which happen within the timestamp
+  // granularity of the filesystem after the listing would otherwise go unnoticed.
+  private static final long MIN_DIR_MTIME_AGE_MS = 1000;
+
   private final Path partDir_;
   private final boolean recursive_;
   private final ImmutableMap<String, FileDescriptor> oldFdsByRelPath_;
@@ -68,6 +74,16 @@ public class FileMetadataLoader {
 
   private boolean forceRefreshLocations = false;
 
+  // If true, the modification time of partDir_ is checked before listing it, see
+  // enableDirModificationTimeCheck().
+  private boolean checkDirMtime_ = false;
+  // Modification time of partDir_ that the old file descriptors reflect, or -1 if
+  // unknown.
+  private long prevDirMtime_ = -1;
+  // Modification time of partDir_ that the loaded file descriptors reflect, or -1 if
+  // unknown.
+  private long dirMtime_ = -1;
+
   private List<FileDescriptor> loadedFds_;
   private List<FileDescriptor> loadedInsertDeltaFds_;
   private List<FileDescriptor> loadedDeleteDeltaFds_;
@@ -121,6 +137,27 @@ public class FileMetadataLoader {
     forceRefreshLocations = refresh;
   }
 
+  /**
+   * Enables the incremental refresh of the directory. If the modification time of the
+   * directory still equals 'prevDirMtime', i.e. no file was added, removed or renamed
+   * in it since the old file descriptors were loaded, load() reuses the old file
+   * descriptors without listing the directory. 'prevDirMtime' is -1 if it is unknown.
+   * This only takes effect for non-recursive, non-ACID listings on HDFS and the local
+   * filesystem, whose directory modification times are reliable. Note that appending to
+   * an existing file does not change the modification time of its directory.
+   */
+  public void enableDirModificationTimeCheck(long prevDirMtime) {
+    checkDirMtime_ = true;
+    prevDirMtime_ = prevDirMtime;
+  }
+
+  /**
+   * @return the modification time of the directory that the loaded file descriptors
+   * reflect, or -1 if it is unknown. Only set if enableDirModificationTimeCheck() was
+   * called.
+   */
+  public long getDirModificationTime() { return dirMtime_; }
+
   /**
    * @return the file descriptors that were loaded after an invocation of load()
    */
@@ -166,6 +203,16 @@ public class FileMetadataLoader {
     loadStats_ = new LoadStats(partDir_);
     FileSystem fs = partDir_.getFileSystem(CONF);
 
+    long dirMtime = getDirModificationTimeForCheck(fs);
+    if (dirMtime != -1 && dirMtime == prevDirMtime_ && !forceRefreshLocations) {
+      LOG.trace("Skipped listing unchanged path {}", partDir_);
+      loadedFds_ = oldFdsByRelPath_.values().asList();
+      loadStats_.skippedFiles = loadedFds_.size();
+      loadStats_.skippedListing = true;
+      dirMtime_ = dirMtime;
+      return;
+    }
+
     // If we don't have any prior FDs from which we could re-use old block location info,
     // we'll need to fetch info for every returned file. In this case we can inline
     // that request with the 'list' call and save a round-trip per file.
@@ -244,12 +291,34 @@ public class FileMetadataLoader {
         }
       }
       loadStats_.unknownDiskIds += numUnknownDiskIds.getRef();
+      if (dirMtime != -1
+          && System.currentTimeMillis() - dirMtime >= MIN_DIR_MTIME_AGE_MS) {
+        dirMtime_ = dirMtime;
+      }
       if (LOG.isTraceEnabled()) {
         LOG.trace(loadStats_.debugString());
       }
     }
   }
 
+  /**
+   * Returns the current modification time of partDir_ if the directory modification time
+   * check is enabled and applicable to this listing, otherwise -1.
+   */
+  private long getDirModificationTimeForCheck(FileSystem fs) throws IOException {
+    if (!checkDirMtime_ || recursive_ || writeIds_ != null) return -1;
+    if (!FileSystemUtil.isDistributedFileSystem(fs)
+        && !FileSystemUtil.isLocalFileSystem(fs)) {
+      return -1;
+    }
+    try {
+      return fs.getFileStatus(partDir_).getModificationTime();
+    } catch (FileNotFoundException e) {
+      // The listing below handles missing directories.
+      return -1;
+    }
+  }
+
   /**
    * Create a FileDescriptor for the given FileStatus. If the FS supports block locations,
    * and FileStatus is a LocatedFileStatus (i.e. the location was prefetched) this uses
@@ -326,6 +395,10 @@ public class FileMetadataLoader {
     // metadata for this path.
     public int unknownDiskIds = 0;
 
+    // True if the path was not listed because its modification time has not changed
+    // since the last load.
+    public boolean skippedListing = false;
+
     public String debugString() {
       return MoreObjects.toStringHelper("")
         .add("path", partDir_)
@@ -335,6 +408,7 @@ public class FileMetadataLoader {
         .add("uncommited files", nullIfZero(uncommittedAcidFilesSkipped))
         .add("superceded files", nullIfZero(filesSupersededByAcidState))
         .add("unknown diskIds", nullIfZero(unknownDiskIds))
+        .add("skipped listing", skippedListing ? true : null)
         .omitNullValues()
         .toString();
     }
@@ -0,0 +1,342 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.ClusterStatus;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.impala.common.Pair;
+import org.apache.impala.service.BackendConfig;
+import org.apache.impala.util.PlanningMetadataCache;
+import org.apache.impala.util.StatsHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Coordinator-side cache of the regions of HBase tables with their sizes and row
+ * samples, used to plan HBase scans without contacting HBase for every query.
+ *
+ * Without the cache, every HBase scan looks up the regions of its key range and samples
+ * rows of some of them to estimate the row count and row size, see
+ * FeHBaseTable.Util.getEstimatedRowStats(). An entry of the cache holds all regions of
+ * a table with their storefile sizes, and the number and size of the rows read by a
+ * small sample scan from some of them. Like the uncached estimate, the load samples
+ * regions in random order until at least FeHBaseTable.Util.MIN_NUM_REGIONS_TO_CHECK
+ * regions were sampled and the bytes per row of the samples converged. The estimates
+ * for a key range are computed in memory from the regions in the range.
+ *
+ * Entries are loaded and refreshed by background threads, with at most one load of a
+ * table in flight. The first query on a table falls back to the uncached estimate
+ * while the table is loaded. Entries are refreshed when they are accessed and older
+ * than half of --hbase_region_stats_cache_staleness_s, and dropped when they are older
+ * than it, so the cached stats are never staler than that bound.
+ */
+public class HBaseRegionStatsCache extends
+    PlanningMetadataCache<String, HBaseRegionStatsCache.Entry> {
+  private final static Logger LOG = LoggerFactory.getLogger(HBaseRegionStatsCache.class);
+
+  // Maximum number of cached tables.
+  private static final int MAX_ENTRIES = 1000;
+
+  // Number of threads that load and refresh the regions of tables.
+  private static final int NUM_LOADING_THREADS = 2;
+
+  private static class InstanceHolder {
+    // Null if the cache is disabled by --hbase_region_stats_cache_staleness_s.
+    static final HBaseRegionStatsCache INSTANCE = create();
+
+    private static HBaseRegionStatsCache create() {
+      int stalenessSeconds = BackendConfig.INSTANCE.getHBaseRegionStatsCacheStalenessS();
+      return stalenessSeconds > 0 ? new HBaseRegionStatsCache(stalenessSeconds) : null;
+    }
+  }
+
+  /**
+   * A region of a table with its storefile size and, if it was sampled, the number and
+   * size of the rows read from it.
+   */
+  static class RegionStats {
+    final HRegionLocation location_;
+    final long size_;
+    final boolean isSampled_;
+    final long sampleRowCount_;
+    final long sampleRowBytes_;
+
+    RegionStats(HRegionLocation location, long size, boolean isSampled,
+        long sampleRowCount, long sampleRowBytes) {
+      location_ = location;
+      size_ = size;
+      isSampled_ = isSampled;
+      sampleRowCount_ = sampleRowCount;
+      sampleRowBytes_ = sampleRowBytes;
+    }
+
+    byte[] getStartKey() { return location_.getRegionInfo().getStartKey(); }
+    byte[] getEndKey() { return location_.getRegionInfo().getEndKey(); }
+  }
+
+  /**
+   * The regions of a table, ordered by start key, and the time they were loaded.
+   */
+  static class Entry {
+    final ImmutableList<RegionStats> regions_;
+    final long loadTimeNanos_;
+
+    Entry(ImmutableList<RegionStats> regions, long loadTimeNanos) {
+      regions_ = regions;
+      loadTimeNanos_ = loadTimeNanos;
+    }
+  }
+
+  /**
+   * Loads the regions of an HBase table with their stats.
+   */
+  interface RegionStatsLoader {
+    ImmutableList<RegionStats> load(String hbaseTableName) throws Exception;
+  }
+
+  private final RegionStatsLoader loader_;
+  private final Executor loadingExecutor_;
+  private final Ticker ticker_;
+  private final long refreshNanos_;
+
+  // HBase tables whose regions are being loaded.
+  private final ConcurrentHashMap<String, Boolean> loadsInFlight_ =
+      new ConcurrentHashMap<>();
+
+  private HBaseRegionStatsCache(long stalenessSeconds) {
+    this(stalenessSeconds, HBaseRegionStatsCache::loadRegions,
+        Executors.newFixedThreadPool(NUM_LOADING_THREADS,
+            new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("HBase-region-stats-loader-%d").build()),
+        Ticker.systemTicker());
+  }
+
+  /**
+   * Creates a cache that loads the regions of tables with 'loader' on
+   * 'loadingExecutor', and measures the age of entries with 'ticker'.
+   */
+  @VisibleForTesting
+  HBaseRegionStatsCache(long stalenessSeconds, RegionStatsLoader loader,
+      Executor loadingExecutor, Ticker ticker) {
+    super("HBaseRegionStatsCache", CacheBuilder.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(stalenessSeconds, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .recordStats()
+        .build());
+    Preconditions.checkArgument(stalenessSeconds > 0);
+    loader_ = Preconditions.checkNotNull(loader);
+    loadingExecutor_ = Preconditions.checkNotNull(loadingExecutor);
+    ticker_ = Preconditions.checkNotNull(ticker);
+    refreshNanos_ = TimeUnit.SECONDS.toNanos(stalenessSeconds) / 2;
+    LOG.info("HBase region stats cache configuration: staleness={} s",
+        stalenessSeconds);
+  }
+
+  /**
+   * Returns the cache of this process, or null if it is disabled by
+   * --hbase_region_stats_cache_staleness_s.
+   */
+  public static HBaseRegionStatsCache get() { return InstanceHolder.INSTANCE; }
+
+  /**
+   * Lists all regions of 'hbaseTableName' and reads a sample of the rows of regions in
+   * random order, until at least MIN_NUM_REGIONS_TO_CHECK regions were sampled and the
+   * standard deviation of their bytes per row is within DELTA_FROM_AVERAGE of the mean,
+   * like FeHBaseTable.Util.getEstimatedRowStats().
+   */
+  @VisibleForTesting
+  static ImmutableList<RegionStats> loadRegions(String hbaseTableName)
+      throws Exception {
+    long startTime = System.currentTimeMillis();
+    ClusterStatus clusterStatus = FeHBaseTable.Util.getClusterStatus();
+    List<HRegionLocation> locations = FeHBaseTable.Util.getRegionsInRange(
+        hbaseTableName, HConstants.EMPTY_START_ROW, HConstants.EMPTY_END_ROW);
+    // Indexes of the regions in the order in which they are sampled.
+    List<Integer> sampleOrder = new ArrayList<>(locations.size());
+    for (int i = 0; i < locations.size(); ++i) sampleOrder.add(i);
+    Collections.shuffle(sampleOrder);
+    StatsHelper<Double> bytesPerRow = new StatsHelper<>();
+    Map<Integer, Pair<Long, Long>> samples = new HashMap<>();
+    while ((bytesPerRow.count() < FeHBaseTable.Util.MIN_NUM_REGIONS_TO_CHECK ||
+        bytesPerRow.stddev() > bytesPerRow.mean() * FeHBaseTable.Util.DELTA_FROM_AVERAGE)
+        && bytesPerRow.count() < sampleOrder.size()) {
+      int idx = sampleOrder.get((int) bytesPerRow.count());
+      Pair<Long, Long> sample =
+          FeHBaseTable.Util.sampleRegion(hbaseTableName, locations.get(idx));
+      samples.put(idx, sample);
+      bytesPerRow.addSample(
+          sample.first == 0 ? 0.0 : sample.second / (double) sample.first);
+    }
+    ImmutableList.Builder<RegionStats> regions = ImmutableList.builder();
+    for (int i = 0; i < locations.size(); ++i) {
+      Pair<Long, Long> sample = samples.get(i);
+      regions.add(new RegionStats(locations.get(i),
+          FeHBaseTable.Util.getRegionSize(locations.get(i), clusterStatus),
+          sample != null, sample != null ? sample.first : 0,
+          sample != null ? sample.second : 0));
+    }
+    LOG.info("Loaded stats of {} regions of HBase table {}, sampled {} regions, in {}ms",
+        locations.size(), hbaseTableName, bytesPerRow.count(),
+        System.currentTimeMillis() - startTime);
+    return regions.build();
+  }
+
+  /**
+   * Returns the cached regions of 'tbl', or null if they are not loaded yet, in which
+   * case they are loaded in the background. Regions that are due for a refresh are
+   * returned and refreshed in the background.
+   */
+  private List<RegionStats> getRegions(FeHBaseTable tbl) {
+    String hbaseTableName = tbl.getHBaseTableName();
+    Entry entry = cache_.getIfPresent(hbaseTableName);
+    addHitsAndMisses(entry != null ? 1 : 0, entry != null ? 0 : 1);
+    if (entry == null || ticker_.read() - entry.loadTimeNanos_ >= refreshNanos_) {
+      startLoad(hbaseTableName);
+    }
+    return entry != null ? entry.regions_ : null;
+  }
+
+  /**
+   * Loads the regions of 'hbaseTableName' into the cache on loadingExecutor_, unless a
+   * load of the table is already in flight.
+   */
+  private void startLoad(String hbaseTableName) {
+    if (loadsInFlight_.putIfAbsent(hbaseTableName, Boolean.TRUE) != null) return;
+    loadingExecutor_.execute(() -> {
+      try {
+        long loadTimeNanos = ticker_.read();
+        cache_.put(hbaseTableName,
+            new Entry(loader_.load(hbaseTableName), loadTimeNanos));
+      } catch (Exception e) {
+        LOG.warn("Failed to load the region stats of HBase table " + hbaseTableName, e);
+      } finally {
+        loadsInFlight_.remove(hbaseTableName);
+      }
+    });
+  }
+
+  /**
+   * Returns the regions in 'regions' that contain keys in the range from 'startKey'
+   * (inclusive) to 'endKey' (exclusive), in the same way as
+   * FeHBaseTable.Util.getRegionsInRange().
+   */
+  private static List<RegionStats> getRegionStatsInRange(List<RegionStats> regions,
+      byte[] startKey, byte[] endKey) {
+    final boolean endKeyIsEndOfTable = Bytes.equals(endKey, HConstants.EMPTY_END_ROW);
+    if ((Bytes.compareTo(startKey, endKey) > 0) && !endKeyIsEndOfTable) {
+      throw new IllegalArgumentException(
+          "Invalid range: " + Bytes.toStringBinary(startKey) + " > " +
+              Bytes.toStringBinary(endKey));
+    }
+    List<RegionStats> result = new ArrayList<>();
+    for (RegionStats region : regions) {
+      if (result.isEmpty()) {
+        // Skips the regions before the one that contains 'startKey'.
+        if (!Bytes.equals(region.getEndKey(), HConstants.EMPTY_END_ROW) &&
+            Bytes.compareTo(region.getEndKey(), startKey) <= 0) {
+          continue;
+        }
+      } else {
+        byte[] prevEndKey = result.get(result.size() - 1).getEndKey();
+        if (!endKeyIsEndOfTable && Bytes.compareTo(prevEndKey, endKey) >= 0) break;
+      }
+      result.add(region);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the cached locations of the regions of 'tbl' in a key range, see
+   * getRegionStatsInRange(), or null if the regions of the table are not cached.
+   */
+  public List<HRegionLocation> getRegionsInRange(FeHBaseTable tbl, byte[] startKey,
+      byte[] endKey) {
+    List<RegionStats> regions = getRegions(tbl);
+    if (regions == null) return null;
+    List<RegionStats> regionsInRange = getRegionStatsInRange(regions, startKey, endKey);
+    List<HRegionLocation> result = new ArrayList<>(regionsInRange.size());
+    for (RegionStats region : regionsInRange) result.add(region.location_);
+    return result;
+  }
+
+  /**
+   * Returns the estimated number of rows and bytes per row in the key range of 'tbl'
+   * from the cached regions, or null if the regions of the table are not cached. The
+   * estimate is computed like in FeHBaseTable.Util.getEstimatedRowStats(), from the
+   * sampled regions in the range, or from all sampled regions of the table if none of
+   * the regions in the range was sampled.
+   */
+  public Pair<Long, Long> getEstimatedRowStats(FeHBaseTable tbl, byte[] startRowKey,
+      byte[] endRowKey) {
+    List<RegionStats> regions = getRegions(tbl);
+    if (regions == null) return null;
+    boolean isCompressed = FeHBaseTable.Util.isCompressed(tbl);
+    StatsHelper<Long> statsSize = new StatsHelper<>();
+    long totalEstimatedRows = 0;
+    long totalSize = 0;
+    for (RegionStats region : getRegionStatsInRange(regions, startRowKey, endRowKey)) {
+      if (region.isSampled_) {
+        totalEstimatedRows += addSample(region, isCompressed, statsSize);
+      }
+      totalSize += region.size_;
+    }
+    if (statsSize.count() == 0) {
+      for (RegionStats region : regions) {
+        if (region.isSampled_) addSample(region, isCompressed, statsSize);
+      }
+    }
+    return FeHBaseTable.Util.computeRowStats(tbl, startRowKey, endRowKey,
+        totalEstimatedRows, statsSize, totalSize);
+  }
+
+  /**
+   * Adds the bytes per row of the sample of 'region' to 'statsSize' and returns the
+   * estimated row count of the region.
+   */
+  private static long addSample(RegionStats region, boolean isCompressed,
+      StatsHelper<Long> statsSize) {
+    if (region.sampleRowCount_ == 0) {
+      statsSize.addSample(0L);
+      return 0;
+    }
+    Pair<Long, Long> estimate = FeHBaseTable.Util.estimateRegionRowStats(
+        region.sampleRowCount_, region.sampleRowBytes_, region.size_, isCompressed);
+    statsSize.addSample(estimate.second);
+    return estimate.first;
+  }
+}
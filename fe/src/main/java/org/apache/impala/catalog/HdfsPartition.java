@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -77,6 +78,8 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -541,10 +544,11 @@ public class HdfsPartition extends CatalogObjectImpl
   // any field can be mutated by Impala it should belong to HdfsPartition itself (see
   // HdfsPartition.location_ for an example).
   //
-  // TODO: Cache this descriptor in HdfsTable so that identical descriptors are shared
-  // between HdfsPartition instances.
-  // TODO: sdInputFormat and sdOutputFormat can be mutated by Impala when the file format
-  // of a partition changes; move these fields to HdfsPartition.
+  // The descriptors of the partitions of a table are usually identical, so the built
+  // partitions share equal instances through DESCRIPTOR_INTERNER. The creation and
+  // last access times, which differ between partitions, are stored in HdfsPartition.
+  // Only the private descriptor of a Builder may be mutated, e.g. when the file format
+  // of a partition changes, and it is copied before being interned.
   private static class CachedHmsPartitionDescriptor {
     public String sdInputFormat;
     public String sdOutputFormat;
@@ -554,8 +558,6 @@ public class HdfsPartition extends CatalogObjectImpl
     public final ImmutableList<String> sdBucketCols;
     public final ImmutableList<org.apache.hadoop.hive.metastore.api.Order> sdSortCols;
     public final ImmutableMap<String, String> sdParameters;
-    public final int msCreateTime;
-    public final int msLastAccessTime;
 
     public CachedHmsPartitionDescriptor(
         org.apache.hadoop.hive.metastore.api.Partition msPartition) {
@@ -563,10 +565,6 @@ public class HdfsPartition extends CatalogObjectImpl
       if (msPartition != null) {
         sd = msPartition.getSd();
         CatalogInterners.internFieldsInPlace(sd);
-        msCreateTime = msPartition.getCreateTime();
-        msLastAccessTime = msPartition.getLastAccessTime();
-      } else {
-        msCreateTime = msLastAccessTime = 0;
       }
       if (sd != null) {
         sdInputFormat = sd.getInputFormat();
@@ -595,15 +593,39 @@ public class HdfsPartition extends CatalogObjectImpl
       sdOutputFormat = other.sdOutputFormat;
       sdCompressed = other.sdCompressed;
       sdNumBuckets = other.sdNumBuckets;
-      sdSerdeInfo = new org.apache.hadoop.hive.metastore.api.SerDeInfo(other.sdSerdeInfo);
+      sdSerdeInfo = other.sdSerdeInfo == null ? null :
+          new org.apache.hadoop.hive.metastore.api.SerDeInfo(other.sdSerdeInfo);
       sdBucketCols = other.sdBucketCols;
       sdSortCols = other.sdSortCols;
       sdParameters = ImmutableMap.copyOf(other.sdParameters);
-      msCreateTime = other.msCreateTime;
-      msLastAccessTime = other.msLastAccessTime;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof CachedHmsPartitionDescriptor)) return false;
+      CachedHmsPartitionDescriptor other = (CachedHmsPartitionDescriptor) obj;
+      return sdCompressed == other.sdCompressed
+          && sdNumBuckets == other.sdNumBuckets
+          && Objects.equals(sdInputFormat, other.sdInputFormat)
+          && Objects.equals(sdOutputFormat, other.sdOutputFormat)
+          && Objects.equals(sdSerdeInfo, other.sdSerdeInfo)
+          && sdBucketCols.equals(other.sdBucketCols)
+          && sdSortCols.equals(other.sdSortCols)
+          && sdParameters.equals(other.sdParameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sdInputFormat, sdOutputFormat, sdCompressed, sdNumBuckets,
+          sdSerdeInfo, sdBucketCols, sdSortCols, sdParameters);
     }
   }
 
+  // Canonical instances of the CachedHmsPartitionDescriptors of built partitions.
+  private static final Interner<CachedHmsPartitionDescriptor> DESCRIPTOR_INTERNER =
+      Interners.newWeakInterner();
+
   private final static Logger LOG = LoggerFactory.getLogger(HdfsPartition.class);
 
   // A predicate for checking if a given string is a key used for serializing
@@ -667,6 +689,9 @@ public class HdfsPartition extends CatalogObjectImpl
   // (k,v) pairs of parameters for this partition, stored in the HMS.
   private final ImmutableMap<String, String> hmsParameters_;
   private final CachedHmsPartitionDescriptor cachedMsPartitionDescriptor_;
+  // Creation and last access time of the partition in the HMS.
+  private final int msCreateTime_;
+  private final int msLastAccessTime_;
 
   // Binary representation of the TPartitionStats for this partition. Populated
   // when the partition is being built in Builder#setPartitionStatsBytes().
@@ -692,6 +717,12 @@ public class HdfsPartition extends CatalogObjectImpl
   // -1 means there is no previous compaction event or compaction is not supported
   private final long lastCompactionId_;
 
+  // Modification time of the partition directory that the file descriptors reflect, or
+  // -1 if unknown. Used by FileMetadataLoader to skip listing unchanged directories on
+  // refresh. Only tracked in catalogd, where it's updated in place if a refresh leaves
+  // the file descriptors unchanged.
+  private volatile long dirModificationTime_ = -1;
+
   /**
    * Constructor.  Needed for third party extensions that want to use their own builder
    * to construct the object.
@@ -711,7 +742,8 @@ public class HdfsPartition extends CatalogObjectImpl
         encodedInsertFileDescriptors, encodedDeleteFileDescriptors, location,
         isMarkedCached, accessLevel, hmsParameters, cachedMsPartitionDescriptor,
         partitionStats, hasIncrementalStats, numRows, writeId,
-        inFlightEvents, /*createEventId=*/-1L, /*lastCompactionId*/-1L);
+        inFlightEvents, /*createEventId=*/-1L, /*lastCompactionId*/-1L,
+        /*msCreateTime=*/0, /*msLastAccessTime=*/0);
   }
 
   protected HdfsPartition(HdfsTable table, long id, long prevId, String partName,
@@ -723,7 +755,8 @@ public class HdfsPartition extends CatalogObjectImpl
       boolean isMarkedCached, TAccessLevel accessLevel, Map<String, String> hmsParameters,
       CachedHmsPartitionDescriptor cachedMsPartitionDescriptor,
       byte[] partitionStats, boolean hasIncrementalStats, long numRows, long writeId,
-      InFlightEvents inFlightEvents, long createEventId, long lastCompactionId) {
+      InFlightEvents inFlightEvents, long createEventId, long lastCompactionId,
+      int msCreateTime, int msLastAccessTime) {
     table_ = table;
     id_ = id;
     prevId_ = prevId;
@@ -736,7 +769,10 @@ public class HdfsPartition extends CatalogObjectImpl
     isMarkedCached_ = isMarkedCached;
     accessLevel_ = accessLevel;
     hmsParameters_ = ImmutableMap.copyOf(hmsParameters);
-    cachedMsPartitionDescriptor_ = cachedMsPartitionDescriptor;
+    cachedMsPartitionDescriptor_ = cachedMsPartitionDescriptor == null ? null :
+        DESCRIPTOR_INTERNER.intern(cachedMsPartitionDescriptor);
+    msCreateTime_ = msCreateTime;
+    msLastAccessTime_ = msLastAccessTime;
     partitionStats_ = partitionStats;
     hasIncrementalStats_ = hasIncrementalStats;
     numRows_ = numRows;
@@ -944,6 +980,10 @@ public class HdfsPartition extends CatalogObjectImpl
     return lastCompactionId_;
   }
 
+  public long getDirModificationTime() { return dirModificationTime_; }
+
+  void setDirModificationTime(long mtime) { dirModificationTime_ = mtime; }
+
   /**
    * Returns a set of fully qualified file names in the partition.
    */
@@ -999,8 +1039,7 @@ public class HdfsPartition extends CatalogObjectImpl
     org.apache.hadoop.hive.metastore.api.Partition partition =
         new org.apache.hadoop.hive.metastore.api.Partition(
             getPartitionValuesAsStrings(true), getTable().getDb().getName(),
-            getTable().getName(), cachedMsPartitionDescriptor_.msCreateTime,
-            cachedMsPartitionDescriptor_.msLastAccessTime, storageDescriptor,
+            getTable().getName(), msCreateTime_, msLastAccessTime_, storageDescriptor,
             hmsParams);
     return partition;
   }
@@ -1024,7 +1063,11 @@ public class HdfsPartition extends CatalogObjectImpl
             cachedMsPartitionDescriptor_.sdOutputFormat,
             cachedMsPartitionDescriptor_.sdCompressed,
             cachedMsPartitionDescriptor_.sdNumBuckets,
-            cachedMsPartitionDescriptor_.sdSerdeInfo,
+            // The descriptor may be shared with other partitions, so hand out a copy of
+            // the mutable SerDeInfo.
+            cachedMsPartitionDescriptor_.sdSerdeInfo == null ? null :
+                new org.apache.hadoop.hive.metastore.api.SerDeInfo(
+                    cachedMsPartitionDescriptor_.sdSerdeInfo),
             cachedMsPartitionDescriptor_.sdBucketCols,
             cachedMsPartitionDescriptor_.sdSortCols,
             cachedMsPartitionDescriptor_.sdParameters);
@@ -1188,6 +1231,8 @@ public class HdfsPartition extends CatalogObjectImpl
     private TAccessLevel accessLevel_ = TAccessLevel.READ_WRITE;
     private Map<String, String> hmsParameters_;
     private CachedHmsPartitionDescriptor cachedMsPartitionDescriptor_;
+    private int msCreateTime_ = 0;
+    private int msLastAccessTime_ = 0;
     private byte[] partitionStats_ = null;
     private boolean hasIncrementalStats_ = false;
     private long numRows_ = -1;
@@ -1197,6 +1242,8 @@ public class HdfsPartition extends CatalogObjectImpl
     // is not active.
     private long createEventId_ = -1L;
     private long lastCompactionId_ = -1L;
+    // Reset whenever the file descriptors are set, since they may not match it anymore.
+    private long dirModificationTime_ = -1L;
     private InFlightEvents inFlightEvents_ = new InFlightEvents();
 
     @Nullable
@@ -1234,6 +1281,8 @@ public class HdfsPartition extends CatalogObjectImpl
         cachedMsPartitionDescriptor_ = new CachedHmsPartitionDescriptor(
             partition.cachedMsPartitionDescriptor_);
       }
+      msCreateTime_ = partition.msCreateTime_;
+      msLastAccessTime_ = partition.msLastAccessTime_;
       // Take over the in-flight events
       inFlightEvents_ = partition.inFlightEvents_;
       lastCompactionId_ = partition.lastCompactionId_;
@@ -1254,12 +1303,18 @@ public class HdfsPartition extends CatalogObjectImpl
         Preconditions.checkState(id_ == CatalogObjectsConstants.PROTOTYPE_PARTITION_ID
             || isMinimalMode_);
       }
-      return new HdfsPartition(table_, id_, prevId_, partName_, partitionKeyValues_,
-          fileFormatDescriptor_, encodedFileDescriptors_, encodedInsertFileDescriptors_,
-          encodedDeleteFileDescriptors_, location_, isMarkedCached_, accessLevel_,
-          hmsParameters_, cachedMsPartitionDescriptor_, partitionStats_,
-          hasIncrementalStats_, numRows_, writeId_, inFlightEvents_, createEventId_,
-          lastCompactionId_);
+      // Pass a copy of the descriptor since this builder may still modify its own.
+      CachedHmsPartitionDescriptor cachedMsPartitionDescriptor =
+          cachedMsPartitionDescriptor_ == null ? null :
+          new CachedHmsPartitionDescriptor(cachedMsPartitionDescriptor_);
+      HdfsPartition partition = new HdfsPartition(table_, id_, prevId_, partName_,
+          partitionKeyValues_, fileFormatDescriptor_, encodedFileDescriptors_,
+          encodedInsertFileDescriptors_, encodedDeleteFileDescriptors_, location_,
+          isMarkedCached_, accessLevel_, hmsParameters_, cachedMsPartitionDescriptor,
+          partitionStats_, hasIncrementalStats_, numRows_, writeId_, inFlightEvents_,
+          createEventId_, lastCompactionId_, msCreateTime_, msLastAccessTime_);
+      partition.dirModificationTime_ = dirModificationTime_;
+      return partition;
     }
 
     public Builder setId(long id) {
@@ -1293,6 +1348,7 @@ public class HdfsPartition extends CatalogObjectImpl
       if (msPartition == null) {
         setLocation(table_.getLocation());
         cachedMsPartitionDescriptor_ = null;
+        msCreateTime_ = msLastAccessTime_ = 0;
         hmsParameters_ = Collections.emptyMap();
         partitionKeyValues_ = Collections.emptyList();
         return this;
@@ -1301,6 +1357,8 @@ public class HdfsPartition extends CatalogObjectImpl
           FeCatalogUtils.parsePartitionKeyValues(table_, msPartition.getValues()));
       setLocation(msPartition.getSd().getLocation());
       cachedMsPartitionDescriptor_ = new CachedHmsPartitionDescriptor(msPartition);
+      msCreateTime_ = msPartition.getCreateTime();
+      msLastAccessTime_ = msPartition.getLastAccessTime();
       if (msPartition.getParameters() != null) {
         isMarkedCached_ = HdfsCachingUtil.getCacheDirectiveId(
             msPartition.getParameters()) != null;
@@ -1465,6 +1523,7 @@ public class HdfsPartition extends CatalogObjectImpl
       encodedFileDescriptors_ = ImmutableList.of();
       encodedInsertFileDescriptors_ = ImmutableList.of();
       encodedDeleteFileDescriptors_ = ImmutableList.of();
+      dirModificationTime_ = -1L;
       return this;
     }
 
@@ -1473,6 +1532,7 @@ public class HdfsPartition extends CatalogObjectImpl
       // of the flatbuffer wrapper.
       encodedFileDescriptors_ = ImmutableList.copyOf(Lists.transform(
           descriptors, FileDescriptor.TO_BYTES));
+      dirModificationTime_ = -1L;
       return this;
     }
 
@@ -1480,6 +1540,7 @@ public class HdfsPartition extends CatalogObjectImpl
       encodedFileDescriptors_ = partition.encodedFileDescriptors_;
       encodedInsertFileDescriptors_ = partition.encodedInsertFileDescriptors_;
       encodedDeleteFileDescriptors_ = partition.encodedDeleteFileDescriptors_;
+      dirModificationTime_ = partition.dirModificationTime_;
       return this;
     }
 
@@ -1501,9 +1562,21 @@ public class HdfsPartition extends CatalogObjectImpl
 
     public Builder setFileDescriptors(ImmutableList<byte[]> encodedDescriptors) {
       encodedFileDescriptors_ = encodedDescriptors;
+      dirModificationTime_ = -1L;
+      return this;
+    }
+
+    /**
+     * Sets the modification time of the partition directory that the current file
+     * descriptors reflect. Must be called after the file descriptors are set.
+     */
+    public Builder setDirModificationTime(long mtime) {
+      dirModificationTime_ = mtime;
       return this;
     }
 
+    public long getDirModificationTime() { return dirModificationTime_; }
+
     public HdfsFileFormat getFileFormat() {
       return fileFormatDescriptor_.getFileFormat();
     }
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -186,6 +187,8 @@ public class HdfsTable extends Table implements FeFsTable {
   public static final String NUM_BLOCKS_METRIC = "num-blocks";
   public static final String TOTAL_FILE_BYTES_METRIC = "total-file-size-bytes";
   public static final String MEMORY_ESTIMATE_METRIC = "memory-estimate-bytes";
+  public static final String MEMORY_ESTIMATE_PER_PARTITION_METRIC =
+      "memory-estimate-bytes-per-partition";
   public static final String HAS_INCREMENTAL_STATS_METRIC = "has-incremental-stats";
   // metrics used to find out the cache hit rate when file-metadata is requested
   // for a given ValidWriteIdList
@@ -233,6 +236,16 @@ public class HdfsTable extends Table implements FeFsTable {
   // Declared as protected to allow third party extension visibility.
   protected final List<Set<Long>> nullPartitionIds_ = new ArrayList<>();
 
+  // Index over partitionValuesMap_ and nullPartitionIds_ for partition pruning. Built
+  // on first use and dropped by invalidatePartitionKeyIndex() after every change of the
+  // partitions.
+  private volatile PartitionKeyIndex partitionKeyIndex_;
+  // Incremented by invalidatePartitionKeyIndex(), so that an index that was built while
+  // the partitions changed is not published. Guarded by 'partitionKeyIndexLock_', which
+  // also guards the updates of 'partitionKeyIndex_'.
+  private long partitionKeyIndexVersion_ = 0;
+  private final Object partitionKeyIndexLock_ = new Object();
+
   // Map of partition ids to HdfsPartitions.
   // Declared as protected to allow third party extension visibility.
   protected final Map<Long, HdfsPartition> partitionMap_ = new HashMap<>();
@@ -298,12 +311,14 @@ public class HdfsTable extends Table implements FeFsTable {
   private final Map<Long, HdfsPartition.Builder> dirtyPartitions_ = new HashMap<>();
 
   // The max id of all partitions of this table sent to coordinators. Partitions with ids
-  // larger than this are not known in coordinators.
-  private long maxSentPartitionId_ = HdfsPartition.INITIAL_PARTITION_ID - 1;
+  // larger than this are not known in coordinators. Updated by the topic update thread
+  // after the partitions were passed to the BE, without holding the table lock.
+  private volatile long maxSentPartitionId_ = HdfsPartition.INITIAL_PARTITION_ID - 1;
 
   // Dropped partitions since last catalog update. These partitions need to be removed
-  // in coordinator's cache if there are no updates on them.
-  private final Set<HdfsPartition> droppedPartitions_ = new HashSet<>();
+  // in coordinator's cache if there are no updates on them. Concurrent, since the topic
+  // update thread removes the sent ones without holding the table lock.
+  private final Set<HdfsPartition> droppedPartitions_ = ConcurrentHashMap.newKeySet();
 
   // pendingVersionNumber indicates a version number allocated to this HdfsTable for a
   // ongoing DDL operation. This is mainly used by the topic update thread to skip a
@@ -457,6 +472,32 @@ public class HdfsTable extends Table implements FeFsTable {
     return partitionValuesMap_.get(i);
   }
 
+  @Override // FeFsTable
+  public PartitionKeyIndex getPartitionKeyIndex() {
+    PartitionKeyIndex index = partitionKeyIndex_;
+    if (index != null) return index;
+    long version;
+    synchronized (partitionKeyIndexLock_) {
+      version = partitionKeyIndexVersion_;
+    }
+    index = PartitionKeyIndex.create(this);
+    synchronized (partitionKeyIndexLock_) {
+      if (version == partitionKeyIndexVersion_) partitionKeyIndex_ = index;
+    }
+    return index;
+  }
+
+  /**
+   * Drops the partition key index. Must be called after the partitions changed, not
+   * before, so that an index that is built concurrently with the change is not kept.
+   */
+  private void invalidatePartitionKeyIndex() {
+    synchronized (partitionKeyIndexLock_) {
+      ++partitionKeyIndexVersion_;
+      partitionKeyIndex_ = null;
+    }
+  }
+
   @Override // FeFsTable
   public String getNullPartitionKeyValue() {
     return nullPartitionKeyValue_; // Set during load.
@@ -639,6 +680,7 @@ public class HdfsTable extends Table implements FeFsTable {
       }
     }
     fileMetadataStats_.init();
+    invalidatePartitionKeyIndex();
   }
 
   /**
@@ -962,9 +1004,15 @@ public class HdfsTable extends Table implements FeFsTable {
    * Declared as protected to allow third party extension visibility.
    */
   protected void updatePartitionMdAndColStats(HdfsPartition partition) {
-    if (partition.getPartitionValues().size() != numClusteringCols_) return;
+    if (partition.getPartitionValues().size() != numClusteringCols_) {
+      invalidatePartitionKeyIndex();
+      return;
+    }
     nameToPartitionMap_.put(partition.getPartitionName(), partition);
-    if (!isStoredInImpaladCatalogCache()) return;
+    if (!isStoredInImpaladCatalogCache()) {
+      invalidatePartitionKeyIndex();
+      return;
+    }
     for (int i = 0; i < partition.getPartitionValues().size(); ++i) {
       ColumnStats stats = getColumns().get(i).getStats();
       LiteralExpr literal = partition.getPartitionValues().get(i);
@@ -989,6 +1037,7 @@ public class HdfsTable extends Table implements FeFsTable {
       }
       partitionIds.add(Long.valueOf(partition.getId()));
     }
+    invalidatePartitionKeyIndex();
   }
 
   public void updatePartitions(List<HdfsPartition.Builder> partBuilders)
@@ -1007,7 +1056,12 @@ public class HdfsTable extends Table implements FeFsTable {
     boolean partitionNotChanged = partBuilder.equalsToOriginal(oldPartition);
     LOG.trace("Partition {} {}", oldPartition.getName(),
         partitionNotChanged ? "changed" : "unchanged");
-    if (partitionNotChanged) return;
+    if (partitionNotChanged) {
+      // The file descriptors are the same, but they may have been confirmed against a
+      // newer modification time of the partition directory.
+      oldPartition.setDirModificationTime(partBuilder.getDirModificationTime());
+      return;
+    }
     HdfsPartition newPartition = partBuilder.build();
     // Partition is reloaded and hence cache directives are not dropped.
     dropPartition(oldPartition, false);
@@ -1066,6 +1120,7 @@ public class HdfsTable extends Table implements FeFsTable {
       if (BackendConfig.INSTANCE.isIncrementalMetadataUpdatesEnabled()) {
         droppedPartitions_.add(partition.genMinimalPartition());
       }
+      invalidatePartitionKeyIndex();
       return partition;
     }
     for (int i = 0; i < partition.getPartitionValues().size(); ++i) {
@@ -1089,6 +1144,7 @@ public class HdfsTable extends Table implements FeFsTable {
         stats.setNumDistinctValues(stats.getNumDistinctValues() - 1);
       }
     }
+    invalidatePartitionKeyIndex();
     return partition;
   }
 
@@ -2057,14 +2113,6 @@ public class HdfsTable extends Table implements FeFsTable {
     this.maxSentPartitionId_ = maxSentPartitionId;
   }
 
-  /**
-   * Resets the max sent partition id in catalog topic updates. Used when statestore
-   * resarts and requires a full update from the catalogd.
-   */
-  public void resetMaxSentPartitionId() {
-    maxSentPartitionId_ = Catalog.INITIAL_CATALOG_VERSION - 1;
-  }
-
   /**
    * Gets the deleted/replaced partition instances since last catalog topic update.
    */
@@ -2073,19 +2121,23 @@ public class HdfsTable extends Table implements FeFsTable {
   }
 
   /**
-   * Clears the deleted/replaced partition instance set.
+   * Removes 'partitions' from the deleted/replaced partition instance set once they
+   * were sent in a catalog topic update.
    */
-  public void resetDroppedPartitions() { droppedPartitions_.clear(); }
+  public void removeDroppedPartitions(Collection<HdfsPartition> partitions) {
+    droppedPartitions_.removeAll(partitions);
+  }
 
   /**
-   * Gets catalog objects of new partitions since last catalog update. They are partitions
-   * that coordinators are not aware of.
+   * Gets catalog objects of the partitions with ids larger than 'maxSentPartitionId'.
+   * With the max sent partition id, they are the partitions that coordinators are not
+   * aware of.
    */
-  public List<TCatalogObject> getNewPartitionsSinceLastUpdate() {
+  public List<TCatalogObject> getPartitionsAfter(long maxSentPartitionId) {
     List<TCatalogObject> result = new ArrayList<>();
     int numSkippedParts = 0;
     for (HdfsPartition partition: partitionMap_.values()) {
-      if (partition.getId() <= maxSentPartitionId_) {
+      if (partition.getId() <= maxSentPartitionId) {
         numSkippedParts++;
         continue;
       }
@@ -2228,6 +2280,14 @@ public class HdfsTable extends Table implements FeFsTable {
     return numFilesFiltered;
   }
 
+  /**
+   * Returns the estimated metadata size of this table divided by its number of
+   * partitions.
+   */
+  public long getEstimatedMetadataSizePerPartition() {
+    return getEstimatedMetadataSize() / Math.max(1, partitionMap_.size());
+  }
+
   private double getFileMetadataCacheHitRate() {
     long hits = metrics_.getCounter(FILEMETADATA_CACHE_HIT_METRIC).getCount();
     long misses = metrics_.getCounter(FILEMETADATA_CACHE_MISS_METRIC).getCount();
@@ -2721,6 +2781,10 @@ public class HdfsTable extends Table implements FeFsTable {
       @Override
       public Long getValue() { return getEstimatedMetadataSize(); }
     });
+    metrics_.addGauge(MEMORY_ESTIMATE_PER_PARTITION_METRIC, new Gauge<Long>() {
+      @Override
+      public Long getValue() { return getEstimatedMetadataSizePerPartition(); }
+    });
     metrics_.addGauge(HAS_INCREMENTAL_STATS_METRIC, new Gauge<Boolean>() {
       @Override
       public Boolean getValue() { return hasIncrementalStats_; }
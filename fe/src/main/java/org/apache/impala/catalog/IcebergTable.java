@@ -164,6 +164,10 @@ public class IcebergTable extends Table implements FeIcebergTable {
 
   private long snapshotId_ = -1;
 
+  // Snapshot whose data files pathHashToFileDescMap_ holds. -1 if it wasn't loaded
+  // yet. Lets a reload only load the data files added since this snapshot.
+  private long fileDescMapSnapshotId_ = -1;
+
   protected IcebergTable(org.apache.hadoop.hive.metastore.api.Table msTable,
       Db db, String name, String owner) {
     super(msTable, db, name, owner);
@@ -344,7 +348,9 @@ public class IcebergTable extends Table implements FeIcebergTable {
         icebergParquetDictPageSize_ = Utils.getIcebergParquetDictPageSize(msTbl);
         hdfsTable_
             .load(false, msClient, msTable_, true, true, false, null, null,null, reason);
-        pathHashToFileDescMap_ = Utils.loadAllPartition(this);
+        pathHashToFileDescMap_ = Utils.loadAllPartition(this, fileDescMapSnapshotId_,
+            pathHashToFileDescMap_);
+        fileDescMapSnapshotId_ = snapshotId_;
         loadAllColumnStats(msClient);
       } catch (Exception e) {
         throw new TableLoadingException("Error loading metadata for Iceberg table " +
@@ -418,6 +424,7 @@ public class IcebergTable extends Table implements FeIcebergTable {
     pathHashToFileDescMap_ = loadFileDescFromThrift(
         ticeberg.getPath_hash_to_file_descriptor());
     snapshotId_ = ticeberg.getSnapshot_id();
+    fileDescMapSnapshotId_ = snapshotId_;
     hdfsTable_.loadFromThrift(thriftTable);
     TableMetadata metadata = IcebergUtil.getIcebergTableMetadata(this);
     icebergSchema_ = metadata.schema();
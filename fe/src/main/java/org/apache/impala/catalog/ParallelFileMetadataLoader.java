@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
@@ -36,7 +35,6 @@ import org.apache.hadoop.hive.common.ValidWriteIdList;
 import org.apache.impala.catalog.FeFsTable.Utils;
 import org.apache.impala.catalog.HdfsPartition.FileDescriptor;
 import org.apache.impala.common.FileSystemUtil;
-import org.apache.impala.common.Pair;
 import org.apache.impala.service.BackendConfig;
 import org.apache.impala.thrift.TNetworkAddress;
 import org.apache.impala.util.ListMap;
@@ -50,7 +48,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Utility to coordinate the issuing of parallel metadata loading requests
- * on a thread pool.
+ * on the catalog-wide FileMetadataLoadScheduler.
  *
  * This may safely be used even to load a single path: if only one path is to
  * be loaded, this avoids creating any extra threads and uses the current thread
@@ -64,6 +62,8 @@ public class ParallelFileMetadataLoader {
       BackendConfig.INSTANCE.maxHdfsPartsParallelLoad();
   private static final int MAX_NON_HDFS_PARTITIONS_PARALLEL_LOAD =
       BackendConfig.INSTANCE.maxNonHdfsPartsParallelLoad();
+  private static final boolean INCREMENTAL_FILE_METADATA_REFRESH =
+      BackendConfig.INSTANCE.isIncrementalFileMetadataRefreshEnabled();
 
   // Maximum number of errors logged when loading partitioned tables.
   private static final int MAX_PATH_METADATA_LOADING_ERRORS_TO_LOG = 100;
@@ -104,6 +104,12 @@ public class ParallelFileMetadataLoader {
       boolean hasCachedPartition = Iterables.any(e.getValue(),
           HdfsPartition.Builder::isMarkedCached);
       loader.setForceRefreshBlockLocations(hasCachedPartition);
+      // The old file descriptors and the directory modification time they reflect are
+      // taken from the same partition.
+      if (INCREMENTAL_FILE_METADATA_REFRESH) {
+        loader.enableDirModificationTimeCheck(
+            e.getValue().get(0).getDirModificationTime());
+      }
       loader.setDebugAction(debugAction);
       loaders_.put(e.getKey(), loader);
     }
@@ -120,9 +126,11 @@ public class ParallelFileMetadataLoader {
     loadInternal();
 
     // Store the loaded FDs into the partitions.
+    int numSkippedListings = 0;
     for (Map.Entry<Path, List<HdfsPartition.Builder>> e : partsByPath_.entrySet()) {
       Path p = e.getKey();
       FileMetadataLoader loader = loaders_.get(p);
+      if (loader.getStats().skippedListing) ++numSkippedListings;
 
       for (HdfsPartition.Builder partBuilder : e.getValue()) {
         // Checks if we can reuse the old file descriptors. Partition builders in the list
@@ -130,6 +138,7 @@ public class ParallelFileMetadataLoader {
         if ((!loader.hasFilesChangedCompareTo(partBuilder.getFileDescriptors()))) {
           LOG.trace("Detected files unchanged on partition {}",
               partBuilder.getPartitionName());
+          partBuilder.setDirModificationTime(loader.getDirModificationTime());
           continue;
         }
         partBuilder.clearFileDescriptors();
@@ -140,8 +149,13 @@ public class ParallelFileMetadataLoader {
         } else {
           partBuilder.setFileDescriptors(loader.getLoadedFds());
         }
+        partBuilder.setDirModificationTime(loader.getDirModificationTime());
       }
     }
+    if (numSkippedListings > 0) {
+      LOG.info("{}: skipped listing {} of {} paths whose modification time has not "
+          + "changed", logPrefix_, numSkippedListings, loaders_.size());
+    }
   }
 
   /**
@@ -153,28 +167,21 @@ public class ParallelFileMetadataLoader {
     if (loaders_.isEmpty()) return;
 
     int failedLoadTasks = 0;
-    ExecutorService pool = createPool();
     try (ThreadNameAnnotator tna = new ThreadNameAnnotator(logPrefix_)) {
-      List<Pair<FileMetadataLoader, Future<Void>>> futures =
-          new ArrayList<>(loaders_.size());
-      for (FileMetadataLoader loader : loaders_.values()) {
-        futures.add(new Pair<>(
-            loader, pool.submit(() -> { loader.load(); return null; })));
-      }
+      List<FileMetadataLoader> loaders = new ArrayList<>(loaders_.values());
+      List<Future<Void>> futures = submitLoads(loaders);
 
       // Wait for the loaders to finish.
       for (int i = 0; i < futures.size(); i++) {
         try {
-          futures.get(i).second.get();
+          futures.get(i).get();
         } catch (ExecutionException | InterruptedException e) {
           if (++failedLoadTasks <= MAX_PATH_METADATA_LOADING_ERRORS_TO_LOG) {
             LOG.error(logPrefix_ + " encountered an error loading data for path " +
-                futures.get(i).first.getPartDir(), e);
+                loaders.get(i).getPartDir(), e);
           }
         }
       }
-    } finally {
-      pool.shutdown();
     }
     if (failedLoadTasks > 0) {
       int errorsNotLogged = failedLoadTasks - MAX_PATH_METADATA_LOADING_ERRORS_TO_LOG;
@@ -188,9 +195,22 @@ public class ParallelFileMetadataLoader {
   }
 
   /**
-   * Returns the thread pool to load the file metadata.
+   * Returns the maximum number of paths of a single table on the filesystem 'fs' that
+   * are loaded at the same time. See submitLoads().
+   */
+  static int getMaxParallelLoads(FileSystem fs) {
+    return FileSystemUtil.supportsStorageIds(fs) ?
+        MAX_HDFS_PARTITIONS_PARALLEL_LOAD : MAX_NON_HDFS_PARTITIONS_PARALLEL_LOAD;
+  }
+
+  /**
+   * Starts loading 'loaders' and returns their futures in the same order.
    *
-   * We use different thread pool sizes for HDFS and non-HDFS tables since the latter
+   * The loads are run on the catalog-wide FileMetadataLoadScheduler pool of the
+   * table's filesystem, which caps the number of concurrent listings across all the
+   * tables being loaded. In addition, at most 'max_hdfs_partitions_parallel_load' or
+   * 'max_nonhdfs_partitions_parallel_load' paths of this table are loaded at the same
+   * time. We use different limits for HDFS and non-HDFS tables since the latter
    * supports much higher throughput of RPC calls for listStatus/listFiles. For
    * simplicity, the filesystem type is determined based on the table's root path and
    * not for each partition individually. Based on our experiments, S3 showed a linear
@@ -198,20 +218,26 @@ public class ParallelFileMetadataLoader {
    * throughput was limited to ~5x in un-secure clusters and up to ~3.7x in secure
    * clusters. We narrowed it down to scalability bottlenecks in HDFS RPC implementation
    * (HADOOP-14558) on both the server and the client side.
+   *
+   * A single path, or any number of paths if the per-table limit is 1, is loaded on
+   * the current thread.
    */
-  private ExecutorService createPool() {
-    int numLoaders = loaders_.size();
-    Preconditions.checkState(numLoaders > 0);
-    int poolSize = FileSystemUtil.supportsStorageIds(fs_) ?
-        MAX_HDFS_PARTITIONS_PARALLEL_LOAD : MAX_NON_HDFS_PARTITIONS_PARALLEL_LOAD;
-    // Thread pool size need not exceed the number of paths to be loaded.
-    poolSize = Math.min(numLoaders, poolSize);
-
-    if (poolSize == 1) {
-      return MoreExecutors.newDirectExecutorService();
-    } else {
-      LOG.info(logPrefix_ + " using a thread pool of size {}", poolSize);
-      return Executors.newFixedThreadPool(poolSize);
+  private List<Future<Void>> submitLoads(List<FileMetadataLoader> loaders) {
+    Preconditions.checkState(!loaders.isEmpty());
+    // Parallelism need not exceed the number of paths to be loaded.
+    int maxParallelism = Math.min(loaders.size(), getMaxParallelLoads(fs_));
+
+    if (maxParallelism == 1) {
+      ExecutorService executor = MoreExecutors.newDirectExecutorService();
+      List<Future<Void>> futures = new ArrayList<>(loaders.size());
+      for (FileMetadataLoader loader : loaders) {
+        futures.add(executor.submit(() -> { loader.load(); return null; }));
+      }
+      return futures;
     }
+    LOG.info(logPrefix_ + " loading {} paths with a parallelism of {}", loaders.size(),
+        maxParallelism);
+    return FileMetadataLoadScheduler.get().loadAll(fs_, loaders, maxParallelism,
+        logPrefix_);
   }
 }
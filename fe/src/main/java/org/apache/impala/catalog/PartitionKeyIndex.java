@@ -0,0 +1,242 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.impala.analysis.Expr;
+import org.apache.impala.analysis.LiteralExpr;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Read-only index over the partition key values of an FeFsTable, used by
+ * HdfsPartitionPruner to evaluate simple predicates on partition columns.
+ *
+ * Partitions are identified by their ordinal in the sorted array of partition ids, so
+ * a set of partitions is a BitSet and predicates on several columns are combined with
+ * bitwise operations. For each partition column the index keeps the distinct non-null
+ * values in sorted order together with the ordinals of the partitions having each
+ * value in a flat int array. Equality, IN and range predicates are answered with a
+ * binary search over the values. Compared to the Set<Long> per value of the partition
+ * value maps this avoids boxing and hashing the partition ids.
+ *
+ * The index is a snapshot of the partition value maps. Tables cache it and drop it
+ * when their partitions change, see FeFsTable.getPartitionKeyIndex().
+ */
+public class PartitionKeyIndex {
+  /**
+   * Index of a single partition column.
+   */
+  private static class ColumnIndex {
+    // Distinct non-null values in ascending order.
+    final LiteralExpr[] values;
+    // The ordinals of the partitions with values[i] are
+    // ordinals[offsets[i]] .. ordinals[offsets[i + 1] - 1].
+    final int[] offsets;
+    final int[] ordinals;
+    // Partitions with a NULL value.
+    final BitSet nulls;
+
+    ColumnIndex(LiteralExpr[] values, int[] offsets, int[] ordinals, BitSet nulls) {
+      this.values = values;
+      this.offsets = offsets;
+      this.ordinals = ordinals;
+      this.nulls = nulls;
+    }
+  }
+
+  // Ids of all the partitions in ascending order. The position of an id is the ordinal
+  // of the partition.
+  private final long[] partitionIds_;
+  private final ColumnIndex[] columns_;
+
+  /**
+   * Builds the index of the partitions of 'tbl'.
+   */
+  public static PartitionKeyIndex create(FeFsTable tbl) {
+    List<TreeMap<LiteralExpr, Set<Long>>> valueMaps = new ArrayList<>();
+    List<Set<Long>> nullIds = new ArrayList<>();
+    for (int i = 0; i < tbl.getNumClusteringCols(); ++i) {
+      valueMaps.add(tbl.getPartitionValueMap(i));
+      nullIds.add(tbl.getNullPartitionIds(i));
+    }
+    return new PartitionKeyIndex(tbl.getPartitionIds(), valueMaps, nullIds);
+  }
+
+  @VisibleForTesting
+  PartitionKeyIndex(Collection<Long> partitionIds,
+      List<TreeMap<LiteralExpr, Set<Long>>> valueMaps, List<Set<Long>> nullIds) {
+    Preconditions.checkArgument(valueMaps.size() == nullIds.size());
+    partitionIds_ = new long[partitionIds.size()];
+    int pos = 0;
+    for (Long id : partitionIds) partitionIds_[pos++] = id;
+    Arrays.sort(partitionIds_);
+    columns_ = new ColumnIndex[valueMaps.size()];
+    for (int i = 0; i < columns_.length; ++i) {
+      columns_[i] = buildColumnIndex(valueMaps.get(i), nullIds.get(i));
+    }
+  }
+
+  private ColumnIndex buildColumnIndex(TreeMap<LiteralExpr, Set<Long>> valueMap,
+      Set<Long> nullIds) {
+    LiteralExpr[] values = new LiteralExpr[valueMap.size()];
+    int[] offsets = new int[valueMap.size() + 1];
+    int numOrdinals = 0;
+    for (Set<Long> ids : valueMap.values()) numOrdinals += ids.size();
+    int[] ordinals = new int[numOrdinals];
+    int valueIdx = 0;
+    int pos = 0;
+    for (Map.Entry<LiteralExpr, Set<Long>> e : valueMap.entrySet()) {
+      values[valueIdx] = e.getKey();
+      offsets[valueIdx] = pos;
+      int start = pos;
+      for (Long id : e.getValue()) ordinals[pos++] = getOrdinal(id);
+      // Sorted ordinals make setting the bits of a value more cache friendly.
+      Arrays.sort(ordinals, start, pos);
+      ++valueIdx;
+    }
+    offsets[valueIdx] = pos;
+    BitSet nulls = new BitSet(partitionIds_.length);
+    if (nullIds != null) {
+      for (Long id : nullIds) nulls.set(getOrdinal(id));
+    }
+    return new ColumnIndex(values, offsets, ordinals, nulls);
+  }
+
+  private int getOrdinal(long partitionId) {
+    int ordinal = Arrays.binarySearch(partitionIds_, partitionId);
+    Preconditions.checkState(ordinal >= 0, "Unknown partition id: %s", partitionId);
+    return ordinal;
+  }
+
+  public int getNumPartitions() { return partitionIds_.length; }
+
+  /**
+   * Returns a new set of all the partitions.
+   */
+  public BitSet all() {
+    BitSet ret = new BitSet(partitionIds_.length);
+    ret.set(0, partitionIds_.length);
+    return ret;
+  }
+
+  /**
+   * Returns a new set of the partitions with a NULL value in partition column 'col'.
+   */
+  public BitSet nulls(int col) {
+    return (BitSet) columns_[col].nulls.clone();
+  }
+
+  /**
+   * Returns a new set of the partitions with a non-NULL value in partition column
+   * 'col'.
+   */
+  public BitSet notNulls(int col) {
+    BitSet ret = all();
+    ret.andNot(columns_[col].nulls);
+    return ret;
+  }
+
+  /**
+   * Returns a new set of the partitions whose value in partition column 'col' equals
+   * 'value', which must not be a NULL literal.
+   */
+  public BitSet equalTo(int col, LiteralExpr value) {
+    BitSet ret = new BitSet(partitionIds_.length);
+    addEqualTo(col, value, ret);
+    return ret;
+  }
+
+  /**
+   * Adds the partitions whose value in partition column 'col' equals 'value' to
+   * 'result'. NULL literals do not match any partition.
+   */
+  public void addEqualTo(int col, LiteralExpr value, BitSet result) {
+    if (Expr.IS_NULL_LITERAL.apply(value)) return;
+    ColumnIndex column = columns_[col];
+    int idx = Arrays.binarySearch(column.values, value);
+    if (idx >= 0) addValueRange(column, idx, idx + 1, result);
+  }
+
+  /**
+   * Returns a new set of the partitions whose non-NULL value in partition column 'col'
+   * is within the given bounds. A null bound means that the range is unbounded on that
+   * side.
+   */
+  public BitSet range(int col, LiteralExpr lower, boolean lowerInclusive,
+      LiteralExpr upper, boolean upperInclusive) {
+    ColumnIndex column = columns_[col];
+    int from = lower == null ? 0 : lowerBound(column.values, lower, !lowerInclusive);
+    int to = upper == null ?
+        column.values.length : lowerBound(column.values, upper, upperInclusive);
+    BitSet ret = new BitSet(partitionIds_.length);
+    if (from < to) addValueRange(column, from, to, ret);
+    return ret;
+  }
+
+  /**
+   * Returns the ids of the partitions in 'partitions'.
+   */
+  public Set<Long> toPartitionIds(BitSet partitions) {
+    Set<Long> ret = new HashSet<>(Math.max(16, (int) (partitions.cardinality() / .75f)));
+    for (int i = partitions.nextSetBit(0); i >= 0; i = partitions.nextSetBit(i + 1)) {
+      ret.add(partitionIds_[i]);
+    }
+    return ret;
+  }
+
+  /**
+   * Sets the bits of the partitions with the values at positions [from, to) of
+   * 'column'.
+   */
+  private static void addValueRange(ColumnIndex column, int from, int to,
+      BitSet result) {
+    for (int i = column.offsets[from]; i < column.offsets[to]; ++i) {
+      result.set(column.ordinals[i]);
+    }
+  }
+
+  /**
+   * Returns the position of the first element of 'values' that is greater than or
+   * equal to 'key', or strictly greater than 'key' if 'strict' is true.
+   */
+  private static int lowerBound(LiteralExpr[] values, LiteralExpr key, boolean strict) {
+    int lo = 0;
+    int hi = values.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      int cmp = values[mid].compareTo(key);
+      if (cmp < 0 || (strict && cmp == 0)) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+}
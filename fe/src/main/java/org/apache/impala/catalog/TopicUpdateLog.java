@@ -18,7 +18,15 @@
 package org.apache.impala.catalog;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.impala.thrift.TCatalogUpdateLogMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +45,10 @@ import com.google.common.base.Strings;
 // entries of deleted catalog objects or entries of objects that haven't been processed
 // by the catalog for at least TOPIC_UPDATE_LOG_GC_FREQUENCY updates to be removed from
 // the log.
+//
+// Operations that need to wait for the next topic update, e.g. SYNC_DDL operations,
+// wait on a future that the topic update thread completes and replaces after each
+// update, so that publishing an update never contends with the waiting threads.
 public class TopicUpdateLog {
   private static final Logger LOG = LoggerFactory.getLogger(TopicUpdateLog.class);
   // Frequency at which the entries of the topic update log are garbage collected.
@@ -139,6 +151,50 @@ public class TopicUpdateLog {
     }
   }
 
+  // Completed with the version of the next topic update once it is sent.
+  private final AtomicReference<CompletableFuture<Long>> nextTopicUpdate_ =
+      new AtomicReference<>(new CompletableFuture<>());
+
+  // Number of times and total time threads waited in waitForTopicUpdate().
+  private final AtomicLong numTopicUpdateWaits_ = new AtomicLong();
+  private final AtomicLong topicUpdateWaitTimeMs_ = new AtomicLong();
+
+  /**
+   * Wakes up all threads waiting in waitForTopicUpdate(). Called by the topic update
+   * thread after each topic update.
+   */
+  public void notifyTopicUpdate(long topicUpdateVersion) {
+    nextTopicUpdate_.getAndSet(new CompletableFuture<>()).complete(topicUpdateVersion);
+  }
+
+  /**
+   * Waits until the next topic update is sent, for at most 'timeoutMs' milliseconds.
+   * Returns false if the wait timed out or was interrupted.
+   */
+  public boolean waitForTopicUpdate(long timeoutMs) {
+    CompletableFuture<Long> nextTopicUpdate = nextTopicUpdate_.get();
+    long start = System.currentTimeMillis();
+    try {
+      nextTopicUpdate.get(timeoutMs, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (InterruptedException | ExecutionException | TimeoutException e) {
+      return false;
+    } finally {
+      numTopicUpdateWaits_.incrementAndGet();
+      topicUpdateWaitTimeMs_.addAndGet(System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Sets the size of the topic update log and the topic update wait statistics in
+   * 'metrics'.
+   */
+  public void populateMetrics(TCatalogUpdateLogMetrics metrics) {
+    metrics.setTopic_update_log_size(topicLogEntries_.size());
+    metrics.setNum_topic_update_waits(numTopicUpdateWaits_.get());
+    metrics.setTopic_update_wait_time_ms(topicUpdateWaitTimeMs_.get());
+  }
+
   public void add(String catalogObjectKey, Entry logEntry) {
     Preconditions.checkState(!Strings.isNullOrEmpty(catalogObjectKey));
     Preconditions.checkNotNull(logEntry);
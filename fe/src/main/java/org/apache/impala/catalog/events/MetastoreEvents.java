@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Map;
@@ -644,6 +645,49 @@ public class MetastoreEvents {
       }
       return false;
     }
+
+    /**
+     * Refreshes the given partitions under a single table lock, only if the table is
+     * loaded. Partitions which don't exist anymore are skipped.
+     * @return the number of reloaded partitions.
+     */
+    protected int reloadPartitions(List<Partition> partitions, String reason)
+        throws CatalogException {
+      try {
+        int numReloaded = catalogOpExecutor_.reloadPartitionsIfExist(eventId_, dbName_,
+            tblName_, partitions, reason);
+        metrics_.getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITION_REFRESHES)
+            .inc(numReloaded);
+        return numReloaded;
+      } catch (TableNotLoadedException e) {
+        debugLog("Ignoring the event since table {} is not loaded",
+            getFullyQualifiedTblName());
+      } catch (DatabaseNotFoundException | TableNotFoundException e) {
+        debugLog("Ignoring the event since table {} is not found",
+            getFullyQualifiedTblName());
+      }
+      return 0;
+    }
+  }
+
+  /**
+   * Base class for the table events which only refresh (part of) the table, and can
+   * hence be merged with adjacent batchable events on the same table into a
+   * <code>BatchPartitionEvent</code>.
+   */
+  public static abstract class BatchableTableEvent extends MetastoreTableEvent {
+    private BatchableTableEvent(CatalogOpExecutor catalogOpExecutor, Metrics metrics,
+        NotificationEvent event) {
+      super(catalogOpExecutor, metrics, event);
+    }
+
+    /**
+     * Returns true if processing this event on its own would not change the catalog,
+     * e.g. because it is a self-event. Like the self-event evaluation in
+     * <code>process()</code>, this may clear the in-flight version of the table or
+     * partition.
+     */
+    protected abstract boolean canBeSkippedInBatch();
   }
 
   /**
@@ -779,7 +823,7 @@ public class MetastoreEvents {
    *  Metastore event handler for INSERT events. Handles insert events at both table
    *  and partition scopes.
    */
-  public static class InsertEvent extends MetastoreTableEvent {
+  public static class InsertEvent extends BatchableTableEvent {
 
     // Represents the partition for this insert. Null if the table is unpartitioned.
     private Partition insertPartition_;
@@ -837,6 +881,9 @@ public class MetastoreEvents {
       }
     }
 
+    @Override
+    protected boolean canBeSkippedInBatch() { return isSelfEvent(true); }
+
     /**
      * Process partition inserts
      */
@@ -1334,7 +1381,7 @@ public class MetastoreEvents {
       }
     }
   }
-  public static class AddPartitionEvent extends MetastoreTableEvent {
+  public static class AddPartitionEvent extends BatchableTableEvent {
 
     public static final String ADD_PARTITION_EVENT_TYPE = "ADD_PARTITION";
     private final List<Partition> addedPartitions_;
@@ -1426,12 +1473,20 @@ public class MetastoreEvents {
       }
     }
 
+    @Override
+    protected boolean canBeSkippedInBatch() {
+      if (addedPartitions_.isEmpty()) return true;
+      // Self-events are only tracked for transactional tables, see
+      // getSelfEventContext().
+      return AcidUtils.isTransactionalTable(msTbl_.getParameters()) && isSelfEvent();
+    }
+
     public List<Partition> getPartitions() {
       return addedPartitions_;
     }
   }
 
-  public static class AlterPartitionEvent extends MetastoreTableEvent {
+  public static class AlterPartitionEvent extends BatchableTableEvent {
     // the Partition object before alter operation, as parsed from the NotificationEvent
     private final org.apache.hadoop.hive.metastore.api.Partition partitionBefore_;
     // the Partition object after alter operation, as parsed from the NotificationEvent
@@ -1510,6 +1565,9 @@ public class MetastoreEvents {
       return afterPartition.equals(partitionBefore_);
     }
 
+    @Override
+    protected boolean canBeSkippedInBatch() { return isSelfEvent() || canBeSkipped(); }
+
     @Override
     public SelfEventContext getSelfEventContext() {
       return new SelfEventContext(dbName_, tblName_,
@@ -1518,6 +1576,123 @@ public class MetastoreEvents {
     }
   }
 
+  /**
+   * Successive ADD_PARTITION, ALTER_PARTITION and INSERT events on the same table which
+   * are applied together instead of one partition or table reload per event. The
+   * partitions added by the events are added with a single call, and the union of the
+   * partitions altered or inserted into by the events is then reloaded under a single
+   * table lock. The whole table is only reloaded once if one of the events needs it on
+   * its own, i.e. an INSERT into an unpartitioned table or any event on a transactional
+   * table. Only created by the parallel mode of <code>MetastoreEventsProcessor</code>.
+   *
+   * This is not a <code>MetastoreEvent</code> itself: the sync flags and self-events
+   * are evaluated for each of the batched events. The table is reloaded, and messages
+   * are logged, through the last of the batched events.
+   */
+  public static class BatchPartitionEvent {
+    private final List<BatchableTableEvent> batchedEvents_;
+    private final BatchableTableEvent lastEvent_;
+
+    BatchPartitionEvent(List<BatchableTableEvent> batchedEvents) {
+      Preconditions.checkArgument(!batchedEvents.isEmpty());
+      lastEvent_ = batchedEvents.get(batchedEvents.size() - 1);
+      for (BatchableTableEvent event : batchedEvents) {
+        Preconditions.checkArgument(lastEvent_.dbName_.equalsIgnoreCase(event.dbName_)
+            && lastEvent_.tblName_.equalsIgnoreCase(event.tblName_));
+      }
+      batchedEvents_ = ImmutableList.copyOf(batchedEvents);
+    }
+
+    public List<BatchableTableEvent> getBatchedEvents() { return batchedEvents_; }
+
+    public long getEventId() { return lastEvent_.getEventId(); }
+
+    public void process() throws MetastoreNotificationException {
+      Metrics metrics = lastEvent_.metrics_;
+      String tblName = lastEvent_.getFullyQualifiedTblName();
+      int numRefreshEvents = 0;
+      boolean reloadTable = false;
+      long firstAddEventId = -1;
+      // The partitions to add and to reload keyed by their values, in event order.
+      Map<List<String>, Partition> partsToAdd = new LinkedHashMap<>();
+      Map<List<String>, Partition> partsToReload = new LinkedHashMap<>();
+      for (BatchableTableEvent event : batchedEvents_) {
+        if (event.isEventProcessingDisabled()) {
+          metrics.getCounter(MetastoreEventsProcessor.EVENTS_SKIPPED_METRIC).inc();
+          continue;
+        }
+        if (event.canBeSkippedInBatch()) continue;
+        ++numRefreshEvents;
+        // Like in process() of the events, transactional tables are reloaded as a whole.
+        if (AcidUtils.isTransactionalTable(event.msTbl_.getParameters())) {
+          reloadTable = true;
+        } else if (event instanceof AddPartitionEvent) {
+          if (firstAddEventId < 0) firstAddEventId = event.getEventId();
+          for (Partition part : ((AddPartitionEvent) event).getPartitions()) {
+            partsToAdd.put(part.getValues(), part);
+          }
+        } else if (event instanceof AlterPartitionEvent) {
+          Partition part = ((AlterPartitionEvent) event).partitionAfter_;
+          partsToReload.put(part.getValues(), part);
+        } else {
+          Partition part = ((InsertEvent) event).insertPartition_;
+          if (part == null) {
+            reloadTable = true;
+          } else {
+            partsToReload.put(part.getValues(), part);
+          }
+        }
+      }
+      if (numRefreshEvents == 0) {
+        lastEvent_.infoLog("Not processing the batch of {} events on table {} as none "
+            + "of them needs a refresh", batchedEvents_.size(), tblName);
+        return;
+      }
+      if (reloadTable) {
+        lastEvent_.infoLog("Refreshing table {} once for {} batched events starting at "
+            + "event id {}", tblName, numRefreshEvents,
+            batchedEvents_.get(0).getEventId());
+        try {
+          lastEvent_.reloadTableFromCatalog("BATCH_PARTITION",
+              AcidUtils.isTransactionalTable(lastEvent_.msTbl_.getParameters()));
+        } catch (CatalogException e) {
+          throw new MetastoreNotificationNeedsInvalidateException(lastEvent_.debugString(
+              "Refresh table %s failed. Event processing cannot continue. Issue an "
+              + "invalidate metadata command to reset the event processor state.",
+              tblName), e);
+        }
+        return;
+      }
+      lastEvent_.infoLog("Adding {} and refreshing {} partitions of table {} for {} "
+          + "batched events starting at event id {}", partsToAdd.size(),
+          partsToReload.size(), tblName, numRefreshEvents,
+          batchedEvents_.get(0).getEventId());
+      try {
+        if (!partsToAdd.isEmpty()) {
+          // Partition drops are not batched, so a partition removed after the first
+          // ADD_PARTITION event was removed after the batch.
+          int numPartsAdded =
+              lastEvent_.catalogOpExecutor_.addPartitionsIfNotRemovedLater(
+                  firstAddEventId, lastEvent_.dbName_, lastEvent_.tblName_,
+                  new ArrayList<>(partsToAdd.values()), "BATCH_PARTITION");
+          metrics.getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITIONS_ADDED)
+              .inc(numPartsAdded);
+        }
+        // Partitions added in the batch are reloaded too, since the partition objects
+        // of ADD_PARTITION events don't include later changes.
+        if (!partsToReload.isEmpty()) {
+          lastEvent_.reloadPartitions(new ArrayList<>(partsToReload.values()),
+              "BATCH_PARTITION");
+        }
+      } catch (CatalogException e) {
+        throw new MetastoreNotificationNeedsInvalidateException(lastEvent_.debugString(
+            "Failed to apply the batched partition events of table %s. Event "
+            + "processing cannot continue. Issue an invalidate metadata command to "
+            + "reset the event processor state.", tblName), e);
+      }
+    }
+  }
+
   public static class DropPartitionEvent extends MetastoreTableEvent {
     private final List<Map<String, String>> droppedPartitions_;
     public static final String EVENT_TYPE = "DROP_PARTITION";
@@ -21,15 +21,25 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nullable;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient.NotificationFilter;
@@ -41,11 +51,16 @@ import org.apache.impala.catalog.CatalogException;
 import org.apache.impala.catalog.CatalogServiceCatalog;
 import org.apache.impala.catalog.MetaStoreClientPool.MetaStoreClient;
 import org.apache.impala.catalog.events.ConfigValidator.ValidationResult;
+import org.apache.impala.catalog.events.MetastoreEvents.AlterTableEvent;
+import org.apache.impala.catalog.events.MetastoreEvents.BatchPartitionEvent;
+import org.apache.impala.catalog.events.MetastoreEvents.BatchableTableEvent;
 import org.apache.impala.catalog.events.MetastoreEvents.MetastoreEvent;
 import org.apache.impala.catalog.events.MetastoreEvents.MetastoreEventFactory;
+import org.apache.impala.catalog.events.MetastoreEvents.MetastoreTableEvent;
 import org.apache.impala.common.ImpalaRuntimeException;
 import org.apache.impala.common.Metrics;
 import org.apache.impala.compat.MetastoreShim;
+import org.apache.impala.service.BackendConfig;
 import org.apache.impala.service.CatalogOpExecutor;
 import org.apache.impala.thrift.TCreateTableParams;
 import org.apache.impala.thrift.TDdlExecResponse;
@@ -181,6 +196,17 @@ import org.slf4j.LoggerFactory;
  * update operation is being performed. Since the events are generated post-metastore
  * operations, such catalog updates do not need to update the state in Hive Metastore.
  *
+ * Parallel mode: When --hms_event_processing_threads is greater than 1, each fetched
+ * batch of events is split into segments at events which do not belong to a single
+ * table, e.g. database events or table renames. Within a segment the events are grouped
+ * into one queue per table, and each table queue is assigned to one of the worker
+ * threads. Events on the same table are hence still processed in order while events on
+ * unrelated tables are processed in parallel. The events which separate the segments are
+ * processed on their own once all the preceding events are processed. Successive
+ * ADD_PARTITION, ALTER_PARTITION and INSERT events in a table queue are merged into a
+ * {@link BatchPartitionEvent} which reloads the affected partitions once. The last
+ * synced event id only moves forward once a whole segment is processed.
+ *
  * Error Handling: The event processor could be in ACTIVE, PAUSED, ERROR states. In case
  * of any errors while processing the events the state of event processor changes to ERROR
  * and no subsequent events are polled. In such a case a invalidate metadata command
@@ -244,6 +270,12 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
   public static final String NUMBER_OF_PARTITIONS_REMOVED = "partitions-removed";
   // number of entries in the delete event log
   public static final String DELETE_EVENT_LOG_SIZE = "delete-event-log-size";
+  // number of events in metastore which are not synced yet
+  public static final String EVENTS_LAG_METRIC = "events-lag";
+  // number of events which were merged into a BatchPartitionEvent
+  public static final String EVENTS_BATCHED_METRIC = "events-batched";
+  // number of events which are queued for a worker in the parallel mode
+  public static final String WORKER_QUEUE_DEPTH_METRIC_FORMAT = "worker-%d-queue-depth";
 
   /**
    * Wrapper around {@link MetastoreEventsProcessor#getNextMetastoreEvents} which passes
@@ -317,6 +349,9 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
   // keeps track of the last event id which we have synced to
   private final AtomicLong lastSyncedEventId_ = new AtomicLong(-1);
 
+  // latest event id in metastore as of the last poll. Used to compute the lag.
+  private final AtomicLong latestEventId_ = new AtomicLong(-1);
+
   // polling interval in seconds. Note this is a time we wait AFTER each fetch call
   private final long pollingFrequencyInSec_;
 
@@ -338,15 +373,46 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
   // can ignore the drop events when they are received later.
   private final DeleteEventLog deleteEventLog_ = new DeleteEventLog();
 
+  // number of threads which process the events of unrelated tables in parallel. If 1,
+  // all the events are processed serially by the scheduler thread.
+  private final int numWorkers_;
+
+  // worker pool of the parallel mode. Null if numWorkers_ is 1.
+  private final ExecutorService workerPool_;
+
+  // number of events which are queued for each of the workers
+  private final AtomicInteger[] workerQueueDepths_;
+
+  // Held in read mode by the workers while they process an event and in write mode when
+  // the status is changed. This makes sure that e.g. pause() waits for the events which
+  // are being processed, like it does for the serial mode by synchronizing on this
+  // object.
+  private final ReentrantReadWriteLock processingLock_ = new ReentrantReadWriteLock();
+
   @VisibleForTesting
   MetastoreEventsProcessor(CatalogOpExecutor catalogOpExecutor, long startSyncFromId,
       long pollingFrequencyInSec) throws CatalogException {
+    this(catalogOpExecutor, startSyncFromId, pollingFrequencyInSec,
+        BackendConfig.INSTANCE.getHmsEventProcessingThreads());
+  }
+
+  @VisibleForTesting
+  MetastoreEventsProcessor(CatalogOpExecutor catalogOpExecutor, long startSyncFromId,
+      long pollingFrequencyInSec, int numWorkers) throws CatalogException {
     Preconditions.checkState(pollingFrequencyInSec > 0);
+    Preconditions.checkArgument(numWorkers > 0,
+        "hms_event_processing_threads must be positive");
     this.catalog_ = Preconditions.checkNotNull(catalogOpExecutor.getCatalog());
     validateConfigs();
     lastSyncedEventId_.set(startSyncFromId);
     metastoreEventFactory_ = new MetastoreEventFactory(catalogOpExecutor, metrics_);
     pollingFrequencyInSec_ = pollingFrequencyInSec;
+    numWorkers_ = numWorkers;
+    workerPool_ = numWorkers == 1 ? null : Executors.newFixedThreadPool(numWorkers,
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("MetastoreEventsProcessorWorker-%d").build());
+    workerQueueDepths_ = new AtomicInteger[numWorkers];
+    for (int i = 0; i < numWorkers; ++i) workerQueueDepths_[i] = new AtomicInteger();
     initMetrics();
   }
 
@@ -415,6 +481,22 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
     metrics_.addCounter(NUMBER_OF_PARTITIONS_REMOVED);
     metrics_
         .addGauge(DELETE_EVENT_LOG_SIZE, (Gauge<Integer>) deleteEventLog_::size);
+    metrics_.addGauge(EVENTS_LAG_METRIC, (Gauge<Long>) this::getEventsLag);
+    metrics_.addCounter(EVENTS_BATCHED_METRIC);
+    if (workerPool_ != null) {
+      for (int i = 0; i < numWorkers_; ++i) {
+        metrics_.addGauge(String.format(WORKER_QUEUE_DEPTH_METRIC_FORMAT, i),
+            (Gauge<Integer>) workerQueueDepths_[i]::get);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of events in metastore, as of the last poll, which are not synced
+   * yet.
+   */
+  private long getEventsLag() {
+    return Math.max(0, latestEventId_.get() - lastSyncedEventId_.get());
   }
 
   /**
@@ -550,6 +632,8 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
    * within timeout, does a force shutdown which might interrupt currently running tasks.
    */
   private synchronized void shutdownAndAwaitTermination() {
+    // The scheduler thread waits for the workers, so they drain along with it.
+    if (workerPool_ != null) workerPool_.shutdown();
     scheduler_.shutdown(); // disable new tasks from being submitted
     try {
       // wait for 10 secs for scheduler to complete currently running tasks
@@ -558,12 +642,14 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
         LOG.info(String.format("Scheduler pool did not terminate within %d seconds. "
             + "Attempting to stop currently running tasks", SCHEDULER_SHUTDOWN_TIMEOUT));
         scheduler_.shutdownNow();
+        if (workerPool_ != null) workerPool_.shutdownNow();
       }
     } catch (InterruptedException e) {
       // current thread interrupted while pool was waiting for termination
       // issue a shutdownNow before returning to cancel currently running tasks
       LOG.info("Received interruptedException. Terminating currently running tasks.", e);
       scheduler_.shutdownNow();
+      if (workerPool_ != null) workerPool_.shutdownNow();
     }
   }
 
@@ -593,6 +679,7 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
       CurrentNotificationEventId currentNotificationEventId =
           msClient.getHiveClient().getCurrentNotificationEventId();
       long currentEventId = currentNotificationEventId.getEventId();
+      latestEventId_.set(currentEventId);
 
       // no new events since we last polled
       if (currentEventId <= eventId) {
@@ -694,6 +781,14 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
     eventProcessorMetrics.setEvents_received_1min_rate(avgNumberOfEventsReceived1Min);
     eventProcessorMetrics.setEvents_received_5min_rate(avgNumberOfEventsReceived5Min);
     eventProcessorMetrics.setEvents_received_15min_rate(avgNumberOfEventsReceived15Min);
+    eventProcessorMetrics.setEvents_lag(getEventsLag());
+    eventProcessorMetrics.setEvents_batched(
+        metrics_.getCounter(EVENTS_BATCHED_METRIC).getCount());
+    if (workerPool_ != null) {
+      List<Integer> queueDepths = new ArrayList<>(numWorkers_);
+      for (AtomicInteger depth : workerQueueDepths_) queueDepths.add(depth.get());
+      eventProcessorMetrics.setWorker_queue_depths(queueDepths);
+    }
 
     LOG.trace("Events Received: {} Events skipped: {} Avg fetch duration: {} Avg process "
             + "duration: {} Events received rate (1min) : {}",
@@ -735,6 +830,10 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
         lastSyncedEventId_.set(events.get(events.size() - 1).getEventId());
         return;
       }
+      if (workerPool_ != null) {
+        processEventsInParallel(filteredEvents);
+        return;
+      }
       for (MetastoreEvent event : filteredEvents) {
         // synchronizing each event processing reduces the scope of the lock so the a
         // potential reset() during event processing is not blocked for longer than
@@ -759,10 +858,203 @@ public class MetastoreEventsProcessor implements ExternalEventsProcessor {
   }
 
   /**
-   * Updates the current states to the given status.
+   * Processes 'events' in the parallel mode, see the class documentation. Events which do
+   * not belong to a single table are processed on the calling thread once all the events
+   * before them are processed. Returns early if the status changes from ACTIVE.
+   */
+  private void processEventsInParallel(List<MetastoreEvent> events)
+      throws MetastoreNotificationException {
+    int start = 0;
+    while (start < events.size()) {
+      int end = start;
+      while (end < events.size() && getTableQueueKey(events.get(end)) != null) ++end;
+      if (end > start && !processTableEventsInParallel(events.subList(start, end))) {
+        return;
+      }
+      if (end < events.size()) {
+        MetastoreEvent event = events.get(end);
+        synchronized (this) {
+          if (eventProcessorStatus_ != EventProcessorStatus.ACTIVE) return;
+          processEvent(event);
+          deleteEventLog_.garbageCollect(event.getEventId());
+          lastSyncedEventId_.set(event.getEventId());
+        }
+        ++end;
+      }
+      start = end;
+    }
+  }
+
+  /**
+   * Processes 'events', which all belong to a single table each, on the worker pool and
+   * waits for them. The events are grouped into one queue per table, which is assigned
+   * to a worker based on the table name. The last synced event id is moved to the last
+   * of 'events' if all of them were processed. Returns false if the workers stopped
+   * because the status changed from ACTIVE.
+   */
+  private boolean processTableEventsInParallel(List<MetastoreEvent> events)
+      throws MetastoreNotificationException {
+    List<Map<String, List<MetastoreEvent>>> workerQueues = new ArrayList<>(numWorkers_);
+    for (int i = 0; i < numWorkers_; ++i) workerQueues.add(new LinkedHashMap<>());
+    for (MetastoreEvent event : events) {
+      String key = getTableQueueKey(event);
+      int worker = Math.floorMod(key.hashCode(), numWorkers_);
+      workerQueues.get(worker).computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+      workerQueueDepths_[worker].incrementAndGet();
+    }
+    // Set by the first worker which fails so that the others stop early.
+    AtomicBoolean failed = new AtomicBoolean(false);
+    List<Future<Boolean>> futures = new ArrayList<>();
+    boolean allProcessed = true;
+    Throwable firstError = null;
+    try {
+      for (int i = 0; i < numWorkers_; ++i) {
+        if (workerQueues.get(i).isEmpty()) continue;
+        Collection<List<MetastoreEvent>> tableQueues = workerQueues.get(i).values();
+        AtomicInteger queueDepth = workerQueueDepths_[i];
+        futures.add(workerPool_.submit(
+            () -> processTableQueues(tableQueues, queueDepth, failed)));
+      }
+      // Always wait for all the workers so that no event is processed concurrently with
+      // a status change or with the next batch.
+      for (Future<Boolean> future : futures) {
+        try {
+          allProcessed &= future.get();
+        } catch (ExecutionException e) {
+          allProcessed = false;
+          if (firstError == null) firstError = e.getCause();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MetastoreNotificationException("Interrupted while waiting for the "
+          + "event processing workers", e);
+    } finally {
+      for (Future<Boolean> future : futures) future.cancel(true);
+      for (AtomicInteger queueDepth : workerQueueDepths_) queueDepth.set(0);
+    }
+    if (firstError != null) {
+      Throwables.propagateIfPossible(firstError, MetastoreNotificationException.class);
+      throw new MetastoreNotificationException("Unexpected error while processing "
+          + "events", firstError);
+    }
+    if (!allProcessed) return false;
+    long lastEventId = events.get(events.size() - 1).getEventId();
+    synchronized (this) {
+      if (eventProcessorStatus_ != EventProcessorStatus.ACTIVE) return false;
+      deleteEventLog_.garbageCollect(lastEventId);
+      lastSyncedEventId_.set(lastEventId);
+    }
+    return true;
+  }
+
+  /**
+   * Runs on a worker thread. Processes the events of each of the 'tableQueues' in order
+   * after merging successive batchable events, and decrements 'queueDepth' accordingly.
+   * Returns false if the processing stopped because the status changed from ACTIVE or
+   * because another worker failed.
+   */
+  private boolean processTableQueues(Collection<List<MetastoreEvent>> tableQueues,
+      AtomicInteger queueDepth, AtomicBoolean failed)
+      throws MetastoreNotificationException {
+    for (List<MetastoreEvent> tableQueue : tableQueues) {
+      for (List<MetastoreEvent> batch : batchTableEvents(tableQueue)) {
+        if (failed.get()) return false;
+        processingLock_.readLock().lock();
+        try {
+          if (eventProcessorStatus_ != EventProcessorStatus.ACTIVE) return false;
+          processBatch(batch);
+        } catch (MetastoreNotificationException | RuntimeException e) {
+          failed.set(true);
+          throw e;
+        } finally {
+          processingLock_.readLock().unlock();
+          queueDepth.addAndGet(-batch.size());
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Splits 'tableEvents', which are all events on the same table in event order, into
+   * the batches that a worker processes in order: the runs of successive batchable
+   * events, and each of the other events on its own.
+   */
+  @VisibleForTesting
+  List<List<MetastoreEvent>> batchTableEvents(List<MetastoreEvent> tableEvents) {
+    List<List<MetastoreEvent>> result = new ArrayList<>();
+    List<MetastoreEvent> batch = new ArrayList<>();
+    for (MetastoreEvent event : tableEvents) {
+      if (event instanceof BatchableTableEvent) {
+        batch.add(event);
+        continue;
+      }
+      if (!batch.isEmpty()) {
+        result.add(batch);
+        batch = new ArrayList<>();
+      }
+      result.add(Collections.singletonList(event));
+    }
+    if (!batch.isEmpty()) result.add(batch);
+    return result;
+  }
+
+  /**
+   * Processes a batch returned by batchTableEvents(). The events of a batch of more
+   * than one event are applied together by a BatchPartitionEvent.
+   */
+  private void processBatch(List<MetastoreEvent> batch)
+      throws MetastoreNotificationException {
+    if (batch.size() == 1) {
+      processEvent(batch.get(0));
+      return;
+    }
+    List<BatchableTableEvent> batchedEvents = new ArrayList<>(batch.size());
+    for (MetastoreEvent event : batch) batchedEvents.add((BatchableTableEvent) event);
+    metrics_.getCounter(EVENTS_BATCHED_METRIC).inc(batch.size());
+    new BatchPartitionEvent(batchedEvents).process();
+  }
+
+  /**
+   * Returns the table queue 'event' is processed in by the parallel mode, or null if it
+   * does not belong to a single table, e.g. because it is a database event or a table
+   * rename.
+   */
+  private static String getTableQueueKey(MetastoreEvent event) {
+    if (!(event instanceof MetastoreTableEvent)) return null;
+    if (event instanceof AlterTableEvent && ((AlterTableEvent) event).isRename()) {
+      return null;
+    }
+    return (event.getDbName() + "." + event.getTableName()).toLowerCase();
+  }
+
+  /**
+   * Processes 'event' if it is enabled. CatalogExceptions are rethrown as
+   * MetastoreNotificationExceptions which identify the event.
+   */
+  private void processEvent(MetastoreEvent event)
+      throws MetastoreNotificationException {
+    try {
+      event.processIfEnabled();
+    } catch (CatalogException e) {
+      throw new MetastoreNotificationException(String.format(
+          "Unable to process event %d of type %s. Event processing will be stopped.",
+          event.getEventId(), event.metastoreNotificationEvent_.getEventType()), e);
+    }
+  }
+
+  /**
+   * Updates the current states to the given status. Waits for the events which are
+   * being processed by the workers of the parallel mode.
    */
   private synchronized void updateStatus(EventProcessorStatus toStatus) {
-    eventProcessorStatus_ = toStatus;
+    processingLock_.writeLock().lock();
+    try {
+      eventProcessorStatus_ = toStatus;
+    } finally {
+      processingLock_.writeLock().unlock();
+    }
   }
 
   private void dumpEventInfoToLog(NotificationEvent event) {
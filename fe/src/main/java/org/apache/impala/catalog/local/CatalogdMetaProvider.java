@@ -17,6 +17,7 @@
 
 package org.apache.impala.catalog.local;
 
+import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -80,6 +81,7 @@ import org.apache.impala.thrift.TFunctionName;
 import org.apache.impala.thrift.TGetPartialCatalogObjectRequest;
 import org.apache.impala.thrift.TGetPartialCatalogObjectResponse;
 import org.apache.impala.thrift.THdfsFileDesc;
+import org.apache.impala.thrift.THdfsPartitionLocation;
 import org.apache.impala.thrift.TNetworkAddress;
 import org.apache.impala.thrift.TPartialPartitionInfo;
 import org.apache.impala.thrift.TTable;
@@ -107,6 +109,9 @@ import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -277,6 +282,13 @@ public class CatalogdMetaProvider implements MetaProvider {
    */
   final Cache<Object,Object> cache_;
 
+  /**
+   * Off-heap second tier for partition metadata. Partitions evicted from 'cache_' are
+   * serialized into this store and looked up there before fetching them from the
+   * catalogd. Null if disabled by --local_catalog_offheap_cache_mb.
+   */
+  private final OffHeapPartitionStore offHeapStore_;
+
   /**
    * The last catalog version seen in an update from the catalogd.
    *
@@ -351,20 +363,50 @@ public class CatalogdMetaProvider implements MetaProvider {
     LOG.info("Metadata cache configuration: capacity={} MB, expiration={} sec",
         cacheSizeBytes/1024/1024, expirationSecs);
 
+    if (flags.isSetLocal_catalog_offheap_cache_mb() &&
+        flags.local_catalog_offheap_cache_mb > 0) {
+      String dir = flags.isSetLocal_catalog_offheap_cache_dir() &&
+          !flags.local_catalog_offheap_cache_dir.isEmpty() ?
+          flags.local_catalog_offheap_cache_dir : System.getProperty("java.io.tmpdir");
+      LOG.info("Off-heap partition metadata cache configuration: capacity={} MB, " +
+          "dir={}", flags.local_catalog_offheap_cache_mb, dir);
+      offHeapStore_ = new OffHeapPartitionStore(
+          flags.local_catalog_offheap_cache_mb * 1024L * 1024L, new File(dir));
+    } else {
+      offHeapStore_ = null;
+    }
+
     // TODO(todd) add end-to-end test cases which stress cache eviction (both time
     // and size-triggered) and make sure results are still correct.
-    cache_ = CacheBuilder.newBuilder()
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
         .maximumWeight(cacheSizeBytes)
         .expireAfterAccess(expirationSecs, TimeUnit.SECONDS)
         .weigher(new SizeOfWeigher())
-        .recordStats()
-        .build();
+        .recordStats();
+    if (offHeapStore_ != null) {
+      builder.removalListener(new RemovalListener<Object, Object>() {
+        @Override
+        public void onRemoval(RemovalNotification<Object, Object> notification) {
+          if (notification.getCause() == RemovalCause.SIZE) {
+            spillEvictedPartition(notification);
+          }
+        }
+      });
+    }
+    cache_ = builder.build();
   }
 
   public CacheStats getCacheStats() {
     return cache_.stats();
   }
 
+  /**
+   * Returns the off-heap partition metadata store, or null if it is disabled.
+   */
+  public OffHeapPartitionStore getOffHeapStore() {
+    return offHeapStore_;
+  }
+
   @Override
   public Iterable<HdfsCachePool> getHdfsCachePools() {
     return hdfsCachePools_;
@@ -1033,6 +1075,7 @@ public class CatalogdMetaProvider implements MetaProvider {
       PartitionRefImpl prefImpl = (PartitionRefImpl)ref;
       PartitionCacheKey cacheKey = new PartitionCacheKey(prefImpl.getId());
       PartitionMetadataImpl val = (PartitionMetadataImpl)getIfPresent(cacheKey);
+      if (val == null) val = loadPartitionFromOffHeapStore(table, cacheKey);
       if (val == null) continue;
 
       // The entry in the cache has file descriptors that are relative to the cache's
@@ -1043,6 +1086,84 @@ public class CatalogdMetaProvider implements MetaProvider {
   }
 
 
+  /**
+   * Look up the partition of 'table' identified by 'cacheKey' in the off-heap store. On
+   * a hit, the partition is promoted back into the on-heap cache and its off-heap copy
+   * is dropped. The returned metadata is relative to the cache's host index. Returns
+   * null on a miss or if the store is disabled.
+   */
+  private PartitionMetadataImpl loadPartitionFromOffHeapStore(TableMetaRefImpl table,
+      PartitionCacheKey cacheKey) throws TException {
+    if (offHeapStore_ == null) return null;
+    byte[] blob = offHeapStore_.get(cacheKey.partId_);
+    if (blob == null) return null;
+    TPartialPartitionInfo part = new TPartialPartitionInfo();
+    new TDeserializer().deserialize(part, blob);
+    HdfsStorageDescriptor hdfsStorageDescriptor = HdfsStorageDescriptor.fromThrift(
+        part.hdfs_storage_descriptor, table.tableName_);
+    // The location was spilled uncompressed. See spillEvictedPartition().
+    HdfsPartitionLocationCompressor.Location location =
+        table.getPartitionLocationCompressor().new Location(part.location.suffix);
+    PartitionMetadataImpl val = new PartitionMetadataImpl(part.getHms_parameters(),
+        part.write_id, hdfsStorageDescriptor,
+        fdsFromThrift(part.file_descriptors),
+        fdsFromThrift(part.insert_file_descriptors),
+        fdsFromThrift(part.delete_file_descriptors),
+        part.getPartition_stats(), part.has_incremental_stats, part.is_marked_cached,
+        location);
+    // Dropped before the promotion, so that an eviction of the promoted partition
+    // spills it again.
+    offHeapStore_.remove(cacheKey.partId_);
+    cache_.put(cacheKey, val);
+    return val;
+  }
+
+  private static ImmutableList<FileDescriptor> fdsFromThrift(
+      List<THdfsFileDesc> thriftFds) {
+    List<FileDescriptor> fds = Lists.newArrayListWithCapacity(thriftFds.size());
+    for (THdfsFileDesc thriftFd: thriftFds) fds.add(FileDescriptor.fromThrift(thriftFd));
+    return ImmutableList.copyOf(fds);
+  }
+
+  /**
+   * Removal listener of 'cache_' for entries that were evicted due to its size.
+   * Serializes evicted partitions into the off-heap store. Partitions that expired or
+   * were explicitly invalidated are not spilled. The file descriptors remain relative
+   * to 'cacheHostIndex_', which never drops entries.
+   */
+  private void spillEvictedPartition(RemovalNotification<Object, Object> notification) {
+    if (!(notification.getKey() instanceof PartitionCacheKey)) return;
+    if (!(notification.getValue() instanceof PartitionMetadataImpl)) return;
+    PartitionCacheKey key = (PartitionCacheKey) notification.getKey();
+    // Partition metadata is immutable for a given id, so an existing blob is current.
+    if (offHeapStore_.contains(key.partId_)) return;
+    PartitionMetadataImpl val = (PartitionMetadataImpl) notification.getValue();
+    TPartialPartitionInfo part = new TPartialPartitionInfo(key.partId_);
+    part.setHms_parameters(val.hmsParameters_);
+    part.setWrite_id(val.writeId_);
+    part.setHdfs_storage_descriptor(val.hdfsStorageDescriptor_.toThrift());
+    // The prefix index of a compressed location is only meaningful for the
+    // TableMetaRefImpl it was created with, so store the full location instead.
+    part.setLocation(new THdfsPartitionLocation(-1, val.location_.toString()));
+    part.setFile_descriptors(fdsToThrift(val.fds_));
+    part.setInsert_file_descriptors(fdsToThrift(val.insertFds_));
+    part.setDelete_file_descriptors(fdsToThrift(val.deleteFds_));
+    if (val.partitionStats_ != null) part.setPartition_stats(val.partitionStats_);
+    part.setHas_incremental_stats(val.hasIncrementalStats_);
+    part.setIs_marked_cached(val.isMarkedCached_);
+    try {
+      offHeapStore_.put(key.partId_, new TSerializer().serialize(part));
+    } catch (TException e) {
+      LOG.warn("Unable to spill metadata of partition " + key.partId_, e);
+    }
+  }
+
+  private static List<THdfsFileDesc> fdsToThrift(List<FileDescriptor> fds) {
+    List<THdfsFileDesc> ret = Lists.newArrayListWithCapacity(fds.size());
+    for (FileDescriptor fd: fds) ret.add(fd.toThrift());
+    return ret;
+  }
+
   /**
    * Write back the partitions in 'metas' into the cache. The file descriptors in these
    * partitions must be relative to the 'hostIndex'.
@@ -1221,7 +1342,7 @@ public class CatalogdMetaProvider implements MetaProvider {
         if (lastResetCatalogVersion_.getAndSet(resetStartVersion) != resetStartVersion) {
           // Detected a new reset() finishes in Catalogd, clear the cache in case some
           // tables are skipped in this topic update.
-          cache_.invalidateAll();
+          invalidateAllCaches();
           // Don't need to clear hdfsCachePools_ if this comes from a catalogd restart,
           // because we already clear it in witnessCatalogServiceId().
           // Shouldn't clear hdfsCachePools_ if this comes from a global invalidation,
@@ -1340,6 +1461,14 @@ public class CatalogdMetaProvider implements MetaProvider {
     }
   }
 
+  /**
+   * Invalidate the on-heap cache and the off-heap partition store.
+   */
+  private void invalidateAllCaches() {
+    cache_.invalidateAll();
+    if (offHeapStore_ != null) offHeapStore_.invalidateAll();
+  }
+
   /**
    * Witness a service ID received from the catalog. We can see the service IDs
    * either from a DDL response (in which case the service ID is part of the RPC
@@ -1357,7 +1486,7 @@ public class CatalogdMetaProvider implements MetaProvider {
               catalogServiceId_, serviceId);
         }
         catalogServiceId_ = serviceId;
-        cache_.invalidateAll();
+        invalidateAllCaches();
         // Clear cached items from the previous catalogd instance. Otherwise, we'll
         // ignore new updates from the new catalogd instance since they have lower
         // versions.
@@ -1471,7 +1600,9 @@ public class CatalogdMetaProvider implements MetaProvider {
   private void invalidateCacheForPartition(String dbName, String tblName, String partName,
       long partitionId, List<String> invalidated) {
     PartitionCacheKey key = new PartitionCacheKey(partitionId);
-    if (cache_.asMap().remove(key) != null) {
+    // The partition may only be in the off-heap store.
+    boolean removedOffHeap = offHeapStore_ != null && offHeapStore_.remove(partitionId);
+    if (cache_.asMap().remove(key) != null || removedOffHeap) {
       invalidated.add(String.format("partition %s.%s:%s (id=%d)",
           dbName, tblName, partName, partitionId));
     }
@@ -1683,6 +1814,9 @@ public class CatalogdMetaProvider implements MetaProvider {
 
     public boolean isMarkedCached() { return isMarkedCached_; }
 
+    @Override
+    public long getCatalogVersion() { return catalogVersion_; }
+
     public HdfsPartitionLocationCompressor getPartitionLocationCompressor() {
       return partitionLocationCompressor_;
     }
@@ -36,6 +36,7 @@ import org.apache.hadoop.hive.metastore.api.PrimaryKeysRequest;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.metastore.api.TableMeta;
 import org.apache.impala.authorization.AuthorizationPolicy;
+import org.apache.impala.catalog.Catalog;
 import org.apache.impala.catalog.CatalogException;
 import org.apache.impala.catalog.FileMetadataLoader;
 import org.apache.impala.catalog.Function;
@@ -491,6 +492,9 @@ class DirectMetaProvider implements MetaProvider {
     public List<String> getPartitionPrefixes() {
       return Collections.emptyList();
     }
+
+    @Override
+    public long getCatalogVersion() { return Catalog.INITIAL_CATALOG_VERSION; }
   }
 
   @Override
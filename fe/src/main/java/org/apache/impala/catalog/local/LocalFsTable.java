@@ -46,6 +46,7 @@ import org.apache.impala.catalog.HdfsFileFormat;
 import org.apache.impala.catalog.HdfsPartition.FileDescriptor;
 import org.apache.impala.catalog.HdfsStorageDescriptor;
 import org.apache.impala.catalog.HdfsTable;
+import org.apache.impala.catalog.PartitionKeyIndex;
 import org.apache.impala.catalog.PrunablePartition;
 import org.apache.impala.catalog.SqlConstraints;
 import org.apache.impala.catalog.local.MetaProvider.PartitionMetadata;
@@ -97,6 +98,13 @@ public class LocalFsTable extends LocalTable implements FeFsTable {
    */
   private List<Set<Long>> nullPartitionIds_;
 
+  /**
+   * Index over the partition key values for partition pruning.
+   *
+   * Set by getPartitionKeyIndex().
+   */
+  private PartitionKeyIndex partitionKeyIndex_;
+
   /**
    * The value that will be stored in a partition name to indicate NULL.
    */
@@ -422,6 +430,12 @@ public class LocalFsTable extends LocalTable implements FeFsTable {
     return nullPartitionIds_.get(colIdx);
   }
 
+  @Override
+  public PartitionKeyIndex getPartitionKeyIndex() {
+    if (partitionKeyIndex_ == null) partitionKeyIndex_ = PartitionKeyIndex.create(this);
+    return partitionKeyIndex_;
+  }
+
   @Override
   public List<? extends FeFsPartition> loadPartitions(Collection<Long> ids) {
     // TODO(todd) it seems like some queries actually call this multiple times.
@@ -28,6 +28,7 @@ import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.impala.analysis.TableName;
 import org.apache.impala.catalog.ArrayType;
+import org.apache.impala.catalog.Catalog;
 import org.apache.impala.catalog.Column;
 import org.apache.impala.catalog.DataSourceTable;
 import org.apache.impala.catalog.FeCatalogUtils;
@@ -176,6 +177,11 @@ abstract class LocalTable implements FeTable {
     return msTable_;
   }
 
+  @Override
+  public long getCatalogVersion() {
+    return ref_ == null ? Catalog.INITIAL_CATALOG_VERSION : ref_.getCatalogVersion();
+  }
+
   @Override
   public String getOwnerUser() {
     if (msTable_ == null) return null;
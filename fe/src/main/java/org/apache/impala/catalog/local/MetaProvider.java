@@ -132,6 +132,11 @@ public interface MetaProvider {
   interface TableMetaRef {
     boolean isMarkedCached();
     List<String> getPartitionPrefixes();
+    /**
+     * The catalog version the table was loaded at, or Catalog.INITIAL_CATALOG_VERSION
+     * if the provider doesn't track versions.
+     */
+    long getCatalogVersion();
   }
 
   /**
@@ -0,0 +1,259 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+/**
+ * Second-tier store for partition metadata evicted from the on-heap cache of
+ * CatalogdMetaProvider. Values are opaque serialized blobs keyed by partition id.
+ *
+ * Blobs are appended to a fixed ring of segments, each of which is a memory-mapped
+ * temporary file under the configured directory. The data therefore lives outside of
+ * the Java heap, does not count against the heap-based cache capacity and is never
+ * traced by the garbage collector. The backing files are unlinked as soon as they are
+ * mapped, so the OS reclaims them when the process exits.
+ *
+ * When a blob does not fit into the current segment, the next segment of the ring is
+ * recycled and all entries still pointing into it are dropped. Eviction is therefore
+ * FIFO at segment granularity. Blobs that are superseded by a newer value for the
+ * same id or removed are not reclaimed until their segment is recycled, unless they are
+ * the last blob that was appended.
+ */
+public class OffHeapPartitionStore {
+  private final static Logger LOG = LoggerFactory.getLogger(OffHeapPartitionStore.class);
+
+  // Default size of a single mapped segment.
+  static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Location of a blob within the segments.
+   */
+  private static class Entry {
+    final int segment;
+    final int offset;
+    final int length;
+
+    Entry(int segment, int offset, int length) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private final File dir_;
+  private final int segmentSize_;
+
+  private final ReentrantReadWriteLock lock_ = new ReentrantReadWriteLock();
+
+  // Segments are mapped lazily, so unused capacity does not reserve any address space.
+  @GuardedBy("lock_")
+  private final MappedByteBuffer[] segments_;
+
+  // The segment new blobs are appended to and the write offset within it.
+  @GuardedBy("lock_")
+  private int curSegment_ = -1;
+  @GuardedBy("lock_")
+  private int curOffset_ = 0;
+
+  @GuardedBy("lock_")
+  private final Map<Long, Entry> index_ = new HashMap<>();
+
+  private final AtomicLong hitCount_ = new AtomicLong();
+  private final AtomicLong missCount_ = new AtomicLong();
+  private final AtomicLong spillCount_ = new AtomicLong();
+  private final AtomicLong evictionCount_ = new AtomicLong();
+
+  /**
+   * Creates a store of at most 'capacityBytes' bytes whose segments are backed by files
+   * in 'dir'.
+   */
+  public OffHeapPartitionStore(long capacityBytes, File dir) {
+    this(capacityBytes, dir, DEFAULT_SEGMENT_SIZE);
+  }
+
+  @VisibleForTesting
+  OffHeapPartitionStore(long capacityBytes, File dir, int segmentSize) {
+    Preconditions.checkArgument(capacityBytes > 0);
+    Preconditions.checkArgument(segmentSize > 0);
+    dir_ = Preconditions.checkNotNull(dir);
+    segmentSize_ = (int) Math.min(segmentSize, capacityBytes);
+    segments_ = new MappedByteBuffer[(int) Math.max(1, capacityBytes / segmentSize_)];
+  }
+
+  /**
+   * Stores 'value' as the blob for partition 'partId', replacing any previous value.
+   * Returns false if the value could not be stored, e.g. because it is larger than a
+   * segment or the backing file could not be mapped.
+   */
+  public boolean put(long partId, byte[] value) {
+    if (value.length > segmentSize_) return false;
+    lock_.writeLock().lock();
+    try {
+      if (curSegment_ < 0 || curOffset_ + value.length > segmentSize_) {
+        advanceSegment();
+      }
+      ByteBuffer buf = segments_[curSegment_].duplicate();
+      buf.position(curOffset_);
+      buf.put(value);
+      index_.put(partId, new Entry(curSegment_, curOffset_, value.length));
+      curOffset_ += value.length;
+    } catch (IOException e) {
+      LOG.warn("Unable to map off-heap catalog cache segment in " + dir_, e);
+      return false;
+    } finally {
+      lock_.writeLock().unlock();
+    }
+    spillCount_.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Returns a copy of the blob stored for partition 'partId' or null if there is none.
+   */
+  public byte[] get(long partId) {
+    lock_.readLock().lock();
+    try {
+      Entry e = index_.get(partId);
+      if (e == null) {
+        missCount_.incrementAndGet();
+        return null;
+      }
+      byte[] ret = new byte[e.length];
+      ByteBuffer buf = segments_[e.segment].duplicate();
+      buf.position(e.offset);
+      buf.get(ret);
+      hitCount_.incrementAndGet();
+      return ret;
+    } finally {
+      lock_.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns true if a blob is stored for partition 'partId'. Does not affect the
+   * hit and miss counters.
+   */
+  public boolean contains(long partId) {
+    lock_.readLock().lock();
+    try {
+      return index_.containsKey(partId);
+    } finally {
+      lock_.readLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the blob stored for partition 'partId'. Returns true if there was one.
+   */
+  public boolean remove(long partId) {
+    lock_.writeLock().lock();
+    try {
+      Entry e = index_.remove(partId);
+      if (e == null) return false;
+      // The space of the last appended blob can be reused right away.
+      if (e.segment == curSegment_ && e.offset + e.length == curOffset_) {
+        curOffset_ = e.offset;
+      }
+      return true;
+    } finally {
+      lock_.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops all stored blobs. The mapped segments are kept and reused.
+   */
+  public void invalidateAll() {
+    lock_.writeLock().lock();
+    try {
+      index_.clear();
+      curSegment_ = -1;
+      curOffset_ = 0;
+    } finally {
+      lock_.writeLock().unlock();
+    }
+  }
+
+  public long getHitCount() { return hitCount_.get(); }
+  public long getMissCount() { return missCount_.get(); }
+  public long getSpillCount() { return spillCount_.get(); }
+  public long getEvictionCount() { return evictionCount_.get(); }
+
+  @VisibleForTesting
+  int size() {
+    lock_.readLock().lock();
+    try {
+      return index_.size();
+    } finally {
+      lock_.readLock().unlock();
+    }
+  }
+
+  /**
+   * Moves the write position to the start of the next segment in the ring, mapping it
+   * if needed or dropping all entries that still point into it otherwise.
+   */
+  @GuardedBy("lock_")
+  private void advanceSegment() throws IOException {
+    int next = (curSegment_ + 1) % segments_.length;
+    if (segments_[next] == null) {
+      segments_[next] = mapSegment();
+    } else {
+      Iterator<Entry> it = index_.values().iterator();
+      while (it.hasNext()) {
+        if (it.next().segment == next) {
+          it.remove();
+          evictionCount_.incrementAndGet();
+        }
+      }
+    }
+    curSegment_ = next;
+    curOffset_ = 0;
+  }
+
+  private MappedByteBuffer mapSegment() throws IOException {
+    File file = File.createTempFile("impala-catalog-cache-", ".seg", dir_);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+         FileChannel channel = raf.getChannel()) {
+      // The mapping stays valid after the channel is closed and the file is unlinked.
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize_);
+    } finally {
+      if (!file.delete()) {
+        LOG.warn("Unable to delete off-heap catalog cache segment " + file);
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.common;
+
+import java.nio.ByteBuffer;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Write-only Thrift transport that serializes into a direct ByteBuffer, i.e. into native
+ * memory that the backend can read in place without copying it out of the Java heap.
+ * Each thread reuses a buffer of INITIAL_BUFFER_SIZE bytes for its messages, so the
+ * serialized message returned by serialize() is only valid until the thread serializes
+ * the next message. Larger messages are serialized twice: the first pass only counts
+ * their size, and the second one writes them into a new buffer of exactly that size,
+ * which is released once the message is no longer referenced. This avoids growing the
+ * buffer by repeated native allocations and copies, and the native memory that is
+ * retained per thread stays at INITIAL_BUFFER_SIZE.
+ */
+public class DirectBufferOutputTransport extends TTransport {
+  // Size of the buffer that each thread reuses.
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private static final ThreadLocal<ByteBuffer> cachedBuffer_ =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE));
+
+  private final ByteBuffer buffer_;
+  // Number of bytes written so far. If it exceeds the capacity of 'buffer_', the
+  // message did not fit and the bytes are only counted.
+  private long size_ = 0;
+
+  private DirectBufferOutputTransport(ByteBuffer buffer) {
+    buffer_ = buffer;
+    buffer_.clear();
+  }
+
+  /**
+   * Serializes 'input' with a protocol of 'protocolFactory' and returns a direct buffer
+   * that contains exactly the serialized message, i.e. whose capacity is its size.
+   */
+  public static ByteBuffer serialize(TBase<?, ?> input, TProtocolFactory protocolFactory)
+      throws TException {
+    DirectBufferOutputTransport transport =
+        new DirectBufferOutputTransport(cachedBuffer_.get());
+    input.write(protocolFactory.getProtocol(transport));
+    if (transport.size_ > INITIAL_BUFFER_SIZE) {
+      long size = transport.size_;
+      Preconditions.checkState(size <= Integer.MAX_VALUE,
+          "Serialized Thrift message exceeds 2GB");
+      transport = new DirectBufferOutputTransport(ByteBuffer.allocateDirect((int) size));
+      input.write(protocolFactory.getProtocol(transport));
+      Preconditions.checkState(transport.size_ == size,
+          "Serialized Thrift message changed its size from %s to %s bytes", size,
+          transport.size_);
+    }
+    ByteBuffer result = transport.buffer_.duplicate();
+    result.flip();
+    return result.slice();
+  }
+
+  @Override
+  public boolean isOpen() { return true; }
+
+  @Override
+  public void open() {}
+
+  @Override
+  public void close() {}
+
+  @Override
+  public int read(byte[] buf, int off, int len) throws TTransportException {
+    throw new TTransportException("DirectBufferOutputTransport is write-only");
+  }
+
+  @Override
+  public void write(byte[] buf, int off, int len) {
+    size_ += len;
+    if (size_ <= buffer_.capacity()) buffer_.put(buf, off, len);
+  }
+}
@@ -28,6 +28,7 @@ import java.lang.management.MemoryUsage;
 import java.lang.management.RuntimeMXBean;
 import java.lang.management.ThreadMXBean;
 import java.lang.management.ThreadInfo;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Map;
 
@@ -40,9 +41,12 @@ import org.apache.thrift.TSerializer;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TByteBuffer;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
 
 import org.apache.impala.thrift.TGetJvmMemoryMetricsResponse;
 import org.apache.impala.thrift.TGetJvmThreadsInfoRequest;
@@ -60,6 +64,8 @@ import org.slf4j.LoggerFactory;
 public class JniUtil {
   private final static TBinaryProtocol.Factory protocolFactory_ =
       new TBinaryProtocol.Factory();
+  private final static TCompactProtocol.Factory compactProtocolFactory_ =
+      new TCompactProtocol.Factory();
 
   private static final Logger LOG = LoggerFactory.getLogger(JniUtil.class);
 
@@ -143,6 +149,40 @@ public class JniUtil {
     }
   }
 
+  private static TProtocolFactory getProtocolFactory(boolean compact) {
+    return compact ? compactProtocolFactory_ : protocolFactory_;
+  }
+
+  /**
+   * Deserializes a Thrift data structure from 'thriftData', a direct buffer with native
+   * memory of the backend, without copying it into the Java heap first. 'compact' must
+   * match the protocol that the backend serialized the data with. The result does not
+   * reference 'thriftData', which is only valid for the duration of the JNI call.
+   */
+  public static <T extends TBase<?, ?>> void deserializeThrift(T result,
+      ByteBuffer thriftData, boolean compact) throws ImpalaException {
+    Preconditions.checkArgument(thriftData.isDirect());
+    try {
+      result.read(getProtocolFactory(compact).getProtocol(new TByteBuffer(thriftData)));
+    } catch (TException e) {
+      throw new InternalException(e.getMessage());
+    }
+  }
+
+  /**
+   * Serializes 'input' into a direct buffer that the backend reads in place, using
+   * TCompactProtocol if 'compact' is true. The buffer is reused by the next call on the
+   * same thread, see DirectBufferOutputTransport.
+   */
+  public static <T extends TBase<?, ?>> ByteBuffer serializeToDirectBuffer(T input,
+      boolean compact) throws ImpalaException {
+    try {
+      return DirectBufferOutputTransport.serialize(input, getProtocolFactory(compact));
+    } catch (TException e) {
+      throw new InternalException(e.getMessage());
+    }
+  }
+
   /**
    * Warn if the result size or the response time exceeds thresholds.
    */
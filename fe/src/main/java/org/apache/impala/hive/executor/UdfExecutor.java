@@ -19,6 +19,9 @@ package org.apache.impala.hive.executor;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -38,6 +41,7 @@ import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
+import org.apache.impala.catalog.PrimitiveType;
 import org.apache.impala.catalog.Type;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.ImpalaRuntimeException;
@@ -48,6 +52,7 @@ import org.apache.impala.util.UnsafeUtil;
 import org.apache.log4j.Logger;
 import org.apache.thrift.protocol.TBinaryProtocol;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
@@ -74,6 +79,12 @@ public class UdfExecutor {
   private Method method_;
   // setup by init() and cleared by close()
   private URLClassLoader classLoader_;
+  // Invoker specialized to the signature of method_, setup by init() and cleared by
+  // close(). It takes no arguments, reads the UDF arguments directly from the input
+  // buffer, calls the UDF and writes the result to the output buffer, so primitive
+  // arguments and results are never boxed. Only used if none of the arguments is NULL.
+  // Null if the signature could not be specialized.
+  private MethodHandle invoker_;
 
   // Return and argument types of the function inferred from the udf method signature.
   // The JavaUdfDataType enum maps it to corresponding primitive type.
@@ -107,6 +118,23 @@ public class UdfExecutor {
   private Object[] inputObjects_;
   private Object[] inputArgs_; // inputArgs_[i] is either inputObjects_[i] or null
 
+  // Slot sizes of the arguments and of the return value in the BE row layout. Used by
+  // evaluateBatch() to step through the input and output columns.
+  private int[] argSlotSizes_;
+  private int retSlotSize_;
+
+  // Pointers to the input columns and null indicators of the current batch. Reused
+  // across calls to evaluateBatch().
+  private long[] batchInputCols_;
+  private long[] batchInputNulls_;
+
+  // Buffer holding the STRING results of the last evaluateBatch() call. The StringValues
+  // written to the output column point into this buffer. Allocated from the FE and grown
+  // as necessary.
+  private long batchStringBufferPtr_;
+  private int batchStringBufferCapacity_;
+  private int batchStringBufferLen_;
+
   // Data types that are supported as return or argument types in Java UDFs.
   public enum JavaUdfDataType {
     INVALID_TYPE("INVALID_TYPE", TPrimitiveType.INVALID_TYPE),
@@ -142,6 +170,11 @@ public class UdfExecutor {
 
     public TPrimitiveType getPrimitiveType() { return thriftType_; }
 
+    // Returns the size of the BE slot holding a value of this type.
+    public int getSlotSize() {
+      return PrimitiveType.fromThrift(thriftType_).getSlotSize();
+    }
+
     public static JavaUdfDataType getType(Class<?> c) {
       if (c == BooleanWritable.class) {
         return JavaUdfDataType.BOOLEAN_WRITABLE;
@@ -237,6 +270,10 @@ public class UdfExecutor {
     UnsafeUtil.UNSAFE.freeMemory(outBufferStringPtr_);
     outBufferStringPtr_ = 0;
     outBufferCapacity_ = 0;
+    UnsafeUtil.UNSAFE.freeMemory(batchStringBufferPtr_);
+    batchStringBufferPtr_ = 0;
+    batchStringBufferCapacity_ = 0;
+    batchStringBufferLen_ = 0;
 
     if (classLoader_ != null) {
       try {
@@ -249,6 +286,7 @@ public class UdfExecutor {
     // We are now un-usable (because the class loader has been
     // closed), so null out method_ and classLoader_.
     method_ = null;
+    invoker_ = null;
     classLoader_ = null;
   }
 
@@ -258,56 +296,181 @@ public class UdfExecutor {
    */
   public void evaluate() throws ImpalaRuntimeException {
     try {
-      for (int i = 0; i < argTypes_.length; ++i) {
-        if (UnsafeUtil.UNSAFE.getByte(inputNullsPtr_ + i) == 0) {
-          switch (argTypes_[i]) {
-            case BOOLEAN_WRITABLE:
-            case BYTE_WRITABLE:
-            case SHORT_WRITABLE:
-            case INT_WRITABLE:
-            case LONG_WRITABLE:
-            case FLOAT_WRITABLE:
-            case DOUBLE_WRITABLE:
-            case BYTE_ARRAY:
-            case BYTES_WRITABLE:
-            case TEXT:
-              inputArgs_[i] = inputObjects_[i];
-              break;
-            case BOOLEAN:
-              inputArgs_[i] = ((ImpalaBooleanWritable)inputObjects_[i]).get();
-              break;
-            case TINYINT:
-              inputArgs_[i] = ((ImpalaTinyIntWritable)inputObjects_[i]).get();
-              break;
-            case SMALLINT:
-              inputArgs_[i] = ((ImpalaSmallIntWritable)inputObjects_[i]).get();
-              break;
-            case INT:
-              inputArgs_[i] = ((ImpalaIntWritable)inputObjects_[i]).get();
-              break;
-            case BIGINT:
-              inputArgs_[i] = ((ImpalaBigIntWritable)inputObjects_[i]).get();
-              break;
-            case FLOAT:
-              inputArgs_[i] = ((ImpalaFloatWritable)inputObjects_[i]).get();
-              break;
-            case DOUBLE:
-              inputArgs_[i] = ((ImpalaDoubleWritable)inputObjects_[i]).get();
-              break;
-            case STRING:
-              Preconditions.checkState(inputObjects_[i] instanceof ImpalaBytesWritable);
-              inputArgs_[i] =
-                  new String(((ImpalaBytesWritable)inputObjects_[i]).getBytes());
-              break;
-          }
+      evaluateRow();
+    } catch (Exception e) {
+      e.printStackTrace(System.err);
+      throw new ImpalaRuntimeException("UDF::evaluate() ran into a problem.", e);
+    }
+  }
+
+  /**
+   * Batch version of evaluate() called by the backend. Evaluates the UDF over 'numRows'
+   * rows with a single JNI call. The arguments are passed column-wise: 'inputColsPtr'
+   * and 'inputNullsPtr' each point to an array with one native pointer per argument.
+   * The i-th pointer in 'inputColsPtr' addresses 'numRows' consecutive values of the
+   * i-th argument, each laid out like the argument's slot in the input buffer used by
+   * evaluate(). The i-th pointer in 'inputNullsPtr' addresses 'numRows' null indicator
+   * bytes. The results are written to 'numRows' consecutive slots at 'outputColPtr' and
+   * their null indicators to 'outputNullsPtr'. STRING results point into a buffer owned
+   * by this executor that stays valid until the next call to evaluateBatch() or close().
+   *
+   * Every row is staged in the input buffer of evaluate() so the preallocated argument
+   * objects are reused and Writable arguments cause no per-row allocation.
+   */
+  public void evaluateBatch(int numRows, long inputColsPtr, long inputNullsPtr,
+      long outputColPtr, long outputNullsPtr) throws ImpalaRuntimeException {
+    int numArgs = argTypes_.length;
+    for (int i = 0; i < numArgs; ++i) {
+      batchInputCols_[i] = UnsafeUtil.UNSAFE.getLong(inputColsPtr + i * 8L);
+      batchInputNulls_[i] = UnsafeUtil.UNSAFE.getLong(inputNullsPtr + i * 8L);
+    }
+    boolean isStringResult = retType_.getPrimitiveType() == TPrimitiveType.STRING;
+    batchStringBufferLen_ = 0;
+    try {
+      for (int row = 0; row < numRows; ++row) {
+        for (int i = 0; i < numArgs; ++i) {
+          byte isNull = UnsafeUtil.UNSAFE.getByte(batchInputNulls_[i] + row);
+          UnsafeUtil.UNSAFE.putByte(inputNullsPtr_ + i, isNull);
+          if (isNull != 0) continue;
+          UnsafeUtil.UNSAFE.copyMemory(batchInputCols_[i] + (long) row * argSlotSizes_[i],
+              inputBufferPtr_ + inputBufferOffsets_[i], argSlotSizes_[i]);
+        }
+        evaluateRow();
+
+        byte isResultNull = UnsafeUtil.UNSAFE.getByte(outputNullPtr_);
+        UnsafeUtil.UNSAFE.putByte(outputNullsPtr + row, isResultNull);
+        if (isResultNull != 0) continue;
+        long outputSlotPtr = outputColPtr + (long) row * retSlotSize_;
+        if (isStringResult) {
+          // The batch buffer may still move, so only record the offset of the string
+          // for now. It is turned into a pointer once all rows are evaluated.
+          int len = UnsafeUtil.UNSAFE.getInt(
+              outputBufferPtr_ + ImpalaStringWritable.STRING_VALUE_LEN_OFFSET);
+          UnsafeUtil.UNSAFE.putLong(outputSlotPtr, appendToBatchStringBuffer(len));
+          UnsafeUtil.UNSAFE.putInt(
+              outputSlotPtr + ImpalaStringWritable.STRING_VALUE_LEN_OFFSET, len);
         } else {
-          inputArgs_[i] = null;
+          UnsafeUtil.UNSAFE.copyMemory(outputBufferPtr_, outputSlotPtr, retSlotSize_);
         }
       }
-      evaluate(inputArgs_);
     } catch (Exception e) {
       e.printStackTrace(System.err);
-      throw new ImpalaRuntimeException("UDF::evaluate() ran into a problem.", e);
+      throw new ImpalaRuntimeException("UDF::evaluateBatch() ran into a problem.", e);
+    }
+    if (!isStringResult) return;
+    for (int row = 0; row < numRows; ++row) {
+      if (UnsafeUtil.UNSAFE.getByte(outputNullsPtr + row) != 0) continue;
+      long outputSlotPtr = outputColPtr + (long) row * retSlotSize_;
+      UnsafeUtil.UNSAFE.putLong(outputSlotPtr,
+          batchStringBufferPtr_ + UnsafeUtil.UNSAFE.getLong(outputSlotPtr));
+    }
+  }
+
+  /**
+   * Appends the 'len' bytes of the last string result to the batch string buffer,
+   * growing it as necessary. Returns the offset of the string in the buffer.
+   */
+  private long appendToBatchStringBuffer(int len) {
+    int offset = batchStringBufferLen_;
+    if (offset + len > batchStringBufferCapacity_) {
+      int newCapacity = Math.max(offset + len, batchStringBufferCapacity_ * 2);
+      batchStringBufferPtr_ =
+          UnsafeUtil.UNSAFE.reallocateMemory(batchStringBufferPtr_, newCapacity);
+      batchStringBufferCapacity_ = newCapacity;
+    }
+    UnsafeUtil.UNSAFE.copyMemory(outBufferStringPtr_, batchStringBufferPtr_ + offset,
+        len);
+    batchStringBufferLen_ += len;
+    return offset;
+  }
+
+  /**
+   * Evaluates the UDF over the arguments in the input buffers and stores the result in
+   * the output buffers. Uses the specialized invoker if possible.
+   */
+  private void evaluateRow() throws ImpalaRuntimeException {
+    if (invoker_ != null && !hasNullArg()) {
+      try {
+        invoker_.invokeExact();
+      } catch (ImpalaRuntimeException e) {
+        // Unsupported result type, thrown by storeUdfResult().
+        throw e;
+      } catch (Exception e) {
+        // Thrown by the UDF. The reflective path gets it as an
+        // InvocationTargetException.
+        throw new ImpalaRuntimeException("UDF failed to evaluate", e);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        // invokeExact() declares Throwable. Only a UDF that throws its own subclass of
+        // Throwable gets here.
+        throw new ImpalaRuntimeException("UDF failed to evaluate", t);
+      }
+      return;
+    }
+    setInputArgs();
+    evaluate(inputArgs_);
+  }
+
+  @VisibleForTesting
+  boolean hasSpecializedInvoker() { return invoker_ != null; }
+
+  private boolean hasNullArg() {
+    for (int i = 0; i < argTypes_.length; ++i) {
+      if (UnsafeUtil.UNSAFE.getByte(inputNullsPtr_ + i) != 0) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Sets inputArgs_ from the values and null indicators in the input buffers.
+   */
+  private void setInputArgs() {
+    for (int i = 0; i < argTypes_.length; ++i) {
+      if (UnsafeUtil.UNSAFE.getByte(inputNullsPtr_ + i) == 0) {
+        switch (argTypes_[i]) {
+          case BOOLEAN_WRITABLE:
+          case BYTE_WRITABLE:
+          case SHORT_WRITABLE:
+          case INT_WRITABLE:
+          case LONG_WRITABLE:
+          case FLOAT_WRITABLE:
+          case DOUBLE_WRITABLE:
+          case BYTE_ARRAY:
+          case BYTES_WRITABLE:
+          case TEXT:
+            inputArgs_[i] = inputObjects_[i];
+            break;
+          case BOOLEAN:
+            inputArgs_[i] = ((ImpalaBooleanWritable)inputObjects_[i]).get();
+            break;
+          case TINYINT:
+            inputArgs_[i] = ((ImpalaTinyIntWritable)inputObjects_[i]).get();
+            break;
+          case SMALLINT:
+            inputArgs_[i] = ((ImpalaSmallIntWritable)inputObjects_[i]).get();
+            break;
+          case INT:
+            inputArgs_[i] = ((ImpalaIntWritable)inputObjects_[i]).get();
+            break;
+          case BIGINT:
+            inputArgs_[i] = ((ImpalaBigIntWritable)inputObjects_[i]).get();
+            break;
+          case FLOAT:
+            inputArgs_[i] = ((ImpalaFloatWritable)inputObjects_[i]).get();
+            break;
+          case DOUBLE:
+            inputArgs_[i] = ((ImpalaDoubleWritable)inputObjects_[i]).get();
+            break;
+          case STRING:
+            Preconditions.checkState(inputObjects_[i] instanceof ImpalaBytesWritable);
+            inputArgs_[i] =
+                new String(((ImpalaBytesWritable)inputObjects_[i]).getBytes());
+            break;
+        }
+      } else {
+        inputArgs_[i] = null;
+      }
     }
   }
 
@@ -476,6 +639,135 @@ public class UdfExecutor {
     }
   }
 
+  // Store functions for primitive results used by the specialized invoker. They set the
+  // result directly into the outputBufferPtr_ without boxing.
+  private void storeBoolean(boolean v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putByte(outputBufferPtr_, v ? (byte)1 : 0);
+  }
+
+  private void storeTinyInt(byte v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putByte(outputBufferPtr_, v);
+  }
+
+  private void storeSmallInt(short v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putShort(outputBufferPtr_, v);
+  }
+
+  private void storeInt(int v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putInt(outputBufferPtr_, v);
+  }
+
+  private void storeBigInt(long v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putLong(outputBufferPtr_, v);
+  }
+
+  private void storeFloat(float v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putFloat(outputBufferPtr_, v);
+  }
+
+  private void storeDouble(double v) {
+    UnsafeUtil.UNSAFE.putByte(outputNullPtr_, (byte)0);
+    UnsafeUtil.UNSAFE.putDouble(outputBufferPtr_, v);
+  }
+
+  // Converts a STRING argument for UDFs that take java.lang.String.
+  private static String toJavaString(ImpalaBytesWritable w) {
+    return new String(w.getBytes());
+  }
+
+  /**
+   * Builds invoker_ for method_. Each argument of the UDF is bound to a function that
+   * reads it from its preallocated input object, and the result is passed to a store
+   * function for its type. Leaves invoker_ null if the signature cannot be specialized,
+   * in which case evaluate() uses reflection.
+   */
+  private void createInvoker() {
+    invoker_ = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle mh = lookup.unreflect(method_).bindTo(udf_);
+      Class<?>[] paramTypes = method_.getParameterTypes();
+      for (int i = 0; i < argTypes_.length; ++i) {
+        Class<?> paramType = paramTypes[i];
+        MethodHandle argReader;
+        switch (argTypes_[i]) {
+          case BOOLEAN_WRITABLE:
+          case BYTE_WRITABLE:
+          case SHORT_WRITABLE:
+          case INT_WRITABLE:
+          case LONG_WRITABLE:
+          case FLOAT_WRITABLE:
+          case DOUBLE_WRITABLE:
+          case BYTES_WRITABLE:
+          case TEXT:
+            argReader = MethodHandles.constant(paramType, inputObjects_[i]);
+            break;
+          case BOOLEAN:
+          case TINYINT:
+          case SMALLINT:
+          case INT:
+          case BIGINT:
+          case FLOAT:
+          case DOUBLE: {
+            // The getter returns the primitive, boxed only if the UDF takes a boxed type.
+            Class<?> primitiveType = MethodType.methodType(paramType).unwrap()
+                .returnType();
+            argReader = lookup.findVirtual(inputObjects_[i].getClass(), "get",
+                MethodType.methodType(primitiveType)).bindTo(inputObjects_[i])
+                .asType(MethodType.methodType(paramType));
+            break;
+          }
+          case STRING:
+            argReader = lookup.findStatic(UdfExecutor.class, "toJavaString",
+                MethodType.methodType(String.class, ImpalaBytesWritable.class))
+                .bindTo(inputObjects_[i]);
+            break;
+          default:
+            LOG.debug("Not specializing UDF invocation for argument type " +
+                argTypes_[i]);
+            return;
+        }
+        // The reader takes no arguments, so this removes the first parameter of 'mh'.
+        mh = MethodHandles.collectArguments(mh, 0, argReader);
+      }
+      Class<?> returnType = method_.getReturnType();
+      String storeFn = null;
+      if (returnType.isPrimitive()) {
+        switch (retType_) {
+          case BOOLEAN: storeFn = "storeBoolean"; break;
+          case TINYINT: storeFn = "storeTinyInt"; break;
+          case SMALLINT: storeFn = "storeSmallInt"; break;
+          case INT: storeFn = "storeInt"; break;
+          case BIGINT: storeFn = "storeBigInt"; break;
+          case FLOAT: storeFn = "storeFloat"; break;
+          case DOUBLE: storeFn = "storeDouble"; break;
+          default:
+            LOG.debug("Not specializing UDF invocation for return type " + retType_);
+            return;
+        }
+      }
+      MethodHandle store;
+      if (storeFn != null) {
+        store = lookup.findVirtual(UdfExecutor.class, storeFn,
+            MethodType.methodType(void.class, returnType)).bindTo(this);
+      } else {
+        store = lookup.findVirtual(UdfExecutor.class, "storeUdfResult",
+            MethodType.methodType(void.class, Object.class)).bindTo(this)
+            .asType(MethodType.methodType(void.class, returnType));
+      }
+      invoker_ = MethodHandles.filterReturnValue(mh, store);
+    } catch (IllegalAccessException | NoSuchMethodException | ClassCastException e) {
+      LOG.debug("Unable to specialize UDF invocation, using reflection instead.", e);
+      invoker_ = null;
+    }
+  }
+
   private void copyBytesToOutputBuffer(byte[] bytes) {
     if (bytes.length > outBufferCapacity_) {
       outBufferStringPtr_ =
@@ -490,13 +782,19 @@ public class UdfExecutor {
   }
 
   // Preallocate the input objects that will be passed to the underlying UDF.
-  // These objects are allocated once and reused across calls to evaluate()
+  // These objects are allocated once and reused across calls to evaluate() and
+  // evaluateBatch()
   private void allocateInputObjects() throws ImpalaRuntimeException {
     inputObjects_ = new Writable[argTypes_.length];
     inputArgs_ = new Object[argTypes_.length];
+    argSlotSizes_ = new int[argTypes_.length];
+    retSlotSize_ = retType_.getSlotSize();
+    batchInputCols_ = new long[argTypes_.length];
+    batchInputNulls_ = new long[argTypes_.length];
 
     for (int i = 0; i < argTypes_.length; ++i) {
       int offset = inputBufferOffsets_[i];
+      argSlotSizes_[i] = argTypes_[i].getSlotSize();
       switch (argTypes_[i]) {
         case BOOLEAN:
         case BOOLEAN_WRITABLE:
@@ -622,6 +920,8 @@ public class UdfExecutor {
           method_ = m;
           if (!setReturnType(retType, m.getReturnType())) continue;
           setArgTypes(parameterTypes, methodTypes);
+          allocateInputObjects();
+          createInvoker();
           LOG.debug("Loaded UDF '" + udfPath + "' from " + jarPath);
           return;
         }
@@ -630,6 +930,7 @@ public class UdfExecutor {
         if (!setReturnType(retType, m.getReturnType())) continue;
         if (!setArgTypes(parameterTypes, methodTypes)) continue;
         allocateInputObjects();
+        createInvoker();
         LOG.debug("Loaded UDF '" + udfPath + "' from " + jarPath);
         return;
       }
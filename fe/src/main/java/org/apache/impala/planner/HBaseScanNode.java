@@ -41,6 +41,7 @@ import org.apache.impala.analysis.TupleDescriptor;
 import org.apache.impala.catalog.FeHBaseTable;
 import org.apache.impala.catalog.FeTable;
 import org.apache.impala.catalog.HBaseColumn;
+import org.apache.impala.catalog.HBaseRegionStatsCache;
 import org.apache.impala.catalog.PrimitiveType;
 import org.apache.impala.catalog.Type;
 import org.apache.impala.common.ImpalaException;
@@ -451,9 +452,15 @@ public class HBaseScanNode extends ScanNode {
 
     // Retrieve relevant HBase regions and their region servers
     FeHBaseTable tbl = (FeHBaseTable) desc_.getTable();
-    List<HRegionLocation> regionsLoc;
+    List<HRegionLocation> regionsLoc = null;
     try {
-      regionsLoc = FeHBaseTable.Util.getRegionsInRange(tbl, startKey_, stopKey_);
+      // The cached regions may be stale, which only affects the locality of the scan
+      // ranges: they still cover the key range, and HBase scanners cross regions.
+      HBaseRegionStatsCache cache = HBaseRegionStatsCache.get();
+      if (cache != null) regionsLoc = cache.getRegionsInRange(tbl, startKey_, stopKey_);
+      if (regionsLoc == null) {
+        regionsLoc = FeHBaseTable.Util.getRegionsInRange(tbl, startKey_, stopKey_);
+      }
     } catch (IOException e) {
       throw new RuntimeException(
           "couldn't retrieve HBase table (" + tbl.getHBaseTableName() + ") info:\n"
@@ -212,6 +212,11 @@ public class HashJoinNode extends JoinNode {
         output.append(detailPrefix + "runtime filters: ");
         output.append(getRuntimeFilterExplainString(true, detailLevel));
       }
+      if (!rejectedRuntimeFilters_.isEmpty()
+          && detailLevel.ordinal() >= TExplainLevel.EXTENDED.ordinal()) {
+        output.append(detailPrefix + "rejected runtime filters: ")
+            .append(Joiner.on(", ").join(rejectedRuntimeFilters_) + "\n");
+      }
     }
     return output.toString();
   }
@@ -19,13 +19,12 @@ package org.apache.impala.planner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Set;
-import java.util.TreeMap;
 
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BetweenPredicate;
@@ -44,6 +43,7 @@ import org.apache.impala.analysis.TableSampleClause;
 import org.apache.impala.analysis.TupleDescriptor;
 import org.apache.impala.catalog.FeFsPartition;
 import org.apache.impala.catalog.FeFsTable;
+import org.apache.impala.catalog.PartitionKeyIndex;
 import org.apache.impala.catalog.PrunablePartition;
 import org.apache.impala.common.AnalysisException;
 import org.apache.impala.common.ImpalaException;
@@ -149,21 +149,22 @@ public class HdfsPartitionPruner {
     // Set of matching partition ids, i.e. partitions that pass all filters
     Set<Long> matchingPartitionIds = null;
 
-    // Evaluate the partition filters from the partition key values.
-    // The result is the intersection of the associated partition id sets.
-    for (Expr filter: simpleFilterConjuncts) {
-      // Evaluate the filter
-      Set<Long> matchingIds = evalSlotBindingFilter(filter);
-      if (matchingPartitionIds == null) {
-        matchingPartitionIds = matchingIds;
-      } else {
-        matchingPartitionIds.retainAll(matchingIds);
+    // Evaluate the partition filters from the partition key index.
+    // The result is the intersection of the associated partition sets.
+    if (!simpleFilterConjuncts.isEmpty()) {
+      PartitionKeyIndex index = tbl_.getPartitionKeyIndex();
+      BitSet matchingPartitions = null;
+      for (Expr filter: simpleFilterConjuncts) {
+        // Evaluate the filter
+        BitSet matching = evalSlotBindingFilter(index, filter);
+        if (matchingPartitions == null) {
+          matchingPartitions = matching;
+        } else {
+          matchingPartitions.and(matching);
+        }
       }
-    }
-
-    // Check if we need to initialize the set of valid partition ids.
-    if (simpleFilterConjuncts.size() == 0) {
-      Preconditions.checkState(matchingPartitionIds == null);
+      matchingPartitionIds = index.toPartitionIds(matchingPartitions);
+    } else {
       matchingPartitionIds = Sets.newHashSet(tbl_.getPartitionIds());
     }
 
@@ -288,10 +289,10 @@ public class HdfsPartitionPruner {
 
   /**
    * Evaluate a BinaryPredicate filter on a partition column and return the
-   * ids of the matching partitions. An empty set is returned if there
-   * are no matching partitions.
+   * matching partitions. An empty set is returned if there are no matching
+   * partitions.
    */
-  private Set<Long> evalBinaryPredicate(Expr expr) {
+  private BitSet evalBinaryPredicate(PartitionKeyIndex index, Expr expr) {
     Preconditions.checkNotNull(expr);
     Preconditions.checkState(expr instanceof BinaryPredicate);
     // TODO: Note that rewrite rules should have ensured that the slot
@@ -310,198 +311,125 @@ public class HdfsPartitionPruner {
     Operator op = bp.getOp();
     if (Expr.IS_NULL_LITERAL.apply(literal) && (op != Operator.NOT_DISTINCT)
         && (op != Operator.DISTINCT_FROM)) {
-      return new HashSet<>();
+      return new BitSet();
     }
 
-    // Get the partition column position and retrieve the associated partition
-    // value metadata.
+    // Get the partition column position.
     int partitionPos = slot.getDesc().getColumn().getPosition();
-    TreeMap<LiteralExpr, Set<Long>> partitionValueMap =
-        tbl_.getPartitionValueMap(partitionPos);
-    if (partitionValueMap.isEmpty()) return new HashSet<>();
 
-    Set<Long> matchingIds = new HashSet<>();
-    // Compute the matching partition ids
+    // Compute the matching partitions
     if (op == Operator.NOT_DISTINCT) {
       // Case: SlotRef <=> Literal
-      if (Expr.IS_NULL_LITERAL.apply(literal)) {
-        Set<Long> ids = tbl_.getNullPartitionIds(partitionPos);
-        if (ids != null) matchingIds.addAll(ids);
-        return matchingIds;
-      }
+      if (Expr.IS_NULL_LITERAL.apply(literal)) return index.nulls(partitionPos);
       // Punt to equality case:
       op = Operator.EQ;
     }
     if (op == Operator.EQ) {
       // Case: SlotRef = Literal
-      Set<Long> ids = partitionValueMap.get(literal);
-      if (ids != null) matchingIds.addAll(ids);
-      return matchingIds;
+      return index.equalTo(partitionPos, literal);
     }
     if (op == Operator.DISTINCT_FROM) {
       // Case: SlotRef IS DISTINCT FROM Literal
-      matchingIds.addAll(tbl_.getPartitionIds());
-      if (Expr.IS_NULL_LITERAL.apply(literal)) {
-        Set<Long> nullIds = tbl_.getNullPartitionIds(partitionPos);
-        matchingIds.removeAll(nullIds);
-      } else {
-        Set<Long> ids = partitionValueMap.get(literal);
-        if (ids != null) matchingIds.removeAll(ids);
-      }
-      return matchingIds;
+      if (Expr.IS_NULL_LITERAL.apply(literal)) return index.notNulls(partitionPos);
+      BitSet matching = index.all();
+      matching.andNot(index.equalTo(partitionPos, literal));
+      return matching;
     }
     if (op == Operator.NE) {
       // Case: SlotRef != Literal
-      matchingIds.addAll(tbl_.getPartitionIds());
-      Set<Long> nullIds = tbl_.getNullPartitionIds(partitionPos);
-      matchingIds.removeAll(nullIds);
-      Set<Long> ids = partitionValueMap.get(literal);
-      if (ids != null) matchingIds.removeAll(ids);
-      return matchingIds;
+      BitSet matching = index.notNulls(partitionPos);
+      matching.andNot(index.equalTo(partitionPos, literal));
+      return matching;
     }
 
-    // Determine the partition key value range of this predicate.
-    NavigableMap<LiteralExpr, Set<Long>> rangeValueMap = null;
-    LiteralExpr firstKey = partitionValueMap.firstKey();
-    LiteralExpr lastKey = partitionValueMap.lastKey();
-    boolean upperInclusive = false;
-    boolean lowerInclusive = false;
-    LiteralExpr upperBoundKey = null;
-    LiteralExpr lowerBoundKey = null;
-
     if (((op == Operator.LE || op == Operator.LT) && isSlotOnLeft) ||
         ((op == Operator.GE || op == Operator.GT) && !isSlotOnLeft)) {
       // Case: SlotRef <[=] Literal
-      if (literal.compareTo(firstKey) < 0) return new HashSet<>();
-      if (op == Operator.LE || op == Operator.GE) upperInclusive = true;
-
-      if (literal.compareTo(lastKey) <= 0) {
-        upperBoundKey = literal;
-      } else {
-        upperBoundKey = lastKey;
-        upperInclusive = true;
-      }
-      lowerBoundKey = firstKey;
-      lowerInclusive = true;
+      boolean upperInclusive = op == Operator.LE || op == Operator.GE;
+      return index.range(partitionPos, null, false, literal, upperInclusive);
     } else {
       // Cases: SlotRef >[=] Literal
-      if (literal.compareTo(lastKey) > 0) return new HashSet<>();
-      if (op == Operator.GE || op == Operator.LE) lowerInclusive = true;
-
-      if (literal.compareTo(firstKey) >= 0) {
-        lowerBoundKey = literal;
-      } else {
-        lowerBoundKey = firstKey;
-        lowerInclusive = true;
-      }
-      upperBoundKey = lastKey;
-      upperInclusive = true;
+      boolean lowerInclusive = op == Operator.GE || op == Operator.LE;
+      return index.range(partitionPos, literal, lowerInclusive, null, false);
     }
-
-    // Retrieve the submap that corresponds to the computed partition key
-    // value range.
-    rangeValueMap = partitionValueMap.subMap(lowerBoundKey, lowerInclusive,
-        upperBoundKey, upperInclusive);
-    // Compute the matching partition ids
-    for (Set<Long> idSet: rangeValueMap.values()) {
-      if (idSet != null) matchingIds.addAll(idSet);
-    }
-    return matchingIds;
   }
 
   /**
-   * Evaluate an InPredicate filter on a partition column and return the ids of
-   * the matching partitions.
+   * Evaluate an InPredicate filter on a partition column and return the matching
+   * partitions.
    */
-  private Set<Long> evalInPredicate(Expr expr) {
+  private BitSet evalInPredicate(PartitionKeyIndex index, Expr expr) {
     Preconditions.checkNotNull(expr);
     Preconditions.checkState(expr instanceof InPredicate);
     InPredicate inPredicate = (InPredicate)expr;
-    Set<Long> matchingIds = new HashSet<>();
     SlotRef slot = inPredicate.getBoundSlot();
     Preconditions.checkNotNull(slot);
     int partitionPos = slot.getDesc().getColumn().getPosition();
-    TreeMap<LiteralExpr, Set<Long>> partitionValueMap =
-        tbl_.getPartitionValueMap(partitionPos);
 
     if (inPredicate.isNotIn()) {
       // Case: SlotRef NOT IN (Literal, ..., Literal)
       // If there is a NullLiteral, return an empty set.
       List<Expr> nullLiterals = new ArrayList<>();
       inPredicate.collectAll(Predicates.instanceOf(NullLiteral.class), nullLiterals);
-      if (!nullLiterals.isEmpty()) return matchingIds;
-      matchingIds.addAll(tbl_.getPartitionIds());
-      // Exclude partitions with null partition column values
-      Set<Long> nullIds = tbl_.getNullPartitionIds(partitionPos);
-      matchingIds.removeAll(nullIds);
+      if (!nullLiterals.isEmpty()) return new BitSet();
     }
-    // Compute the matching partition ids
+    // Compute the partitions matching any of the literals
+    BitSet inListMatches = new BitSet(index.getNumPartitions());
     for (int i = 1; i < inPredicate.getChildren().size(); ++i) {
       LiteralExpr literal = (LiteralExpr)inPredicate.getChild(i);
-      Set<Long> idSet = partitionValueMap.get(literal);
-      if (idSet != null) {
-        if (inPredicate.isNotIn()) {
-          matchingIds.removeAll(idSet);
-        } else {
-          matchingIds.addAll(idSet);
-        }
-      }
+      index.addEqualTo(partitionPos, literal, inListMatches);
     }
-    return matchingIds;
+    if (!inPredicate.isNotIn()) return inListMatches;
+    // Exclude partitions with null partition column values
+    BitSet matching = index.notNulls(partitionPos);
+    matching.andNot(inListMatches);
+    return matching;
   }
 
   /**
-   * Evaluate an IsNullPredicate on a partition column and return the ids of the
-   * matching partitions.
+   * Evaluate an IsNullPredicate on a partition column and return the matching
+   * partitions.
    */
-  private Set<Long> evalIsNullPredicate(Expr expr) {
+  private BitSet evalIsNullPredicate(PartitionKeyIndex index, Expr expr) {
     Preconditions.checkNotNull(expr);
     Preconditions.checkState(expr instanceof IsNullPredicate);
-    Set<Long> matchingIds = new HashSet<>();
     IsNullPredicate nullPredicate = (IsNullPredicate)expr;
     SlotRef slot = nullPredicate.getBoundSlot();
     Preconditions.checkNotNull(slot);
     int partitionPos = slot.getDesc().getColumn().getPosition();
-    Set<Long> nullPartitionIds = tbl_.getNullPartitionIds(partitionPos);
-
-    if (nullPredicate.isNotNull()) {
-      matchingIds.addAll(tbl_.getPartitionIds());
-      matchingIds.removeAll(nullPartitionIds);
-    } else {
-      matchingIds.addAll(nullPartitionIds);
-    }
-    return matchingIds;
+    if (nullPredicate.isNotNull()) return index.notNulls(partitionPos);
+    return index.nulls(partitionPos);
   }
 
   /**
    * Evaluate a slot binding predicate on a partition key using the partition
-   * key values; return the matching partition ids. An empty set is returned
+   * key index; return the matching partitions. An empty set is returned
    * if there are no matching partitions. This function can evaluate the following
    * types of predicates: BinaryPredicate, CompoundPredicate, IsNullPredicate,
    * InPredicate.
    */
-  private Set<Long> evalSlotBindingFilter(Expr expr) {
+  private BitSet evalSlotBindingFilter(PartitionKeyIndex index, Expr expr) {
     Preconditions.checkNotNull(expr);
     Preconditions.checkState(!(expr instanceof BetweenPredicate));
     if (expr instanceof BinaryPredicate) {
-      return evalBinaryPredicate(expr);
+      return evalBinaryPredicate(index, expr);
     } else if (expr instanceof CompoundPredicate) {
-      Set<Long> leftChildIds = evalSlotBindingFilter(expr.getChild(0));
+      BitSet leftChildMatches = evalSlotBindingFilter(index, expr.getChild(0));
       CompoundPredicate cp = (CompoundPredicate)expr;
       // NOT operators have been eliminated
       Preconditions.checkState(cp.getOp() != CompoundPredicate.Operator.NOT);
       if (cp.getOp() == CompoundPredicate.Operator.AND) {
-        Set<Long> rightChildIds = evalSlotBindingFilter(expr.getChild(1));
-        leftChildIds.retainAll(rightChildIds);
+        BitSet rightChildMatches = evalSlotBindingFilter(index, expr.getChild(1));
+        leftChildMatches.and(rightChildMatches);
       } else if (cp.getOp() == CompoundPredicate.Operator.OR) {
-        Set<Long> rightChildIds = evalSlotBindingFilter(expr.getChild(1));
-        leftChildIds.addAll(rightChildIds);
+        BitSet rightChildMatches = evalSlotBindingFilter(index, expr.getChild(1));
+        leftChildMatches.or(rightChildMatches);
       }
-      return leftChildIds;
+      return leftChildMatches;
     } else if (expr instanceof InPredicate) {
-      return evalInPredicate(expr);
+      return evalInPredicate(index, expr);
     } else if (expr instanceof IsNullPredicate) {
-      return evalIsNullPredicate(expr);
+      return evalIsNullPredicate(index, expr);
     }
     return null;
   }
@@ -1309,6 +1309,8 @@ public class HdfsScanNode extends ScanNode {
    * since the last stats collection.
    * Otherwise, the input cardinality is based on the per-partition row count stats
    * and/or the table-level row count stats, depending on which of those are available.
+   * Row counts from the metadata of the scanned files take precedence over all of these
+   * if the table format records them, see getFileMetadataNumRows().
    * Adjusts the output cardinality based on the scan conjuncts and table sampling.
    *
    * Sets these members:
@@ -1319,7 +1321,10 @@ public class HdfsScanNode extends ScanNode {
     extrapolatedNumRows_ = FeFsTable.Utils.getExtrapolatedNumRows(tbl_,
             sumValues(totalBytesPerFs_));
     long statsNumRows = getStatsNumRows(analyzer.getQueryOptions());
-    if (extrapolatedNumRows_ != -1) {
+    long fileMetadataNumRows = sampleParams_ == null ? getFileMetadataNumRows() : -1;
+    if (fileMetadataNumRows != -1) {
+      cardinality_ = fileMetadataNumRows;
+    } else if (extrapolatedNumRows_ != -1) {
       // The extrapolated row count is based on the 'totalBytesPerFs_' which already
       // accounts for table sampling, so no additional adjustment for sampling is
       // necessary.
@@ -1386,6 +1391,13 @@ public class HdfsScanNode extends ScanNode {
     }
   }
 
+  /**
+   * Returns the exact number of rows in the files that this node scans if the table
+   * format records it in its file metadata, or -1 otherwise. Only valid after
+   * computeScanRangeLocations() and not used for sampled scans.
+   */
+  protected long getFileMetadataNumRows() { return -1; }
+
   /**
    * Computes and returns the number of rows scanned based on the per-partition row count
    * stats and/or the table-level row count stats, depending on which of those are
@@ -2193,6 +2205,12 @@ public class HdfsScanNode extends ScanNode {
 
   protected Set<HdfsFileFormat> getFileFormats() { return fileFormats_; }
 
+  /**
+   * Returns the total size of the files of the scanned partitions.
+   */
+  @Override
+  public long getScanBytesEstimate() { return sumValues(totalBytesPerFs_); }
+
   /**
    * Returns of all the values in the given {@link Map}.
    */
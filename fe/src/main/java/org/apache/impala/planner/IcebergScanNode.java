@@ -20,15 +20,21 @@ package org.apache.impala.planner;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.expressions.Expression.Operation;
 import org.apache.iceberg.expressions.UnboundPredicate;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BinaryPredicate;
 import org.apache.impala.analysis.BoolLiteral;
@@ -51,8 +57,16 @@ import org.apache.impala.catalog.Type;
 import org.apache.impala.catalog.HdfsPartition.FileDescriptor;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.ImpalaRuntimeException;
+import org.apache.impala.planner.RuntimeFilterGenerator.RuntimeFilter;
+import org.apache.impala.thrift.TColumnValue;
+import org.apache.impala.thrift.TFileColumnBounds;
+import org.apache.impala.thrift.TFileSplitGeneratorSpec;
+import org.apache.impala.thrift.THdfsFileSplit;
+import org.apache.impala.thrift.TScanRangeLocationList;
+import org.apache.impala.util.IcebergManifestCache;
 import org.apache.impala.util.IcebergUtil;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import org.apache.impala.util.ExprUtil;
 
@@ -70,6 +84,38 @@ public class IcebergScanNode extends HdfsScanNode {
   // Exprs in icebergConjuncts_ converted to UnboundPredicate.
   private final List<UnboundPredicate> icebergPredicates_ = new ArrayList<>();
 
+  // Conjuncts that were converted to Iceberg predicates, mapped to their predicate.
+  private final Map<Expr, UnboundPredicate> icebergPredicateByConjunct_ =
+      new IdentityHashMap<>();
+
+  // The data files that remain after pruning with icebergPredicates_, keyed by the
+  // relative path of their file descriptor. Set by
+  // getFileDescriptorByIcebergPredicates().
+  private final Map<String, DataFile> dataFilesByRelPath_ = new HashMap<>();
+
+  // Sum of the record counts of the files in dataFilesByRelPath_.
+  private long dataFilesNumRecords_ = 0;
+
+  // Min/max runtime filters whose target column bounds are added to the scan ranges of
+  // each file, so that executors can skip files whose bounds don't overlap the filter.
+  private final List<FileBoundsFilter> fileBoundsFilters_ = new ArrayList<>();
+
+  /**
+   * A min/max runtime filter on a column of the table.
+   */
+  private static class FileBoundsFilter {
+    final int filterId_;
+    final Types.NestedField field_;
+    // The type of the values of the filter.
+    final Type filterType_;
+
+    FileBoundsFilter(int filterId, Types.NestedField field, Type filterType) {
+      filterId_ = filterId;
+      field_ = field;
+      filterType_ = filterType;
+    }
+  }
+
   private TimeTravelSpec timeTravelSpec_;
 
   public IcebergScanNode(PlanNodeId id, TupleDescriptor desc, List<Expr> conjuncts,
@@ -105,8 +151,14 @@ public class IcebergScanNode extends HdfsScanNode {
       throws ImpalaRuntimeException {
     List<DataFile> dataFileList;
     try {
-      dataFileList = IcebergUtil.getIcebergDataFiles(icebergTable_, icebergPredicates_,
-          timeTravelSpec_);
+      IcebergManifestCache manifestCache = IcebergManifestCache.get();
+      if (manifestCache != null) {
+        dataFileList = manifestCache.planFiles(icebergTable_, icebergPredicates_,
+            timeTravelSpec_);
+      } else {
+        dataFileList = IcebergUtil.getIcebergDataFiles(icebergTable_,
+            icebergPredicates_, timeTravelSpec_);
+      }
     } catch (TableLoadingException e) {
       throw new ImpalaRuntimeException(String.format(
           "Failed to load data files for Iceberg table: %s", icebergTable_.getFullName()),
@@ -114,6 +166,8 @@ public class IcebergScanNode extends HdfsScanNode {
     }
     long dataFilesCacheMisses = 0;
     List<FileDescriptor> fileDescList = new ArrayList<>();
+    dataFilesByRelPath_.clear();
+    dataFilesNumRecords_ = 0;
     for (DataFile dataFile : dataFileList) {
       FileDescriptor fileDesc = icebergTable_.getPathHashToFileDescMap()
           .get(IcebergUtil.getDataFilePathHash(dataFile));
@@ -142,6 +196,8 @@ public class IcebergScanNode extends HdfsScanNode {
             IcebergUtil.getDataFilePathHash(dataFile), fileDesc);
       }
       fileDescList.add(fileDesc);
+      dataFilesByRelPath_.put(fileDesc.getRelativePath(), dataFile);
+      dataFilesNumRecords_ += dataFile.recordCount();
     }
 
     if (dataFilesCacheMisses > 0) {
@@ -153,6 +209,222 @@ public class IcebergScanNode extends HdfsScanNode {
     return fileDescList;
   }
 
+  /**
+   * Iceberg records the number of rows of each data file, so the row count of the
+   * scanned files is exact even if the table has no stats.
+   */
+  @Override
+  protected long getFileMetadataNumRows() { return dataFilesNumRecords_; }
+
+  /**
+   * Estimates the selectivity of the conjuncts that were converted to Iceberg predicates
+   * from the column bounds of the scanned files if possible, see
+   * computeMetricsSelectivity(). The selectivity of the other conjuncts is estimated as
+   * in PlanNode.
+   */
+  @Override
+  protected double computeSelectivity() {
+    if (dataFilesNumRecords_ <= 0 || icebergPredicateByConjunct_.isEmpty()) {
+      return super.computeSelectivity();
+    }
+    List<Double> selectivities = new ArrayList<>();
+    boolean hasUnknownSelectivity = false;
+    for (Expr conjunct : conjuncts_) {
+      double selectivity = -1;
+      UnboundPredicate predicate = icebergPredicateByConjunct_.get(conjunct);
+      if (predicate != null) {
+        selectivity = computeMetricsSelectivity(predicate.op(),
+            predicate.literal().value(), icebergTable_.getIcebergSchema()
+                .caseInsensitiveFindField(predicate.ref().name()),
+            dataFilesByRelPath_.values(), dataFilesNumRecords_);
+      }
+      if (selectivity < 0 && conjunct.hasSelectivity()) {
+        selectivity = conjunct.getSelectivity();
+      }
+      if (selectivity >= 0) {
+        selectivities.add(selectivity);
+      } else {
+        hasUnknownSelectivity = true;
+      }
+    }
+    if (hasUnknownSelectivity) selectivities.add(Expr.DEFAULT_SELECTIVITY);
+    return combineSelectivities(selectivities);
+  }
+
+  /**
+   * Returns the fraction of the 'numRecords' rows of 'files' that satisfy the predicate
+   * "'field' 'op' 'literal'", estimated from the lower and upper bounds and the null
+   * count of the column in each file, or -1 if it can't be estimated. Values are assumed
+   * to be uniformly distributed between the bounds of a file, so equality predicates can
+   * only be estimated if the column has a single value in every file.
+   */
+  @VisibleForTesting
+  static double computeMetricsSelectivity(Operation op, Object literal,
+      Types.NestedField field, Collection<DataFile> files, long numRecords) {
+    if (op != Operation.EQ && op != Operation.LT && op != Operation.LT_EQ
+        && op != Operation.GT && op != Operation.GT_EQ) {
+      return -1;
+    }
+    if (!(literal instanceof Number)) return -1;
+    double value = ((Number) literal).doubleValue();
+    if (field == null || numRecords <= 0) return -1;
+
+    double numMatchingRows = 0;
+    for (DataFile file : files) {
+      Number lower = getBound(field, file.lowerBounds());
+      Number upper = getBound(field, file.upperBounds());
+      if (lower == null || upper == null) return -1;
+      double lowerValue = lower.doubleValue();
+      double upperValue = upper.doubleValue();
+      long numNonNulls = file.recordCount();
+      Map<Integer, Long> nullCounts = file.nullValueCounts();
+      if (nullCounts != null && nullCounts.containsKey(field.fieldId())) {
+        numNonNulls -= nullCounts.get(field.fieldId());
+      }
+      double fraction;
+      if (lowerValue == upperValue) {
+        fraction = evalOnValue(op, lowerValue, value) ? 1 : 0;
+      } else if (op == Operation.EQ) {
+        return -1;
+      } else if (op == Operation.LT || op == Operation.LT_EQ) {
+        fraction = (value - lowerValue) / (upperValue - lowerValue);
+      } else {
+        fraction = (upperValue - value) / (upperValue - lowerValue);
+      }
+      numMatchingRows += Math.max(0.0, Math.min(1.0, fraction)) * numNonNulls;
+    }
+    return numMatchingRows / numRecords;
+  }
+
+  private static boolean evalOnValue(Operation op, double columnValue, double literal) {
+    switch (op) {
+      case EQ: return columnValue == literal;
+      case LT: return columnValue < literal;
+      case LT_EQ: return columnValue <= literal;
+      case GT: return columnValue > literal;
+      case GT_EQ: return columnValue >= literal;
+      default: throw new IllegalStateException("Unexpected operation: " + op);
+    }
+  }
+
+  /**
+   * Returns the bound of 'field' in 'bounds' if it is numeric, e.g. also for DATE and
+   * TIMESTAMP columns, or null otherwise.
+   */
+  private static Number getBound(Types.NestedField field,
+      Map<Integer, ByteBuffer> bounds) {
+    if (bounds == null) return null;
+    ByteBuffer buffer = bounds.get(field.fieldId());
+    if (buffer == null) return null;
+    Object value = Conversions.fromByteBuffer(field.type(), buffer);
+    return value instanceof Number ? (Number) value : null;
+  }
+
+  /**
+   * In addition to the overlap predicate of HdfsScanNode, records min/max filters of
+   * equi-joins on integer and DATE columns so that the bounds of the column in each
+   * file can be sent along with its scan ranges, see finalizeOverlapPredicate().
+   */
+  @Override
+  public Boolean tryToComputeOverlapPredicate(Analyzer analyzer, RuntimeFilter filter,
+      Expr targetExpr, boolean isBoundByPartitionColumns) {
+    if (!super.tryToComputeOverlapPredicate(analyzer, filter, targetExpr,
+        isBoundByPartitionColumns)) {
+      return false;
+    }
+    // NULLs match with IS NOT DISTINCT FROM, but the bounds of a file don't cover them.
+    if (filter.getExprCompOp() != BinaryPredicate.Operator.EQ) return true;
+    SlotRef slotRef = targetExpr.unwrapSlotRef(false);
+    if (slotRef == null || slotRef.getDesc().getColumn() == null) return true;
+    Type filterType = filter.getSrcExpr().getType();
+    if (!filterType.isIntegerType() && !filterType.isDate()) return true;
+    Types.NestedField field = icebergTable_.getIcebergSchema()
+        .caseInsensitiveFindField(slotRef.getDesc().getColumn().getName());
+    if (field == null) return true;
+    fileBoundsFilters_.add(
+        new FileBoundsFilter(filter.getFilterId().asInt(), field, filterType));
+    return true;
+  }
+
+  /**
+   * Adds the bounds of the columns of fileBoundsFilters_ in each data file to the scan
+   * ranges of the file. Executors skip a file before reading it if the min/max filter
+   * does not overlap the bounds.
+   */
+  @Override
+  public void finalizeOverlapPredicate() {
+    super.finalizeOverlapPredicate();
+    if (fileBoundsFilters_.isEmpty()) return;
+    // Files may be split into several scan ranges.
+    Map<String, List<TFileColumnBounds>> boundsByRelPath = new HashMap<>();
+    if (scanRangeSpecs_.isSetConcrete_ranges()) {
+      for (TScanRangeLocationList range : scanRangeSpecs_.getConcrete_ranges()) {
+        THdfsFileSplit split = range.getScan_range().getHdfs_file_split();
+        List<TFileColumnBounds> bounds = boundsByRelPath.computeIfAbsent(
+            split.getRelative_path(), this::getFileColumnBounds);
+        if (!bounds.isEmpty()) split.setColumn_bounds(bounds);
+      }
+    }
+    if (scanRangeSpecs_.isSetSplit_specs()) {
+      for (TFileSplitGeneratorSpec spec : scanRangeSpecs_.getSplit_specs()) {
+        String relPath = FileDescriptor.fromThrift(spec.getFile_desc()).getRelativePath();
+        List<TFileColumnBounds> bounds =
+            boundsByRelPath.computeIfAbsent(relPath, this::getFileColumnBounds);
+        if (!bounds.isEmpty()) spec.setColumn_bounds(bounds);
+      }
+    }
+  }
+
+  /**
+   * Returns the bounds of the columns of fileBoundsFilters_ in the data file with the
+   * relative path 'relPath', converted to the types of the filters.
+   */
+  private List<TFileColumnBounds> getFileColumnBounds(String relPath) {
+    List<TFileColumnBounds> result = new ArrayList<>();
+    DataFile file = dataFilesByRelPath_.get(relPath);
+    if (file == null) return result;
+    for (FileBoundsFilter filter : fileBoundsFilters_) {
+      Number lower = getBound(filter.field_, file.lowerBounds());
+      Number upper = getBound(filter.field_, file.upperBounds());
+      if (lower == null || upper == null) continue;
+      result.add(new TFileColumnBounds(filter.filterId_,
+          toFilterValue(filter.filterType_, lower.longValue()),
+          toFilterValue(filter.filterType_, upper.longValue())));
+    }
+    return result;
+  }
+
+  /**
+   * Returns 'value' as a TColumnValue of 'filterType'. Integers that don't fit into the
+   * type are clamped to its range, which doesn't change whether the filter overlaps.
+   */
+  private static TColumnValue toFilterValue(Type filterType, long value) {
+    TColumnValue result = new TColumnValue();
+    switch (filterType.getPrimitiveType()) {
+      case TINYINT:
+        result.setByte_val((byte) Math.max(Byte.MIN_VALUE,
+            Math.min(Byte.MAX_VALUE, value)));
+        break;
+      case SMALLINT:
+        result.setShort_val((short) Math.max(Short.MIN_VALUE,
+            Math.min(Short.MAX_VALUE, value)));
+        break;
+      case INT:
+        result.setInt_val((int) Math.max(Integer.MIN_VALUE,
+            Math.min(Integer.MAX_VALUE, value)));
+        break;
+      case BIGINT:
+        result.setLong_val(value);
+        break;
+      case DATE:
+        result.setDate_val((int) value);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected filter type: " + filterType);
+    }
+    return result;
+  }
+
   /**
    * Extracts predicates from conjuncts_ that can be pushed down to Iceberg.
    *
@@ -258,6 +530,7 @@ public class IcebergScanNode extends HdfsScanNode {
     if (unboundPredicate == null) return false;
 
     icebergPredicates_.add(unboundPredicate);
+    icebergPredicateByConjunct_.put(expr, unboundPredicate);
 
     return true;
   }
@@ -37,6 +37,7 @@ import org.apache.impala.catalog.ColumnStats;
 import org.apache.impala.catalog.FeTable;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.Pair;
+import org.apache.impala.planner.RuntimeFilterGenerator.RuntimeFilter;
 import org.apache.impala.thrift.TExecNodePhase;
 import org.apache.impala.thrift.TExplainLevel;
 import org.apache.impala.thrift.TJoinDistributionMode;
@@ -105,6 +106,11 @@ public abstract class JoinNode extends PlanNode {
   // Theses conjuncts are printed in the explain plan.
   protected List<EqJoinConjunctScanSlots> fkPkEqJoinConjuncts_;
 
+  // Runtime filters that could have been built by this join but were rejected by the
+  // cost-based runtime filter selection, with the reasons for rejecting them. Printed
+  // in the explain plan.
+  protected final List<String> rejectedRuntimeFilters_ = new ArrayList<>();
+
   public enum DistributionMode {
     NONE("NONE"),
     BROADCAST("BROADCAST"),
@@ -823,6 +829,14 @@ public abstract class JoinNode extends PlanNode {
     return output.toString();
   }
 
+  /**
+   * Records that 'filter' was not assigned to this join because of 'reason'.
+   */
+  public void addRejectedRuntimeFilter(RuntimeFilter filter, String reason) {
+    rejectedRuntimeFilters_.add(String.format("%s <- %s (%s)", filter.getFilterId(),
+        filter.getSrcExpr().toSql(), reason));
+  }
+
   protected void orderJoinConjunctsByCost() {
     conjuncts_ = orderConjunctsByCost(conjuncts_);
     eqJoinConjuncts_ = orderConjunctsByCost(eqJoinConjuncts_);
@@ -57,6 +57,7 @@ import org.apache.impala.thrift.TScanRangeLocation;
 import org.apache.impala.thrift.TScanRangeLocationList;
 import org.apache.impala.thrift.TScanRangeSpec;
 import org.apache.impala.util.ExprUtil;
+import org.apache.impala.util.KuduTableCache;
 import org.apache.impala.util.KuduUtil;
 import org.apache.impala.util.ExecutorMembershipSnapshot;
 import org.apache.kudu.ColumnSchema;
@@ -166,6 +167,12 @@ public class KuduScanNode extends ScanNode {
       // Creates Kudu scan tokens and sets the scan range locations.
       computeScanRangeLocations(analyzer, client, rpcTable);
     } catch (Exception e) {
+      // The cached KuduTable may be outdated if the table was changed in Kudu, e.g. if
+      // the schema changed or the table was dropped and created again, which fails the
+      // schema validation or the creation of the scan tokens. Drop it so that the next
+      // query opens the table again.
+      KuduTableCache cache = KuduTableCache.get();
+      if (cache != null) cache.invalidate(kuduTable_);
       throw new ImpalaRuntimeException("Unable to initialize the Kudu scan node", e);
     }
     computeStats(analyzer);
@@ -645,6 +645,14 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
       // representative selectivity for all those conjuncts.
       selectivities.add(Expr.DEFAULT_SELECTIVITY);
     }
+    return combineSelectivities(selectivities);
+  }
+
+  /**
+   * Combines the estimated 'selectivities' of conjuncts into a single selectivity, with
+   * an exponential backoff to account for correlated conjuncts. Sorts 'selectivities'.
+   */
+  static protected double combineSelectivities(List<Double> selectivities) {
     // Sort the selectivities to get a consistent estimate, regardless of the original
     // conjunct order. Sort in ascending order such that the most selective conjunct
     // is fully applied.
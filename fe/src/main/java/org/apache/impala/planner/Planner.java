@@ -366,6 +366,15 @@ public class Planner {
       hasHeader = true;
     }
 
+    if (explainLevel.ordinal() >= TExplainLevel.EXTENDED.ordinal() &&
+        (ctx_.getNumEnumeratedJoinBlocks() > 0 ||
+         ctx_.getNumJoinEnumerationFallbacks() > 0)) {
+      str.append(String.format(
+          "Join order: enumerated for %d join block(s), greedy fallback for %d\n",
+          ctx_.getNumEnumeratedJoinBlocks(), ctx_.getNumJoinEnumerationFallbacks()));
+      hasHeader = true;
+    }
+
     if (explainLevel.ordinal() >= TExplainLevel.EXTENDED.ordinal()) {
       // In extended explain include the analyzed query text showing implicit casts
       String queryText = ctx_.getQueryStmt().toSql(SHOW_IMPLICIT_CASTS);
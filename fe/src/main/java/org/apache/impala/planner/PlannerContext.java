@@ -64,6 +64,11 @@ public class PlannerContext {
   // Keeps track of subplan nesting. Maintained with push/popSubplan().
   private final LinkedList<SubplanNode> subplans_ = Lists.newLinkedList();
 
+  // Number of join blocks ordered by SingleNodePlanner's join enumeration, and number of
+  // join blocks for which it gave up and fell back to the greedy join ordering.
+  private int numEnumeratedJoinBlocks_ = 0;
+  private int numJoinEnumerationFallbacks_ = 0;
+
   private final AnalysisResult analysisResult_;
   private final EventSequence timeline_;
   private final TQueryCtx queryCtx_;
@@ -117,6 +122,10 @@ public class PlannerContext {
   public SubplanNode getSubplan() { return subplans_.getFirst(); }
   public boolean pushSubplan(SubplanNode n) { return subplans_.offerFirst(n); }
   public void popSubplan() { subplans_.removeFirst(); }
+  public void addEnumeratedJoinBlock() { ++numEnumeratedJoinBlocks_; }
+  public int getNumEnumeratedJoinBlocks() { return numEnumeratedJoinBlocks_; }
+  public void addJoinEnumerationFallback() { ++numJoinEnumerationFallbacks_; }
+  public int getNumJoinEnumerationFallbacks() { return numJoinEnumerationFallbacks_; }
   public boolean isUpdate() { return analysisResult_.isUpdateStmt(); }
   public boolean isDelete() { return analysisResult_.isDeleteStmt(); }
 }
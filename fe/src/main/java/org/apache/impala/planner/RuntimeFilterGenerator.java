@@ -52,6 +52,7 @@ import org.apache.impala.catalog.Type;
 import org.apache.impala.common.AnalysisException;
 import org.apache.impala.common.IdGenerator;
 import org.apache.impala.common.InternalException;
+import org.apache.impala.common.PrintUtils;
 import org.apache.impala.planner.JoinNode.DistributionMode;
 import org.apache.impala.service.BackendConfig;
 import org.apache.impala.service.FeSupport;
@@ -96,6 +97,13 @@ import com.google.common.collect.Lists;
  * scan node of table T1 and is applied on the values of T1.a (lhs of the join condition)
  * to prune tuples of T2 that cannot be part of the join result.
  *
+ * If the RUNTIME_FILTER_COST_BASED_SELECTION query option is set, the bloom filters are
+ * selected by a benefit model instead of their selectivity only: a filter's benefit is
+ * the estimated number of bytes its target scans don't need to process, its cost the
+ * work to build it plus the bytes it is sent over the network. Filters whose benefit is
+ * below their cost are dropped, the others are ranked by their net benefit before
+ * applying MAX_NUM_RUNTIME_FILTERS. See RuntimeFilter.computeBenefitAndCost().
+ *
  * TODO: Consider combining multiple filters, that are applied to the same scan node,
  * into a single filter.
  */
@@ -107,6 +115,10 @@ public final class RuntimeFilterGenerator {
   private static final long MIN_BLOOM_FILTER_SIZE = 4 * 1024;
   private static final long MAX_BLOOM_FILTER_SIZE = 512 * 1024 * 1024;
 
+  // Estimated cost of inserting a build-side row into a bloom filter, expressed in bytes
+  // of scan input so that it can be compared with the bytes a filter saves.
+  private static final double BLOOM_FILTER_BUILD_COST_BYTES_PER_ROW = 8;
+
   // Map of base table tuple ids to a list of runtime filters that
   // can be applied at the corresponding scan nodes.
   private final Map<TupleId, List<RuntimeFilter>> runtimeFiltersByTid_ =
@@ -133,6 +145,11 @@ public final class RuntimeFilterGenerator {
     // Target false positive probability, between 0 and 1 exclusive.
     public final double targetFpp;
 
+    // If true, the NDV of the source expr bounds the NDV estimate of a filter in
+    // addition to the cardinality of the build side. Set by the
+    // RUNTIME_FILTER_COST_BASED_SELECTION query option.
+    public final boolean useSrcExprNdv;
+
     public FilterSizeLimits(TQueryOptions tQueryOptions) {
       // Round up all limits to a power of two and make sure filter size is more
       // than the min buffer size that can be allocated by the buffer pool.
@@ -155,6 +172,8 @@ public final class RuntimeFilterGenerator {
       targetFpp = tQueryOptions.isSetRuntime_filter_error_rate() ?
           tQueryOptions.getRuntime_filter_error_rate() :
           BackendConfig.INSTANCE.getMaxFilterErrorRate();
+
+      useSrcExprNdv = tQueryOptions.isRuntime_filter_cost_based_selection();
     }
   };
 
@@ -200,6 +219,11 @@ public final class RuntimeFilterGenerator {
     private long ndvEstimate_ = -1;
     // Size of the filter (in Bytes). Should be greater than zero for bloom filters.
     private long filterSizeBytes_ = 0;
+    // Estimated number of bytes the targets of this filter don't need to process, and
+    // estimated cost of building and publishing the filter in bytes. -1 if unknown. Set
+    // in computeBenefitAndCost().
+    private long estBytesSaved_ = -1;
+    private long estCostBytes_ = -1;
     // If true, the filter is produced by a broadcast join and there is at least one
     // destination scan node which is in the same fragment as the join; set in
     // DistributedPlanner.createHashJoinFragment().
@@ -309,7 +333,7 @@ public final class RuntimeFilterGenerator {
       targetSlotsByTid_ = targetSlots;
       type_ = type;
       isTimestampTruncation_ = isTimestampTruncation;
-      computeNdvEstimate();
+      computeNdvEstimate(filterSizeLimits.useSrcExprNdv);
       calculateFilterSize(filterSizeLimits);
     }
 
@@ -626,7 +650,62 @@ public final class RuntimeFilterGenerator {
 
     public void setIsBroadcast(boolean isBroadcast) { isBroadcastJoin_ = isBroadcast; }
 
-    public void computeNdvEstimate() { ndvEstimate_ = src_.getChild(1).getCardinality(); }
+    /**
+     * Estimates the number of distinct values inserted into the filter as the
+     * cardinality of the build side. If 'useSrcExprNdv' is true, the estimate is also
+     * bounded by the NDV of the source expr.
+     */
+    public void computeNdvEstimate(boolean useSrcExprNdv) {
+      ndvEstimate_ = src_.getChild(1).getCardinality();
+      long srcExprNdv = srcExpr_.getNumDistinctValues();
+      if (useSrcExprNdv && srcExprNdv > 0
+          && (ndvEstimate_ == -1 || srcExprNdv < ndvEstimate_)) {
+        ndvEstimate_ = srcExprNdv;
+      }
+    }
+
+    /**
+     * Estimates the bytes this filter saves at its targets and the cost of building and
+     * publishing it, in bytes. The saved bytes are the fraction of probe rows the filter
+     * is expected to eliminate, i.e. 1 - getSelectivity(), times the estimated bytes
+     * read by the target scans. The cost is the number of build-side rows times
+     * BLOOM_FILTER_BUILD_COST_BYTES_PER_ROW plus the filter size times the number of
+     * times the filter is sent over the network: from each build instance (only one
+     * for broadcast joins) to the coordinator, and from there to each instance of a
+     * remote target fragment. Leaves the estimates unset if the selectivity, the
+     * target scan bytes or the build-side cardinality are unknown. Must be called after
+     * computeHasLocalTargets().
+     */
+    public void computeBenefitAndCost() {
+      double selectivity = getSelectivity();
+      long buildRows = src_.getChild(1).getCardinality();
+      if (selectivity == -1 || buildRows == -1) return;
+      long targetBytes = 0;
+      for (RuntimeFilterTarget target: targets_) {
+        long scanBytes = target.node.getScanBytesEstimate();
+        if (scanBytes == -1) return;
+        targetBytes += scanBytes;
+      }
+      long numTransfers = 0;
+      if (hasRemoteTargets_) {
+        numTransfers +=
+            isBroadcastJoin_ ? 1 : Math.max(1, src_.getFragment().getNumInstances());
+        Set<PlanFragmentId> targetFragments = new HashSet<>();
+        for (RuntimeFilterTarget target: targets_) {
+          PlanFragment fragment = target.node.getFragment();
+          if (target.isLocalTarget || !targetFragments.add(fragment.getId())) continue;
+          numTransfers += Math.max(1, fragment.getNumInstances());
+        }
+      }
+      estBytesSaved_ = Math.round((1 - Math.min(1, selectivity)) * targetBytes);
+      estCostBytes_ = Math.round(buildRows * BLOOM_FILTER_BUILD_COST_BYTES_PER_ROW)
+          + numTransfers * filterSizeBytes_;
+    }
+
+    public boolean hasBenefitEstimate() { return estBytesSaved_ != -1; }
+    public long getEstBytesSaved() { return estBytesSaved_; }
+    public long getEstCostBytes() { return estCostBytes_; }
+    public long getNetBenefit() { return estBytesSaved_ - estCostBytes_; }
 
     public void computeHasLocalTargets() {
       Preconditions.checkNotNull(src_.getFragment());
@@ -674,7 +753,9 @@ public final class RuntimeFilterGenerator {
           .append("SrcExpr: " + getSrcExpr().debugString() +  " ")
           .append("Target(s): ")
           .append(Joiner.on(", ").join(targets_) + " ")
-          .append("Selectivity: " + getSelectivity()).toString();
+          .append("Selectivity: " + getSelectivity() + " ")
+          .append("Est. bytes saved: " + estBytesSaved_ + " ")
+          .append("Est. cost bytes: " + estCostBytes_).toString();
     }
   }
 
@@ -686,36 +767,50 @@ public final class RuntimeFilterGenerator {
     Preconditions.checkNotNull(ctx.getQueryOptions());
     int maxNumBloomFilters = ctx.getQueryOptions().getMax_num_runtime_filters();
     Preconditions.checkState(maxNumBloomFilters >= 0);
+    boolean costBasedSelection =
+        ctx.getQueryOptions().isRuntime_filter_cost_based_selection();
     RuntimeFilterGenerator filterGenerator = new RuntimeFilterGenerator(
         ctx.getQueryOptions());
     filterGenerator.generateFilters(ctx, plan);
     List<RuntimeFilter> filters = Lists.newArrayList(filterGenerator.getRuntimeFilters());
-    if (filters.size() > maxNumBloomFilters) {
+    for (RuntimeFilter filter : filters) {
+      filter.setIsBroadcast(
+          filter.src_.getDistributionMode() == DistributionMode.BROADCAST);
+      filter.computeHasLocalTargets();
+      if (costBasedSelection && filter.getType() == TRuntimeFilterType.BLOOM) {
+        filter.computeBenefitAndCost();
+      }
+    }
+    if (costBasedSelection) {
+      // Rank the filters by decreasing net benefit. Filters without a benefit estimate
+      // come last, ordered by increasing selectivity.
+      Collections.sort(filters, RuntimeFilterGenerator::compareByNetBenefit);
+    } else if (filters.size() > maxNumBloomFilters) {
       // If more than 'maxNumBloomFilters' were generated, sort them by increasing
       // selectivity and keep the 'maxNumBloomFilters' most selective bloom filters.
-      Collections.sort(filters, new Comparator<RuntimeFilter>() {
-          @Override
-          public int compare(RuntimeFilter a, RuntimeFilter b) {
-            double aSelectivity =
-                a.getSelectivity() == -1 ? Double.MAX_VALUE : a.getSelectivity();
-            double bSelectivity =
-                b.getSelectivity() == -1 ? Double.MAX_VALUE : b.getSelectivity();
-            return Double.compare(aSelectivity, bSelectivity);
-          }
-        }
-      );
+      Collections.sort(filters, RuntimeFilterGenerator::compareBySelectivity);
     }
     // We only enforce a limit on the number of bloom filters as they are much more
     // heavy-weight than the other filter types.
     int numBloomFilters = 0;
     for (RuntimeFilter filter : filters) {
       if (filter.getType() == TRuntimeFilterType.BLOOM) {
-        if (numBloomFilters >= maxNumBloomFilters) continue;
+        if (filter.hasBenefitEstimate() && filter.getNetBenefit() < 0) {
+          filter.src_.addRejectedRuntimeFilter(filter, String.format(
+              "est. benefit %s below cost %s",
+              PrintUtils.printBytes(filter.getEstBytesSaved()),
+              PrintUtils.printBytes(filter.getEstCostBytes())));
+          continue;
+        }
+        if (numBloomFilters >= maxNumBloomFilters) {
+          if (costBasedSelection) {
+            filter.src_.addRejectedRuntimeFilter(filter,
+                "exceeds MAX_NUM_RUNTIME_FILTERS");
+          }
+          continue;
+        }
         ++numBloomFilters;
       }
-      filter.setIsBroadcast(
-          filter.src_.getDistributionMode() == DistributionMode.BROADCAST);
-      filter.computeHasLocalTargets();
       if (LOG.isTraceEnabled()) LOG.trace("Runtime filter: " + filter.debugString());
       filter.assignToPlanNodes();
     }
@@ -723,6 +818,30 @@ public final class RuntimeFilterGenerator {
     arrangeRuntimefiltersForParquet(plan);
   }
 
+  /**
+   * Orders filters by increasing selectivity. Filters without a selectivity estimate
+   * come last.
+   */
+  private static int compareBySelectivity(RuntimeFilter a, RuntimeFilter b) {
+    double aSelectivity =
+        a.getSelectivity() == -1 ? Double.MAX_VALUE : a.getSelectivity();
+    double bSelectivity =
+        b.getSelectivity() == -1 ? Double.MAX_VALUE : b.getSelectivity();
+    return Double.compare(aSelectivity, bSelectivity);
+  }
+
+  /**
+   * Orders filters by decreasing net benefit. Filters without a benefit estimate come
+   * last, ordered by compareBySelectivity().
+   */
+  private static int compareByNetBenefit(RuntimeFilter a, RuntimeFilter b) {
+    if (a.hasBenefitEstimate() != b.hasBenefitEstimate()) {
+      return a.hasBenefitEstimate() ? -1 : 1;
+    }
+    if (!a.hasBenefitEstimate()) return compareBySelectivity(a, b);
+    return Long.compare(b.getNetBenefit(), a.getNetBenefit());
+  }
+
   public static void arrangeRuntimefiltersForParquet(
       PlanNode root) {
     if (root instanceof HdfsScanNode) {
@@ -286,6 +286,16 @@ abstract public class ScanNode extends PlanNode {
     return result;
   }
 
+  /**
+   * Returns an estimate of the number of bytes this scan node reads, or -1 if unknown.
+   * By default, this is the input cardinality times the average row size.
+   */
+  public long getScanBytesEstimate() {
+    long inputCardinality = getInputCardinality();
+    if (inputCardinality < 0) return -1;
+    return Math.round(inputCardinality * (double) avgRowSize_);
+  }
+
   @Override
   public long getInputCardinality() {
     if (!hasScanConjuncts() && !hasStorageLayerConjuncts() && hasLimit()) {
@@ -101,6 +101,15 @@ public class SingleNodePlanner {
   // inserted.
   private static final double JOIN_DISTINCT_THRESHOLD = 0.25;
 
+  // Limit on the number of candidate joins that createEnumeratedJoinPlan() creates for
+  // a single join block. Each candidate is a fully initialized join node, so this bounds
+  // the planning time of the enumeration. Above it the greedy join ordering is used.
+  private static final int MAX_JOIN_ENUMERATION_CANDIDATES = 20000;
+
+  // Weight of the build side rows in the cost of a join plan relative to the probe side
+  // and output rows, because they are materialized in a hash table.
+  private static final double JOIN_BUILD_COST_FACTOR = 2.0;
+
   private final static Logger LOG = LoggerFactory.getLogger(SingleNodePlanner.class);
 
   private final PlannerContext ctx_;
@@ -527,6 +536,94 @@ public class SingleNodePlanner {
     return null;
   }
 
+  /**
+   * Returns true if the join order of 'refPlans' should be chosen by
+   * createEnumeratedJoinPlan(): the block has at least three and at most
+   * MAX_JOIN_ENUMERATION_TABLES tables, only inner or cross joins, no subplans, and
+   * cardinality estimates for all its inputs.
+   */
+  private boolean canEnumerateJoins(Analyzer analyzer,
+      List<Pair<TableRef, PlanNode>> refPlans, List<SubplanRef> subplanRefs) {
+    int maxTables = analyzer.getQueryOptions().getMax_join_enumeration_tables();
+    if (refPlans.size() < 3 || refPlans.size() > maxTables) return false;
+    if (!subplanRefs.isEmpty()) return false;
+    for (Pair<TableRef, PlanNode> entry: refPlans) {
+      JoinOperator joinOp = entry.first.getJoinOp();
+      if (joinOp != JoinOperator.INNER_JOIN && !joinOp.isCrossJoin()) return false;
+      if (entry.second.getCardinality() < 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the cheapest left-deep join plan for the TableRefs in 'refPlans', found by
+   * dynamic programming over the subsets of the refs. The cheapest plan of each subset
+   * is memoized and extended by one more ref at a time. Only hash joins are considered,
+   * i.e. each subset is connected by equi-join conjuncts, so cross products are never
+   * introduced. The cost of a plan is the sum of the estimated probe, build and output
+   * cardinalities of its joins, with the build side weighted by JOIN_BUILD_COST_FACTOR.
+   * Returns null if there is no plan with hash joins only, or if the enumeration
+   * exceeds MAX_JOIN_ENUMERATION_CANDIDATES joins. The caller is responsible for
+   * restoring the state of conjunct assignment in that case.
+   */
+  private PlanNode createEnumeratedJoinPlan(Analyzer analyzer,
+      List<Pair<TableRef, PlanNode>> refPlans) throws ImpalaException {
+    int numRefs = refPlans.size();
+    int numSubsets = 1 << numRefs;
+    // Cheapest plan and its cost for each subset of refs, indexed by bitmask.
+    PlanNode[] bestPlans = new PlanNode[numSubsets];
+    double[] bestCosts = new double[numSubsets];
+    for (int i = 0; i < numRefs; ++i) bestPlans[1 << i] = refPlans.get(i).second;
+
+    int numCandidates = 0;
+    // A subset is only extended after all its subsets, since they have smaller
+    // bitmasks. Its cheapest plan is final at that point.
+    for (int subset = 1; subset < numSubsets - 1; ++subset) {
+      PlanNode outer = bestPlans[subset];
+      if (outer == null) continue;
+      for (int i = 0; i < numRefs; ++i) {
+        if ((subset & (1 << i)) != 0) continue;
+        if (++numCandidates > MAX_JOIN_ENUMERATION_CANDIDATES) {
+          LOG.trace("Join enumeration exceeded {} candidates",
+              MAX_JOIN_ENUMERATION_CANDIDATES);
+          return null;
+        }
+        TableRef innerRef = refPlans.get(i).first;
+        PlanNode inner = refPlans.get(i).second;
+        analyzer.setAssignedConjuncts(outer.getAssignedConjuncts());
+        PlanNode candidate = createJoinNode(outer, inner, innerRef, analyzer);
+        if (!(candidate instanceof HashJoinNode) || candidate.getCardinality() < 0) {
+          continue;
+        }
+        double cost = bestCosts[subset] + outer.getCardinality()
+            + JOIN_BUILD_COST_FACTOR * inner.getCardinality()
+            + candidate.getCardinality();
+        int newSubset = subset | (1 << i);
+        if (bestPlans[newSubset] == null || cost < bestCosts[newSubset]) {
+          bestPlans[newSubset] = candidate;
+          bestCosts[newSubset] = cost;
+        }
+      }
+    }
+    PlanNode root = bestPlans[numSubsets - 1];
+    if (root == null) return null;
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Enumerated " + numCandidates + " joins, cost=" +
+          bestCosts[numSubsets - 1]);
+    }
+    // Assign node ids bottom-up, like createJoinPlan(). The leftmost input may be a
+    // join of an inline view, so only walk the numRefs - 1 new joins.
+    List<PlanNode> joins = new ArrayList<>();
+    PlanNode node = root;
+    for (int i = 1; i < numRefs; ++i) {
+      joins.add(node);
+      node = node.getChild(0);
+    }
+    for (PlanNode join: Lists.reverse(joins)) join.setId(ctx_.getNextNodeId());
+    analyzer.setAssignedConjuncts(root.getAssignedConjuncts());
+    return root;
+  }
+
   /**
    * Returns a plan with leftmostRef's plan as its leftmost input; the joins
    * are in decreasing order of selectiveness (percentage of rows they eliminate).
@@ -928,7 +1025,19 @@ public class SingleNodePlanner {
     PlanNode root = null;
     if (!analyzer.isStraightJoin()) {
       Set<ExprId> assignedConjuncts = analyzer.getAssignedConjuncts();
-      root = createCheapestJoinPlan(analyzer, parentRefPlans, subplanRefs);
+      if (canEnumerateJoins(analyzer, parentRefPlans, subplanRefs)) {
+        root = createEnumeratedJoinPlan(analyzer, parentRefPlans);
+        if (root != null) {
+          ctx_.addEnumeratedJoinBlock();
+        } else {
+          // Fall back to the greedy join ordering.
+          ctx_.addJoinEnumerationFallback();
+          analyzer.setAssignedConjuncts(assignedConjuncts);
+        }
+      }
+      if (root == null) {
+        root = createCheapestJoinPlan(analyzer, parentRefPlans, subplanRefs);
+      }
       // If createCheapestJoinPlan() failed to produce an executable plan, then we need
       // to restore the original state of conjunct assignment for the straight-join plan
       // to not incorrectly miss conjuncts.
@@ -17,6 +17,8 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BetweenPredicate;
 import org.apache.impala.analysis.BinaryPredicate;
@@ -24,6 +26,8 @@ import org.apache.impala.analysis.CompoundPredicate;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.analysis.Predicate;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Rewrites BetweenPredicates into an equivalent conjunctive/disjunctive
  * CompoundPredicate.
@@ -36,6 +40,11 @@ import org.apache.impala.analysis.Predicate;
 public class BetweenToCompoundRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new BetweenToCompoundRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(BetweenPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!(expr instanceof BetweenPredicate)) return expr;
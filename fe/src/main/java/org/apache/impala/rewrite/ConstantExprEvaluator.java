@@ -0,0 +1,373 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.rewrite;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.impala.analysis.ArithmeticExpr;
+import org.apache.impala.analysis.BetweenPredicate;
+import org.apache.impala.analysis.BoolLiteral;
+import org.apache.impala.analysis.CastExpr;
+import org.apache.impala.analysis.Expr;
+import org.apache.impala.analysis.FunctionCallExpr;
+import org.apache.impala.analysis.LiteralExpr;
+import org.apache.impala.analysis.NumericLiteral;
+import org.apache.impala.analysis.StatementBase;
+import org.apache.impala.analysis.StringLiteral;
+import org.apache.impala.analysis.ToSqlOptions;
+import org.apache.impala.catalog.PrimitiveType;
+import org.apache.impala.catalog.Type;
+import org.apache.impala.common.AnalysisException;
+import org.apache.impala.common.InternalException;
+import org.apache.impala.common.SqlCastException;
+import org.apache.impala.service.FeSupport;
+import org.apache.impala.service.FrontendProfile;
+import org.apache.impala.thrift.TQueryCtx;
+import org.apache.impala.thrift.TResultRow;
+import org.apache.impala.thrift.TUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Evaluates constant Exprs to LiteralExprs for constant folding, see FoldConstantsRule.
+ * Shared by all the analyzers of a query, so results are cached per query context and
+ * reused across re-analysis.
+ *
+ * Exprs are evaluated in one of three ways:
+ * - simple integer arithmetic, casts and string concatenation of literals are evaluated
+ *   in Java without calling into the BE
+ * - foldStmtConstants() collects the maximal constant Exprs of a statement and
+ *   evaluates them with a single FeSupport call before the statement is rewritten
+ * - the remaining Exprs are evaluated one at a time in the BE
+ * The results are equivalent to LiteralExpr.createBounded() with
+ * LiteralExpr.MAX_STRING_LITERAL_SIZE.
+ *
+ * Also caches the results of the constant predicates that the Analyzer and the planner
+ * evaluate, e.g. constant conjuncts and outer-join conjuncts with NULL slots. The same
+ * predicate is checked several times for a statement: by each analysis pass, for each
+ * scan that a conjunct is propagated to, and for each expansion of a view. Only the
+ * first check calls into the BE. The counters ConstantFolding.PredicateBackendEvals and
+ * ConstantFolding.PredicateCacheHits in the profile show the calls that were made and
+ * saved. This is a cache of BE evaluations only: re-analysis of a rewritten statement
+ * still analyzes the whole statement with a new Analyzer.
+ */
+public class ConstantExprEvaluator {
+  private final static Logger LOG = LoggerFactory.getLogger(ConstantExprEvaluator.class);
+
+  // Prefix of the counters that are added to the frontend profile.
+  private static final String PROFILE_PREFIX = "ConstantFolding.";
+
+  private final TQueryCtx queryCtx_;
+
+  // Evaluation results by getCacheKey(). An empty result means that the Expr could not
+  // be folded.
+  private final Map<String, Optional<LiteralExpr>> cache_ = new HashMap<>();
+
+  // Results of evalPredicate() by getCacheKey().
+  private final Map<String, Boolean> predicateCache_ = new HashMap<>();
+
+  // Number of calls to evalPredicate() that were served from 'predicateCache_' and that
+  // called into the BE.
+  private long numPredicateCacheHits_ = 0;
+  private long numPredicateBackendEvals_ = 0;
+
+  public ConstantExprEvaluator(TQueryCtx queryCtx) {
+    queryCtx_ = Preconditions.checkNotNull(queryCtx);
+  }
+
+  /**
+   * Returns true if foldStmtConstants() may replace 'expr' with its evaluation result.
+   * Only considers analyzed Exprs. Exprs that contain a BetweenPredicate are left to
+   * FoldConstantsRule, since the BE can only evaluate them after BetweenToCompoundRule
+   * has replaced the BetweenPredicate.
+   */
+  private static boolean isFoldable(Expr expr) {
+    if (!expr.isAnalyzed() || Expr.IS_LITERAL.apply(expr) || !expr.isConstant()) {
+      return false;
+    }
+    if (!expr.getType().isValid()) return false;
+    if (expr.contains(BetweenPredicate.class)) return false;
+    // See FoldConstantsRule.
+    return !(expr instanceof CastExpr && Expr.IS_NULL_LITERAL.apply(expr.getChild(0)));
+  }
+
+  private static String getCacheKey(Expr expr) {
+    return expr.getType().toSql() + ":" + expr.toSql(ToSqlOptions.SHOW_IMPLICIT_CASTS);
+  }
+
+  /**
+   * Returns the constant 'expr' evaluated to a LiteralExpr of the same type, or null if
+   * it cannot be represented as a LiteralExpr or its evaluation failed. The returned
+   * LiteralExpr is not shared with other callers.
+   */
+  public LiteralExpr eval(Expr expr) throws AnalysisException {
+    Preconditions.checkState(expr.isConstant());
+    if (expr instanceof LiteralExpr) return (LiteralExpr) expr;
+    String key = getCacheKey(expr);
+    Optional<LiteralExpr> result = cache_.get(key);
+    if (result == null) {
+      LiteralExpr literal = evalInJava(expr);
+      if (literal == null) {
+        literal = LiteralExpr.createBounded(expr, queryCtx_,
+            LiteralExpr.MAX_STRING_LITERAL_SIZE);
+        addToCounter("BackendEvals", 1);
+      }
+      result = Optional.ofNullable(literal);
+      cache_.put(key, result);
+    }
+    return result.isPresent() ? (LiteralExpr) result.get().clone() : null;
+  }
+
+  /**
+   * Returns the result of FeSupport.EvalPredicate() for 'pred'. The results of
+   * analyzed, constant predicates are cached.
+   */
+  public boolean evalPredicate(Expr pred) throws InternalException {
+    if (pred instanceof BoolLiteral || Expr.IS_NULL_LITERAL.apply(pred)
+        || !pred.isAnalyzed() || !pred.isConstant()) {
+      return FeSupport.EvalPredicate(pred, queryCtx_);
+    }
+    String key = getCacheKey(pred);
+    Boolean result = predicateCache_.get(key);
+    if (result != null) {
+      ++numPredicateCacheHits_;
+      addToCounter("PredicateCacheHits", 1);
+      return result;
+    }
+    result = FeSupport.EvalPredicate(pred, queryCtx_);
+    ++numPredicateBackendEvals_;
+    addToCounter("PredicateBackendEvals", 1);
+    predicateCache_.put(key, result);
+    return result;
+  }
+
+  @VisibleForTesting
+  public int getNumCachedPredicates() { return predicateCache_.size(); }
+  @VisibleForTesting
+  public long getNumPredicateCacheHits() { return numPredicateCacheHits_; }
+  @VisibleForTesting
+  public long getNumPredicateBackendEvals() { return numPredicateBackendEvals_; }
+
+  /**
+   * Evaluates the maximal foldable Exprs of 'stmt' with a single call into the BE and
+   * replaces them with their results. Exprs that cannot be folded this way are left to
+   * FoldConstantsRule. Returns the number of replaced Exprs. 'stmt' must be analyzed.
+   */
+  public int foldStmtConstants(StatementBase stmt) throws AnalysisException {
+    // Collect the maximal foldable Exprs. The rewriter visits children before their
+    // parents, so a foldable parent replaces its children.
+    Set<Expr> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+    stmt.rewriteExprs(new ExprRewriter((expr, analyzer) -> {
+      if (isFoldable(expr)) {
+        roots.removeAll(expr.getChildren());
+        roots.add(expr);
+      }
+      return expr;
+    }));
+    if (roots.isEmpty()) return 0;
+    evalBatch(new ArrayList<>(roots));
+
+    ExprRewriter replacer = new ExprRewriter((expr, analyzer) -> {
+      if (!roots.contains(expr)) return expr;
+      Optional<LiteralExpr> result = cache_.get(getCacheKey(expr));
+      if (result == null || !result.isPresent()) return expr;
+      // Preserve original type so parent Exprs do not need to be re-analyzed.
+      return result.get().clone().castTo(expr.getType());
+    });
+    stmt.rewriteExprs(replacer);
+    return replacer.getNumChanges();
+  }
+
+  /**
+   * Evaluates the constant 'exprs' and adds the results to the cache. Exprs that can be
+   * evaluated in Java are not sent to the BE. If the batch fails to evaluate, the
+   * batch is split in halves to isolate the failing Exprs, whose results are
+   * cached as failures.
+   */
+  @VisibleForTesting
+  void evalBatch(List<Expr> exprs) throws AnalysisException {
+    List<Expr> backendExprs = new ArrayList<>();
+    Set<String> backendKeys = new HashSet<>();
+    for (Expr expr: exprs) {
+      String key = getCacheKey(expr);
+      if (cache_.containsKey(key) || backendKeys.contains(key)) continue;
+      LiteralExpr literal = evalInJava(expr);
+      if (literal != null) {
+        cache_.put(key, Optional.of(literal));
+      } else {
+        backendExprs.add(expr);
+        backendKeys.add(key);
+      }
+    }
+    if (!backendExprs.isEmpty()) evalInBackend(backendExprs);
+  }
+
+  private void evalInBackend(List<Expr> exprs) throws AnalysisException {
+    TResultRow results;
+    try {
+      addToCounter("BackendBatches", 1);
+      results = FeSupport.EvalExprBatchWithoutRowBounded(exprs, queryCtx_,
+          LiteralExpr.MAX_STRING_LITERAL_SIZE);
+    } catch (Exception e) {
+      // Besides the errors of the BE, this also catches Exprs that fail to serialize.
+      if (exprs.size() == 1) {
+        LOG.error(String.format("Failed to evaluate expr '%s': %s",
+            exprs.get(0).toSql(), e.getMessage()));
+        cache_.put(getCacheKey(exprs.get(0)), Optional.empty());
+        return;
+      }
+      int mid = exprs.size() / 2;
+      evalInBackend(exprs.subList(0, mid));
+      evalInBackend(exprs.subList(mid, exprs.size()));
+      return;
+    }
+    addToCounter("BatchedExprs", exprs.size());
+    for (int i = 0; i < exprs.size(); ++i) {
+      Expr expr = exprs.get(i);
+      cache_.put(getCacheKey(expr), Optional.ofNullable(
+          LiteralExpr.createFromColumnValue(expr, results.getColVals().get(i))));
+    }
+  }
+
+  /**
+   * Evaluates simple Exprs over literals in Java. Returns null if 'expr' is not
+   * supported, or if the result may differ from evaluating it in the BE, e.g. on
+   * integer overflow.
+   */
+  @VisibleForTesting
+  static LiteralExpr evalInJava(Expr expr) throws AnalysisException {
+    LiteralExpr result = null;
+    if (expr instanceof ArithmeticExpr) {
+      result = evalArithmetic((ArithmeticExpr) expr);
+    } else if (expr instanceof CastExpr) {
+      result = evalCast((CastExpr) expr);
+    } else if (expr instanceof FunctionCallExpr) {
+      result = evalConcat((FunctionCallExpr) expr);
+    }
+    if (result == null) return null;
+    addToCounter("JavaEvals", 1);
+    result.analyzeNoThrow(null);
+    return result;
+  }
+
+  private static LiteralExpr evalArithmetic(ArithmeticExpr expr) {
+    if (!expr.getType().isIntegerType() || expr.getChildren().size() != 2) return null;
+    BigDecimal lhs = getIntegerValue(expr.getChild(0));
+    BigDecimal rhs = getIntegerValue(expr.getChild(1));
+    if (lhs == null || rhs == null) return null;
+    BigDecimal value;
+    switch (expr.getOp()) {
+      case ADD: value = lhs.add(rhs); break;
+      case SUBTRACT: value = lhs.subtract(rhs); break;
+      case MULTIPLY: value = lhs.multiply(rhs); break;
+      default: return null;
+    }
+    return createIntegerLiteral(value, expr.getType());
+  }
+
+  private static LiteralExpr evalCast(CastExpr expr) {
+    Type type = expr.getType();
+    Expr child = expr.getChild(0);
+    BigDecimal value = getIntegerValue(child);
+    if (value != null) {
+      if (type.isIntegerType()) return createIntegerLiteral(value, type);
+      if (type.getPrimitiveType() == PrimitiveType.STRING) {
+        return new StringLiteral(value.toBigInteger().toString(), type, false);
+      }
+      return null;
+    }
+    if (child instanceof StringLiteral
+        && child.getType().getPrimitiveType() == PrimitiveType.STRING
+        && type.getPrimitiveType() == PrimitiveType.STRING) {
+      return createStringLiteral(((StringLiteral) child).getBackendValue(), type);
+    }
+    return null;
+  }
+
+  private static LiteralExpr evalConcat(FunctionCallExpr expr) {
+    if (!expr.getFnName().getFunction().equalsIgnoreCase("concat")) return null;
+    if (expr.getType().getPrimitiveType() != PrimitiveType.STRING) return null;
+    StringBuilder sb = new StringBuilder();
+    for (Expr child: expr.getChildren()) {
+      if (!(child instanceof StringLiteral)
+          || child.getType().getPrimitiveType() != PrimitiveType.STRING) {
+        return null;
+      }
+      sb.append(((StringLiteral) child).getBackendValue());
+    }
+    return createStringLiteral(sb.toString(), expr.getType());
+  }
+
+  /**
+   * Returns the value of 'expr' if it is a literal of an integer type, null otherwise.
+   */
+  private static BigDecimal getIntegerValue(Expr expr) {
+    if (!(expr instanceof NumericLiteral) || !expr.getType().isIntegerType()) {
+      return null;
+    }
+    BigDecimal value = ((NumericLiteral) expr).getValue();
+    if (value.signum() != 0 && value.stripTrailingZeros().scale() > 0) return null;
+    return value;
+  }
+
+  private static LiteralExpr createIntegerLiteral(BigDecimal value, Type type) {
+    boolean fits;
+    switch (type.getPrimitiveType()) {
+      case TINYINT: fits = NumericLiteral.fitsInTinyInt(value); break;
+      case SMALLINT: fits = NumericLiteral.fitsInSmallInt(value); break;
+      case INT: fits = NumericLiteral.fitsInInt(value); break;
+      case BIGINT: fits = NumericLiteral.fitsInBigInt(value); break;
+      default: return null;
+    }
+    if (!fits) return null;
+    try {
+      return new NumericLiteral(value, type);
+    } catch (SqlCastException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a literal with the raw string 'value', or null if the BE result would not
+   * be folded, see LiteralExpr.createFromColumnValue().
+   */
+  private static LiteralExpr createStringLiteral(String value, Type type) {
+    if (value.length() > LiteralExpr.MAX_STRING_LITERAL_SIZE) return null;
+    for (int i = 0; i < value.length(); ++i) {
+      if (value.charAt(i) > 127) return null;
+    }
+    return new StringLiteral(value, type, false);
+  }
+
+  private static void addToCounter(String name, long delta) {
+    FrontendProfile profile = FrontendProfile.getCurrentOrNull();
+    if (profile != null) profile.addToCounter(PROFILE_PREFIX + name, TUnit.NONE, delta);
+  }
+}
@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * This rule converts a predicate to conjunctive normal form (CNF).
  * Converting to CNF enables multi-table predicates that were only
@@ -84,6 +86,11 @@ public class ConvertToCNFRule implements ExprRewriteRule {
   // but for unit testing it is useful to disable this
   private final boolean forMultiTablesOnly_;
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CompoundPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException {
     return convertToCNF(expr, analyzer);
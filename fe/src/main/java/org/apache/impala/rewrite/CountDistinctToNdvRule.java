@@ -17,11 +17,15 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.analysis.FunctionCallExpr;
 import org.apache.impala.common.AnalysisException;
 import org.apache.impala.analysis.Analyzer;
 
+import com.google.common.collect.ImmutableList;
+
 /*
  * Rewrite rule to replace count distinct to ndv
  *
@@ -31,6 +35,11 @@ public class CountDistinctToNdvRule implements ExprRewriteRule{
     // Singleton
     public static CountDistinctToNdvRule INSTANCE = new CountDistinctToNdvRule();
 
+    @Override
+    public List<Class<? extends Expr>> getMatchedExprClasses() {
+        return ImmutableList.of(FunctionCallExpr.class);
+    }
+
     /*
      * This is an implementation of IMPALA-110.
      * Replace count distinct operators to NDVs if APPX_COUNT_DISTINCT is set.
@@ -27,6 +27,8 @@ import org.apache.impala.common.AnalysisException;
 import java.math.BigDecimal;
 import java.util.List;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Rewrite rule to set NDV call's default scale.
  *
@@ -39,6 +41,11 @@ public class DefaultNdvScaleRule implements ExprRewriteRule{
     // Singleton
     public static DefaultNdvScaleRule INSTANCE = new DefaultNdvScaleRule();
 
+    @Override
+    public List<Class<? extends Expr>> getMatchedExprClasses() {
+        return ImmutableList.of(FunctionCallExpr.class);
+    }
+
     /**
      * Applies this rewrite rule to the given analyzed Expr. Returns the transformed and
      * analyzed Expr or the original unmodified Expr if no changes were made. If any
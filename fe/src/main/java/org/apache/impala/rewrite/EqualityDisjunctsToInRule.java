@@ -17,11 +17,13 @@
 
 package org.apache.impala.rewrite;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 import java.util.List;
 
 import org.apache.impala.analysis.Analyzer;
+import org.apache.impala.analysis.CompoundPredicate;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.analysis.InPredicate;
 import org.apache.impala.analysis.Subquery;
@@ -39,6 +41,11 @@ public class EqualityDisjunctsToInRule implements ExprRewriteRule {
 
   public static ExprRewriteRule INSTANCE = new EqualityDisjunctsToInRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CompoundPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!Expr.IS_OR_PREDICATE.apply(expr)) return expr;
@@ -17,10 +17,14 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.common.AnalysisException;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Base class for all Expr rewrite rules. A rule is free to modify Exprs in place,
  * but must return a different Expr object if any modifications were made.
@@ -41,4 +45,13 @@ public interface ExprRewriteRule {
    * so callers can rely on object reference comparison for change detection.
    */
   public abstract Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException;
+
+  /**
+   * Returns the Expr classes that this rule can transform. The ExprRewriter only applies
+   * the rule to Exprs that are instances of one of them, so rules that only match a few
+   * Expr types should override this to reduce the cost of rewriting large Expr trees.
+   */
+  default List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(Expr.class);
+  }
 }
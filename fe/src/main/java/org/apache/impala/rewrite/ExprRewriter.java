@@ -17,12 +17,19 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.common.AnalysisException;
-import com.google.common.collect.Lists;
+import org.apache.impala.service.FrontendProfile;
+import org.apache.impala.thrift.TUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Helper class that drives the transformation of Exprs according to a given list of
@@ -32,65 +39,172 @@ import com.google.common.collect.Lists;
  * - the rule list is applied repeatedly until no rule has made any changes
  * - the rules are applied in the order they appear in the rule list
  * Keeps track of how many transformations were applied.
+ *
+ * The result is the same as applying every rule to every node in every pass, but the
+ * work is limited to the parts of the tree that can still change:
+ * - a rule is only invoked on the Exprs that are instances of one of its
+ *   ExprRewriteRule.getMatchedExprClasses()
+ * - once a rule made no changes to a subtree, the subtree is marked as rewritten for
+ *   that rule and skipped by later applications of the rule, until any Expr in the
+ *   subtree changes. A subtree that is marked for all rules is not visited at all.
+ * This avoids the quadratic behavior of re-traversing large expression trees, e.g.
+ * huge IN lists, for each pass over the rules.
  */
 public class ExprRewriter {
+  // Maximum number of rules supported, since the rules that are done with a subtree are
+  // tracked as a bit mask.
+  private static final int MAX_RULES = Long.SIZE;
+
   private int numChanges_ = 0;
   private final List<ExprRewriteRule> rules_;
 
+  // Number of invocations of each rule and number of changes that each rule made, in
+  // the order of 'rules_'. Not reset by reset().
+  private final long[] numInvocations_;
+  private final long[] numHits_;
+
+  // Bit mask of the rules that can match each Expr class seen so far.
+  private final Map<Class<? extends Expr>, Long> matchingRulesByClass_ = new HashMap<>();
+
+  // Maps the roots of the subtrees that were rewritten to the bit mask of the rules that
+  // made no changes to them. Only valid during a call to rewrite().
+  private Map<Expr, Long> doneRules_;
+
   public ExprRewriter(List<ExprRewriteRule> rules) {
-    rules_ = rules;
+    Preconditions.checkArgument(rules.size() <= MAX_RULES);
+    rules_ = ImmutableList.copyOf(rules);
+    numInvocations_ = new long[rules_.size()];
+    numHits_ = new long[rules_.size()];
   }
 
   public ExprRewriter(ExprRewriteRule rule) {
-    rules_ = Lists.newArrayList(rule);
+    this(ImmutableList.of(rule));
   }
 
   public Expr rewrite(Expr expr, Analyzer analyzer) throws AnalysisException {
-    // Keep applying the rule list until no rule has made any changes.
-    int oldNumChanges;
-    Expr rewrittenExpr = expr;
-    do {
-      oldNumChanges = numChanges_;
-      for (ExprRewriteRule rule: rules_) {
-        rewrittenExpr = applyRuleRepeatedly(rewrittenExpr, rule, analyzer);
-      }
-    } while (oldNumChanges != numChanges_);
-    return rewrittenExpr;
+    // Rules may rewrite other Exprs with the same rewriter, e.g. during analysis.
+    Map<Expr, Long> outerDoneRules = doneRules_;
+    doneRules_ = new IdentityHashMap<>();
+    try {
+      // Keep applying the rule list until no rule has made any changes.
+      int oldNumChanges;
+      Expr rewrittenExpr = expr;
+      do {
+        oldNumChanges = numChanges_;
+        for (int i = 0; i < rules_.size(); ++i) {
+          rewrittenExpr = applyRuleRepeatedly(rewrittenExpr, i, analyzer);
+        }
+      } while (oldNumChanges != numChanges_);
+      return rewrittenExpr;
+    } finally {
+      doneRules_ = outerDoneRules;
+    }
   }
 
   /**
-   * Applies 'rule' on the Expr tree rooted at 'expr' until there are no more changes.
-   * Returns the transformed Expr or 'expr' if there were no changes.
+   * Applies the rule at 'ruleIdx' on the Expr tree rooted at 'expr' until there are no
+   * more changes. Returns the transformed Expr or 'expr' if there were no changes.
    */
-  private Expr applyRuleRepeatedly(Expr expr, ExprRewriteRule rule, Analyzer analyzer)
+  private Expr applyRuleRepeatedly(Expr expr, int ruleIdx, Analyzer analyzer)
       throws AnalysisException {
     int oldNumChanges;
     Expr rewrittenExpr = expr;
     do {
       oldNumChanges = numChanges_;
-      rewrittenExpr = applyRuleBottomUp(rewrittenExpr, rule, analyzer);
+      rewrittenExpr = applyRuleBottomUp(rewrittenExpr, ruleIdx, analyzer);
     } while (oldNumChanges != numChanges_);
     return rewrittenExpr;
   }
 
   /**
-   * Applies 'rule' on 'expr' and all its children in a bottom-up fashion.
+   * Applies the rule at 'ruleIdx' on 'expr' and all its children in a bottom-up fashion,
+   * skipping the subtrees that are marked as done for the rule.
    * Returns the transformed Expr or 'expr' if there were no changes.
    */
-  private Expr applyRuleBottomUp(Expr expr, ExprRewriteRule rule, Analyzer analyzer)
+  private Expr applyRuleBottomUp(Expr expr, int ruleIdx, Analyzer analyzer)
       throws AnalysisException {
+    long ruleBit = 1L << ruleIdx;
+    Long done = doneRules_.get(expr);
+    if (done != null && (done & ruleBit) != 0) return expr;
+    // Every change in the subtree, including the ones that replaced an Expr further
+    // down in place, is counted in 'numChanges_'.
+    int oldNumChanges = numChanges_;
     for (int i = 0; i < expr.getChildren().size(); ++i) {
-      expr.setChild(i, applyRuleBottomUp(expr.getChild(i), rule, analyzer));
+      Expr child = expr.getChild(i);
+      Expr rewrittenChild = applyRuleBottomUp(child, ruleIdx, analyzer);
+      if (rewrittenChild != child) expr.setChild(i, rewrittenChild);
+    }
+    boolean subtreeChanged = numChanges_ != oldNumChanges;
+    Expr rewrittenExpr = expr;
+    if ((getMatchingRules(expr) & ruleBit) != 0) {
+      ++numInvocations_[ruleIdx];
+      rewrittenExpr = rules_.get(ruleIdx).apply(expr, analyzer);
+    }
+    if (rewrittenExpr != expr) {
+      ++numChanges_;
+      ++numHits_[ruleIdx];
+      // The rule may have modified the Exprs of the result in place.
+      doneRules_.remove(expr);
+      clearDoneRules(rewrittenExpr);
+    } else if (subtreeChanged) {
+      // The changed descendants may be rewritten further by this rule, and the marks of
+      // the other rules are stale. Each ancestor on the path to the change drops its
+      // marks the same way.
+      doneRules_.remove(expr);
+    } else {
+      doneRules_.put(expr, done == null ? ruleBit : done | ruleBit);
     }
-    Expr rewrittenExpr = rule.apply(expr, analyzer);
-    if (rewrittenExpr != expr) ++numChanges_;
     return rewrittenExpr;
   }
 
+  /**
+   * Returns the bit mask of the rules that can match 'expr'.
+   */
+  private long getMatchingRules(Expr expr) {
+    Long mask = matchingRulesByClass_.get(expr.getClass());
+    if (mask != null) return mask;
+    long newMask = 0;
+    for (int i = 0; i < rules_.size(); ++i) {
+      for (Class<? extends Expr> c: rules_.get(i).getMatchedExprClasses()) {
+        if (c.isInstance(expr)) {
+          newMask |= 1L << i;
+          break;
+        }
+      }
+    }
+    matchingRulesByClass_.put(expr.getClass(), newMask);
+    return newMask;
+  }
+
+  /**
+   * Removes the marks of all the Exprs in the tree rooted at 'expr'.
+   */
+  private void clearDoneRules(Expr expr) {
+    if (doneRules_.isEmpty()) return;
+    doneRules_.remove(expr);
+    for (Expr child: expr.getChildren()) clearDoneRules(child);
+  }
+
   public void rewriteList(List<Expr> exprs, Analyzer analyzer) throws AnalysisException {
     for (int i = 0; i < exprs.size(); ++i) exprs.set(i, rewrite(exprs.get(i), analyzer));
   }
 
+  /**
+   * Adds the number of invocations and changes of each rule to the frontend profile, if
+   * there is one, as counters named ExprRewriter.<rule>.Invocations and
+   * ExprRewriter.<rule>.Hits.
+   */
+  public void addCountersToProfile() {
+    FrontendProfile profile = FrontendProfile.getCurrentOrNull();
+    if (profile == null) return;
+    for (int i = 0; i < rules_.size(); ++i) {
+      if (numInvocations_[i] == 0) continue;
+      String prefix = "ExprRewriter." + rules_.get(i).getClass().getSimpleName();
+      profile.addToCounter(prefix + ".Invocations", TUnit.NONE, numInvocations_[i]);
+      profile.addToCounter(prefix + ".Hits", TUnit.NONE, numHits_[i]);
+    }
+  }
+
   public void reset() { numChanges_ = 0; }
   public boolean changed() { return numChanges_ > 0; }
   public int getNumChanges() { return numChanges_; }
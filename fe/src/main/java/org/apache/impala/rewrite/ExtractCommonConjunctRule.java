@@ -24,6 +24,7 @@ import org.apache.impala.analysis.CompoundPredicate;
 import org.apache.impala.analysis.Expr;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 /**
@@ -46,6 +47,11 @@ public class ExtractCommonConjunctRule implements ExprRewriteRule {
   // Expr.equals() comparison loop below.
   private static final int MAX_EQUALS_COMPARISONS = 30 * 30;
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CompoundPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!Expr.IS_OR_PREDICATE.apply(expr)) return expr;
@@ -17,12 +17,16 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BinaryPredicate;
 import org.apache.impala.analysis.BoolLiteral;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.analysis.CompoundVerticalBarExpr;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Replaces || predicates
  * with OR if the given arguments are BOOLEAN
@@ -31,6 +35,11 @@ import org.apache.impala.analysis.CompoundVerticalBarExpr;
 public class ExtractCompoundVerticalBarExprRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new ExtractCompoundVerticalBarExprRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CompoundVerticalBarExpr.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!expr.isAnalyzed()) return expr;
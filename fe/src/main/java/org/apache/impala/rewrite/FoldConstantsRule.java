@@ -20,12 +20,12 @@ package org.apache.impala.rewrite;
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.CastExpr;
 import org.apache.impala.analysis.Expr;
-import org.apache.impala.analysis.LiteralExpr;
 import org.apache.impala.common.AnalysisException;
 
 /**
  * This rule replaces a constant Expr with its equivalent LiteralExpr by evaluating the
- * Expr in the BE. Exprs that are already LiteralExprs are not changed.
+ * Expr with the ConstantExprEvaluator of the query, usually in the BE. Exprs that are
+ * already LiteralExprs are not changed.
  *
  * TODO: Expressions fed into this rule are currently not required to be analyzed
  * in order to support constant folding in expressions that contain unresolved
@@ -63,8 +63,7 @@ public class FoldConstantsRule implements ExprRewriteRule {
       expr.analyze(analyzer);
       if (!expr.isConstant()) return expr;
     }
-    Expr result = LiteralExpr.createBounded(expr, analyzer.getQueryCtx(),
-      LiteralExpr.MAX_STRING_LITERAL_SIZE);
+    Expr result = analyzer.getConstantExprEvaluator().eval(expr);
 
     // Preserve original type so parent Exprs do not need to be re-analyzed.
     if (result != null) return result.castTo(expr.getType());
@@ -17,10 +17,14 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BinaryPredicate;
 import org.apache.impala.analysis.Expr;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Normalizes binary predicates of the form <expr> <op> <slot> so that the slot is
  * on the left hand side. Predicates where <slot> is wrapped in a cast (implicit or
@@ -36,6 +40,11 @@ import org.apache.impala.analysis.Expr;
 public class NormalizeBinaryPredicatesRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new NormalizeBinaryPredicatesRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(BinaryPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!(expr instanceof BinaryPredicate)) return expr;
@@ -17,12 +17,16 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.Expr;
 import org.apache.impala.analysis.FunctionCallExpr;
 import org.apache.impala.analysis.FunctionName;
 import org.apache.impala.analysis.FunctionParams;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Replaces count(<literal>) with an equivalent count{*}.
  *
@@ -34,6 +38,11 @@ import org.apache.impala.analysis.FunctionParams;
 public class NormalizeCountStarRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new NormalizeCountStarRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(FunctionCallExpr.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!(expr instanceof FunctionCallExpr)) return expr;
@@ -17,11 +17,15 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BoolLiteral;
 import org.apache.impala.analysis.CompoundPredicate;
 import org.apache.impala.analysis.Expr;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Normalizes CompoundPredicates by ensuring that if either child of AND or OR is a
  * BoolLiteral, then the left (i.e. first) child is a BoolLiteral.
@@ -32,6 +36,11 @@ import org.apache.impala.analysis.Expr;
 public class NormalizeExprsRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new NormalizeExprsRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CompoundPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!expr.isAnalyzed()) return expr;
@@ -17,6 +17,8 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BinaryPredicate;
 import org.apache.impala.analysis.CastExpr;
@@ -26,6 +28,8 @@ import org.apache.impala.analysis.StringLiteral;
 import org.apache.impala.analysis.TypeDef;
 import org.apache.impala.common.AnalysisException;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Removes redundant explicit string casts (includes String, Char and Varchar
  * types) from binary predicates of the form
@@ -58,6 +62,11 @@ import org.apache.impala.common.AnalysisException;
 public class RemoveRedundantStringCast implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new RemoveRedundantStringCast();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(BinaryPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException {
     if(!(expr instanceof BinaryPredicate)) return expr;
@@ -17,6 +17,8 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.CastExpr;
 import org.apache.impala.analysis.Expr;
@@ -24,6 +26,7 @@ import org.apache.impala.analysis.FunctionCallExpr;
 import org.apache.impala.analysis.FunctionName;
 import org.apache.impala.analysis.TypeDef;
 import org.apache.impala.common.AnalysisException;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 
@@ -40,6 +43,11 @@ import com.google.common.collect.Lists;
 public class SimplifyCastStringToTimestamp implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new SimplifyCastStringToTimestamp();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(CastExpr.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException {
     if (expr instanceof CastExpr &&
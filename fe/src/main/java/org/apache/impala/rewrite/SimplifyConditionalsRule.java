@@ -58,6 +58,12 @@ public class SimplifyConditionalsRule implements ExprRewriteRule {
   private static List<String> IFNULL_ALIASES = ImmutableList.of(
       "ifnull", "isnull", "nvl");
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(
+        FunctionCallExpr.class, CompoundPredicate.class, CaseExpr.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException {
     if (!expr.isAnalyzed()) return expr;
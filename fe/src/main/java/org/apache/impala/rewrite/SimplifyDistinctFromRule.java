@@ -17,11 +17,15 @@
 
 package org.apache.impala.rewrite;
 
+import java.util.List;
+
 import org.apache.impala.analysis.Analyzer;
 import org.apache.impala.analysis.BinaryPredicate;
 import org.apache.impala.analysis.BoolLiteral;
 import org.apache.impala.analysis.Expr;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Simplifies DISTINCT FROM and NOT DISTINCT FROM predicates
  * where the arguments are identical expressions.
@@ -34,6 +38,11 @@ import org.apache.impala.analysis.Expr;
 public class SimplifyDistinctFromRule implements ExprRewriteRule {
   public static ExprRewriteRule INSTANCE = new SimplifyDistinctFromRule();
 
+  @Override
+  public List<Class<? extends Expr>> getMatchedExprClasses() {
+    return ImmutableList.of(BinaryPredicate.class);
+  }
+
   @Override
   public Expr apply(Expr expr, Analyzer analyzer) {
     if (!expr.isAnalyzed()) return expr;
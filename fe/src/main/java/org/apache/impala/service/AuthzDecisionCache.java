@@ -0,0 +1,196 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.service;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.impala.authorization.AuthorizationChecker;
+import org.apache.impala.common.InternalException;
+import org.apache.impala.thrift.TGetCatalogMetricsResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Cache of the authorization decisions that Frontend makes to filter the results of
+ * metadata operations, e.g. SHOW DATABASES, SHOW TABLES or the GetTables() and
+ * GetColumns() HS2 calls. Each decision is cached per user and catalog object.
+ *
+ * Decisions are only valid for the policies they were made with: all cached decisions
+ * are dropped when the authorization checker or the version of its policies changes.
+ * Keys include the owner and the catalog version of the object, so changes of the
+ * object in the catalog don't reuse stale decisions either. Entries expire after a TTL
+ * to bound the staleness of policy changes that don't change the policy version, e.g.
+ * tag updates. The cache is bounded by the number of entries.
+ */
+public class AuthzDecisionCache {
+  private final static Logger LOG = LoggerFactory.getLogger(AuthzDecisionCache.class);
+
+  /**
+   * The kinds of checks that are cached. Each kind uses its own privilege request for
+   * the same object.
+   */
+  public enum CheckType {
+    // The database is visible, i.e. the user has any privilege on any of its columns.
+    DB,
+    // The user has privileges on the whole database.
+    WHOLE_DB,
+    // The table is visible.
+    TABLE,
+    // The column is visible.
+    COLUMN
+  }
+
+  public static class Key {
+    final CheckType type_;
+    final String user_;
+    final String dbName_;
+    final String tblName_;
+    final String colName_;
+    final String owner_;
+    final long catalogVersion_;
+
+    /**
+     * 'tblName', 'colName' and 'owner' may be null. 'catalogVersion' is the version of
+     * the checked object, or 0 if the object has no version.
+     */
+    public Key(CheckType type, String user, String dbName, String tblName,
+        String colName, String owner, long catalogVersion) {
+      type_ = Preconditions.checkNotNull(type);
+      user_ = Preconditions.checkNotNull(user);
+      dbName_ = Preconditions.checkNotNull(dbName);
+      tblName_ = tblName;
+      colName_ = colName;
+      owner_ = owner;
+      catalogVersion_ = catalogVersion;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      return type_ == other.type_ && user_.equals(other.user_)
+          && dbName_.equals(other.dbName_) && Objects.equals(tblName_, other.tblName_)
+          && Objects.equals(colName_, other.colName_)
+          && Objects.equals(owner_, other.owner_)
+          && catalogVersion_ == other.catalogVersion_;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type_, user_, dbName_, tblName_, colName_, owner_,
+          catalogVersion_);
+    }
+  }
+
+  /**
+   * An authorization check whose result can be cached.
+   */
+  @FunctionalInterface
+  public interface Check {
+    boolean check() throws InternalException;
+  }
+
+  private final Cache<Key, Boolean> cache_;
+
+  // The checker and the policy version of the cached decisions.
+  private AuthorizationChecker checker_;
+  private long policyVersion_;
+  // Incremented whenever the cache is cleared. Decisions that were made with an older
+  // generation are not added.
+  private long generation_;
+
+  // Number and total duration of the checks on cache misses.
+  private final AtomicLong numChecks_ = new AtomicLong();
+  private final AtomicLong totalCheckTimeNs_ = new AtomicLong();
+
+  public AuthzDecisionCache(long maxEntries, long ttlSec) {
+    Preconditions.checkArgument(maxEntries > 0);
+    Preconditions.checkArgument(ttlSec > 0);
+    cache_ = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(ttlSec, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    LOG.info("Authorization decision cache configuration: max entries={}, ttl={}s",
+        maxEntries, ttlSec);
+  }
+
+  /**
+   * Returns the cached decision for 'key' if it was made with the current policies of
+   * 'checker'. Otherwise runs 'check' and caches its result.
+   */
+  public boolean isAccessible(AuthorizationChecker checker, Key key, Check check)
+      throws InternalException {
+    long generation = validate(checker);
+    Boolean result = cache_.getIfPresent(key);
+    if (result != null) return result;
+    long startTime = System.nanoTime();
+    result = check.check();
+    numChecks_.incrementAndGet();
+    totalCheckTimeNs_.addAndGet(System.nanoTime() - startTime);
+    synchronized (this) {
+      // Don't cache decisions that were made with policies that changed meanwhile.
+      if (generation == generation_) cache_.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Clears the cache if 'checker' is not the checker of the cached decisions or if its
+   * policies changed. Returns the current generation.
+   */
+  private synchronized long validate(AuthorizationChecker checker) {
+    long policyVersion = checker.getPolicyVersion();
+    if (checker != checker_ || policyVersion != policyVersion_) {
+      if (checker_ != null) {
+        LOG.debug("Authorization policies changed, clearing {} cached decisions",
+            cache_.size());
+      }
+      cache_.invalidateAll();
+      checker_ = checker;
+      policyVersion_ = policyVersion;
+      ++generation_;
+    }
+    return generation_;
+  }
+
+  /**
+   * Sets the hit-rate and latency metrics of this cache in 'metrics'.
+   */
+  public void populateMetrics(TGetCatalogMetricsResult metrics) {
+    CacheStats stats = cache_.stats();
+    metrics.setAuthz_cache_hit_count(stats.hitCount());
+    metrics.setAuthz_cache_miss_count(stats.missCount());
+    metrics.setAuthz_cache_hit_rate(stats.hitRate());
+    long numChecks = numChecks_.get();
+    metrics.setAuthz_cache_avg_check_time(
+        numChecks == 0 ? 0 : (double) totalCheckTimeNs_.get() / numChecks);
+  }
+
+  @VisibleForTesting
+  long size() { return cache_.size(); }
+}
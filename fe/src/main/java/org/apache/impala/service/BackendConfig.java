@@ -95,6 +95,36 @@ public class BackendConfig {
     return backendCfg_.max_nonhdfs_partitions_parallel_load;
   }
 
+  public int maxHdfsFileMetadataLoadingThreads() {
+    return backendCfg_.max_hdfs_file_metadata_loading_threads;
+  }
+
+  public int maxNonHdfsFileMetadataLoadingThreads() {
+    return backendCfg_.max_nonhdfs_file_metadata_loading_threads;
+  }
+
+  public int getFrontendPlanCacheMb() { return backendCfg_.frontend_plan_cache_mb; }
+
+  public int getIcebergManifestCacheMb() {
+    return backendCfg_.iceberg_manifest_cache_mb;
+  }
+
+  public int getKuduTableMetadataCacheTtlS() {
+    return backendCfg_.kudu_table_metadata_cache_ttl_s;
+  }
+
+  public int getHBaseRegionStatsCacheStalenessS() {
+    return backendCfg_.hbase_region_stats_cache_staleness_s;
+  }
+
+  public int getAuthzMetadataCacheSize() {
+    return backendCfg_.authz_metadata_cache_size;
+  }
+
+  public int getAuthzMetadataCacheTtlS() {
+    return backendCfg_.authz_metadata_cache_ttl_s;
+  }
+
   public double getMaxFilterErrorRate() { return backendCfg_.max_filter_error_rate; }
 
   public long getMinBufferSize() { return backendCfg_.min_buffer_size; }
@@ -131,6 +161,10 @@ public class BackendConfig {
     return backendCfg_.catalog_max_parallel_partial_fetch_rpc;
   }
 
+  public int getTopicUpdateParallelism() {
+    return backendCfg_.topic_update_parallelism;
+  }
+
   public long getCatalogPartialFetchRpcQueueTimeoutS() {
     return backendCfg_.catalog_partial_fetch_rpc_queue_timeout_s;
   }
@@ -139,6 +173,14 @@ public class BackendConfig {
     return backendCfg_.hms_event_polling_interval_s;
   }
 
+  public int getHmsEventProcessingThreads() {
+    return backendCfg_.hms_event_processing_threads;
+  }
+
+  public boolean isIncrementalFileMetadataRefreshEnabled() {
+    return backendCfg_.incremental_file_metadata_refresh;
+  }
+
   public boolean isInsertEventsEnabled() { return backendCfg_.enable_insert_events; }
 
   public boolean isOrcScannerEnabled() {
@@ -4085,6 +4085,24 @@ public class CatalogOpExecutor {
    */
   public boolean reloadPartitionIfExists(long eventId, String dbName,
       String tblName, Partition partition, String reason) throws CatalogException {
+    return reloadPartitionsIfExist(eventId, dbName, tblName,
+        Collections.singletonList(partition), reason) > 0;
+  }
+
+  /**
+   * Reloads the given partitions which exist, under a single lock of the table, if the
+   * table has not been removed since the event was generated. Partitions that don't exist
+   * anymore are skipped.
+   * @param eventId EventId being processed.
+   * @param dbName Database name for the partitions
+   * @param tblName Table name for the partitions
+   * @param partitions {@link Partition} objects from the events.
+   * @param reason Reason for reloading the partitions for logging purposes.
+   * @return The number of partitions which were reloaded.
+   * @throws CatalogException
+   */
+  public int reloadPartitionsIfExist(long eventId, String dbName,
+      String tblName, List<Partition> partitions, String reason) throws CatalogException {
     Table table = catalog_.getTable(dbName, tblName);
     if (table == null) {
       DeleteEventLog deleteEventLog = catalog_.getMetastoreEventProcessor()
@@ -4094,7 +4112,7 @@ public class CatalogOpExecutor {
         LOG.info(
             "Not reloading the partition of table {} since it was removed "
                 + "later in catalog", new TableName(dbName, tblName));
-        return false;
+        return 0;
       } else {
         throw new TableNotFoundException(
             "Table " + dbName + "." + tblName + " not found");
@@ -4103,7 +4121,7 @@ public class CatalogOpExecutor {
     if (table instanceof IncompleteTable) {
       LOG.info("Table {} is not loaded. Skipping drop partition event {}",
           table.getFullName(), eventId);
-      return false;
+      return 0;
     }
     if (!(table instanceof HdfsTable)) {
       throw new CatalogException("Partition event received on a non-hdfs table");
@@ -4113,26 +4131,30 @@ public class CatalogOpExecutor {
       long newCatalogVersion = catalog_.incrementAndGetCatalogVersion();
       catalog_.getLock().writeLock().unlock();
       HdfsTable hdfsTable = (HdfsTable) table;
-      List<LiteralExpr> partExprs = hdfsTable
-          .getTypeCompatiblePartValues(partition.getValues());
-      HdfsPartition hdfsPartition = hdfsTable.getPartition(partExprs);
-      if (hdfsPartition == null) {
-        LOG.info("Not reloading the partition {} since it does not exist anymore",
-            FileUtils.makePartName(hdfsTable.getClusteringColNames(),
-                partition.getValues()));
-        return false;
+      int numReloaded = 0;
+      for (Partition partition : partitions) {
+        List<LiteralExpr> partExprs = hdfsTable
+            .getTypeCompatiblePartValues(partition.getValues());
+        HdfsPartition hdfsPartition = hdfsTable.getPartition(partExprs);
+        if (hdfsPartition == null) {
+          LOG.info("Not reloading the partition {} since it does not exist anymore",
+              FileUtils.makePartName(hdfsTable.getClusteringColNames(),
+                  partition.getValues()));
+          continue;
+        }
+        Reference<Boolean> wasPartitionRefreshed = new Reference<>();
+        catalog_.reloadHdfsPartition(hdfsTable, hdfsPartition.getPartitionName(),
+            wasPartitionRefreshed, ThriftObjectType.NONE, reason, newCatalogVersion,
+            hdfsPartition);
+        if (wasPartitionRefreshed.getRef()) {
+          LOG.info("EventId: {} Table {} partition {} has been refreshed", eventId,
+              hdfsTable.getFullName(),
+              FileUtils.makePartName(hdfsTable.getClusteringColNames(),
+                  partition.getValues()));
+          ++numReloaded;
+        }
       }
-      Reference<Boolean> wasPartitionRefreshed = new Reference<>();
-      catalog_.reloadHdfsPartition(hdfsTable, hdfsPartition.getPartitionName(),
-          wasPartitionRefreshed, ThriftObjectType.NONE, reason, newCatalogVersion,
-          hdfsPartition);
-      if (wasPartitionRefreshed.getRef()) {
-        LOG.info("EventId: {} Table {} partition {} has been refreshed", eventId,
-            hdfsTable.getFullName(),
-            FileUtils.makePartName(hdfsTable.getClusteringColNames(),
-                partition.getValues()));
-      }
-      return wasPartitionRefreshed.getRef();
+      return numReloaded;
     } catch (InternalException | UnsupportedEncodingException e) {
       throw new CatalogException(
           "Unable to add partition for table " + table.getFullName(), e);
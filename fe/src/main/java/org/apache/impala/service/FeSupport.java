@@ -206,6 +206,38 @@ public class FeSupport {
     }
   }
 
+  /**
+   * Evaluates a batch of constant exprs of any type in the BE with a single call. The
+   * i-th TColumnValue of the returned TResultRow is the result of the i-th expr.
+   * 'maxResultSize' bounds the size of string results as in EvalExprWithoutRowBounded().
+   * Throws if the evaluation of any of the exprs fails.
+   */
+  public static TResultRow EvalExprBatchWithoutRowBounded(List<Expr> exprs,
+      TQueryCtx queryCtx, int maxResultSize) throws InternalException {
+    TExprBatch exprBatch = new TExprBatch();
+    for (Expr expr: exprs) {
+      Preconditions.checkState(!expr.contains(SlotRef.class));
+      exprBatch.addToExprs(expr.treeToThrift());
+    }
+    TSerializer serializer = new TSerializer(new TBinaryProtocol.Factory());
+    try {
+      byte[] result = EvalExprsWithoutRowBounded(
+          serializer.serialize(exprBatch), serializer.serialize(queryCtx), maxResultSize);
+      Preconditions.checkNotNull(result);
+      TDeserializer deserializer = new TDeserializer(new TBinaryProtocol.Factory());
+      TResultRow val = new TResultRow();
+      deserializer.deserialize(val, result);
+      if (val.getColValsSize() != exprs.size()) {
+        throw new IllegalStateException(String.format("Illegal expr eval result. " +
+            "Expected %d values, got %d", exprs.size(), val.getColValsSize()));
+      }
+      return val;
+    } catch (TException e) {
+      // this should never happen
+      throw new InternalException("couldn't execute a batch of exprs.", e);
+    }
+  }
+
   private static byte[] LookupSymbol(byte[] thriftParams) {
     try {
       return NativeLookupSymbol(thriftParams);
@@ -27,13 +27,16 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ExecutionException;
 
@@ -133,6 +136,7 @@ import org.apache.impala.planner.HdfsScanNode;
 import org.apache.impala.planner.PlanFragment;
 import org.apache.impala.planner.Planner;
 import org.apache.impala.planner.ScanNode;
+import org.apache.impala.service.AuthzDecisionCache.CheckType;
 import org.apache.impala.thrift.TAlterDbParams;
 import org.apache.impala.thrift.TBackendGflags;
 import org.apache.impala.thrift.TCatalogOpRequest;
@@ -149,6 +153,7 @@ import org.apache.impala.thrift.TDescribeOutputStyle;
 import org.apache.impala.thrift.TDescribeResult;
 import org.apache.impala.thrift.TExecRequest;
 import org.apache.impala.thrift.TExplainResult;
+import org.apache.impala.thrift.TFetchMetadataOpRowsRequest;
 import org.apache.impala.thrift.TFinalizeParams;
 import org.apache.impala.thrift.TFunctionCategory;
 import org.apache.impala.thrift.TGetCatalogMetricsResult;
@@ -160,6 +165,7 @@ import org.apache.impala.thrift.TLineageGraph;
 import org.apache.impala.thrift.TLoadDataReq;
 import org.apache.impala.thrift.TLoadDataResp;
 import org.apache.impala.thrift.TCopyTestCaseReq;
+import org.apache.impala.thrift.TMetadataOpPage;
 import org.apache.impala.thrift.TMetadataOpRequest;
 import org.apache.impala.thrift.TPlanExecInfo;
 import org.apache.impala.thrift.TPlanFragment;
@@ -176,6 +182,7 @@ import org.apache.impala.thrift.TStmtType;
 import org.apache.impala.thrift.TTableName;
 import org.apache.impala.thrift.TTruncateParams;
 import org.apache.impala.thrift.TUniqueId;
+import org.apache.impala.thrift.TUnit;
 import org.apache.impala.thrift.TUpdateCatalogCacheRequest;
 import org.apache.impala.thrift.TUpdateCatalogCacheResponse;
 import org.apache.impala.thrift.TUpdateExecutorMembershipRequest;
@@ -310,6 +317,18 @@ public class Frontend {
 
   private final KuduTransactionManager kuduTxnManager_;
 
+  // Cache of query plans, null if disabled. See PlanCache for which queries are cached.
+  private PlanCache planCache_;
+
+  // Cache of the authorization decisions of metadata operations, null if disabled.
+  private AuthzDecisionCache authzDecisionCache_;
+
+  // The open metadata operations whose rows are fetched in pages, by handle. See
+  // openHiveServer2MetadataOp().
+  private final Map<Long, MetadataOp.ResultIterator> metadataOpIterators_ =
+      new ConcurrentHashMap<>();
+  private final AtomicLong nextMetadataOpHandle_ = new AtomicLong();
+
   public Frontend(AuthorizationFactory authzFactory, boolean isBackendTest)
       throws ImpalaException {
     this(authzFactory, FeCatalogManager.createFromBackendConfig(), isBackendTest);
@@ -372,6 +391,27 @@ public class Frontend {
       saml2Client_ = null;
     }
     kuduTxnManager_ = new KuduTransactionManager();
+    int planCacheMb = BackendConfig.INSTANCE.getFrontendPlanCacheMb();
+    if (planCacheMb > 0) {
+      if (authzConfig.isEnabled()) {
+        LOG.warn("Plan cache is disabled because authorization is enabled.");
+      } else {
+        planCache_ = new PlanCache(planCacheMb * 1024L * 1024L);
+      }
+    }
+    int authzCacheSize = BackendConfig.INSTANCE.getAuthzMetadataCacheSize();
+    if (authzConfig.isEnabled() && authzCacheSize > 0) {
+      authzDecisionCache_ = new AuthzDecisionCache(authzCacheSize,
+          BackendConfig.INSTANCE.getAuthzMetadataCacheTtlS());
+    }
+  }
+
+  @VisibleForTesting
+  public void setPlanCache(PlanCache planCache) { planCache_ = planCache; }
+
+  @VisibleForTesting
+  public void setAuthzDecisionCache(AuthzDecisionCache cache) {
+    authzDecisionCache_ = cache;
   }
 
   /**
@@ -828,6 +868,7 @@ public class Frontend {
       resp.num_tables += db.getAllTableNames().size();
     }
     FeCatalogUtils.populateCacheMetrics(getCatalog(), resp);
+    if (authzDecisionCache_ != null) authzDecisionCache_.populateMetrics(resp);
     return resp;
   }
 
@@ -874,21 +915,25 @@ public class Frontend {
     private final String dbName_;
     private final String tblName_;
     private final String owner_;
+    private final long catalogVersion_;
     private final User user_;
 
-    public CheckAuthorization(String dbName, String tblName, String owner, User user) {
+    public CheckAuthorization(String dbName, String tblName, String owner,
+        long catalogVersion, User user) {
       // dbName and user cannot be null, tblName and owner can be null.
       Preconditions.checkNotNull(dbName);
       Preconditions.checkNotNull(user);
       dbName_ = dbName;
       tblName_ = tblName;
       owner_ = owner;
+      catalogVersion_ = catalogVersion;
       user_ = user;
     }
 
     @Override
     public Boolean call() throws Exception {
-      return new Boolean(isAccessibleToUser(dbName_, tblName_, owner_, user_));
+      return new Boolean(
+          isAccessibleToUser(dbName_, tblName_, owner_, catalogVersion_, user_));
     }
   }
 
@@ -963,8 +1008,8 @@ public class Frontend {
           LOG.info("Table {} not yet loaded, ignoring it in table listing.",
             dbName + "." + tblName);
         }
-        pendingCheckTasks.add(checkAuthorizationPool_.submit(
-            new CheckAuthorization(dbName, tblName, tableOwner, user)));
+        pendingCheckTasks.add(checkAuthorizationPool_.submit(new CheckAuthorization(
+            dbName, tblName, tableOwner, table.getCatalogVersion(), user)));
       }
 
       filterUnaccessibleElements(pendingCheckTasks, tblNames);
@@ -990,7 +1035,14 @@ public class Frontend {
             authzFactory_.getAuthorizableFactory())
             .any().onColumn(table.getTableName().getDb(), table.getTableName().getTbl(),
                 colName, table.getOwnerUser()).build();
-        if (!authzChecker_.get().hasAccess(user, privilegeRequest)) continue;
+        AuthorizationChecker checker = authzChecker_.get();
+        AuthzDecisionCache.Key key = new AuthzDecisionCache.Key(CheckType.COLUMN,
+            user.getName(), table.getTableName().getDb(), table.getTableName().getTbl(),
+            colName, table.getOwnerUser(), table.getCatalogVersion());
+        if (!isAccessible(checker, key,
+            () -> checker.hasAccess(user, privilegeRequest))) {
+          continue;
+        }
       }
       columns.add(column);
     }
@@ -1101,7 +1153,7 @@ public class Frontend {
       while (iter.hasNext()) {
         FeDb db = iter.next();
         pendingCheckTasks.add(checkAuthorizationPool_.submit(
-            new CheckAuthorization(db.getName(), null, db.getOwnerUser(), user)));
+            new CheckAuthorization(db.getName(), null, db.getOwnerUser(), 0, user)));
       }
 
       filterUnaccessibleElements(pendingCheckTasks, dbs);
@@ -1140,10 +1192,21 @@ public class Frontend {
   }
 
   /**
-   * Check whether table/database is accessible to given user.
+   * Returns the result of the authorization check 'check' of 'checker'. If the
+   * authorization decision cache is enabled, the result is cached for 'key'.
+   */
+  private boolean isAccessible(AuthorizationChecker checker, AuthzDecisionCache.Key key,
+      AuthzDecisionCache.Check check) throws InternalException {
+    if (authzDecisionCache_ == null) return check.check();
+    return authzDecisionCache_.isAccessible(checker, key, check);
+  }
+
+  /**
+   * Check whether table/database is accessible to given user. 'catalogVersion' is the
+   * version of the table, or 0 for databases.
    */
   private boolean isAccessibleToUser(String dbName, String tblName,
-      String owner, User user) throws InternalException {
+      String owner, long catalogVersion, User user) throws InternalException {
     Preconditions.checkNotNull(dbName);
     if (tblName == null &&
         dbName.toLowerCase().equals(Catalog.DEFAULT_DB.toLowerCase())) {
@@ -1162,7 +1225,12 @@ public class Frontend {
       builder = builder.onAnyColumn(dbName, tblName, owner);
     }
 
-    return authzChecker_.get().hasAnyAccess(user, builder.buildSet());
+    Set<PrivilegeRequest> requests = builder.buildSet();
+    AuthorizationChecker checker = authzChecker_.get();
+    AuthzDecisionCache.Key key = new AuthzDecisionCache.Key(
+        tblName == null ? CheckType.DB : CheckType.TABLE, user.getName(), dbName,
+        tblName, null, owner, catalogVersion);
+    return isAccessible(checker, key, () -> checker.hasAnyAccess(user, requests));
   }
 
   /**
@@ -1189,10 +1257,13 @@ public class Frontend {
     if (db == null) {
       throw new DatabaseNotFoundException("Database '" + dbName + "' not found");
     }
-    PrivilegeRequestBuilder builder = new PrivilegeRequestBuilder(
+    Set<PrivilegeRequest> requests = new PrivilegeRequestBuilder(
         authzFactory_.getAuthorizableFactory()).anyOf(minPrivilegeSetForShowStmts_)
-        .onDb(db);
-    return authzChecker_.get().hasAnyAccess(user, builder.buildSet());
+        .onDb(db).buildSet();
+    AuthorizationChecker checker = authzChecker_.get();
+    AuthzDecisionCache.Key key = new AuthzDecisionCache.Key(CheckType.WHOLE_DB,
+        user.getName(), dbName, null, null, db.getOwnerUser(), 0);
+    return isAccessible(checker, key, () -> checker.hasAnyAccess(user, requests));
   }
 
   /**
@@ -1637,11 +1708,32 @@ public class Frontend {
     LOG.info("Analyzing query: " + queryCtx.client_request.stmt + " db: "
         + queryCtx.session.database);
 
+    // The plan cache is bypassed by tests that need the plan or the descriptor table.
+    PlanCache.Key planCacheKey = null;
+    if (planCache_ != null && !planCtx.planCaptureRequested()
+        && planCtx.serializeDescTbl()) {
+      planCacheKey = PlanCache.createKey(queryCtx,
+          ExecutorMembershipSnapshot.getCluster());
+    }
+    if (planCacheKey != null) {
+      TExecRequest req = planCache_.lookup(planCacheKey, getCatalog());
+      FrontendProfile profile = FrontendProfile.getCurrent();
+      if (req != null) {
+        PlanCache.applyQueryCtx(req, queryCtx);
+        planCtx.explainBuf_.append(req.query_exec_request.query_plan);
+        profile.addToCounter(PlanCache.PROFILE_PREFIX + ".Hits", TUnit.NONE, 1);
+        timeline.markEvent("Reused cached plan");
+        LOG.info("Reused cached plan.");
+        return req;
+      }
+      profile.addToCounter(PlanCache.PROFILE_PREFIX + ".Misses", TUnit.NONE, 1);
+    }
+
     int attempt = 0;
     String retryMsg = "";
     while (true) {
       try {
-        TExecRequest req = doCreateExecRequest(planCtx, timeline);
+        TExecRequest req = doCreateExecRequest(planCtx, planCacheKey, timeline);
         markTimelineRetries(attempt, retryMsg, timeline);
         return req;
       } catch (InconsistentMetadataFetchException e) {
@@ -1662,7 +1754,7 @@ public class Frontend {
   }
 
   private TExecRequest doCreateExecRequest(PlanCtx planCtx,
-      EventSequence timeline) throws ImpalaException {
+      PlanCache.Key planCacheKey, EventSequence timeline) throws ImpalaException {
     TQueryCtx queryCtx = planCtx.getQueryContext();
     // Parse stmt and collect/load metadata to populate a stmt-local table cache
     StatementBase stmt = Parser.parse(
@@ -1800,6 +1892,10 @@ public class Frontend {
         result.query_exec_request.stmt_type = result.stmt_type;
         // fill in the metadata
         result.setResult_set_metadata(createQueryResultSetMetadata(analysisResult));
+        if (planCacheKey != null
+            && !analysisResult.getAnalyzer().planDependsOnQueryCtx()) {
+          planCache_.maybeAdd(planCacheKey, stmtTableCache, result);
+        }
       } else if (analysisResult.isInsertStmt() ||
           analysisResult.isCreateTableAsSelectStmt()) {
         // For CTAS the overall TExecRequest statement type is DDL, but the
@@ -1997,9 +2093,7 @@ public class Frontend {
    */
   public TResultSet execHiveServer2MetadataOp(TMetadataOpRequest request)
       throws ImpalaException {
-    User user = request.isSetSession() ?
-        new User(TSessionStateUtil.getEffectiveUser(request.session)) :
-        ImpalaInternalAdminUser.getInstance();
+    User user = getMetadataOpUser(request);
     switch (request.opcode) {
       case GET_TYPE_INFO: return MetadataOp.getTypeInfo();
       case GET_SCHEMAS: return MetastoreShim.execGetSchemas(this, request, user);
@@ -2017,6 +2111,79 @@ public class Frontend {
     }
   }
 
+  private static User getMetadataOpUser(TMetadataOpRequest request) {
+    return request.isSetSession() ?
+        new User(TSessionStateUtil.getEffectiveUser(request.session)) :
+        ImpalaInternalAdminUser.getInstance();
+  }
+
+  /**
+   * Starts a HiveServer2 metadata operation whose result is fetched in pages and returns
+   * its first page of at most 'request.fetch_size' rows. The rows of GetSchemas,
+   * GetTables, GetColumns and GetFunctions are produced one database at a time while
+   * they are fetched, so the first rows are returned without loading and authorizing
+   * the tables of all databases upfront. The results of other operations are computed
+   * at once. If there are more rows, the page has a handle to fetch them with
+   * fetchHiveServer2MetadataOpRows(). Such operations must be closed with
+   * closeHiveServer2MetadataOp() if not all their rows are fetched.
+   */
+  public TMetadataOpPage openHiveServer2MetadataOp(TMetadataOpRequest request)
+      throws ImpalaException {
+    MetadataOp.ResultIterator rows = MetastoreShim.createMetadataOpIterator(
+        this, request, getMetadataOpUser(request));
+    if (rows == null) {
+      rows = MetadataOp.createResultIterator(execHiveServer2MetadataOp(request));
+    }
+    long handle = nextMetadataOpHandle_.incrementAndGet();
+    metadataOpIterators_.put(handle, rows);
+    return fetchMetadataOpPage(handle, rows, request.getFetch_size());
+  }
+
+  /**
+   * Returns the next rows of a metadata operation opened with
+   * openHiveServer2MetadataOp().
+   */
+  public TMetadataOpPage fetchHiveServer2MetadataOpRows(
+      TFetchMetadataOpRowsRequest request) throws ImpalaException {
+    MetadataOp.ResultIterator rows = metadataOpIterators_.get(request.handle);
+    if (rows == null) {
+      throw new InternalException(
+          "Unknown or closed metadata operation: " + request.handle);
+    }
+    return fetchMetadataOpPage(request.handle, rows, request.max_rows);
+  }
+
+  /**
+   * Closes a metadata operation opened with openHiveServer2MetadataOp(). No-op if the
+   * operation is already closed.
+   */
+  public void closeHiveServer2MetadataOp(long handle) {
+    metadataOpIterators_.remove(handle);
+  }
+
+  /**
+   * Returns the next 'maxRows' rows of the metadata operation 'handle'. Closes the
+   * operation after the last row or if producing the rows fails.
+   */
+  private TMetadataOpPage fetchMetadataOpPage(long handle,
+      MetadataOp.ResultIterator rows, int maxRows) throws ImpalaException {
+    boolean eos = true;
+    try {
+      TResultSet resultSet = new TResultSet();
+      resultSet.setSchema(rows.getSchema());
+      // Concurrent fetches of the same operation are serialized.
+      synchronized (rows) {
+        resultSet.setRows(rows.next(maxRows));
+        eos = !rows.hasNext();
+      }
+      TMetadataOpPage page = new TMetadataOpPage(resultSet, eos);
+      if (!eos) page.setHandle(handle);
+      return page;
+    } finally {
+      if (eos) closeHiveServer2MetadataOp(handle);
+    }
+  }
+
   /**
    * Returns all files info of a table or partition.
    */
@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -34,6 +35,7 @@ import org.apache.impala.catalog.CatalogException;
 import org.apache.impala.catalog.CatalogServiceCatalog;
 import org.apache.impala.catalog.Db;
 import org.apache.impala.catalog.FeDb;
+import org.apache.impala.catalog.FileMetadataLoadScheduler;
 import org.apache.impala.catalog.Function;
 import org.apache.impala.catalog.MetaStoreClientPool;
 import org.apache.impala.catalog.MetaStoreClientPool.MetaStoreClient;
@@ -50,9 +52,11 @@ import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.InternalException;
 import org.apache.impala.common.JniUtil;
 import org.apache.impala.thrift.TCatalogObject;
+import org.apache.impala.thrift.TCatalogTopicUpdatePhaseTimes;
 import org.apache.impala.thrift.TDatabase;
 import org.apache.impala.thrift.TDdlExecRequest;
 import org.apache.impala.thrift.TErrorCode;
+import org.apache.impala.thrift.TFileMetadataLoadPoolMetrics;
 import org.apache.impala.thrift.TFunction;
 import org.apache.impala.thrift.TGetCatalogDeltaResponse;
 import org.apache.impala.thrift.TGetCatalogDeltaRequest;
@@ -358,6 +362,23 @@ public class JniCatalog {
     return res;
   }
 
+  /**
+   * Same as getPartialCatalogObject(byte[]), but the request and the response are passed
+   * in direct buffers that are serialized with TCompactProtocol if 'compact' is true.
+   * Avoids copying large responses between the Java heap and native memory.
+   */
+  public ByteBuffer getPartialCatalogObjectDirect(ByteBuffer thriftParams,
+      boolean compact) throws ImpalaException, TException {
+    long start = System.currentTimeMillis();
+    TGetPartialCatalogObjectRequest req =
+        new TGetPartialCatalogObjectRequest();
+    JniUtil.deserializeThrift(req, thriftParams, compact);
+    ByteBuffer res = JniUtil.serializeToDirectBuffer(
+        catalog_.getPartialCatalogObject(req), compact);
+    JniUtil.logResponse(res.capacity(), start, req, "getPartialCatalogObject");
+    return res;
+  }
+
   /**
    * See comment in CatalogServiceCatalog.
    */
@@ -475,6 +496,14 @@ public class JniCatalog {
     response.setCatalog_partial_fetch_rpc_queue_len(
         catalog_.getPartialFetchRpcQueueLength());
     response.setEvent_metrics(catalog_.getEventProcessorMetrics());
+    TCatalogTopicUpdatePhaseTimes phaseTimes = catalog_.getTopicUpdatePhaseTimes();
+    if (phaseTimes != null) response.setTopic_update_phase_times(phaseTimes);
+    List<TFileMetadataLoadPoolMetrics> loadPoolMetrics =
+        FileMetadataLoadScheduler.getPoolMetrics();
+    if (loadPoolMetrics != null) {
+      response.setFile_metadata_load_pool_metrics(loadPoolMetrics);
+    }
+    response.setUpdate_log_metrics(catalog_.getUpdateLogMetrics());
     TSerializer serializer = new TSerializer(protocolFactory_);
     byte[] res = serializer.serialize(response);
     JniUtil.logResponse(res.length, start, /*thriftReq*/null, "getCatalogServerMetrics");
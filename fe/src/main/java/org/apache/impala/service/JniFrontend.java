@@ -60,6 +60,7 @@ import org.apache.impala.thrift.TDescribeResult;
 import org.apache.impala.thrift.TDescribeTableParams;
 import org.apache.impala.thrift.TDescriptorTable;
 import org.apache.impala.thrift.TExecRequest;
+import org.apache.impala.thrift.TFetchMetadataOpRowsRequest;
 import org.apache.impala.thrift.TFunctionCategory;
 import org.apache.impala.thrift.TGetAllHadoopConfigsResponse;
 import org.apache.impala.thrift.TGetCatalogMetricsResult;
@@ -79,6 +80,7 @@ import org.apache.impala.thrift.TGetTablesResult;
 import org.apache.impala.thrift.TLoadDataReq;
 import org.apache.impala.thrift.TLoadDataResp;
 import org.apache.impala.thrift.TLogLevel;
+import org.apache.impala.thrift.TMetadataOpPage;
 import org.apache.impala.thrift.TMetadataOpRequest;
 import org.apache.impala.thrift.TQueryCompleteContext;
 import org.apache.impala.thrift.TQueryCtx;
@@ -111,6 +113,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.lang.IllegalArgumentException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
@@ -159,13 +162,7 @@ public class JniFrontend {
     Preconditions.checkNotNull(frontend_);
     TQueryCtx queryCtx = new TQueryCtx();
     JniUtil.deserializeThrift(protocolFactory_, queryCtx, thriftQueryContext);
-
-    PlanCtx planCtx = new PlanCtx(queryCtx);
-    TExecRequest result = frontend_.createExecRequest(planCtx);
-    if (LOG.isTraceEnabled()) {
-      String explainStr = planCtx.getExplainString();
-      if (!explainStr.isEmpty()) LOG.trace(explainStr);
-    }
+    TExecRequest result = createExecRequest(queryCtx);
 
     // TODO: avoid creating serializer for each query?
     TSerializer serializer = new TSerializer(protocolFactory_);
@@ -176,6 +173,29 @@ public class JniFrontend {
     }
   }
 
+  /**
+   * Same as createExecRequest(byte[]), but the query context and the result are passed
+   * in direct buffers that are serialized with TCompactProtocol if 'compact' is true.
+   * Avoids copying the messages between the Java heap and native memory.
+   */
+  public ByteBuffer createExecRequestDirect(ByteBuffer thriftQueryContext,
+      boolean compact) throws ImpalaException {
+    Preconditions.checkNotNull(frontend_);
+    TQueryCtx queryCtx = new TQueryCtx();
+    JniUtil.deserializeThrift(queryCtx, thriftQueryContext, compact);
+    return JniUtil.serializeToDirectBuffer(createExecRequest(queryCtx), compact);
+  }
+
+  private TExecRequest createExecRequest(TQueryCtx queryCtx) throws ImpalaException {
+    PlanCtx planCtx = new PlanCtx(queryCtx);
+    TExecRequest result = frontend_.createExecRequest(planCtx);
+    if (LOG.isTraceEnabled()) {
+      String explainStr = planCtx.getExplainString();
+      if (!explainStr.isEmpty()) LOG.trace(explainStr);
+    }
+    return result;
+  }
+
   // Deserialize and merge each thrift catalog update into a single merged update
   public byte[] updateCatalogCache(byte[] req) throws ImpalaException, TException {
     Preconditions.checkNotNull(frontend_);
@@ -596,6 +616,52 @@ public class JniFrontend {
     }
   }
 
+  /**
+   * Starts a HiveServer2 metadata operation whose result is fetched in pages and returns
+   * its first page as a serialized TMetadataOpPage.
+   */
+  public byte[] openHiveServer2MetadataOp(byte[] metadataOpsParams)
+      throws ImpalaException {
+    Preconditions.checkNotNull(frontend_);
+    TMetadataOpRequest params = new TMetadataOpRequest();
+    JniUtil.deserializeThrift(protocolFactory_, params, metadataOpsParams);
+    TMetadataOpPage result = frontend_.openHiveServer2MetadataOp(params);
+
+    TSerializer serializer = new TSerializer(protocolFactory_);
+    try {
+      return serializer.serialize(result);
+    } catch (TException e) {
+      throw new InternalException(e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the next rows of a metadata operation opened with
+   * openHiveServer2MetadataOp() as a serialized TMetadataOpPage.
+   */
+  public byte[] fetchHiveServer2MetadataOpRows(byte[] fetchParams)
+      throws ImpalaException {
+    Preconditions.checkNotNull(frontend_);
+    TFetchMetadataOpRowsRequest params = new TFetchMetadataOpRowsRequest();
+    JniUtil.deserializeThrift(protocolFactory_, params, fetchParams);
+    TMetadataOpPage result = frontend_.fetchHiveServer2MetadataOpRows(params);
+
+    TSerializer serializer = new TSerializer(protocolFactory_);
+    try {
+      return serializer.serialize(result);
+    } catch (TException e) {
+      throw new InternalException(e.getMessage());
+    }
+  }
+
+  /**
+   * Closes a metadata operation opened with openHiveServer2MetadataOp().
+   */
+  public void closeHiveServer2MetadataOp(long handle) {
+    Preconditions.checkNotNull(frontend_);
+    frontend_.closeHiveServer2MetadataOp(handle);
+  }
+
   public void setCatalogIsReady() {
     Preconditions.checkNotNull(frontend_);
     frontend_.getCatalog().setIsReady(true);
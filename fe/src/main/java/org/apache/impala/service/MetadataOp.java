@@ -18,8 +18,12 @@
 package org.apache.impala.service;
 
 import java.sql.DatabaseMetaData;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -354,66 +358,99 @@ public class MetadataOp {
 
     FeCatalog catalog = fe.getCatalog();
     for (FeDb db: fe.getDbs(schemaPatternMatcher, user)) {
-      if (fnPatternMatcher != PatternMatcher.MATCHER_MATCH_NONE) {
-        // Get function metadata
-        List<Function> fns = db.getFunctions(null, fnPatternMatcher);
-        result.functions.add(fns);
+      addDbMetadata(fe, catalog, db, tablePatternMatcher, columnPatternMatcher,
+          fnPatternMatcher, user, result);
+    }
+    return result;
+  }
+
+  /**
+   * Adds the metadata of the tables, columns or functions of 'db' that match the
+   * corresponding matchers to 'result'. See getDbsMetadata().
+   */
+  private static void addDbMetadata(Frontend fe, FeCatalog catalog, FeDb db,
+      PatternMatcher tablePatternMatcher, PatternMatcher columnPatternMatcher,
+      PatternMatcher fnPatternMatcher, User user, DbsMetadata result)
+      throws ImpalaException {
+    if (fnPatternMatcher != PatternMatcher.MATCHER_MATCH_NONE) {
+      // Get function metadata
+      List<Function> fns = db.getFunctions(null, fnPatternMatcher);
+      result.functions.add(fns);
+      return;
+    }
+    // Get table metadata
+    List<String> tableList = Lists.newArrayList();
+    List<List<Column>> tablesColumnsList = Lists.newArrayList();
+    List<String> tableComments = Lists.newArrayList();
+    List<String> tableTypes = Lists.newArrayList();
+    List<List<SQLPrimaryKey>> primaryKeysList = Lists.newArrayList();
+    List<List<SQLForeignKey>> foreignKeysList = Lists.newArrayList();
+    for (String tabName: fe.getTableNames(db.getName(), tablePatternMatcher, user)) {
+      FeTable table;
+      if (columnPatternMatcher == PatternMatcher.MATCHER_MATCH_NONE) {
+        // Don't need to completely load the table meta if columns are not required.
+        table = catalog.getTableIfCachedNoThrow(db.getName(), tabName);
       } else {
-        // Get table metadata
-        List<String> tableList = Lists.newArrayList();
-        List<List<Column>> tablesColumnsList = Lists.newArrayList();
-        List<String> tableComments = Lists.newArrayList();
-        List<String> tableTypes = Lists.newArrayList();
-        List<List<SQLPrimaryKey>> primaryKeysList = Lists.newArrayList();
-        List<List<SQLForeignKey>> foreignKeysList = Lists.newArrayList();
-        for (String tabName: fe.getTableNames(db.getName(), tablePatternMatcher, user)) {
-          FeTable table;
-          if (columnPatternMatcher == PatternMatcher.MATCHER_MATCH_NONE) {
-            // Don't need to completely load the table meta if columns are not required.
-            table = catalog.getTableIfCachedNoThrow(db.getName(), tabName);
-          } else {
-            table = catalog.getTableNoThrow(db.getName(), tabName);
-          }
-          if (table == null) {
-            result.missingTbls.add(new TableName(db.getName(), tabName));
-            continue;
-          }
+        table = catalog.getTableNoThrow(db.getName(), tabName);
+      }
+      if (table == null) {
+        result.missingTbls.add(new TableName(db.getName(), tabName));
+        continue;
+      }
 
-          String comment = getTableComment(table);
-          String tableType = getTableType(table);
-          List<Column> columns = Lists.newArrayList();
-          List<SQLPrimaryKey> primaryKeys = Lists.newArrayList();
-          List<SQLForeignKey> foreignKeys = Lists.newArrayList();
-          // If the table is not yet loaded, the columns will be unknown. Add it
-          // to the set of missing tables.
-          if (!table.isLoaded() || table instanceof FeIncompleteTable) {
-            result.missingTbls.add(new TableName(db.getName(), tabName));
-          } else {
-            columns.addAll(fe.getColumns(table, columnPatternMatcher, user));
-            if (columnPatternMatcher != PatternMatcher.MATCHER_MATCH_NONE) {
-              // It is unnecessary to populate pk/fk information if the request does not
-              // want to match any columns.
-              primaryKeys.addAll(fe.getPrimaryKeys(table, user));
-              foreignKeys.addAll(fe.getForeignKeys(table, user));
-            }
-          }
-          tableList.add(tabName);
-          tablesColumnsList.add(columns);
-          primaryKeysList.add(primaryKeys);
-          foreignKeysList.add(foreignKeys);
-          tableComments.add(Strings.nullToEmpty(comment));
-          tableTypes.add(tableType);
+      String comment = getTableComment(table);
+      String tableType = getTableType(table);
+      List<Column> columns = Lists.newArrayList();
+      List<SQLPrimaryKey> primaryKeys = Lists.newArrayList();
+      List<SQLForeignKey> foreignKeys = Lists.newArrayList();
+      // If the table is not yet loaded, the columns will be unknown. Add it
+      // to the set of missing tables.
+      if (!table.isLoaded() || table instanceof FeIncompleteTable) {
+        result.missingTbls.add(new TableName(db.getName(), tabName));
+      } else {
+        columns.addAll(fe.getColumns(table, columnPatternMatcher, user));
+        if (columnPatternMatcher != PatternMatcher.MATCHER_MATCH_NONE) {
+          // It is unnecessary to populate pk/fk information if the request does not
+          // want to match any columns.
+          primaryKeys.addAll(fe.getPrimaryKeys(table, user));
+          foreignKeys.addAll(fe.getForeignKeys(table, user));
         }
-        result.dbs.add(db.getName());
-        result.tableNames.add(tableList);
-        result.comments.add(tableComments);
-        result.columns.add(tablesColumnsList);
-        result.primaryKeys.add(primaryKeysList);
-        result.foreignKeys.add(foreignKeysList);
-        result.tableTypes.add(tableTypes);
+      }
+      tableList.add(tabName);
+      tablesColumnsList.add(columns);
+      primaryKeysList.add(primaryKeys);
+      foreignKeysList.add(foreignKeys);
+      tableComments.add(Strings.nullToEmpty(comment));
+      tableTypes.add(tableType);
+    }
+    result.dbs.add(db.getName());
+    result.tableNames.add(tableList);
+    result.comments.add(tableComments);
+    result.columns.add(tablesColumnsList);
+    result.primaryKeys.add(primaryKeysList);
+    result.foreignKeys.add(foreignKeysList);
+    result.tableTypes.add(tableTypes);
+  }
+
+  /**
+   * Returns the metadata of the tables, columns or functions of 'db' that match the
+   * corresponding matchers. Retries if the catalog changes in the meantime.
+   */
+  private static DbsMetadata getDbMetadata(Frontend fe, FeDb db,
+      PatternMatcher tablePatternMatcher, PatternMatcher columnPatternMatcher,
+      PatternMatcher fnPatternMatcher, User user) throws ImpalaException {
+    Frontend.RetryTracker retries = new Frontend.RetryTracker(
+        String.format("fetching metadata of database %s", db.getName()));
+    while (true) {
+      try {
+        DbsMetadata result = new DbsMetadata();
+        addDbMetadata(fe, fe.getCatalog(), db, tablePatternMatcher,
+            columnPatternMatcher, fnPatternMatcher, user, result);
+        return result;
+      } catch(InconsistentMetadataFetchException e) {
+        retries.handleRetryOrThrow(e);
       }
     }
-    return result;
   }
 
   public static String getTableType(FeTable table) {
@@ -483,6 +520,18 @@ public class MetadataOp {
     }
 
     TResultSet result = createEmptyResultSet(GET_COLUMNS_MD);
+    addColumnRows(dbsMetadata, result.rows);
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Returning " + result.rows.size() + " table columns");
+    }
+    return result;
+  }
+
+  /**
+   * Adds a GetColumns result row for each column in 'dbsMetadata' to 'rows'.
+   */
+  private static void addColumnRows(DbsMetadata dbsMetadata,
+      Collection<TResultRow> rows) {
     for (int i = 0; i < dbsMetadata.dbs.size(); ++i) {
       String dbName = dbsMetadata.dbs.get(i);
       for (int j = 0; j < dbsMetadata.tableNames.get(i).size(); ++j) {
@@ -521,14 +570,10 @@ public class MetadataOp {
           row.colVals.add(NULL_COL_VAL); // SCOPE_TABLE
           row.colVals.add(NULL_COL_VAL); // SOURCE_DATA_TYPE
           row.colVals.add(createTColumnValue("NO")); // IS_AUTO_INCREMENT
-          result.rows.add(row);
+          rows.add(row);
         }
       }
     }
-    if (LOG.isTraceEnabled()) {
-      LOG.trace("Returning " + result.rows.size() + " table columns");
-    }
-    return result;
   }
 
   /**
@@ -552,6 +597,17 @@ public class MetadataOp {
     return colType.toSql();
   }
 
+  /**
+   * Create a GetSchemas result row for the database 'dbName'.
+   */
+  private static TResultRow createSchemaResultRow(String dbName) {
+    TResultRow row = new TResultRow();
+    row.colVals = Lists.newArrayList();
+    row.colVals.add(createTColumnValue(dbName)); // TABLE_SCHEM
+    row.colVals.add(EMPTY_COL_VAL); // default Hive catalog is an empty string.
+    return row;
+  }
+
   /**
    * Executes the GetSchemas HiveServer2 operation and returns TResultSet.
    * It queries the Impala catalog to return the list of schemas that fit the search
@@ -569,14 +625,7 @@ public class MetadataOp {
         PatternMatcher.MATCHER_MATCH_NONE,
         PatternMatcher.MATCHER_MATCH_NONE, user);
 
-    for (int i = 0; i < dbsMetadata.dbs.size(); ++i) {
-      String dbName = dbsMetadata.dbs.get(i);
-      TResultRow row = new TResultRow();
-      row.colVals = Lists.newArrayList();
-      row.colVals.add(createTColumnValue(dbName)); // TABLE_SCHEM
-      row.colVals.add(EMPTY_COL_VAL); // default Hive catalog is an empty string.
-      result.rows.add(row);
-    }
+    for (String dbName: dbsMetadata.dbs) result.rows.add(createSchemaResultRow(dbName));
 
     if (LOG.isTraceEnabled()) {
       LOG.trace("Returning " + result.rows.size() + " schemas");
@@ -596,17 +645,9 @@ public class MetadataOp {
           throws ImpalaException{
     TResultSet result = createEmptyResultSet(GET_TABLES_MD);
 
-    List<String> upperCaseTableTypes = null;
-    if (tableTypes != null && !tableTypes.isEmpty()) {
-      boolean hasValidTableType = false;
-      upperCaseTableTypes = Lists.newArrayList();
-      for (String tableType : tableTypes) {
-        tableType = tableType.toUpperCase();
-        upperCaseTableTypes.add(tableType);
-        if (tableType.equals(TABLE_TYPE_TABLE)) hasValidTableType = true;
-        if (tableType.equals(TABLE_TYPE_VIEW)) hasValidTableType = true;
-      }
-      if (!hasValidTableType) return result;
+    List<String> upperCaseTableTypes = getUpperCaseTableTypes(tableTypes);
+    if (upperCaseTableTypes != null && !hasValidTableType(upperCaseTableTypes)) {
+      return result;
     }
 
     // Get the list of schemas, tables that satisfy the search conditions.
@@ -616,6 +657,34 @@ public class MetadataOp {
         PatternMatcher.MATCHER_MATCH_NONE,
         PatternMatcher.MATCHER_MATCH_NONE, user);
 
+    addTableRows(dbsMetadata, upperCaseTableTypes, result.rows);
+    if (LOG.isTraceEnabled()) LOG.trace("Returning " + result.rows.size() + " tables");
+    return result;
+  }
+
+  /**
+   * Returns the upper case version of the GetTables 'tableTypes', or null if all table
+   * types are requested.
+   */
+  @Nullable
+  private static List<String> getUpperCaseTableTypes(List<String> tableTypes) {
+    if (tableTypes == null || tableTypes.isEmpty()) return null;
+    List<String> upperCaseTableTypes = Lists.newArrayList();
+    for (String tableType : tableTypes) upperCaseTableTypes.add(tableType.toUpperCase());
+    return upperCaseTableTypes;
+  }
+
+  private static boolean hasValidTableType(List<String> upperCaseTableTypes) {
+    return upperCaseTableTypes.contains(TABLE_TYPE_TABLE)
+        || upperCaseTableTypes.contains(TABLE_TYPE_VIEW);
+  }
+
+  /**
+   * Adds a GetTables result row for each table in 'dbsMetadata' whose type is in
+   * 'upperCaseTableTypes' to 'rows'. All tables match if 'upperCaseTableTypes' is null.
+   */
+  private static void addTableRows(DbsMetadata dbsMetadata,
+      @Nullable List<String> upperCaseTableTypes, Collection<TResultRow> rows) {
     for (int i = 0; i < dbsMetadata.dbs.size(); ++i) {
       String dbName = dbsMetadata.dbs.get(i);
       for (int j = 0; j < dbsMetadata.tableNames.get(i).size(); ++j) {
@@ -630,11 +699,9 @@ public class MetadataOp {
         row.colVals.add(createTColumnValue(tabName));
         row.colVals.add(createTColumnValue(tableType));
         row.colVals.add(createTColumnValue(dbsMetadata.comments.get(i).get(j)));
-        result.rows.add(row);
+        rows.add(row);
       }
     }
-    if (LOG.isTraceEnabled()) LOG.trace("Returning " + result.rows.size() + " tables");
-    return result;
   }
 
   /**
@@ -853,6 +920,160 @@ public class MetadataOp {
     return result;
   }
 
+  /**
+   * Produces the rows of a metadata operation for one database.
+   */
+  @FunctionalInterface
+  private interface DbRowProducer {
+    void addRows(FeDb db, Collection<TResultRow> rows) throws ImpalaException;
+  }
+
+  /**
+   * Iterates over the result rows of a metadata operation, see createResultIterator().
+   * The rows are produced one database at a time when they are fetched, so the tables of
+   * a database are only listed, authorized and, for GetColumns, loaded once all rows of
+   * the previous databases were fetched. Not thread-safe.
+   */
+  public static class ResultIterator {
+    private final TResultSetMetadata schema_;
+    // The databases whose rows were not produced yet.
+    private final Iterator<? extends FeDb> dbs_;
+    private final DbRowProducer producer_;
+    // Produced rows that were not fetched yet.
+    private final ArrayDeque<TResultRow> rows_ = new ArrayDeque<>();
+
+    private ResultIterator(TResultSetMetadata schema, List<? extends FeDb> dbs,
+        DbRowProducer producer) {
+      schema_ = schema;
+      dbs_ = dbs.iterator();
+      producer_ = producer;
+    }
+
+    /**
+     * Creates an iterator over the already computed rows of 'resultSet'.
+     */
+    private ResultIterator(TResultSet resultSet) {
+      this(resultSet.getSchema(), Collections.<FeDb>emptyList(), null);
+      rows_.addAll(resultSet.getRows());
+    }
+
+    public TResultSetMetadata getSchema() { return schema_; }
+
+    /**
+     * Returns true if there are more rows. Produces the rows of the next databases until
+     * one of them has rows.
+     */
+    public boolean hasNext() throws ImpalaException {
+      while (rows_.isEmpty() && dbs_.hasNext()) producer_.addRows(dbs_.next(), rows_);
+      return !rows_.isEmpty();
+    }
+
+    /**
+     * Returns the next 'maxRows' rows, or less if there are no more rows. Returns all
+     * remaining rows if 'maxRows' is not positive.
+     */
+    public List<TResultRow> next(int maxRows) throws ImpalaException {
+      List<TResultRow> result = new ArrayList<>();
+      while ((maxRows <= 0 || result.size() < maxRows) && hasNext()) {
+        result.add(rows_.poll());
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns an iterator over the result of the GetColumns operation, see getColumns().
+   * Missing tables are loaded for each database separately.
+   */
+  public static ResultIterator createGetColumnsIterator(Frontend fe,
+      String catalogName, String schemaName, String tableName, String columnName,
+      User user) throws ImpalaException {
+    if (!isEmptyPattern(catalogName)) return createEmptyIterator(GET_COLUMNS_MD);
+    PatternMatcher tableMatcher = PatternMatcher.createJdbcPatternMatcher(tableName);
+    PatternMatcher columnMatcher = PatternMatcher.createJdbcPatternMatcher(columnName);
+    return new ResultIterator(GET_COLUMNS_MD,
+        fe.getDbs(PatternMatcher.createJdbcPatternMatcher(schemaName), user),
+        (db, rows) -> {
+          DbsMetadata dbsMetadata = getDbMetadata(fe, db, tableMatcher, columnMatcher,
+              PatternMatcher.MATCHER_MATCH_NONE, user);
+          if (!dbsMetadata.missingTbls.isEmpty()) {
+            // Need to load tables for column metadata.
+            StmtMetadataLoader mdLoader =
+                new StmtMetadataLoader(fe, Catalog.DEFAULT_DB, null);
+            mdLoader.loadTables(dbsMetadata.missingTbls);
+            dbsMetadata = getDbMetadata(fe, db, tableMatcher, columnMatcher,
+                PatternMatcher.MATCHER_MATCH_NONE, user);
+          }
+          addColumnRows(dbsMetadata, rows);
+        });
+  }
+
+  /**
+   * Returns an iterator over the result of the GetSchemas operation, see getSchemas().
+   */
+  public static ResultIterator createGetSchemasIterator(Frontend fe,
+      String catalogName, String schemaName, User user) throws ImpalaException {
+    if (!isEmptyPattern(catalogName)) return createEmptyIterator(GET_SCHEMAS_MD);
+    return new ResultIterator(GET_SCHEMAS_MD,
+        fe.getDbs(PatternMatcher.createJdbcPatternMatcher(schemaName), user),
+        (db, rows) -> rows.add(createSchemaResultRow(db.getName())));
+  }
+
+  /**
+   * Returns an iterator over the result of the GetTables operation, see getTables().
+   */
+  public static ResultIterator createGetTablesIterator(Frontend fe,
+      String catalogName, String schemaName, String tableName, List<String> tableTypes,
+      User user) throws ImpalaException {
+    List<String> upperCaseTableTypes = getUpperCaseTableTypes(tableTypes);
+    if (!isEmptyPattern(catalogName) || (upperCaseTableTypes != null
+        && !hasValidTableType(upperCaseTableTypes))) {
+      return createEmptyIterator(GET_TABLES_MD);
+    }
+    PatternMatcher tableMatcher = PatternMatcher.createJdbcPatternMatcher(tableName);
+    return new ResultIterator(GET_TABLES_MD,
+        fe.getDbs(PatternMatcher.createJdbcPatternMatcher(schemaName), user),
+        (db, rows) -> addTableRows(getDbMetadata(fe, db, tableMatcher,
+            PatternMatcher.MATCHER_MATCH_NONE, PatternMatcher.MATCHER_MATCH_NONE, user),
+            upperCaseTableTypes, rows));
+  }
+
+  /**
+   * Returns an iterator over the result of the GetFunctions operation, see
+   * getFunctions().
+   */
+  public static ResultIterator createGetFunctionsIterator(Frontend fe,
+      String catalogName, String schemaName, String functionName, User user)
+      throws ImpalaException {
+    // Impala's built-in functions do not have a catalog name or schema name.
+    if (!isEmptyPattern(catalogName) || !isEmptyPattern(schemaName)) {
+      return createEmptyIterator(GET_FUNCTIONS_MD);
+    }
+    PatternMatcher fnMatcher = PatternMatcher.createJdbcPatternMatcher(functionName);
+    return new ResultIterator(GET_FUNCTIONS_MD,
+        fe.getDbs(PatternMatcher.createJdbcPatternMatcher(schemaName), user),
+        (db, rows) -> {
+          DbsMetadata dbsMetadata = getDbMetadata(fe, db,
+              PatternMatcher.MATCHER_MATCH_NONE, PatternMatcher.MATCHER_MATCH_NONE,
+              fnMatcher, user);
+          for (List<Function> fns: dbsMetadata.functions) {
+            for (Function fn: fns) rows.add(createFunctionResultRow(fn));
+          }
+        });
+  }
+
+  /**
+   * Returns an iterator over the rows of 'resultSet'. Used for the metadata operations
+   * whose results are not produced incrementally.
+   */
+  public static ResultIterator createResultIterator(TResultSet resultSet) {
+    return new ResultIterator(resultSet);
+  }
+
+  private static ResultIterator createEmptyIterator(TResultSetMetadata metadata) {
+    return new ResultIterator(createEmptyResultSet(metadata));
+  }
+
   /**
    * Return result row corresponding to the input type.
    */
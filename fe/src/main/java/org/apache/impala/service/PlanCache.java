@@ -0,0 +1,266 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.service;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.impala.analysis.StmtMetadataLoader.StmtTableCache;
+import org.apache.impala.analysis.TableName;
+import org.apache.impala.catalog.Catalog;
+import org.apache.impala.catalog.FeCatalog;
+import org.apache.impala.catalog.FeFsTable;
+import org.apache.impala.catalog.FeTable;
+import org.apache.impala.catalog.FeView;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.JniUtil;
+import org.apache.impala.thrift.TExecRequest;
+import org.apache.impala.thrift.TQueryCtx;
+import org.apache.impala.thrift.TQueryOptions;
+import org.apache.impala.util.AcidUtils;
+import org.apache.impala.util.ExecutorMembershipSnapshot;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Coordinator-side cache of the TExecRequests of queries, used by Frontend to skip
+ * parsing, analysis and planning of statements that are run repeatedly.
+ *
+ * Entries are keyed by the normalized statement text, the session database, the
+ * query options and the version of the executor membership, since the planner sizes
+ * fragments for the number of executors. Entries record the catalog versions of all the
+ * tables and views that the statement references. An entry is only reused if none of
+ * those versions changed since it was added; stale entries are dropped when they are
+ * looked up. The cache is bounded by the size of the serialized requests.
+ *
+ * Only queries whose plan is a function of the statement, the catalog and the cluster
+ * are cached: the statement must be a SELECT on HDFS or Iceberg tables and views that
+ * are not transactional. Frontend doesn't add plans for which the analysis found
+ * inputs from the query context, see Analyzer.planDependsOnQueryCtx(), e.g. UDFs,
+ * nondeterministic builtins, builtins like now() or user() that are folded at plan
+ * time, or TABLESAMPLE without REPEATABLE. Frontend does not use the cache if
+ * authorization is enabled because privileges, column masks and row filters are
+ * resolved during analysis.
+ */
+public class PlanCache {
+  private final static Logger LOG = LoggerFactory.getLogger(PlanCache.class);
+
+  // Prefix of the counters that are added to the query profile.
+  public static final String PROFILE_PREFIX = "PlanCache";
+
+  // Approximate heap overhead of an entry on top of the serialized request.
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  /**
+   * Identifies a statement together with the inputs to its planning that are not
+   * covered by the table versions.
+   */
+  public static class Key {
+    final String stmt_;
+    final String database_;
+    final TQueryOptions queryOptions_;
+    final long membershipVersion_;
+
+    Key(String stmt, String database, TQueryOptions queryOptions,
+        long membershipVersion) {
+      stmt_ = Preconditions.checkNotNull(stmt);
+      database_ = database;
+      queryOptions_ = queryOptions;
+      membershipVersion_ = membershipVersion;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      return stmt_.equals(other.stmt_) && Objects.equals(database_, other.database_)
+          && Objects.equals(queryOptions_, other.queryOptions_)
+          && membershipVersion_ == other.membershipVersion_;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stmt_, database_, queryOptions_, membershipVersion_);
+    }
+  }
+
+  private static class Entry {
+    // Catalog versions of the referenced tables and views when the plan was created.
+    final ImmutableMap<TableName, Long> tableVersions_;
+    // The compact serialized TExecRequest. Deserializing gives each hit its own copy.
+    final byte[] serializedRequest_;
+
+    Entry(ImmutableMap<TableName, Long> tableVersions, byte[] serializedRequest) {
+      tableVersions_ = tableVersions;
+      serializedRequest_ = serializedRequest;
+    }
+
+    int getWeight() {
+      return serializedRequest_.length + ENTRY_OVERHEAD_BYTES;
+    }
+  }
+
+  private final Cache<Key, Entry> cache_;
+
+  public PlanCache(long capacityBytes) {
+    Preconditions.checkArgument(capacityBytes > 0);
+    cache_ = CacheBuilder.newBuilder()
+        .maximumWeight(capacityBytes)
+        .weigher((Key k, Entry e) -> e.getWeight() + 2 * k.stmt_.length())
+        .recordStats()
+        .build();
+    LOG.info("Plan cache configuration: capacity={} MB", capacityBytes / 1024 / 1024);
+  }
+
+  /**
+   * Returns the cache key of the statement of 'queryCtx' planned for the executors of
+   * 'cluster'. Must be called before planning because the planner adjusts the query
+   * options.
+   */
+  public static Key createKey(TQueryCtx queryCtx, ExecutorMembershipSnapshot cluster) {
+    return new Key(normalize(queryCtx.client_request.stmt), queryCtx.session.database,
+        queryCtx.client_request.query_options.deepCopy(), cluster.getVersion());
+  }
+
+  /**
+   * Collapses runs of whitespace outside of quoted strings and identifiers into a single
+   * space. Line comments are kept with their terminating newline so that statements
+   * that differ in what the comment hides don't share a key.
+   */
+  @VisibleForTesting
+  static String normalize(String stmt) {
+    StringBuilder sb = new StringBuilder(stmt.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < stmt.length(); ++i) {
+      char c = stmt.charAt(i);
+      if (quote != 0) {
+        sb.append(c);
+        if (c == '\\' && i + 1 < stmt.length()) {
+          sb.append(stmt.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        pendingSpace = sb.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        sb.append(' ');
+        pendingSpace = false;
+      }
+      if (c == '-' && i + 1 < stmt.length() && stmt.charAt(i + 1) == '-') {
+        int end = stmt.indexOf('\n', i);
+        if (end < 0) end = stmt.length() - 1;
+        sb.append(stmt, i, end + 1);
+        i = end;
+        continue;
+      }
+      if (c == '\'' || c == '"' || c == '`') quote = c;
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns a copy of the cached request for 'key' if the referenced tables of the
+   * entry still have the same catalog versions in 'catalog', or null otherwise.
+   */
+  public TExecRequest lookup(Key key, FeCatalog catalog) throws ImpalaException {
+    Entry entry = cache_.getIfPresent(key);
+    if (entry == null) return null;
+    for (Map.Entry<TableName, Long> e : entry.tableVersions_.entrySet()) {
+      FeTable tbl = catalog.getTableIfCachedNoThrow(e.getKey().getDb(),
+          e.getKey().getTbl());
+      if (tbl == null || tbl.getCatalogVersion() != e.getValue()) {
+        LOG.trace("Dropping cached plan, {} changed", e.getKey());
+        cache_.invalidate(key);
+        return null;
+      }
+    }
+    TExecRequest request = new TExecRequest();
+    JniUtil.deserializeThrift(new TCompactProtocol.Factory(), request,
+        entry.serializedRequest_);
+    return request;
+  }
+
+  /**
+   * Adds the planned query 'request' for 'key' if it only depends on the statement
+   * and the versions of the tables in 'stmtTableCache'. The caller must have checked
+   * that the plan doesn't depend on the query context.
+   */
+  public void maybeAdd(Key key, StmtTableCache stmtTableCache, TExecRequest request)
+      throws ImpalaException {
+    // The lineage graph records the query id, the user and the start time.
+    if (request.query_exec_request.isSetLineage_graph()) return;
+    ImmutableMap.Builder<TableName, Long> tableVersions = ImmutableMap.builder();
+    for (Map.Entry<TableName, FeTable> e : stmtTableCache.tables.entrySet()) {
+      FeTable tbl = e.getValue();
+      if (!isCacheable(tbl)) return;
+      tableVersions.put(e.getKey(), tbl.getCatalogVersion());
+    }
+    byte[] serializedRequest =
+        JniUtil.serializeToThrift(request, new TCompactProtocol.Factory());
+    cache_.put(key, new Entry(tableVersions.build(), serializedRequest));
+  }
+
+  private static boolean isCacheable(FeTable tbl) {
+    if (tbl.getCatalogVersion() == Catalog.INITIAL_CATALOG_VERSION) return false;
+    // The definitions of views are analyzed with the statement.
+    if (tbl instanceof FeView) return true;
+    // Scan ranges of other table types depend on state outside of the catalog, e.g.
+    // Kudu tablets or HBase regions.
+    if (!(tbl instanceof FeFsTable)) return false;
+    return !AcidUtils.isTransactionalTable(tbl.getMetaStoreTable().getParameters());
+  }
+
+  /**
+   * Copies the fields of the query context that planning filled in from the cached
+   * 'request' to 'queryCtx' and makes 'queryCtx' the context of 'request'. All the
+   * other fields, e.g. the query id and the session, are taken from 'queryCtx'.
+   */
+  public static void applyQueryCtx(TExecRequest request, TQueryCtx queryCtx) {
+    TQueryCtx plannedCtx = request.query_exec_request.query_ctx;
+    // The planner may have adjusted the query options, e.g. for small queries.
+    queryCtx.client_request.setQuery_options(plannedCtx.client_request.query_options);
+    queryCtx.setDesc_tbl_serialized(plannedCtx.desc_tbl_serialized);
+    queryCtx.setTables_missing_stats(plannedCtx.tables_missing_stats);
+    queryCtx.setTables_with_corrupt_stats(plannedCtx.tables_with_corrupt_stats);
+    queryCtx.setTables_missing_diskids(plannedCtx.tables_missing_diskids);
+    queryCtx.setDisable_spilling(plannedCtx.disable_spilling);
+    queryCtx.setDisable_codegen_hint(plannedCtx.disable_codegen_hint);
+    request.setQuery_options(queryCtx.client_request.query_options);
+    request.query_exec_request.setQuery_ctx(queryCtx);
+  }
+
+  public CacheStats getStats() { return cache_.stats(); }
+
+  @VisibleForTesting
+  long size() { return cache_.size(); }
+}
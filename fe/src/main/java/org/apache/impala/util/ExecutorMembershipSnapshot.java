@@ -18,6 +18,7 @@
 package org.apache.impala.util;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.impala.service.BackendConfig;
@@ -32,6 +33,9 @@ import com.google.common.collect.Sets;
  * so that clients don't need to hold a lock while examining a snapshot.
  */
 public class ExecutorMembershipSnapshot {
+  // Source of the versions of the snapshots. Must be initialized before 'cluster_'.
+  private static final AtomicLong NEXT_VERSION = new AtomicLong();
+
   // The latest instance of the ExecutorMembershipSnapshot.
   private static AtomicReference<ExecutorMembershipSnapshot> cluster_ =
       new AtomicReference<ExecutorMembershipSnapshot>(new ExecutorMembershipSnapshot());
@@ -59,6 +63,10 @@ public class ExecutorMembershipSnapshot {
   // eventually come online to execute queries.
   private final int numExecutors_;
 
+  // Increases with every update of the membership. Identifies the membership that a plan
+  // was created for.
+  private final long version_ = NEXT_VERSION.getAndIncrement();
+
   // Used only to construct the initial ExecutorMembershipSnapshot.
   private ExecutorMembershipSnapshot() {
     hostnames_ = Sets.newHashSet();
@@ -99,6 +107,8 @@ public class ExecutorMembershipSnapshot {
     return numExecutors_;
   }
 
+  public long getVersion() { return version_; }
+
   // Atomically update the singleton snapshot instance.  After the update completes,
   // all calls to getCluster() will return the new snapshot.
   public static void update(TUpdateExecutorMembershipRequest request) {
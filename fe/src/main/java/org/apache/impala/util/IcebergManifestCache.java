@@ -0,0 +1,254 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.ManifestEvaluator;
+import org.apache.iceberg.expressions.Projections;
+import org.apache.iceberg.expressions.UnboundPredicate;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.impala.analysis.TimeTravelSpec;
+import org.apache.impala.catalog.FeIcebergTable;
+import org.apache.impala.catalog.TableLoadingException;
+import org.apache.impala.service.BackendConfig;
+import org.apache.impala.thrift.TUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Coordinator-side cache of the parsed entries of Iceberg manifests, used to plan the
+ * data files of Iceberg scans without reading the manifests from storage again.
+ *
+ * Manifest files are immutable, so an entry is keyed by the path of the manifest and
+ * the id of the snapshot that wrote it, and stays valid for all later snapshots that
+ * reference the same manifest. Only the manifest list of the scanned snapshot is read
+ * from the table metadata on each planning. Each entry holds the live data files of a
+ * manifest with their partition data and column metrics, which planFiles() evaluates
+ * the scan predicates against in memory, in the same way as Iceberg's TableScan. The
+ * cache is bounded by the estimated heap size of the data files.
+ */
+public class IcebergManifestCache extends
+    PlanningMetadataCache<IcebergManifestCache.Key, IcebergManifestCache.Entry> {
+  private final static Logger LOG = LoggerFactory.getLogger(IcebergManifestCache.class);
+
+  // Approximate heap overhead of a data file, excluding its path and metrics.
+  private static final int DATA_FILE_OVERHEAD_BYTES = 256;
+  // Approximate heap size of an entry of the per-column metrics maps of a data file.
+  private static final int METRICS_ENTRY_BYTES = 64;
+
+  // The default case-sensitivity of Iceberg's TableScan.
+  private static final boolean CASE_SENSITIVE = true;
+
+  private static class InstanceHolder {
+    // Null if the cache is disabled by --iceberg_manifest_cache_mb.
+    static final IcebergManifestCache INSTANCE = create();
+
+    private static IcebergManifestCache create() {
+      int capacityMb = BackendConfig.INSTANCE.getIcebergManifestCacheMb();
+      return capacityMb > 0 ? new IcebergManifestCache(capacityMb * 1024L * 1024L) : null;
+    }
+  }
+
+  /**
+   * Identifies a manifest by its path and the id of the snapshot that added it.
+   */
+  static class Key {
+    final String path_;
+    final Long snapshotId_;
+
+    Key(ManifestFile manifest) {
+      path_ = Preconditions.checkNotNull(manifest.path());
+      snapshotId_ = manifest.snapshotId();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      return path_.equals(other.path_) && Objects.equals(snapshotId_, other.snapshotId_);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(path_, snapshotId_); }
+  }
+
+  static class Entry {
+    // The live data files of the manifest, i.e. without deleted entries.
+    final ImmutableList<DataFile> dataFiles_;
+    final int weight_;
+
+    Entry(ImmutableList<DataFile> dataFiles) {
+      dataFiles_ = dataFiles;
+      long weight = 0;
+      for (DataFile file : dataFiles) weight += estimateSize(file);
+      weight_ = (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+  }
+
+  @VisibleForTesting
+  public IcebergManifestCache(long capacityBytes) {
+    super("IcebergManifestCache", CacheBuilder.newBuilder()
+        .maximumWeight(capacityBytes)
+        .weigher((Key k, Entry e) -> e.weight_ + 2 * k.path_.length())
+        .recordStats()
+        .build());
+    Preconditions.checkArgument(capacityBytes > 0);
+    LOG.info("Iceberg manifest cache configuration: capacity={} MB",
+        capacityBytes / 1024 / 1024);
+  }
+
+  /**
+   * Returns the cache of this process, or null if it is disabled by
+   * --iceberg_manifest_cache_mb.
+   */
+  public static IcebergManifestCache get() { return InstanceHolder.INSTANCE; }
+
+  /**
+   * Returns the data files of the snapshot of 'table' selected by 'timeTravelSpec' that
+   * may contain rows matching 'predicates'. Returns the same files as
+   * IcebergUtil.getIcebergDataFiles(), but reads the manifests through the cache.
+   */
+  public List<DataFile> planFiles(FeIcebergTable table,
+      List<UnboundPredicate> predicates, TimeTravelSpec timeTravelSpec)
+      throws TableLoadingException {
+    if (table.snapshotId() == -1) return Collections.emptyList();
+    Table iceTable = IcebergUtil.loadTable(table);
+    // Resolves the snapshot with the same checks and errors as the uncached path.
+    Snapshot snapshot = IcebergUtil.createScanAsOf(table, iceTable, timeTravelSpec)
+        .snapshot();
+    if (snapshot == null) return Collections.emptyList();
+
+    Expression rowFilter = Expressions.alwaysTrue();
+    for (UnboundPredicate predicate : predicates) {
+      rowFilter = Expressions.and(rowFilter, predicate);
+    }
+    InclusiveMetricsEvaluator metricsEvaluator =
+        new InclusiveMetricsEvaluator(iceTable.schema(), rowFilter, CASE_SENSITIVE);
+    Map<Integer, PartitionSpec> specsById = iceTable.specs();
+
+    long numHits = 0;
+    long numMisses = 0;
+    long hitBytes = 0;
+    long missBytes = 0;
+    List<DataFile> dataFiles = new ArrayList<>();
+    // Delete manifests list delete files, which ManifestFiles.read() can't parse.
+    for (ManifestFile manifest : snapshot.dataManifests()) {
+      PartitionSpec spec = specsById.get(manifest.partitionSpecId());
+      Preconditions.checkNotNull(spec, "Unknown partition spec %s of manifest %s",
+          manifest.partitionSpecId(), manifest.path());
+      // Skips manifests whose partition ranges can't match, like TableScan does.
+      if (!ManifestEvaluator.forRowFilter(rowFilter, spec, CASE_SENSITIVE)
+          .eval(manifest)) {
+        continue;
+      }
+      Key key = new Key(manifest);
+      Entry entry = cache_.getIfPresent(key);
+      if (entry != null) {
+        ++numHits;
+        hitBytes += manifest.length();
+      } else {
+        ++numMisses;
+        missBytes += manifest.length();
+        entry = load(iceTable, key, manifest, specsById);
+      }
+      Evaluator partitionEvaluator = new Evaluator(spec.partitionType(),
+          Projections.inclusive(spec, CASE_SENSITIVE).project(rowFilter),
+          CASE_SENSITIVE);
+      for (DataFile file : entry.dataFiles_) {
+        if (partitionEvaluator.eval(file.partition()) && metricsEvaluator.eval(file)) {
+          dataFiles.add(file);
+        }
+      }
+    }
+
+    addHitsAndMisses(numHits, numMisses);
+    addToProfile("HitBytes", TUnit.BYTES, hitBytes);
+    addToProfile("MissBytes", TUnit.BYTES, missBytes);
+    return dataFiles;
+  }
+
+  /**
+   * Reads the live data files of 'manifest' and adds them to the cache. Concurrent
+   * loads of the same manifest read it only once.
+   */
+  private Entry load(Table iceTable, Key key, ManifestFile manifest,
+      Map<Integer, PartitionSpec> specsById) throws TableLoadingException {
+    try {
+      return cache_.get(key, () -> {
+        ImmutableList.Builder<DataFile> dataFiles = ImmutableList.builder();
+        try (CloseableIterable<DataFile> files =
+            ManifestFiles.read(manifest, iceTable.io(), specsById)) {
+          // The reader may reuse the objects it returns.
+          for (DataFile file : files) dataFiles.add(file.copy());
+        }
+        return new Entry(dataFiles.build());
+      });
+    } catch (ExecutionException e) {
+      throw new TableLoadingException(
+          "Failed to read Iceberg manifest " + manifest.path(), e.getCause());
+    }
+  }
+
+  /**
+   * Returns the estimated heap size of 'file', dominated by its path and the
+   * per-column metrics that are evaluated against the predicates.
+   */
+  private static long estimateSize(DataFile file) {
+    long size = DATA_FILE_OVERHEAD_BYTES + 2L * file.path().length();
+    size += metricsSize(file.columnSizes());
+    size += metricsSize(file.valueCounts());
+    size += metricsSize(file.nullValueCounts());
+    size += boundsSize(file.lowerBounds());
+    size += boundsSize(file.upperBounds());
+    return size;
+  }
+
+  private static long metricsSize(Map<Integer, Long> metrics) {
+    return metrics == null ? 0 : (long) metrics.size() * METRICS_ENTRY_BYTES;
+  }
+
+  private static long boundsSize(Map<Integer, ByteBuffer> bounds) {
+    if (bounds == null) return 0;
+    long size = (long) bounds.size() * METRICS_ENTRY_BYTES;
+    for (ByteBuffer value : bounds.values()) size += value.capacity();
+    return size;
+  }
+}
@@ -27,11 +27,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
@@ -50,6 +54,7 @@ import org.apache.iceberg.expressions.UnboundPredicate;
 import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableMetadata;
@@ -524,9 +529,73 @@ public class IcebergUtil {
     return dataFileList;
   }
 
+  /**
+   * Data files added and removed between two snapshots of an Iceberg table.
+   */
+  public static class DataFileDelta {
+    // Data files added after the older snapshot, keyed by their path hash.
+    public final Map<String, DataFile> addedFiles = new HashMap<>();
+    // Path hashes of the data files removed after the older snapshot. A file that was
+    // removed and added again is in both collections.
+    public final Set<String> removedPathHashes = new HashSet<>();
+  }
+
+  /**
+   * Computes the data files added and removed between snapshot 'fromSnapshotId' and
+   * the current snapshot of 'table' from the manifests written by the snapshots in
+   * between. Returns null if 'fromSnapshotId' is not an ancestor of the current
+   * snapshot, e.g. after a rollback, or if a snapshot in between has expired.
+   */
+  public static DataFileDelta getDataFileDelta(FeIcebergTable table,
+      long fromSnapshotId) throws TableLoadingException {
+    Preconditions.checkState(table.snapshotId() != -1);
+    return getDataFileDelta(IcebergUtil.loadTable(table), fromSnapshotId,
+        table.snapshotId());
+  }
+
+  /**
+   * Computes the data files added and removed between snapshots 'fromSnapshotId' and
+   * 'toSnapshotId' of 'iceTable', see above.
+   */
+  @VisibleForTesting
+  static DataFileDelta getDataFileDelta(Table iceTable, long fromSnapshotId,
+      long toSnapshotId) {
+    List<Snapshot> snapshots = new ArrayList<>();
+    Snapshot snapshot = iceTable.snapshot(toSnapshotId);
+    while (snapshot != null && snapshot.snapshotId() != fromSnapshotId) {
+      snapshots.add(snapshot);
+      Long parentId = snapshot.parentId();
+      snapshot = parentId == null ? null : iceTable.snapshot(parentId);
+    }
+    if (snapshot == null) return null;
+
+    // Replay the changes from the oldest to the newest snapshot.
+    DataFileDelta delta = new DataFileDelta();
+    for (Snapshot s : Lists.reverse(snapshots)) {
+      for (DataFile file : s.deletedFiles()) {
+        String pathHash = getDataFilePathHash(file);
+        delta.addedFiles.remove(pathHash);
+        delta.removedPathHashes.add(pathHash);
+      }
+      for (DataFile file : s.addedFiles()) {
+        delta.addedFiles.put(getDataFilePathHash(file), file);
+      }
+    }
+    return delta;
+  }
+
   private static TableScan createScanAsOf(FeIcebergTable table,
       TimeTravelSpec timeTravelSpec) throws TableLoadingException {
-    BaseTable baseTable = (BaseTable)IcebergUtil.loadTable(table);
+    return createScanAsOf(table, IcebergUtil.loadTable(table), timeTravelSpec);
+  }
+
+  /**
+   * Returns a scan of the snapshot of 'iceTable' selected by 'timeTravelSpec', or of
+   * the snapshot that 'table' was loaded with if 'timeTravelSpec' is null.
+   */
+  static TableScan createScanAsOf(FeIcebergTable table, Table iceTable,
+      TimeTravelSpec timeTravelSpec) {
+    BaseTable baseTable = (BaseTable)iceTable;
     TableScan scan = baseTable.newScan();
     if (timeTravelSpec == null) {
       scan = scan.useSnapshot(table.snapshotId());
@@ -0,0 +1,146 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.impala.catalog.FeKuduTable;
+import org.apache.impala.common.ImpalaRuntimeException;
+import org.apache.impala.service.BackendConfig;
+import org.apache.kudu.client.KuduClient;
+import org.apache.kudu.client.KuduTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Coordinator-side cache of the KuduTables opened for planning queries on Kudu tables.
+ *
+ * A KuduTable holds the schema and the partition schema of the table, and is needed to
+ * validate the schema expected by Impala and to build the scan tokens of a scan. Without
+ * the cache, every query opens the table with a request to the Kudu master. The tablet
+ * locations are cached by the shared KuduClient of the masters (see
+ * KuduUtil.getKuduClient()), so with a cached KuduTable the scan tokens for the pushed
+ * down predicates are computed from the partition layout and the tablet locations known
+ * to the client, and only tablets missing from its cache are looked up at the master.
+ *
+ * An entry is keyed by the Kudu table and the catalog version of the Impala table, so a
+ * refresh or DDL of the table in Impala opens it again. Changes made directly in Kudu are
+ * picked up after --kudu_table_metadata_cache_ttl_s, or when invalidate() is called
+ * because planning a scan of the table failed, e.g. because the cached schema didn't
+ * match the one expected by Impala or the table was dropped and created again in Kudu.
+ */
+public class KuduTableCache extends PlanningMetadataCache<KuduTableCache.Key, KuduTable> {
+  private final static Logger LOG = LoggerFactory.getLogger(KuduTableCache.class);
+
+  // Maximum number of cached tables. A KuduTable is small, so this only guards against
+  // unbounded growth with many tables or frequent catalog updates.
+  private static final int MAX_ENTRIES = 10000;
+
+  private static class InstanceHolder {
+    // Null if the cache is disabled by --kudu_table_metadata_cache_ttl_s.
+    static final KuduTableCache INSTANCE = create();
+
+    private static KuduTableCache create() {
+      int ttlSeconds = BackendConfig.INSTANCE.getKuduTableMetadataCacheTtlS();
+      return ttlSeconds > 0 ? new KuduTableCache(ttlSeconds) : null;
+    }
+  }
+
+  /**
+   * Identifies a version of a Kudu table in the catalog.
+   */
+  static class Key {
+    final String masterHosts_;
+    final String kuduTableName_;
+    final long catalogVersion_;
+
+    Key(FeKuduTable table) {
+      masterHosts_ = Preconditions.checkNotNull(table.getKuduMasterHosts());
+      kuduTableName_ = Preconditions.checkNotNull(table.getKuduTableName());
+      catalogVersion_ = table.getCatalogVersion();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      Key other = (Key) obj;
+      return masterHosts_.equals(other.masterHosts_)
+          && kuduTableName_.equals(other.kuduTableName_)
+          && catalogVersion_ == other.catalogVersion_;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(masterHosts_, kuduTableName_, catalogVersion_);
+    }
+  }
+
+  @VisibleForTesting
+  public KuduTableCache(long ttlSeconds) {
+    super("KuduTableCache", CacheBuilder.newBuilder()
+        .maximumSize(MAX_ENTRIES)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build());
+    Preconditions.checkArgument(ttlSeconds > 0);
+    LOG.info("Kudu table metadata cache configuration: ttl={} s", ttlSeconds);
+  }
+
+  /**
+   * Returns the cache of this process, or null if it is disabled by
+   * --kudu_table_metadata_cache_ttl_s.
+   */
+  public static KuduTableCache get() { return InstanceHolder.INSTANCE; }
+
+  /**
+   * Returns the KuduTable of 'table', opening it if it is not cached. Concurrent calls
+   * for the same table open it only once.
+   */
+  public KuduTable getTable(FeKuduTable table) throws ImpalaRuntimeException {
+    Key key = new Key(table);
+    KuduTable kuduTable = cache_.getIfPresent(key);
+    boolean hit = kuduTable != null;
+    if (!hit) {
+      try {
+        kuduTable = cache_.get(key, () -> {
+          KuduClient client = KuduUtil.getKuduClient(key.masterHosts_);
+          return client.openTable(key.kuduTableName_);
+        });
+      } catch (ExecutionException e) {
+        throw new ImpalaRuntimeException(
+            "Failed to open the Kudu table " + key.kuduTableName_, e.getCause());
+      }
+    }
+    addHitsAndMisses(hit ? 1 : 0, hit ? 0 : 1);
+    return kuduTable;
+  }
+
+  /**
+   * Drops the cached KuduTable of 'table', e.g. because planning a scan with it failed.
+   */
+  public void invalidate(FeKuduTable table) {
+    cache_.invalidate(new Key(table));
+  }
+}
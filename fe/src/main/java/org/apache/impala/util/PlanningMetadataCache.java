@@ -0,0 +1,73 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import org.apache.impala.service.FrontendProfile;
+import org.apache.impala.thrift.TUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Base class of the coordinator-side caches of metadata that is read from the storage
+ * systems while planning queries, e.g. KuduTableCache.
+ *
+ * The entries are kept in a Guava cache that records its stats. The hits and misses of
+ * a query are added to its profile as the counters "<profile prefix>.Hits" and
+ * "<profile prefix>.Misses".
+ *
+ * Subclasses hold the instance of the process in a static holder class that creates it
+ * from the backend flags the first time it is used, so that getting the instance needs
+ * no locking.
+ */
+public abstract class PlanningMetadataCache<K, V> {
+  // Prefix of the counters that are added to the query profile.
+  private final String profilePrefix_;
+
+  protected final Cache<K, V> cache_;
+
+  /**
+   * 'cache' must record its stats.
+   */
+  protected PlanningMetadataCache(String profilePrefix, Cache<K, V> cache) {
+    profilePrefix_ = Preconditions.checkNotNull(profilePrefix);
+    cache_ = Preconditions.checkNotNull(cache);
+  }
+
+  /**
+   * Adds 'value' to the counter "<profile prefix>.<name>" in the profile of the query
+   * that is planned by this thread, if any.
+   */
+  protected void addToProfile(String name, TUnit unit, long value) {
+    FrontendProfile profile = FrontendProfile.getCurrentOrNull();
+    if (profile == null) return;
+    profile.addToCounter(profilePrefix_ + "." + name, unit, value);
+  }
+
+  protected void addHitsAndMisses(long numHits, long numMisses) {
+    addToProfile("Hits", TUnit.NONE, numHits);
+    addToProfile("Misses", TUnit.NONE, numMisses);
+  }
+
+  public CacheStats getStats() { return cache_.stats(); }
+
+  @VisibleForTesting
+  public long size() { return cache_.size(); }
+}
@@ -404,6 +404,11 @@ public class ExprRewriteRulesTest extends FrontendTestBase {
     RewritesOk("repeat('A', 65536)", rule, repeat("A", 65_536));
     RewritesOk("repeat('A', 4294967296)", rule, null);
 
+    // Exprs that are evaluated in the FE.
+    RewritesOk("cast(5 as string)", rule, "'5'");
+    RewritesOk("concat('a', 'b', 'c')", rule, "'abc'");
+    RewritesOk("2147483647 * 3", rule, "6442450941");
+
   }
 
   @Test
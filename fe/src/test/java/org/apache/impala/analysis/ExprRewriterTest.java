@@ -17,18 +17,32 @@
 
 package org.apache.impala.analysis;
 
+import java.util.List;
+
 import org.apache.impala.analysis.AnalysisContext.AnalysisResult;
+import org.apache.impala.analysis.StmtMetadataLoader.StmtTableCache;
 import org.apache.impala.common.AnalysisException;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.RuntimeEnv;
+import org.apache.impala.rewrite.ConstantExprEvaluator;
 import org.apache.impala.rewrite.EqualityDisjunctsToInRule;
 import org.apache.impala.rewrite.ExprRewriteRule;
 import org.apache.impala.rewrite.ExprRewriter;
+import org.apache.impala.rewrite.NormalizeBinaryPredicatesRule;
+import org.apache.impala.rewrite.SimplifyConditionalsRule;
+import org.apache.impala.rewrite.SimplifyDistinctFromRule;
+import org.apache.impala.service.Frontend.PlanCtx;
+import org.apache.impala.service.FrontendProfile;
+import org.apache.impala.testutil.TestUtils;
+import org.apache.impala.thrift.TCounter;
+import org.apache.impala.thrift.TExecRequest;
+import org.apache.impala.thrift.TQueryCtx;
 import org.apache.impala.thrift.TQueryOptions;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 
 import static org.apache.impala.analysis.ToSqlOptions.DEFAULT;
 import static org.apache.impala.analysis.ToSqlOptions.REWRITTEN;
@@ -70,6 +84,25 @@ public class ExprRewriterTest extends AnalyzerTest {
     private TrueToFalseRule() {}
   }
 
+  /**
+   * Counts its invocations on BinaryPredicates without changing them.
+   */
+  static class CountBinaryPredicatesRule implements ExprRewriteRule {
+    int numInvocations_ = 0;
+
+    @Override
+    public List<Class<? extends Expr>> getMatchedExprClasses() {
+      return ImmutableList.of(BinaryPredicate.class);
+    }
+
+    @Override
+    public Expr apply(Expr expr, Analyzer analyzer) throws AnalysisException {
+      Assert.assertTrue(expr instanceof BinaryPredicate);
+      ++numInvocations_;
+      return expr;
+    }
+  }
+
   private final ExprRewriter exprToTrue_ = new ExprRewriter(ExprToBoolRule.INSTANCE);
   private final ExprRewriter trueToFalse_ = new ExprRewriter(TrueToFalseRule.INSTANCE);
 
@@ -586,4 +619,165 @@ public class ExprRewriterTest extends AnalyzerTest {
             "SELECT ndv(id), ndv(id, 5), count(DISTINCT id) FROM functional.alltypes");
 
   }
+
+  /**
+   * Tests that rules are only applied to the Expr classes they match, and that the
+   * subtrees a rule did not change are not visited again by that rule.
+   */
+  @Test
+  public void TestRuleApplication() throws ImpalaException {
+    String stmt = "select id from functional.alltypes " +
+        "where 1 = int_col and bigint_col = 2 and id < 3";
+    StatementBase parsedStmt = (StatementBase) ParsesOk(stmt);
+    AnalyzesOkNoRewrite(parsedStmt);
+    CountBinaryPredicatesRule countRule = new CountBinaryPredicatesRule();
+    ExprRewriter rewriter = new ExprRewriter(
+        ImmutableList.of(countRule, NormalizeBinaryPredicatesRule.INSTANCE));
+    parsedStmt.rewriteExprs(rewriter);
+    // Only '1 = int_col' is normalized.
+    Assert.assertEquals(1, rewriter.getNumChanges());
+    // The second pass over the rules only applies the counting rule to the normalized
+    // predicate.
+    Assert.assertEquals(4, countRule.numInvocations_);
+    Assert.assertEquals("SELECT id FROM functional.alltypes " +
+        "WHERE int_col = 1 AND bigint_col = 2 AND id < 3",
+        parsedStmt.toSql(REWRITTEN));
+  }
+
+  /**
+   * Tests that a change deep in an Expr tree clears the marks of all its ancestors, so
+   * that an earlier rule is applied again to an ancestor that the change simplifies.
+   */
+  @Test
+  public void TestRuleApplicationAfterNestedChange() throws ImpalaException {
+    String stmt = "select id from functional.alltypes " +
+        "where if(int_col is distinct from int_col, true, bool_col) or id = 1";
+    StatementBase parsedStmt = (StatementBase) ParsesOk(stmt);
+    AnalyzesOkNoRewrite(parsedStmt);
+    // The IF is only simplified by the first rule once the second rule replaced its
+    // condition, two levels below the root of the predicate, with FALSE.
+    ExprRewriter rewriter = new ExprRewriter(ImmutableList.of(
+        SimplifyConditionalsRule.INSTANCE, SimplifyDistinctFromRule.INSTANCE));
+    parsedStmt.rewriteExprs(rewriter);
+    Assert.assertEquals(2, rewriter.getNumChanges());
+    Assert.assertEquals("SELECT id FROM functional.alltypes WHERE bool_col OR id = 1",
+        parsedStmt.toSql(REWRITTEN));
+  }
+
+  /**
+   * Tests that the constant Exprs of a statement that need the BE are evaluated with a
+   * single call.
+   */
+  @Test
+  public void TestBatchedConstantFolding() throws ImpalaException {
+    String stmt = "select upper('a'), lower('B'), 1 + 2, id from functional.alltypes " +
+        "where string_col = concat('x', lower('Y'))";
+    StatementBase parsedStmt = (StatementBase) ParsesOk(stmt);
+    AnalyzesOkNoRewrite(parsedStmt);
+    ConstantExprEvaluator evaluator =
+        new ConstantExprEvaluator(TestUtils.createQueryContext());
+    FrontendProfile profile;
+    try (FrontendProfile.Scope scope = FrontendProfile.createNewWithScope()) {
+      profile = FrontendProfile.getCurrent();
+      Assert.assertEquals(4, evaluator.foldStmtConstants(parsedStmt));
+    }
+    long numBatches = 0;
+    long numBatchedExprs = 0;
+    for (TCounter counter : profile.emitAsThrift().counters) {
+      if (counter.getName().equals("ConstantFolding.BackendBatches")) {
+        numBatches = counter.getValue();
+      } else if (counter.getName().equals("ConstantFolding.BatchedExprs")) {
+        numBatchedExprs = counter.getValue();
+      }
+    }
+    Assert.assertEquals(1, numBatches);
+    Assert.assertEquals(3, numBatchedExprs);
+    Assert.assertEquals("SELECT 'A', 'b', 3, id FROM functional.alltypes " +
+        "WHERE string_col = 'xy'", parsedStmt.toSql(REWRITTEN));
+  }
+
+  /**
+   * Tests that the analyzers of the analysis passes of a statement share the results of
+   * constant predicates, and that each pass still reaches the same conclusions from
+   * them.
+   */
+  @Test
+  public void TestCachedPredicateEvaluation() throws ImpalaException {
+    String stmt = "select count(*) from functional.alltypes where lower('A') = 'A' " +
+        "having upper('a') = 'B'";
+    AnalysisContext ctx = createAnalysisCtx();
+    StmtTableCache loadedTables;
+    try (FrontendProfile.Scope scope = FrontendProfile.createNewWithScope()) {
+      loadedTables = new StmtMetadataLoader(frontend_, ctx.getQueryCtx().session.database,
+          null).loadTables((StatementBase) ParsesOk(stmt));
+    }
+    ConstantExprEvaluator evaluator = null;
+    for (int i = 0; i < 2; ++i) {
+      SelectStmt selectStmt = (SelectStmt) ParsesOk(stmt);
+      Analyzer analyzer = ctx.createAnalyzer(loadedTables);
+      if (evaluator == null) evaluator = analyzer.getConstantExprEvaluator();
+      Assert.assertSame(evaluator, analyzer.getConstantExprEvaluator());
+      selectStmt.analyze(analyzer);
+      Assert.assertTrue(selectStmt.getAnalyzer().hasEmptySpjResultSet());
+      Assert.assertTrue(selectStmt.getAnalyzer().hasEmptyResultSet());
+      // The second pass finds both predicates in the cache and makes no BE calls.
+      Assert.assertEquals(2, evaluator.getNumCachedPredicates());
+      Assert.assertEquals(2, evaluator.getNumPredicateBackendEvals());
+      if (i == 1) Assert.assertTrue(evaluator.getNumPredicateCacheHits() >= 2);
+    }
+  }
+
+  /**
+   * Tests that planning a statement in which the same outer-joined conjunct is
+   * propagated in two union operands evaluates it with NULL slots in the BE only once.
+   */
+  @Test
+  public void TestCachedNullSlotPredicateEvaluation() throws ImpalaException {
+    String join = "select a.id from functional.alltypes a " +
+        "left join functional.alltypestiny b on a.id = b.id where a.id < 10";
+    TQueryCtx queryCtx = TestUtils.createQueryContext(
+        "default", System.getProperty("user.name"));
+    queryCtx.client_request.setStmt(join + " union all " + join);
+    PlanCtx planCtx = new PlanCtx(queryCtx);
+    TExecRequest request = frontend_.createExecRequest(planCtx);
+    long numBackendEvals = 0;
+    long numCacheHits = 0;
+    for (TCounter counter : request.profile.counters) {
+      if (counter.getName().equals("ConstantFolding.PredicateBackendEvals")) {
+        numBackendEvals = counter.getValue();
+      } else if (counter.getName().equals("ConstantFolding.PredicateCacheHits")) {
+        numCacheHits = counter.getValue();
+      }
+    }
+    // 'a.id < 10' is propagated to the scan of 'b' in each operand, which is only
+    // correct if it is false with NULL slots.
+    Assert.assertTrue(numBackendEvals > 0);
+    Assert.assertTrue(numCacheHits > 0);
+  }
+
+  /**
+   * Tests that constant Exprs that the BE can only evaluate after the rewrite rules ran
+   * are not folded before them.
+   */
+  @Test
+  public void TestBatchedConstantFoldingBeforeRewrites() throws ImpalaException {
+    String stmt = "select 1 between 0 and 2, upper('a') from functional.alltypes " +
+        "where 5 between 1 and 10";
+    StatementBase parsedStmt = (StatementBase) ParsesOk(stmt);
+    AnalyzesOkNoRewrite(parsedStmt);
+    ConstantExprEvaluator evaluator =
+        new ConstantExprEvaluator(TestUtils.createQueryContext());
+    Assert.assertEquals(1, evaluator.foldStmtConstants(parsedStmt));
+    Assert.assertEquals("SELECT 1 BETWEEN 0 AND 2, 'A' FROM functional.alltypes " +
+        "WHERE 5 BETWEEN 1 AND 10", parsedStmt.toSql(REWRITTEN));
+
+    // The rewrite rules replace the BETWEEN predicates and fold the result.
+    Assert.assertEquals("SELECT TRUE",
+        AnalyzesOk("select 1 between 0 and 2").toSql(REWRITTEN));
+    Assert.assertEquals("SELECT TRUE",
+        AnalyzesOk("select 1 between 2 and 3 or 5 between 1 and 10").toSql(REWRITTEN));
+    AnalyzesOk("select id from functional.alltypes where 5 between 1 and 10");
+    AnalyzesOk("select id from functional.alltypes where id between 1 + 1 and 10 " +
+        "and 5 not between 6 and 7");
+  }
 }
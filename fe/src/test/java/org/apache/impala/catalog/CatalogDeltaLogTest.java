@@ -0,0 +1,122 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.impala.thrift.TCatalogObject;
+import org.apache.impala.thrift.TCatalogObjectType;
+import org.apache.impala.thrift.TCatalogUpdateLogMetrics;
+import org.apache.impala.thrift.TDatabase;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class CatalogDeltaLogTest {
+
+  private static TCatalogObject removedDb(String name, long version) {
+    TCatalogObject obj = new TCatalogObject(TCatalogObjectType.DATABASE, version);
+    obj.setDb(new TDatabase(name));
+    return obj;
+  }
+
+  private static List<Long> versions(List<TCatalogObject> objects) {
+    List<Long> result = new ArrayList<>();
+    for (TCatalogObject obj: objects) result.add(obj.getCatalog_version());
+    return result;
+  }
+
+  @Test
+  public void testRetrieveAndGarbageCollect() {
+    CatalogDeltaLog log = new CatalogDeltaLog();
+    for (long version = 1; version <= 10; ++version) {
+      log.addRemovedObject(removedDb("db" + version, version));
+    }
+    assertEquals(10, log.size());
+    // Ranges are (fromVersion, toVersion].
+    assertEquals(ImmutableList.of(4L, 5L, 6L), versions(log.retrieveObjects(3, 6)));
+    assertTrue(log.retrieveObjects(10, 20).isEmpty());
+
+    assertTrue(log.wasObjectRemovedAfter(removedDb("db5", 2)));
+    assertFalse(log.wasObjectRemovedAfter(removedDb("db5", 6)));
+    assertFalse(log.wasObjectRemovedAfter(removedDb("other", 2)));
+
+    // Objects removed before the given version are garbage collected.
+    log.garbageCollect(8);
+    assertEquals(3, log.size());
+    assertEquals(ImmutableList.of(8L, 9L, 10L), versions(log.retrieveObjects(0, 10)));
+    assertFalse(log.wasObjectRemovedAfter(removedDb("db5", 2)));
+  }
+
+  /**
+   * Tests that objects added concurrently with range scans and garbage collection are
+   * not lost.
+   */
+  @Test
+  public void testConcurrentAdds() throws InterruptedException {
+    final int numThreads = 4;
+    final int numObjectsPerThread = 10000;
+    CatalogDeltaLog log = new CatalogDeltaLog();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < numThreads; ++i) {
+      final int threadIdx = i;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < numObjectsPerThread; ++j) {
+          long version = (long) j * numThreads + threadIdx + 1;
+          log.addRemovedObject(removedDb("db" + version, version));
+        }
+      }));
+    }
+    for (Thread t: threads) t.start();
+    // Scan and garbage collect an empty prefix of the log while it is being added to.
+    while (log.size() < numThreads * numObjectsPerThread) {
+      for (TCatalogObject obj: log.retrieveObjects(0, Long.MAX_VALUE - 1)) {
+        assertTrue(obj.getCatalog_version() > 0);
+      }
+      log.garbageCollect(0);
+    }
+    for (Thread t: threads) t.join();
+    assertEquals(numThreads * numObjectsPerThread,
+        log.retrieveObjects(0, numThreads * numObjectsPerThread).size());
+  }
+
+  @Test
+  public void testWaitForTopicUpdate() throws InterruptedException {
+    TopicUpdateLog log = new TopicUpdateLog();
+    // Times out if there is no topic update.
+    assertFalse(log.waitForTopicUpdate(10));
+    AtomicBoolean notified = new AtomicBoolean();
+    Thread waiter = new Thread(() -> notified.set(log.waitForTopicUpdate(60000)));
+    waiter.start();
+    // Notify until the waiter has picked up an update, since it may not have started
+    // waiting for the first one yet.
+    long version = 1;
+    while (waiter.isAlive()) {
+      log.notifyTopicUpdate(version++);
+      waiter.join(10);
+    }
+    assertTrue(notified.get());
+    TCatalogUpdateLogMetrics metrics = new TCatalogUpdateLogMetrics();
+    log.populateMetrics(metrics);
+    assertEquals(2, metrics.getNum_topic_update_waits());
+  }
+}
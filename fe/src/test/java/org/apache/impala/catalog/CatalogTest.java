@@ -58,6 +58,7 @@ import org.apache.impala.catalog.MetaStoreClientPool.MetaStoreClient;
 import org.apache.impala.common.ImpalaException;
 import org.apache.impala.common.Reference;
 import org.apache.impala.compat.MetastoreShim;
+import org.apache.impala.service.BackendConfig;
 import org.apache.impala.testutil.CatalogServiceTestCatalog;
 import org.apache.impala.testutil.TestUtils;
 import org.apache.impala.thrift.TFunctionBinaryType;
@@ -69,6 +70,7 @@ import org.apache.impala.thrift.TPrivilege;
 import org.apache.impala.thrift.TPrivilegeLevel;
 import org.apache.impala.thrift.TPrivilegeScope;
 import org.apache.impala.thrift.TTableName;
+import org.apache.impala.util.IcebergUtil;
 import org.junit.After;
 import org.junit.Assume;
 import org.junit.Before;
@@ -438,6 +440,129 @@ public class CatalogTest {
     assertEquals(1, seenCalls);
   }
 
+  /**
+   * Tests that reloading an Iceberg table whose snapshot did not change reuses all of
+   * its file descriptors without any filesystem calls for the data files.
+   */
+  @Test
+  public void testIcebergReloadReusesFileDescriptors() throws CatalogException {
+    IcebergTable table = (IcebergTable) catalog_.getOrLoadTable("functional_parquet",
+        "iceberg_partitioned", "test", null);
+    Map<String, HdfsPartition.FileDescriptor> fileDescs =
+        table.getPathHashToFileDescMap();
+    assertFalse(fileDescs.isEmpty());
+
+    GlobalStorageStatistics stats = FileSystem.getGlobalStorageStatistics();
+    stats.reset();
+    catalog_.reloadTable(table, "test");
+    StorageStatistics opsCounts = stats.get(DFSOpsCountStatistics.NAME);
+    assertEquals(0L, (long)opsCounts.getLong(GET_FILE_BLOCK_LOCS));
+
+    Map<String, HdfsPartition.FileDescriptor> reloadedFileDescs =
+        table.getPathHashToFileDescMap();
+    assertEquals(fileDescs.keySet(), reloadedFileDescs.keySet());
+    for (Map.Entry<String, HdfsPartition.FileDescriptor> entry :
+        reloadedFileDescs.entrySet()) {
+      assertSame(fileDescs.get(entry.getKey()), entry.getValue());
+    }
+  }
+
+  /**
+   * Tests that the file descriptors of an Iceberg table are still reused after listing
+   * all its data files if the old snapshot is not an ancestor of the current one.
+   */
+  @Test
+  public void testIcebergLoadFallsBackForNonAncestorSnapshot() throws Exception {
+    IcebergTable table = (IcebergTable) catalog_.getOrLoadTable("functional_parquet",
+        "iceberg_partitioned", "test", null);
+    Map<String, HdfsPartition.FileDescriptor> fileDescs =
+        table.getPathHashToFileDescMap();
+    assertFalse(fileDescs.isEmpty());
+    long unknownSnapshotId = table.snapshotId() + 1;
+    assertNull(IcebergUtil.getDataFileDelta(table, unknownSnapshotId));
+
+    GlobalStorageStatistics stats = FileSystem.getGlobalStorageStatistics();
+    stats.reset();
+    Map<String, HdfsPartition.FileDescriptor> loadedFileDescs =
+        FeIcebergTable.Utils.loadAllPartition(table, unknownSnapshotId, fileDescs);
+    StorageStatistics opsCounts = stats.get(DFSOpsCountStatistics.NAME);
+    assertEquals(0L, (long)opsCounts.getLong(GET_FILE_BLOCK_LOCS));
+    assertEquals(fileDescs.keySet(), loadedFileDescs.keySet());
+    for (Map.Entry<String, HdfsPartition.FileDescriptor> entry :
+        loadedFileDescs.entrySet()) {
+      assertSame(fileDescs.get(entry.getKey()), entry.getValue());
+    }
+  }
+
+  /**
+   * Tests that the estimated metadata size per partition of an HDFS table is reported
+   * as a table metric.
+   */
+  @Test
+  public void testMemoryEstimatePerPartitionMetric() throws CatalogException {
+    HdfsTable table =
+        (HdfsTable) catalog_.getOrLoadTable("functional", "alltypes", "test", null);
+    assertEquals(24, table.getPartitions().size());
+    long perPartition = (Long) table.getMetrics()
+        .getGauge(HdfsTable.MEMORY_ESTIMATE_PER_PARTITION_METRIC).getValue();
+    assertTrue(perPartition > 0);
+    assertEquals(table.getEstimatedMetadataSize() / 24, perPartition);
+    assertEquals(perPartition, table.getEstimatedMetadataSizePerPartition());
+  }
+
+  /**
+   * Tests that the partition key index of a table is rebuilt after its partitions
+   * changed.
+   */
+  @Test
+  public void testPartitionKeyIndexInvalidation() throws CatalogException {
+    HdfsTable table =
+        (HdfsTable) catalog_.getOrLoadTable("functional", "alltypes", "test", null);
+    PartitionKeyIndex index = table.getPartitionKeyIndex();
+    assertEquals(24, index.getNumPartitions());
+    assertSame(index, table.getPartitionKeyIndex());
+    HdfsPartition partition = (HdfsPartition) table.getPartitions().iterator().next();
+    table.dropPartition(partition);
+    assertEquals(23, table.getPartitionKeyIndex().getNumPartitions());
+    table.addPartition(partition);
+    assertEquals(24, table.getPartitionKeyIndex().getNumPartitions());
+  }
+
+  /**
+   * Checks that a topic update built by several threads contains every database and
+   * table once, in catalog order, with the partitions of a table next to it.
+   */
+  @Test
+  public void testParallelTopicUpdate() throws Exception {
+    assertTrue(BackendConfig.INSTANCE.getTopicUpdateParallelism() > 1);
+    catalog_.getOrLoadTable("functional", "alltypes", "test", null);
+    catalog_.getOrLoadTable("functional", "alltypessmall", "test", null);
+    List<String> expected = new ArrayList<>();
+    for (Db db: catalog_.getAllDbs()) {
+      expected.add("DATABASE:" + db.getName());
+      for (Table tbl: catalog_.getAllTables(db)) {
+        expected.add("TABLE:" + tbl.getFullName());
+      }
+    }
+    List<String> actual = new ArrayList<>();
+    catalog_.setTopicItemSink((ptr, key, version, data, delete) -> {
+      // Strips the topic prefix and maps partitions to their table.
+      String objectKey = key.substring(key.indexOf(':') + 1);
+      if (objectKey.startsWith("HDFS_PARTITION:")) {
+        objectKey = "TABLE:" + objectKey.split(":")[1];
+      }
+      boolean isDbOrTable =
+          objectKey.startsWith("DATABASE:") || objectKey.startsWith("TABLE:");
+      if (!delete && isDbOrTable
+          && (actual.isEmpty() || !actual.get(actual.size() - 1).equals(objectKey))) {
+        actual.add(objectKey);
+      }
+      return data.length;
+    });
+    catalog_.getCatalogDelta(0, 0);
+    assertEquals(expected, actual);
+  }
+
   @Test
   public void TestPartitions() throws CatalogException {
     HdfsTable table =
@@ -0,0 +1,211 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.impala.catalog.FileMetadataLoadScheduler.FsPool;
+import org.apache.impala.thrift.TFileMetadataLoadPoolMetrics;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class FileMetadataLoadSchedulerTest {
+
+  private static void waitFor(List<Future<Void>> futures) throws Exception {
+    for (Future<Void> f : futures) f.get();
+  }
+
+  /**
+   * Tests that the tasks of concurrent loads are interleaved rather than run in the
+   * order they were submitted.
+   */
+  @Test
+  public void testFairQueuing() throws Exception {
+    FsPool pool = new FsPool("TEST", 1);
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Callable<Void>> bigLoad = new ArrayList<>();
+    bigLoad.add(() -> {
+      started.countDown();
+      release.await();
+      order.add("a1");
+      return null;
+    });
+    for (int i = 2; i <= 4; ++i) {
+      String name = "a" + i;
+      bigLoad.add(() -> { order.add(name); return null; });
+    }
+    List<Callable<Void>> smallLoad = new ArrayList<>();
+    for (int i = 1; i <= 2; ++i) {
+      String name = "b" + i;
+      smallLoad.add(() -> { order.add(name); return null; });
+    }
+
+    List<Future<Void>> bigFutures = pool.submitAll(bigLoad, 2);
+    started.await();
+    List<Future<Void>> smallFutures = pool.submitAll(smallLoad, 2);
+    release.countDown();
+    waitFor(bigFutures);
+    waitFor(smallFutures);
+    // The second task of the big load was queued before the small load arrived, after
+    // that the loads take turns.
+    assertEquals(ImmutableList.of("a1", "a2", "b1", "a3", "b2", "a4"), order);
+
+    TFileMetadataLoadPoolMetrics metrics = pool.getMetrics();
+    assertEquals("TEST", metrics.getFs_type());
+    assertEquals(1, metrics.getNum_threads());
+    assertEquals(0, metrics.getNum_queued_tasks());
+    assertEquals(6, pool.getNumQueueWaits());
+    pool.shutdown();
+  }
+
+  /**
+   * Returns a task that tracks the number of running tasks in 'running' and its maximum
+   * in 'maxRunning'. The task counts down 'started' and then blocks until 'release' is
+   * counted down.
+   */
+  private static Callable<Void> gatedTask(AtomicInteger running,
+      AtomicInteger maxRunning, CountDownLatch started, CountDownLatch release) {
+    return () -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      started.countDown();
+      release.await();
+      running.decrementAndGet();
+      return null;
+    };
+  }
+
+  /**
+   * Tests that neither the per-load parallelism nor the size of the pool is exceeded.
+   */
+  @Test
+  public void testConcurrencyLimits() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    FsPool pool = new FsPool("TEST", 4);
+    try {
+      CountDownLatch started = new CountDownLatch(2);
+      CountDownLatch release = new CountDownLatch(1);
+      List<Future<Void>> futures = pool.submitAll(Collections.nCopies(20,
+          gatedTask(running, maxRunning, started, release)), 2);
+      // The two tasks that may run are blocked, the idle threads must not take more.
+      started.await();
+      assertEquals(18, pool.getMetrics().getNum_queued_tasks());
+      release.countDown();
+      waitFor(futures);
+      assertEquals(2, maxRunning.get());
+    } finally {
+      pool.shutdown();
+    }
+
+    maxRunning.set(0);
+    pool = new FsPool("TEST", 3);
+    try {
+      CountDownLatch started = new CountDownLatch(3);
+      CountDownLatch release = new CountDownLatch(1);
+      Callable<Void> task = gatedTask(running, maxRunning, started, release);
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; ++i) {
+        futures.addAll(pool.submitAll(Collections.nCopies(10, task), 4));
+      }
+      // All the threads of the pool are blocked.
+      started.await();
+      assertEquals(27, pool.getMetrics().getNum_queued_tasks());
+      release.countDown();
+      waitFor(futures);
+      assertEquals(3, maxRunning.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Tests that a pool that is shut down rejects new tasks, still runs the tasks that
+   * were submitted before and then stops its threads.
+   */
+  @Test
+  public void testShutdown() throws Exception {
+    FsPool pool = new FsPool("TEST", 2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger numRun = new AtomicInteger();
+    List<Callable<Void>> tasks = new ArrayList<>();
+    tasks.add(gatedTask(running, maxRunning, started, release));
+    for (int i = 0; i < 4; ++i) {
+      tasks.add(() -> { numRun.incrementAndGet(); return null; });
+    }
+    List<Future<Void>> futures = pool.submitAll(tasks, 1);
+    started.await();
+    pool.shutdown();
+    try {
+      pool.submitAll(tasks, 1);
+      fail("Expected the pool to reject tasks after shutdown");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("shut down"));
+    }
+    assertFalse(pool.awaitTermination(10));
+    release.countDown();
+    waitFor(futures);
+    assertEquals(4, numRun.get());
+    assertTrue(pool.awaitTermination(60000));
+  }
+
+  /**
+   * Tests that a failing task is reported through its future and does not affect the
+   * other tasks of the load.
+   */
+  @Test
+  public void testTaskFailure() throws Exception {
+    FsPool pool = new FsPool("TEST", 2);
+    AtomicInteger numRun = new AtomicInteger();
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < 5; ++i) {
+      boolean fail = i == 2;
+      tasks.add(() -> {
+        numRun.incrementAndGet();
+        if (fail) throw new CatalogException("injected failure");
+        return null;
+      });
+    }
+    List<Future<Void>> futures = pool.submitAll(tasks, 2);
+    for (int i = 0; i < futures.size(); ++i) {
+      try {
+        futures.get(i).get();
+        assertNotEquals(2, i);
+      } catch (ExecutionException e) {
+        assertEquals(2, i);
+        assertTrue(e.getCause() instanceof CatalogException);
+      }
+    }
+    assertEquals(5, numRun.get());
+    pool.shutdown();
+  }
+}
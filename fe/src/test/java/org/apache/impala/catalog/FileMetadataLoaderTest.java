@@ -202,6 +202,51 @@ public class FileMetadataLoaderTest {
     assertEquals(24, fml.getLoadedFds().size());
   }
 
+  @Test
+  public void testDirModificationTimeCheck() throws IOException, CatalogException {
+    Path sourcePath =
+        new Path("hdfs://localhost:20500/test-warehouse/alltypes/year=2009/month=1");
+    Path tmpTestPath = new Path("hdfs://localhost:20500/tmp/test-dir-mtime-check");
+    Configuration conf = new Configuration();
+    FileSystem fs = tmpTestPath.getFileSystem(conf);
+    fs.delete(tmpTestPath, true);
+    FileUtil.copy(fs, sourcePath, fs, tmpTestPath, false, true, conf);
+    fs.deleteOnExit(tmpTestPath);
+    // Move the modification time of the directory out of the racy window.
+    long dirMtime = System.currentTimeMillis() - 60 * 1000;
+    fs.setTimes(tmpTestPath, dirMtime, /* atime= */-1);
+
+    ListMap<TNetworkAddress> hostIndex = new ListMap<>();
+    FileMetadataLoader fml = new FileMetadataLoader(tmpTestPath, /* recursive=*/false,
+        /* oldFds = */Collections.emptyList(), hostIndex, null, null);
+    fml.enableDirModificationTimeCheck(-1);
+    fml.load();
+    assertEquals(1, fml.getStats().loadedFiles);
+    assertFalse(fml.getStats().skippedListing);
+    assertEquals(dirMtime, fml.getDirModificationTime());
+
+    // The directory is not listed again if its modification time is unchanged.
+    FileMetadataLoader refreshFml = new FileMetadataLoader(tmpTestPath,
+        /* recursive=*/false, fml.getLoadedFds(), hostIndex, null, null);
+    refreshFml.enableDirModificationTimeCheck(fml.getDirModificationTime());
+    refreshFml.load();
+    assertTrue(refreshFml.getStats().skippedListing);
+    assertEquals(1, refreshFml.getStats().skippedFiles);
+    assertEquals(fml.getLoadedFds(), refreshFml.getLoadedFds());
+    assertEquals(dirMtime, refreshFml.getDirModificationTime());
+
+    // Adding a file changes the modification time of the directory. The new time is
+    // too recent to be recorded.
+    fs.createNewFile(new Path(tmpTestPath, "new_file.txt"));
+    refreshFml = new FileMetadataLoader(tmpTestPath, /* recursive=*/false,
+        fml.getLoadedFds(), hostIndex, null, null);
+    refreshFml.enableDirModificationTimeCheck(fml.getDirModificationTime());
+    refreshFml.load();
+    assertFalse(refreshFml.getStats().skippedListing);
+    assertEquals(2, refreshFml.getLoadedFds().size());
+    assertEquals(-1, refreshFml.getDirModificationTime());
+  }
+
   // TODO(todd) add unit tests for loading ACID tables once we have some ACID
   // tables with data loaded in the functional test DBs.
 }
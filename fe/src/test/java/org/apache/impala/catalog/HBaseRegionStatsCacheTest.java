@@ -0,0 +1,171 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.impala.catalog.HBaseRegionStatsCache.RegionStats;
+import org.apache.impala.common.FrontendTestBase;
+import org.apache.impala.common.Pair;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class HBaseRegionStatsCacheTest extends FrontendTestBase {
+  private static final byte[] EMPTY = HConstants.EMPTY_START_ROW;
+
+  /**
+   * A ticker that is advanced by the test.
+   */
+  private static class TestTicker extends Ticker {
+    private long nanos_ = 0;
+
+    @Override
+    public long read() { return nanos_; }
+
+    void advance(long duration, TimeUnit unit) { nanos_ += unit.toNanos(duration); }
+  }
+
+  private static List<String> regionNames(List<HRegionLocation> locations) {
+    List<String> result = new ArrayList<>();
+    for (HRegionLocation location : locations) {
+      result.add(location.getRegionInfo().getRegionNameAsString());
+    }
+    return result;
+  }
+
+  private FeHBaseTable getAllTypes() {
+    return (FeHBaseTable) catalog_.getOrLoadTable("functional_hbase", "alltypes");
+  }
+
+  /**
+   * Tests that a table is loaded on the first access, and that the cached regions of key
+   * ranges match the regions returned by HBase.
+   */
+  @Test
+  public void testRegionsInRange() throws Exception {
+    FeHBaseTable table = getAllTypes();
+    AtomicInteger numLoads = new AtomicInteger();
+    // Loads synchronously on the thread that misses the cache.
+    HBaseRegionStatsCache cache = new HBaseRegionStatsCache(3600,
+        name -> {
+          numLoads.incrementAndGet();
+          return HBaseRegionStatsCache.loadRegions(name);
+        },
+        MoreExecutors.directExecutor(), Ticker.systemTicker());
+    // The first access starts the load of the table and falls back to HBase.
+    assertNull(cache.getRegionsInRange(table, EMPTY, EMPTY));
+    assertEquals(1, numLoads.get());
+    List<HRegionLocation> cached = cache.getRegionsInRange(table, EMPTY, EMPTY);
+    assertNotNull(cached);
+    assertTrue(cached.size() > 1);
+
+    List<Pair<byte[], byte[]>> ranges = new ArrayList<>();
+    ranges.add(new Pair<>(EMPTY, EMPTY));
+    ranges.add(new Pair<>(Bytes.toBytes("3"), EMPTY));
+    ranges.add(new Pair<>(EMPTY, Bytes.toBytes("5")));
+    ranges.add(new Pair<>(Bytes.toBytes("3"), Bytes.toBytes("7")));
+    ranges.add(new Pair<>(Bytes.toBytes("5"), Bytes.toBytes("5")));
+    for (Pair<byte[], byte[]> range : ranges) {
+      assertEquals(
+          regionNames(FeHBaseTable.Util.getRegionsInRange(
+              table, range.first, range.second)),
+          regionNames(cache.getRegionsInRange(table, range.first, range.second)));
+      Pair<Long, Long> stats =
+          cache.getEstimatedRowStats(table, range.first, range.second);
+      assertNotNull(stats);
+      assertTrue(stats.second > 0);
+    }
+
+    Pair<Long, Long> stats = cache.getEstimatedRowStats(table, EMPTY, EMPTY);
+    assertTrue(stats.first > 0);
+    // All estimates are served from the loaded entry.
+    assertEquals(1, numLoads.get());
+  }
+
+  /**
+   * Tests that loading a table samples at least MIN_NUM_REGIONS_TO_CHECK regions, or all
+   * regions of smaller tables.
+   */
+  @Test
+  public void testLoadRegionsSampling() throws Exception {
+    ImmutableList<RegionStats> regions =
+        HBaseRegionStatsCache.loadRegions(getAllTypes().getHBaseTableName());
+    assertFalse(regions.isEmpty());
+    int numSampled = 0;
+    for (RegionStats region : regions) {
+      if (region.isSampled_) ++numSampled;
+    }
+    assertTrue(numSampled >= Math.min(
+        FeHBaseTable.Util.MIN_NUM_REGIONS_TO_CHECK, regions.size()));
+  }
+
+  /**
+   * Tests that a table is loaded only once while a load is in flight, and that entries
+   * are refreshed after half of the staleness and dropped after the staleness.
+   */
+  @Test
+  public void testLoadsAndRefreshes() throws Exception {
+    FeHBaseTable table = getAllTypes();
+    ImmutableList<RegionStats> regions =
+        HBaseRegionStatsCache.loadRegions(table.getHBaseTableName());
+    AtomicInteger numLoads = new AtomicInteger();
+    // Loads are queued until the test runs them.
+    List<Runnable> pendingLoads = new ArrayList<>();
+    TestTicker ticker = new TestTicker();
+    HBaseRegionStatsCache cache = new HBaseRegionStatsCache(100,
+        name -> {
+          numLoads.incrementAndGet();
+          return regions;
+        },
+        pendingLoads::add, ticker);
+
+    for (int i = 0; i < 3; ++i) assertNull(cache.getRegionsInRange(table, EMPTY, EMPTY));
+    assertEquals(1, pendingLoads.size());
+    pendingLoads.remove(0).run();
+    assertEquals(1, numLoads.get());
+    assertEquals(regions.size(), cache.getRegionsInRange(table, EMPTY, EMPTY).size());
+    assertTrue(pendingLoads.isEmpty());
+
+    // The entry is due for a refresh, which is started once and serves the old entry
+    // until it completes.
+    ticker.advance(60, TimeUnit.SECONDS);
+    for (int i = 0; i < 3; ++i) {
+      assertNotNull(cache.getRegionsInRange(table, EMPTY, EMPTY));
+    }
+    assertEquals(1, pendingLoads.size());
+    pendingLoads.remove(0).run();
+    assertEquals(2, numLoads.get());
+    assertTrue(pendingLoads.isEmpty());
+
+    // The entry expired.
+    ticker.advance(150, TimeUnit.SECONDS);
+    assertNull(cache.getRegionsInRange(table, EMPTY, EMPTY));
+    assertEquals(1, pendingLoads.size());
+  }
+}
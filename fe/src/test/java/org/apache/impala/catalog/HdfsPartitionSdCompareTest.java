@@ -17,12 +17,16 @@
 
 package org.apache.impala.catalog;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Order;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -111,4 +115,37 @@ public class HdfsPartitionSdCompareTest {
     testSd.putToParameters("test", "value");
     assertFalse(hdfsPartition.compareSd(testSd));
   }
+
+  /**
+   * Tests that partitions with identical storage descriptors share the cached
+   * descriptor, and that changing one partition does not affect the others.
+   */
+  @Test
+  public void testSharedStorageDescriptor() throws Exception {
+    HdfsTable tbl = (HdfsTable) catalog_
+        .getOrLoadTable("functional", "alltypes", "test", null);
+    List<HdfsPartition> parts = tbl.getPartitionsForNames(
+        Arrays.asList("year=2009/month=1", "year=2009/month=2"));
+    HdfsPartition part1 = parts.get(0);
+    HdfsPartition part2 = parts.get(1);
+    assertSame(part1.getCachedMsPartitionDescriptor(),
+        part2.getCachedMsPartitionDescriptor());
+    // The HMS create time is kept per partition.
+    assertEquals(hmsPartition_.getCreateTime(),
+        part1.toHmsPartition().getCreateTime());
+    // Callers get their own copy of the SerDeInfo.
+    assertNotSame(part1.getStorageDescriptor().getSerdeInfo(),
+        part2.getStorageDescriptor().getSerdeInfo());
+
+    String inputFormat = part2.getStorageDescriptor().getInputFormat();
+    HdfsPartition newPart1 = new HdfsPartition.Builder(part1)
+        .setFileFormat(HdfsFileFormat.PARQUET)
+        .build();
+    assertNotSame(newPart1.getCachedMsPartitionDescriptor(),
+        part2.getCachedMsPartitionDescriptor());
+    assertEquals(HdfsFileFormat.PARQUET.inputFormat(),
+        newPart1.getStorageDescriptor().getInputFormat());
+    assertEquals(inputFormat, part1.getStorageDescriptor().getInputFormat());
+    assertEquals(inputFormat, part2.getStorageDescriptor().getInputFormat());
+  }
 }
@@ -0,0 +1,141 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.impala.analysis.LiteralExpr;
+import org.apache.impala.analysis.NullLiteral;
+import org.apache.impala.analysis.NumericLiteral;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class PartitionKeyIndexTest {
+
+  private static NumericLiteral lit(long value) { return NumericLiteral.create(value); }
+
+  /**
+   * Builds an index over partitions with ids 100, 101, ... partitioned by (p1, p2)
+   * where p1 is in [0, 10) and p2 is in [0, 5). The partitions with p2 = 4 have a NULL
+   * value in p2 instead.
+   */
+  private static PartitionKeyIndex createIndex() {
+    List<Long> ids = new ArrayList<>();
+    List<TreeMap<LiteralExpr, Set<Long>>> valueMaps = new ArrayList<>();
+    List<Set<Long>> nullIds = new ArrayList<>();
+    for (int col = 0; col < 2; ++col) {
+      valueMaps.add(new TreeMap<>());
+      nullIds.add(new HashSet<>());
+    }
+    long id = 100;
+    for (int p1 = 0; p1 < 10; ++p1) {
+      for (int p2 = 0; p2 < 5; ++p2) {
+        ids.add(id);
+        valueMaps.get(0).computeIfAbsent(lit(p1), k -> new HashSet<>()).add(id);
+        if (p2 == 4) {
+          nullIds.get(1).add(id);
+        } else {
+          valueMaps.get(1).computeIfAbsent(lit(p2), k -> new HashSet<>()).add(id);
+        }
+        ++id;
+      }
+    }
+    return new PartitionKeyIndex(ids, valueMaps, nullIds);
+  }
+
+  private static long partitionId(int p1, int p2) { return 100 + p1 * 5 + p2; }
+
+  @Test
+  public void testEquality() {
+    PartitionKeyIndex index = createIndex();
+    assertEquals(50, index.getNumPartitions());
+    assertEquals(50, index.all().cardinality());
+    Set<Long> ids = index.toPartitionIds(index.equalTo(0, lit(3)));
+    assertEquals(5, ids.size());
+    for (int p2 = 0; p2 < 5; ++p2) assertTrue(ids.contains(partitionId(3, p2)));
+    assertTrue(index.equalTo(0, lit(42)).isEmpty());
+    // NULL literals don't match the partitions with NULL values.
+    assertTrue(index.equalTo(1, new NullLiteral()).isEmpty());
+
+    BitSet in = new BitSet();
+    index.addEqualTo(0, lit(1), in);
+    index.addEqualTo(0, lit(7), in);
+    index.addEqualTo(0, lit(12), in);
+    assertEquals(10, in.cardinality());
+    in.and(index.equalTo(1, lit(2)));
+    assertEquals(ImmutableSet.of(partitionId(1, 2), partitionId(7, 2)),
+        index.toPartitionIds(in));
+  }
+
+  @Test
+  public void testNulls() {
+    PartitionKeyIndex index = createIndex();
+    assertTrue(index.nulls(0).isEmpty());
+    assertEquals(50, index.notNulls(0).cardinality());
+    Set<Long> nullIds = index.toPartitionIds(index.nulls(1));
+    assertEquals(10, nullIds.size());
+    for (int p1 = 0; p1 < 10; ++p1) assertTrue(nullIds.contains(partitionId(p1, 4)));
+    assertEquals(40, index.notNulls(1).cardinality());
+    // The returned sets are copies.
+    index.nulls(1).clear();
+    assertEquals(10, index.nulls(1).cardinality());
+  }
+
+  @Test
+  public void testRange() {
+    PartitionKeyIndex index = createIndex();
+    // 2 <= p1 < 5
+    assertEquals(15, index.range(0, lit(2), true, lit(5), false).cardinality());
+    // 2 < p1 <= 5
+    BitSet range = index.range(0, lit(2), false, lit(5), true);
+    assertEquals(15, range.cardinality());
+    assertTrue(index.toPartitionIds(range).contains(partitionId(5, 0)));
+    assertFalse(index.toPartitionIds(range).contains(partitionId(2, 0)));
+    // Unbounded on one side, with bounds that are not values of the column.
+    assertEquals(50, index.range(0, lit(-5), true, null, false).cardinality());
+    assertEquals(20, index.range(0, null, false, lit(3), true).cardinality());
+    assertTrue(index.range(0, lit(20), true, null, false).isEmpty());
+    // Empty range.
+    assertTrue(index.range(0, lit(5), false, lit(5), true).isEmpty());
+    assertTrue(index.range(0, lit(6), true, lit(2), true).isEmpty());
+    // Ranges never include NULL values.
+    assertEquals(40, index.range(1, null, false, null, false).cardinality());
+  }
+
+  @Test
+  public void testEmptyTable() {
+    List<TreeMap<LiteralExpr, Set<Long>>> valueMaps = new ArrayList<>();
+    valueMaps.add(new TreeMap<>());
+    List<Set<Long>> nullIds = new ArrayList<>();
+    nullIds.add(new HashSet<>());
+    PartitionKeyIndex index = new PartitionKeyIndex(new ArrayList<>(), valueMaps,
+        nullIds);
+    assertEquals(0, index.getNumPartitions());
+    assertTrue(index.equalTo(0, lit(1)).isEmpty());
+    assertTrue(index.range(0, lit(1), true, null, false).isEmpty());
+    assertTrue(index.toPartitionIds(index.all()).isEmpty());
+  }
+}
@@ -90,6 +90,7 @@ import org.apache.impala.catalog.events.MetastoreEvents.MetastoreEventType;
 import org.apache.impala.catalog.events.MetastoreEventsProcessor.EventProcessorStatus;
 import org.apache.impala.common.FileSystemUtil;
 import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.Metrics;
 import org.apache.impala.common.Pair;
 import org.apache.impala.compat.MetastoreShim;
 import org.apache.impala.service.CatalogOpExecutor;
@@ -703,6 +704,71 @@ public class MetastoreEventsProcessorTest {
     }
   }
 
+  /**
+   * Test the parallel mode of the events processor. Partition events on several tables
+   * are processed by different workers and the successive events on each table are
+   * applied together by adding and reloading only the affected partitions.
+   */
+  @Test
+  public void testParallelEventProcessing() throws Exception {
+    createDatabase(TEST_DB_NAME, null);
+    eventsProcessor_.processEvents();
+    SynchronousHMSEventProcessorForTests parallelProcessor =
+        new SynchronousHMSEventProcessorForTests(catalogOpExecutor_,
+            eventsProcessor_.getCurrentEventId(), 10L, 4);
+    parallelProcessor.start();
+    try {
+      List<String> tblNames = Arrays.asList("par_tbl1", "par_tbl2", "par_tbl3");
+      for (String tblName : tblNames) createTable(tblName, true);
+      parallelProcessor.processEvents();
+      for (String tblName : tblNames) loadTable(tblName);
+
+      Metrics parallelMetrics = parallelProcessor.getMetrics();
+      long numBatchedBefore = parallelMetrics
+          .getCounter(MetastoreEventsProcessor.EVENTS_BATCHED_METRIC).getCount();
+      long numTblRefreshesBefore = parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_TABLE_REFRESHES).getCount();
+      long numPartsAddedBefore = parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITIONS_ADDED).getCount();
+      long numPartRefreshesBefore = parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITION_REFRESHES).getCount();
+      String newLocation = "/path/to/location/";
+      for (String tblName : tblNames) {
+        addPartitions(TEST_DB_NAME, tblName, Arrays.asList(Arrays.asList("1")));
+        addPartitions(TEST_DB_NAME, tblName, Arrays.asList(Arrays.asList("2")));
+        alterPartitions(tblName, Arrays.asList(Arrays.asList("1")), newLocation);
+      }
+      parallelProcessor.processEvents();
+
+      assertEquals(EventProcessorStatus.ACTIVE, parallelProcessor.getStatus());
+      for (String tblName : tblNames) {
+        Collection<? extends FeFsPartition> parts = FeCatalogUtils.loadAllPartitions(
+            (HdfsTable) catalog_.getTable(TEST_DB_NAME, tblName));
+        assertEquals("Unexpected number of partitions in " + tblName, 2, parts.size());
+        assertTrue(parts.stream().anyMatch(p -> newLocation.equals(p.getLocation())));
+      }
+      // All three events on each table are merged into one batch, which adds the two
+      // partitions and reloads the altered one without reloading the table.
+      assertEquals(numBatchedBefore + 3 * tblNames.size(), parallelMetrics
+          .getCounter(MetastoreEventsProcessor.EVENTS_BATCHED_METRIC).getCount());
+      assertEquals(numTblRefreshesBefore, parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_TABLE_REFRESHES).getCount());
+      assertEquals(numPartsAddedBefore + 2 * tblNames.size(), parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITIONS_ADDED).getCount());
+      assertEquals(numPartRefreshesBefore + tblNames.size(), parallelMetrics
+          .getCounter(MetastoreEventsProcessor.NUMBER_OF_PARTITION_REFRESHES)
+          .getCount());
+      assertEquals(parallelProcessor.getCurrentEventId(),
+          parallelProcessor.getLastSyncedEventId());
+      TEventProcessorMetrics metrics = parallelProcessor.getEventProcessorMetrics();
+      assertEquals(0, metrics.getEvents_lag());
+      assertEquals(4, metrics.getWorker_queue_depthsSize());
+      for (int depth : metrics.getWorker_queue_depths()) assertEquals(0, depth);
+    } finally {
+      parallelProcessor.shutdown();
+    }
+  }
+
   /**
    * Test insert events. Test creates a partitioned and a non-partitioned table and
    * calls insertEvent tests on them.
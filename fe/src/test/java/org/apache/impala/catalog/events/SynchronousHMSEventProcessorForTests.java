@@ -40,6 +40,12 @@ public class SynchronousHMSEventProcessorForTests extends MetastoreEventsProcess
     super(catalogOpExecutor, startSyncFromId, pollingFrequencyInSec);
   }
 
+  SynchronousHMSEventProcessorForTests(
+      CatalogOpExecutor catalogOpExecutor, long startSyncFromId,
+      long pollingFrequencyInSec, int numWorkers) throws CatalogException {
+    super(catalogOpExecutor, startSyncFromId, pollingFrequencyInSec, numWorkers);
+  }
+
   @Override
   public void startScheduler() {
     // nothing to do here; there is no background thread for this processor
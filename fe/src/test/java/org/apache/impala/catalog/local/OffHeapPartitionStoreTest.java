@@ -0,0 +1,115 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.catalog.local;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OffHeapPartitionStoreTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static byte[] blob(int len, int seed) {
+    byte[] ret = new byte[len];
+    Arrays.fill(ret, (byte) seed);
+    return ret;
+  }
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    OffHeapPartitionStore store =
+        new OffHeapPartitionStore(4096, tempFolder.getRoot(), 1024);
+    assertNull(store.get(1));
+    assertTrue(store.put(1, blob(100, 1)));
+    assertTrue(store.put(2, blob(200, 2)));
+    assertArrayEquals(blob(100, 1), store.get(1));
+    assertArrayEquals(blob(200, 2), store.get(2));
+    assertTrue(store.contains(2));
+
+    // A newer value replaces the previous one.
+    assertTrue(store.put(1, blob(50, 3)));
+    assertArrayEquals(blob(50, 3), store.get(1));
+
+    assertEquals(3, store.getHitCount());
+    assertEquals(1, store.getMissCount());
+    assertEquals(3, store.getSpillCount());
+
+    // Values larger than a segment are rejected.
+    assertFalse(store.put(3, blob(2048, 4)));
+    assertFalse(store.contains(3));
+
+    store.invalidateAll();
+    assertEquals(0, store.size());
+    assertNull(store.get(2));
+    // The segments are reused after invalidation.
+    assertTrue(store.put(2, blob(200, 5)));
+    assertArrayEquals(blob(200, 5), store.get(2));
+    // The backing files are unlinked once mapped.
+    assertEquals(0, tempFolder.getRoot().list().length);
+  }
+
+  @Test
+  public void testSegmentRecycling() throws Exception {
+    // Two segments that fit two 400-byte values each.
+    OffHeapPartitionStore store =
+        new OffHeapPartitionStore(2048, tempFolder.getRoot(), 1024);
+    for (int i = 0; i < 4; i++) assertTrue(store.put(i, blob(400, i)));
+    assertEquals(4, store.size());
+    assertEquals(0, store.getEvictionCount());
+
+    // Wraps around to the first segment, which drops the first two values.
+    assertTrue(store.put(4, blob(400, 4)));
+    assertEquals(3, store.size());
+    assertEquals(2, store.getEvictionCount());
+    assertNull(store.get(0));
+    assertNull(store.get(1));
+    for (int i = 2; i < 5; i++) assertArrayEquals(blob(400, i), store.get(i));
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    // Two segments that fit two 400-byte values each.
+    OffHeapPartitionStore store =
+        new OffHeapPartitionStore(2048, tempFolder.getRoot(), 1024);
+    assertTrue(store.put(0, blob(400, 0)));
+    assertTrue(store.put(1, blob(400, 1)));
+    assertTrue(store.remove(1));
+    assertFalse(store.remove(1));
+    assertFalse(store.contains(1));
+    assertNull(store.get(1));
+
+    // The space of the last appended value is reused, so the values still fit into
+    // the two segments without dropping any of them.
+    for (int i = 2; i < 5; i++) assertTrue(store.put(i, blob(400, i)));
+    assertEquals(0, store.getEvictionCount());
+    assertArrayEquals(blob(400, 0), store.get(0));
+    for (int i = 2; i < 5; i++) assertArrayEquals(blob(400, i), store.get(i));
+
+    // The space of other values is only reused once their segment is recycled.
+    assertTrue(store.remove(2));
+    assertTrue(store.put(5, blob(400, 5)));
+    assertEquals(1, store.getEvictionCount());
+    assertNull(store.get(0));
+    for (int i = 3; i < 6; i++) assertArrayEquals(blob(400, i), store.get(i));
+  }
+}
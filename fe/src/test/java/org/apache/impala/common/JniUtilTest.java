@@ -0,0 +1,88 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.common;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.apache.impala.thrift.TColumnValue;
+import org.apache.impala.thrift.TResultRow;
+import org.apache.impala.thrift.TResultSet;
+import org.apache.impala.thrift.TResultSetMetadata;
+import org.junit.Test;
+
+public class JniUtilTest {
+
+  private static TResultSet createResultSet(int numRows) {
+    TResultSet resultSet = new TResultSet();
+    resultSet.setSchema(new TResultSetMetadata());
+    for (int i = 0; i < numRows; ++i) {
+      TColumnValue value = new TColumnValue();
+      value.setString_val("row " + i);
+      TResultRow row = new TResultRow();
+      row.addToColVals(value);
+      resultSet.addToRows(row);
+    }
+    return resultSet;
+  }
+
+  /**
+   * Tests that messages round-trip through direct buffers with both protocols, also if
+   * they don't fit into the initial buffer.
+   */
+  @Test
+  public void testDirectBuffers() throws ImpalaException {
+    for (boolean compact : new boolean[] {false, true}) {
+      for (int numRows : new int[] {0, 10, 100000}) {
+        TResultSet expected = createResultSet(numRows);
+        ByteBuffer buffer = JniUtil.serializeToDirectBuffer(expected, compact);
+        assertTrue(buffer.isDirect());
+        assertEquals(buffer.capacity(), buffer.remaining());
+        TResultSet actual = new TResultSet();
+        JniUtil.deserializeThrift(actual, buffer, compact);
+        assertEquals(expected, actual);
+      }
+    }
+    // The binary protocol matches the byte[] serialization.
+    TResultSet resultSet = createResultSet(10);
+    byte[] bytes = JniUtil.serializeToThrift(resultSet);
+    ByteBuffer buffer = JniUtil.serializeToDirectBuffer(resultSet, false);
+    byte[] directBytes = new byte[buffer.remaining()];
+    buffer.get(directBytes);
+    assertArrayEquals(bytes, directBytes);
+  }
+
+  /**
+   * Tests that a message that does not fit into the buffer of the thread gets its own
+   * buffer, which is not reused for the next message.
+   */
+  @Test
+  public void testLargeDirectBufferNotReused() throws ImpalaException {
+    TResultSet large = createResultSet(100000);
+    ByteBuffer largeBuffer = JniUtil.serializeToDirectBuffer(large, false);
+    TResultSet small = createResultSet(10);
+    ByteBuffer smallBuffer = JniUtil.serializeToDirectBuffer(small, false);
+    TResultSet actual = new TResultSet();
+    JniUtil.deserializeThrift(actual, largeBuffer, false);
+    assertEquals(large, actual);
+    actual = new TResultSet();
+    JniUtil.deserializeThrift(actual, smallBuffer, false);
+    assertEquals(small, actual);
+  }
+}
@@ -141,6 +141,12 @@ public class TestUdf extends UDF {
     return a + b + c;
   }
 
+  // Udfs with boxed argument and return types
+  public Long evaluate(Long a, Integer b) {
+    if (a == null || b == null) return null;
+    return a + b;
+  }
+
   // Udfs with mixed types
   public double evaluate(IntWritable a, double b) {
     if (a == null) return -1;
@@ -60,6 +60,7 @@ import org.apache.impala.catalog.PrimitiveType;
 import org.apache.impala.catalog.ScalarFunction;
 import org.apache.impala.catalog.Type;
 import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.ImpalaRuntimeException;
 import org.apache.impala.thrift.TFunction;
 import org.apache.impala.thrift.TFunctionBinaryType;
 import org.apache.impala.thrift.THiveUdfExecutorCtorParams;
@@ -72,6 +73,7 @@ import org.junit.Test;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 
 @SuppressWarnings("restriction")
@@ -83,6 +85,14 @@ public class UdfExecutorTest {
   private final static TBinaryProtocol.Factory PROTOCOL_FACTORY =
       new TBinaryProtocol.Factory();
 
+  // Buffers and argument offsets of the last UdfExecutor created by createUdfExecutor().
+  // Tests that call evaluate() write the arguments to these like the BE does.
+  long inputNullsPtr_;
+  long inputBufferPtr_;
+  long outputNullPtr_;
+  long outputBufferPtr_;
+  List<Integer> inputByteOffsets_;
+
   // Allocations from the native heap. These are freed in bulk.
   ArrayList<Long> allocations_ = Lists.newArrayList();
 
@@ -242,6 +252,11 @@ public class UdfExecutorTest {
     long inputBufferPtr = allocate(inputBufferSize);
     long outputNullPtr = allocate(1);
     long outputBufferPtr = allocate(retType.getSlotSize());
+    inputNullsPtr_ = inputNullsPtr;
+    inputBufferPtr_ = inputBufferPtr;
+    outputNullPtr_ = outputNullPtr;
+    outputBufferPtr_ = outputBufferPtr;
+    inputByteOffsets_ = inputByteOffsets;
 
     THiveUdfExecutorCtorParams params = new THiveUdfExecutorCtorParams(fn, jarFile,
         inputByteOffsets, inputNullsPtr, inputBufferPtr, outputNullPtr, outputBufferPtr);
@@ -498,4 +513,221 @@ public class UdfExecutorTest {
         createBoolean(true));
     freeAllocations();
   }
+
+  // Allocates a column of 'numRows' slots of 'slotSize' bytes and returns the ptr.
+  long allocateColumn(int numRows, int slotSize) { return allocate(numRows * slotSize); }
+
+  // Allocates the array of per-argument pointers passed to evaluateBatch().
+  long allocatePtrArray(long... ptrs) {
+    long ptr = allocate(ptrs.length * 8);
+    for (int i = 0; i < ptrs.length; ++i) UnsafeUtil.UNSAFE.putLong(ptr + i * 8, ptrs[i]);
+    return ptr;
+  }
+
+  // Writes 'v' as a StringValue into 'slotPtr'. The string data is allocated from the
+  // native heap.
+  void putStringValue(long slotPtr, String v) {
+    byte[] bytes = v.getBytes();
+    long dataPtr = allocate(Math.max(bytes.length, 1));
+    UnsafeUtil.Copy(dataPtr, bytes, 0, bytes.length);
+    UnsafeUtil.UNSAFE.putLong(slotPtr, dataPtr);
+    UnsafeUtil.UNSAFE.putInt(
+        slotPtr + ImpalaStringWritable.STRING_VALUE_LEN_OFFSET, bytes.length);
+  }
+
+  @Test
+  // Test that evaluateBatch() returns the same results as row-at-a-time evaluation,
+  // including NULL handling and string results.
+  public void BatchTest()
+      throws ImpalaException, MalformedURLException, TException {
+    final int numRows = 100;
+    final int intSize = PrimitiveType.INT.getSlotSize();
+    final int stringSize = PrimitiveType.STRING.getSlotSize();
+
+    // int evaluate(IntWritable a, IntWritable b): returns -1 if any input is NULL.
+    UdfExecutor e = createUdfExecutor(null, TestUdf.class.getName(), Type.INT,
+        createInt(0), createInt(0));
+    long aCol = allocateColumn(numRows, intSize);
+    long bCol = allocateColumn(numRows, intSize);
+    long aNulls = allocate(numRows);
+    long bNulls = allocate(numRows);
+    for (int i = 0; i < numRows; ++i) {
+      UnsafeUtil.UNSAFE.putInt(aCol + i * intSize, i);
+      UnsafeUtil.UNSAFE.putInt(bCol + i * intSize, 2 * i);
+      UnsafeUtil.UNSAFE.putByte(aNulls + i, (byte) (i % 7 == 0 ? 1 : 0));
+      UnsafeUtil.UNSAFE.putByte(bNulls + i, (byte) 0);
+    }
+    long outCol = allocateColumn(numRows, intSize);
+    long outNulls = allocate(numRows);
+    // Evaluate twice to make sure state is not carried over between batches.
+    for (int iter = 0; iter < 2; ++iter) {
+      e.evaluateBatch(numRows, allocatePtrArray(aCol, bCol),
+          allocatePtrArray(aNulls, bNulls), outCol, outNulls);
+      for (int i = 0; i < numRows; ++i) {
+        Assert.assertEquals(0, UnsafeUtil.UNSAFE.getByte(outNulls + i));
+        int expected = i % 7 == 0 ? -1 : 3 * i;
+        Assert.assertEquals(expected, UnsafeUtil.UNSAFE.getInt(outCol + i * intSize));
+      }
+    }
+    e.close();
+
+    // int evaluate(int a, int b, int c): primitive arguments and result. The specialized
+    // invoker passes them unboxed, NULL inputs fall back to reflection and fail.
+    e = createUdfExecutor(null, TestUdf.class.getName(), Type.INT,
+        createInt(0), createInt(0), createInt(0));
+    long zeroNulls = allocate(numRows);
+    UnsafeUtil.UNSAFE.setMemory(zeroNulls, numRows, (byte) 0);
+    e.evaluateBatch(numRows, allocatePtrArray(aCol, bCol, aCol),
+        allocatePtrArray(zeroNulls, zeroNulls, zeroNulls), outCol, outNulls);
+    for (int i = 0; i < numRows; ++i) {
+      Assert.assertEquals(0, UnsafeUtil.UNSAFE.getByte(outNulls + i));
+      Assert.assertEquals(4 * i, UnsafeUtil.UNSAFE.getInt(outCol + i * intSize));
+    }
+    try {
+      e.evaluateBatch(numRows, allocatePtrArray(aCol, bCol, aCol),
+          allocatePtrArray(aNulls, zeroNulls, zeroNulls), outCol, outNulls);
+      Assert.fail("Expected NULL argument to a primitive parameter to fail");
+    } catch (ImpalaRuntimeException expected) {
+      // Expected.
+    }
+    e.close();
+
+    // String evaluate(String a, String b): returns NULL if any input is NULL.
+    e = createUdfExecutor(null, TestUdf.class.getName(), Type.STRING, "", "");
+    aCol = allocateColumn(numRows, stringSize);
+    bCol = allocateColumn(numRows, stringSize);
+    for (int i = 0; i < numRows; ++i) {
+      putStringValue(aCol + i * stringSize, "row" + i);
+      putStringValue(bCol + i * stringSize, Strings.repeat("x", i));
+      UnsafeUtil.UNSAFE.putByte(bNulls + i, (byte) (i % 5 == 0 ? 1 : 0));
+    }
+    outCol = allocateColumn(numRows, stringSize);
+    e.evaluateBatch(numRows, allocatePtrArray(aCol, bCol),
+        allocatePtrArray(aNulls, bNulls), outCol, outNulls);
+    for (int i = 0; i < numRows; ++i) {
+      boolean expectNull = i % 7 == 0 || i % 5 == 0;
+      Assert.assertEquals(expectNull ? 1 : 0, UnsafeUtil.UNSAFE.getByte(outNulls + i));
+      if (expectNull) continue;
+      ImpalaStringWritable sw = new ImpalaStringWritable(outCol + i * stringSize);
+      Assert.assertEquals("row" + i + Strings.repeat("x", i), new String(sw.getBytes()));
+    }
+    e.close();
+    freeAllocations();
+  }
+
+  // Sets the null indicator of argument 'i' in the input buffers of evaluate().
+  void setArgNull(int i, boolean isNull) {
+    UnsafeUtil.UNSAFE.putByte(inputNullsPtr_ + i, (byte) (isNull ? 1 : 0));
+  }
+
+  // Returns the ptr to the slot of argument 'i' in the input buffer of evaluate().
+  long argSlotPtr(int i) { return inputBufferPtr_ + inputByteOffsets_.get(i); }
+
+  void setIntArg(int i, int v) {
+    setArgNull(i, false);
+    UnsafeUtil.UNSAFE.putInt(argSlotPtr(i), v);
+  }
+
+  void setBigIntArg(int i, long v) {
+    setArgNull(i, false);
+    UnsafeUtil.UNSAFE.putLong(argSlotPtr(i), v);
+  }
+
+  void setStringArg(int i, String v) {
+    setArgNull(i, false);
+    putStringValue(argSlotPtr(i), v);
+  }
+
+  boolean isResultNull() { return UnsafeUtil.UNSAFE.getByte(outputNullPtr_) != 0; }
+
+  @Test
+  // Tests evaluate() through the input and output buffers, the way the BE calls it.
+  // Non-NULL arguments go through the specialized invoker, NULL arguments through
+  // reflection.
+  public void BufferEvaluateTest()
+      throws ImpalaException, MalformedURLException, TException {
+    // int evaluate(int a, int b, int c): primitive arguments and result.
+    UdfExecutor e = createUdfExecutor(null, TestUdf.class.getName(), Type.INT,
+        createInt(0), createInt(0), createInt(0));
+    Assert.assertTrue(e.hasSpecializedInvoker());
+    for (int i = 0; i < 10; ++i) {
+      setIntArg(0, i);
+      setIntArg(1, 2 * i);
+      setIntArg(2, 3 * i);
+      e.evaluate();
+      Assert.assertFalse(isResultNull());
+      Assert.assertEquals(6 * i, UnsafeUtil.UNSAFE.getInt(outputBufferPtr_));
+    }
+    e.close();
+
+    // int evaluate(IntWritable a, IntWritable b): Writable arguments, -1 for NULLs.
+    e = createUdfExecutor(null, TestUdf.class.getName(), Type.INT,
+        createInt(0), createInt(0));
+    Assert.assertTrue(e.hasSpecializedInvoker());
+    for (int i = 0; i < 10; ++i) {
+      setIntArg(0, i);
+      setIntArg(1, 2 * i);
+      setArgNull(1, i % 3 == 0);
+      e.evaluate();
+      Assert.assertFalse(isResultNull());
+      Assert.assertEquals(i % 3 == 0 ? -1 : 3 * i,
+          UnsafeUtil.UNSAFE.getInt(outputBufferPtr_));
+    }
+    e.close();
+
+    // String evaluate(String a, String b): String arguments and result, NULL for NULLs.
+    e = createUdfExecutor(null, TestUdf.class.getName(), Type.STRING, "", "");
+    Assert.assertTrue(e.hasSpecializedInvoker());
+    for (int i = 0; i < 10; ++i) {
+      setStringArg(0, "row" + i);
+      setStringArg(1, Strings.repeat("x", i));
+      setArgNull(0, i % 4 == 0);
+      e.evaluate();
+      Assert.assertEquals(i % 4 == 0, isResultNull());
+      if (i % 4 == 0) continue;
+      ImpalaStringWritable sw = new ImpalaStringWritable(outputBufferPtr_);
+      Assert.assertEquals("row" + i + Strings.repeat("x", i), new String(sw.getBytes()));
+    }
+    e.close();
+
+    // Long evaluate(Long a, Integer b): boxed arguments and result, NULL for NULLs.
+    e = createUdfExecutor(null, TestUdf.class.getName(), Type.BIGINT,
+        createBigInt(0), createInt(0));
+    Assert.assertTrue(e.hasSpecializedInvoker());
+    for (int i = 0; i < 10; ++i) {
+      setBigIntArg(0, 1L << 40);
+      setIntArg(1, i);
+      setArgNull(1, i % 5 == 0);
+      e.evaluate();
+      Assert.assertEquals(i % 5 == 0, isResultNull());
+      if (i % 5 == 0) continue;
+      Assert.assertEquals((1L << 40) + i, UnsafeUtil.UNSAFE.getLong(outputBufferPtr_));
+    }
+    e.close();
+    freeAllocations();
+  }
+
+  @Test
+  // Tests that an exception thrown by the UDF is reported the same way through the
+  // specialized invoker and through reflection.
+  public void BufferEvaluateExceptionTest()
+      throws ImpalaException, MalformedURLException, TException {
+    UdfExecutor e = createUdfExecutor(null, TestUdfException.class.getName(), Type.INT,
+        createInt(0));
+    Assert.assertTrue(e.hasSpecializedInvoker());
+    for (boolean isNull : new boolean[] {false, true}) {
+      setIntArg(0, 1);
+      setArgNull(0, isNull);
+      try {
+        e.evaluate();
+        Assert.fail("Expected the UDF to fail");
+      } catch (ImpalaRuntimeException ex) {
+        Throwable rootCause = Throwables.getRootCause(ex);
+        Assert.assertTrue(rootCause instanceof IllegalStateException);
+        Assert.assertEquals("Test UDF failure", rootCause.getMessage());
+      }
+    }
+    e.close();
+    freeAllocations();
+  }
 }
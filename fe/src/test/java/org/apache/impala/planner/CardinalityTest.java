@@ -246,6 +246,33 @@ public class CardinalityTest extends PlannerTestBase {
         ImmutableSet.of(PlannerTestOption.DISABLE_HDFS_NUM_ROWS_ESTIMATE));
   }
 
+  /**
+   * The cardinality of Iceberg scans is the sum of the record counts of the data files
+   * to scan, even without HMS stats. functional_parquet.iceberg_partitioned has 20
+   * rows.
+   */
+  @Test
+  public void testIcebergScanNodeWithoutStats() {
+    verifyCardinality("SELECT id FROM functional_parquet.iceberg_partitioned", 20, true,
+        ImmutableSet.of(), Arrays.asList(0), IcebergScanNode.class);
+  }
+
+  /**
+   * The selectivity of predicates on Iceberg tables is estimated from the bounds of the
+   * column in each data file. Each of the 20 data files of
+   * functional_parquet.iceberg_partitioned has a single row, with ids from 1 to 20, so
+   * the estimates are exact.
+   */
+  @Test
+  public void testIcebergScanNodeMetricsSelectivity() {
+    verifyCardinality(
+        "SELECT id FROM functional_parquet.iceberg_partitioned WHERE id < 5", 4);
+    verifyCardinality(
+        "SELECT id FROM functional_parquet.iceberg_partitioned WHERE id >= 5", 16);
+    verifyCardinality(
+        "SELECT id FROM functional_parquet.iceberg_partitioned WHERE id = 5", 1);
+  }
+
   @Test
   public void testAggregationNodeCount() {
     // Create the paths to the AggregationNode's of interest
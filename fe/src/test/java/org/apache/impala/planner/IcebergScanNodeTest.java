@@ -0,0 +1,206 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.planner;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.expressions.Expression.Operation;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.service.Frontend.PlanCtx;
+import org.apache.impala.testutil.TestUtils;
+import org.apache.impala.thrift.TEnabledRuntimeFilterTypes;
+import org.apache.impala.thrift.TExecRequest;
+import org.apache.impala.thrift.TFileColumnBounds;
+import org.apache.impala.thrift.TPlanExecInfo;
+import org.apache.impala.thrift.TQueryCtx;
+import org.apache.impala.thrift.TQueryOptions;
+import org.apache.impala.thrift.TRuntimeFilterMode;
+import org.apache.impala.thrift.TScanRangeLocationList;
+import org.apache.impala.thrift.TScanRangeSpec;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the use of the file metrics of Iceberg tables for the cardinality estimate and
+ * for skipping files with min/max runtime filters.
+ */
+public class IcebergScanNodeTest extends PlannerTestBase {
+  private static final double DELTA = 1e-9;
+
+  private static final Types.NestedField INT_FIELD =
+      Types.NestedField.optional(1, "i", Types.IntegerType.get());
+
+  private static int fileCounter_ = 0;
+
+  /**
+   * Returns a data file with 'recordCount' rows whose values of INT_FIELD are between
+   * 'lower' and 'upper' and include 'nullCount' NULLs. The bounds are not set if they
+   * are null.
+   */
+  private static DataFile createDataFile(long recordCount, Integer lower, Integer upper,
+      long nullCount) {
+    Map<Integer, Long> nullCounts = new HashMap<>();
+    nullCounts.put(INT_FIELD.fieldId(), nullCount);
+    Map<Integer, ByteBuffer> lowerBounds = new HashMap<>();
+    Map<Integer, ByteBuffer> upperBounds = new HashMap<>();
+    if (lower != null) {
+      lowerBounds.put(INT_FIELD.fieldId(),
+          Conversions.toByteBuffer(INT_FIELD.type(), lower));
+    }
+    if (upper != null) {
+      upperBounds.put(INT_FIELD.fieldId(),
+          Conversions.toByteBuffer(INT_FIELD.type(), upper));
+    }
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/test/file" + (fileCounter_++) + ".parquet")
+        .withFileSizeInBytes(1024)
+        .withFormat(FileFormat.PARQUET)
+        .withMetrics(new Metrics(recordCount, null, null, nullCounts, lowerBounds,
+            upperBounds))
+        .build();
+  }
+
+  private static double selectivity(Operation op, Object literal, List<DataFile> files) {
+    long numRecords = 0;
+    for (DataFile file : files) numRecords += file.recordCount();
+    return IcebergScanNode.computeMetricsSelectivity(op, literal, INT_FIELD, files,
+        numRecords);
+  }
+
+  /**
+   * Tests the selectivity of binary predicates estimated from the bounds and null counts
+   * of the files.
+   */
+  @Test
+  public void testMetricsSelectivity() {
+    // Files in which the column has a single value.
+    List<DataFile> singleValueFiles = ImmutableList.of(
+        createDataFile(10, 1, 1, 0), createDataFile(30, 2, 2, 0));
+    assertEquals(0.25, selectivity(Operation.EQ, 1, singleValueFiles), DELTA);
+    assertEquals(0.75, selectivity(Operation.EQ, 2, singleValueFiles), DELTA);
+    assertEquals(0.0, selectivity(Operation.EQ, 3, singleValueFiles), DELTA);
+    assertEquals(0.25, selectivity(Operation.LT, 2, singleValueFiles), DELTA);
+    assertEquals(1.0, selectivity(Operation.LT_EQ, 2, singleValueFiles), DELTA);
+    assertEquals(0.0, selectivity(Operation.GT, 2, singleValueFiles), DELTA);
+    assertEquals(0.75, selectivity(Operation.GT_EQ, 2L, singleValueFiles), DELTA);
+
+    // Range predicates are interpolated between the bounds of each file and clamped
+    // to [0, 1] per file.
+    List<DataFile> rangeFiles = ImmutableList.of(
+        createDataFile(100, 0, 100, 0), createDataFile(100, 200, 300, 0));
+    assertEquals(0.25, selectivity(Operation.LT, 50, rangeFiles), DELTA);
+    assertEquals(0.75, selectivity(Operation.GT_EQ, 50, rangeFiles), DELTA);
+    assertEquals(0.625, selectivity(Operation.LT, 225, rangeFiles), DELTA);
+    assertEquals(0.0, selectivity(Operation.LT, -10, rangeFiles), DELTA);
+    assertEquals(1.0, selectivity(Operation.LT_EQ, 1000, rangeFiles), DELTA);
+
+    // NULLs don't satisfy any predicate.
+    List<DataFile> nullFiles = ImmutableList.of(
+        createDataFile(100, 0, 100, 50), createDataFile(100, 7, 7, 20));
+    assertEquals(0.525, selectivity(Operation.LT, 50, nullFiles), DELTA);
+    assertEquals(0.65, selectivity(Operation.GT_EQ, 0, nullFiles), DELTA);
+    List<DataFile> singleValueNullFiles = ImmutableList.of(
+        createDataFile(100, 7, 7, 20), createDataFile(100, 8, 8, 0));
+    assertEquals(0.4, selectivity(Operation.EQ, 7, singleValueNullFiles), DELTA);
+  }
+
+  /**
+   * Tests the cases in which the selectivity can't be estimated from the file metrics.
+   */
+  @Test
+  public void testMetricsSelectivityUnknown() {
+    List<DataFile> rangeFiles = ImmutableList.of(
+        createDataFile(100, 0, 100, 0), createDataFile(100, 5, 5, 0));
+    // Equality with a column that has several values in a file.
+    assertEquals(-1, selectivity(Operation.EQ, 5, rangeFiles), DELTA);
+    // Unsupported operations and literals.
+    assertEquals(-1, selectivity(Operation.NOT_EQ, 5, rangeFiles), DELTA);
+    assertEquals(-1, selectivity(Operation.LT, "5", rangeFiles), DELTA);
+    // A file without bounds of the column.
+    List<DataFile> noBoundsFiles = ImmutableList.of(
+        createDataFile(100, 0, 100, 0), createDataFile(100, null, null, 100));
+    assertEquals(-1, selectivity(Operation.LT, 50, noBoundsFiles), DELTA);
+    // Unknown column and no rows.
+    assertEquals(-1, IcebergScanNode.computeMetricsSelectivity(Operation.LT, 50, null,
+        rangeFiles, 200), DELTA);
+    assertEquals(-1, IcebergScanNode.computeMetricsSelectivity(Operation.LT, 50,
+        INT_FIELD, ImmutableList.of(), 0), DELTA);
+  }
+
+  /**
+   * Tests that the scan ranges of the Iceberg table carry the bounds of the target
+   * column of a min/max runtime filter in each file.
+   */
+  @Test
+  public void testFileColumnBounds() throws ImpalaException {
+    TQueryCtx queryCtx = TestUtils.createQueryContext(
+        "default", System.getProperty("user.name"));
+    queryCtx.client_request.setStmt("SELECT STRAIGHT_JOIN i.id "
+        + "FROM functional_parquet.iceberg_partitioned i "
+        + "JOIN functional.alltypestiny t ON i.id = t.id");
+    TQueryOptions options = queryCtx.client_request.getQuery_options();
+    options.setRuntime_filter_mode(TRuntimeFilterMode.GLOBAL);
+    options.setEnabled_runtime_filter_types(TEnabledRuntimeFilterTypes.MIN_MAX);
+    options.setMinmax_filter_threshold(0.5);
+    PlanCtx planCtx = new PlanCtx(queryCtx);
+    planCtx.disableDescTblSerialization();
+    TExecRequest execRequest = frontend_.createExecRequest(planCtx);
+
+    List<TFileColumnBounds> allBounds = new ArrayList<>();
+    for (TPlanExecInfo execInfo : execRequest.query_exec_request.plan_exec_info) {
+      if (execInfo.per_node_scan_ranges == null) continue;
+      TScanRangeSpec spec = execInfo.per_node_scan_ranges.get(0);
+      if (spec == null || !spec.isSetConcrete_ranges()) continue;
+      for (TScanRangeLocationList range : spec.getConcrete_ranges()) {
+        List<TFileColumnBounds> bounds =
+            range.getScan_range().getHdfs_file_split().getColumn_bounds();
+        assertNotNull(bounds);
+        assertEquals(1, bounds.size());
+        allBounds.add(bounds.get(0));
+      }
+    }
+    assertEquals(20, allBounds.size());
+    TreeSet<Integer> ids = new TreeSet<>();
+    for (TFileColumnBounds bounds : allBounds) {
+      assertEquals(allBounds.get(0).getFilter_id(), bounds.getFilter_id());
+      // The filter has the INT type of the join columns.
+      assertTrue(bounds.getLower_bound().isSetInt_val());
+      assertEquals(bounds.getLower_bound().getInt_val(),
+          bounds.getUpper_bound().getInt_val());
+      ids.add(bounds.getLower_bound().getInt_val());
+    }
+    assertEquals(20, ids.size());
+    assertEquals(1, (int) ids.first());
+    assertEquals(20, (int) ids.last());
+  }
+}
@@ -890,6 +890,69 @@ public class PlannerTest extends PlannerTestBase {
     Assert.assertNotNull(requestWithDisableSpillOn);
   }
 
+  /**
+   * Tests the join orders chosen by the enumeration of MAX_JOIN_ENUMERATION_TABLES, and
+   * that the EXTENDED explain header reports the enumerated and fallback join blocks.
+   */
+  @Test
+  public void testJoinEnumeration() throws ImpalaException {
+    TQueryOptions options = defaultQueryOptions();
+    // Keep the plans focused on the join order.
+    options.setRuntime_filter_mode(TRuntimeFilterMode.OFF);
+    runPlannerTestFile("join-enumeration", options);
+
+    TQueryCtx queryCtx = TestUtils.createQueryContext(Catalog.DEFAULT_DB,
+        System.getProperty("user.name"));
+    queryCtx.client_request.setStmt("select count(*) from tpch.lineitem l, " +
+        "tpch.orders o, tpch.customer c, tpch.nation n where " +
+        "l.l_orderkey = o.o_orderkey and o.o_custkey = c.c_custkey and " +
+        "c.c_nationkey = n.n_nationkey");
+    queryCtx.client_request.query_options = defaultQueryOptions();
+    queryCtx.client_request.query_options.setExplain_level(TExplainLevel.EXTENDED);
+    queryCtx.client_request.query_options.setMax_join_enumeration_tables(4);
+    String plan = frontend_.createExecRequest(new PlanCtx(queryCtx))
+        .query_exec_request.query_plan;
+    Assert.assertTrue(plan, plan.contains(
+        "Join order: enumerated for 1 join block(s), greedy fallback for 0"));
+
+    // A 12-way join exceeds the budget of candidate joins.
+    StringBuilder stmt =
+        new StringBuilder("select count(*) from functional.alltypestiny t1");
+    StringBuilder where = new StringBuilder();
+    for (int i = 2; i <= 12; ++i) {
+      stmt.append(", functional.alltypestiny t" + i);
+      where.append(i == 2 ? " where " : " and ")
+          .append("t" + (i - 1) + ".id = t" + i + ".id");
+    }
+    queryCtx.client_request.setStmt(stmt.append(where).toString());
+    queryCtx.client_request.query_options.setMax_join_enumeration_tables(12);
+    plan = frontend_.createExecRequest(new PlanCtx(queryCtx))
+        .query_exec_request.query_plan;
+    Assert.assertTrue(plan, plan.contains(
+        "Join order: enumerated for 0 join block(s), greedy fallback for 1"));
+  }
+
+  /**
+   * Tests that RUNTIME_FILTER_COST_BASED_SELECTION drops bloom filters that are not
+   * expected to save more than they cost, and lists them in the EXTENDED explain plan.
+   */
+  @Test
+  public void testCostBasedRuntimeFilterSelection() throws ImpalaException {
+    runPlannerTestFile("runtime-filter-cost-based-selection");
+
+    TQueryCtx queryCtx = TestUtils.createQueryContext(Catalog.DEFAULT_DB,
+        System.getProperty("user.name"));
+    queryCtx.client_request.setStmt("select count(*) from tpch.lineitem l, " +
+        "tpch.orders o where l.l_orderkey = o.o_orderkey");
+    queryCtx.client_request.query_options = defaultQueryOptions();
+    queryCtx.client_request.query_options.setExplain_level(TExplainLevel.EXTENDED);
+    queryCtx.client_request.query_options.setRuntime_filter_cost_based_selection(true);
+    String plan = frontend_.createExecRequest(new PlanCtx(queryCtx))
+        .query_exec_request.query_plan;
+    Assert.assertTrue(plan,
+        plan.contains("rejected runtime filters: RF000 <- o.o_orderkey (est. benefit"));
+  }
+
   @Test
   public void testMinMaxRuntimeFilters() {
     TQueryOptions options = defaultQueryOptions();
@@ -0,0 +1,89 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.service;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.impala.authorization.AuthorizationChecker;
+import org.apache.impala.common.InternalException;
+import org.apache.impala.service.AuthzDecisionCache.CheckType;
+import org.apache.impala.service.AuthzDecisionCache.Key;
+import org.apache.impala.thrift.TGetCatalogMetricsResult;
+import org.junit.Test;
+
+public class AuthzDecisionCacheTest {
+  private int numChecks_ = 0;
+
+  private boolean check(AuthzDecisionCache cache, AuthorizationChecker checker, Key key,
+      boolean result) throws InternalException {
+    return cache.isAccessible(checker, key, () -> {
+      ++numChecks_;
+      return result;
+    });
+  }
+
+  private static Key tableKey(String user, String tbl, long version) {
+    return new Key(CheckType.TABLE, user, "db", tbl, null, "owner", version);
+  }
+
+  @Test
+  public void testCachedDecisions() throws InternalException {
+    AuthzDecisionCache cache = new AuthzDecisionCache(100, 3600);
+    AuthorizationChecker checker = mock(AuthorizationChecker.class);
+    assertTrue(check(cache, checker, tableKey("u1", "t1", 1), true));
+    assertFalse(check(cache, checker, tableKey("u1", "t2", 1), false));
+    assertEquals(2, numChecks_);
+    // Cached decisions, including denials, are reused.
+    assertTrue(check(cache, checker, tableKey("u1", "t1", 1), false));
+    assertFalse(check(cache, checker, tableKey("u1", "t2", 1), true));
+    assertEquals(2, numChecks_);
+    // Other users, object versions and check types are checked separately.
+    assertFalse(check(cache, checker, tableKey("u2", "t1", 1), false));
+    assertFalse(check(cache, checker, tableKey("u1", "t1", 2), false));
+    assertFalse(check(cache, checker,
+        new Key(CheckType.DB, "u1", "db", null, null, "owner", 0), false));
+    assertEquals(5, numChecks_);
+
+    TGetCatalogMetricsResult metrics = new TGetCatalogMetricsResult();
+    cache.populateMetrics(metrics);
+    assertEquals(2, metrics.getAuthz_cache_hit_count());
+    assertEquals(5, metrics.getAuthz_cache_miss_count());
+  }
+
+  @Test
+  public void testPolicyChanges() throws InternalException {
+    AuthzDecisionCache cache = new AuthzDecisionCache(100, 3600);
+    AuthorizationChecker checker = mock(AuthorizationChecker.class);
+    when(checker.getPolicyVersion()).thenReturn(1L);
+    assertTrue(check(cache, checker, tableKey("u1", "t1", 1), true));
+    assertTrue(check(cache, checker, tableKey("u1", "t1", 1), false));
+    assertEquals(1, numChecks_);
+    // A new policy version clears the cache.
+    when(checker.getPolicyVersion()).thenReturn(2L);
+    assertFalse(check(cache, checker, tableKey("u1", "t1", 1), false));
+    assertEquals(2, numChecks_);
+    assertEquals(1, cache.size());
+    // So does a new checker.
+    AuthorizationChecker newChecker = mock(AuthorizationChecker.class);
+    when(newChecker.getPolicyVersion()).thenReturn(2L);
+    assertTrue(check(cache, newChecker, tableKey("u1", "t1", 1), true));
+    assertEquals(3, numChecks_);
+  }
+}
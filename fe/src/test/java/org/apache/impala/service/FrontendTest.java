@@ -20,6 +20,7 @@ package org.apache.impala.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.ArrayList;
@@ -38,7 +39,10 @@ import org.apache.impala.catalog.Table;
 import org.apache.impala.catalog.Type;
 import org.apache.impala.common.FrontendTestBase;
 import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.InternalException;
 import org.apache.impala.testutil.TestUtils;
+import org.apache.impala.thrift.TFetchMetadataOpRowsRequest;
+import org.apache.impala.thrift.TMetadataOpPage;
 import org.apache.impala.thrift.TMetadataOpRequest;
 import org.apache.impala.thrift.TMetadataOpcode;
 import org.apache.impala.thrift.TResultRow;
@@ -378,6 +382,64 @@ public class FrontendTest extends FrontendTestBase {
     }
   }
 
+  /**
+   * Tests that fetching the result of metadata operations in pages returns the same rows
+   * as executing them at once.
+   */
+  @Test
+  public void TestPagedMetadataOps() throws ImpalaException {
+    TMetadataOpRequest req = new TMetadataOpRequest();
+    req.opcode = TMetadataOpcode.GET_COLUMNS;
+    req.get_columns_req = new TGetColumnsReq();
+    req.get_columns_req.setSchemaName("functional%");
+    req.get_columns_req.setTableName("alltypes%");
+    checkPagedMetadataOp(req, 7);
+
+    req = new TMetadataOpRequest();
+    req.opcode = TMetadataOpcode.GET_SCHEMAS;
+    req.get_schemas_req = new TGetSchemasReq();
+    checkPagedMetadataOp(req, 2);
+
+    // Results of other operations are paged as well.
+    req = new TMetadataOpRequest();
+    req.opcode = TMetadataOpcode.GET_TYPE_INFO;
+    req.get_info_req = new TGetInfoReq();
+    checkPagedMetadataOp(req, 4);
+  }
+
+  /**
+   * Fetches the result of 'req' in pages of 'pageSize' rows and checks that it matches
+   * the result of executing 'req' at once.
+   */
+  private void checkPagedMetadataOp(TMetadataOpRequest req, int pageSize)
+      throws ImpalaException {
+    TResultSet expected = execMetadataOp(req);
+    assertTrue(expected.rows.size() > pageSize);
+    req.setFetch_size(pageSize);
+    TMetadataOpPage page = frontend_.openHiveServer2MetadataOp(req);
+    assertEquals(expected.schema, page.result_set.schema);
+    List<TResultRow> rows = new ArrayList<>(page.result_set.rows);
+    while (!page.eos) {
+      assertEquals(pageSize, page.result_set.rows.size());
+      page = frontend_.fetchHiveServer2MetadataOpRows(
+          new TFetchMetadataOpRowsRequest(page.handle, pageSize));
+      rows.addAll(page.result_set.rows);
+    }
+    assertEquals(expected.rows, rows);
+
+    // Operations are closed once all rows are fetched or when closed explicitly.
+    page = frontend_.openHiveServer2MetadataOp(req);
+    assertTrue(!page.eos);
+    frontend_.closeHiveServer2MetadataOp(page.handle);
+    try {
+      frontend_.fetchHiveServer2MetadataOpRows(
+          new TFetchMetadataOpRowsRequest(page.handle, pageSize));
+      fail("Fetching rows of a closed operation should fail");
+    } catch (InternalException e) {
+      assertTrue(e.getMessage().contains("Unknown or closed metadata operation"));
+    }
+  }
+
   private TResultSet execMetadataOp(TMetadataOpRequest req)
       throws ImpalaException {
     return frontend_.execHiveServer2MetadataOp(req);
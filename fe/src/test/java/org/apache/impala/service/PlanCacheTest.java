@@ -0,0 +1,162 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.service;
+
+import static org.junit.Assert.*;
+
+import org.apache.impala.authorization.NoopAuthorizationFactory;
+import org.apache.impala.catalog.Table;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.service.Frontend.PlanCtx;
+import org.apache.impala.testutil.ImpaladTestCatalog;
+import org.apache.impala.testutil.TestUtils;
+import org.apache.impala.thrift.TCounter;
+import org.apache.impala.thrift.TExecRequest;
+import org.apache.impala.thrift.TQueryCtx;
+import org.apache.impala.thrift.TUpdateExecutorMembershipRequest;
+import org.apache.impala.util.ExecutorMembershipSnapshot;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class PlanCacheTest {
+
+  private static TQueryCtx createQueryCtx(String stmt) {
+    TQueryCtx queryCtx = TestUtils.createQueryContext();
+    queryCtx.client_request.setStmt(stmt);
+    return queryCtx;
+  }
+
+  private static long getCounter(TExecRequest request, String name) {
+    for (TCounter counter : request.profile.counters) {
+      if (counter.getName().equals(PlanCache.PROFILE_PREFIX + "." + name)) {
+        return counter.getValue();
+      }
+    }
+    return 0;
+  }
+
+  @Test
+  public void testNormalize() {
+    assertEquals("select a, b from t where c = 'x  y'",
+        PlanCache.normalize("  select a,\n\tb  from t\nwhere c = 'x  y'  "));
+    assertEquals("select `a  b` from t where c = \"\\\"  \"",
+        PlanCache.normalize("select   `a  b` from t where c = \"\\\"  \""));
+    // A line comment hides the rest of its line only.
+    assertNotEquals(PlanCache.normalize("select 1 -- c\n, 2"),
+        PlanCache.normalize("select 1 -- c , 2"));
+  }
+
+  /**
+   * Tests that a plan is not shared across changes of the executor membership.
+   */
+  @Test
+  public void testMembershipChange() {
+    TQueryCtx queryCtx = createQueryCtx("select id from t");
+    ExecutorMembershipSnapshot cluster = ExecutorMembershipSnapshot.getCluster();
+    assertEquals(PlanCache.createKey(queryCtx, cluster),
+        PlanCache.createKey(queryCtx, cluster));
+    // Any update of the membership gives a new version. This one keeps the executors
+    // of the initial snapshot, so it doesn't affect other tests.
+    TUpdateExecutorMembershipRequest updateReq = new TUpdateExecutorMembershipRequest();
+    updateReq.setIp_addresses(Sets.newHashSet());
+    updateReq.setHostnames(Sets.newHashSet());
+    updateReq.setNum_executors(cluster.numExecutors());
+    ExecutorMembershipSnapshot.update(updateReq);
+    assertNotEquals(PlanCache.createKey(queryCtx, cluster),
+        PlanCache.createKey(queryCtx, ExecutorMembershipSnapshot.getCluster()));
+  }
+
+  /**
+   * Tests that the plans of statements that depend on the query context are not
+   * cached, as determined by the analysis of the statement and its views.
+   */
+  @Test
+  public void testUncacheableStmts() throws ImpalaException {
+    try (ImpaladTestCatalog catalog = new ImpaladTestCatalog()) {
+      Frontend fe = new Frontend(new NoopAuthorizationFactory(), catalog);
+      PlanCache planCache = new PlanCache(64L * 1024 * 1024);
+      fe.setPlanCache(planCache);
+      String[] stmts = {
+          "select now() from functional.alltypes",
+          "select * from functional.alltypes where string_col = USER ()",
+          "select rand() from functional.alltypes",
+          "select uuid() from functional.alltypes",
+          "select * from functional.alltypes tablesample system(10)",
+          "select count(*) from functional.alltypes where timestamp_col < " +
+              "current_timestamp()"};
+      for (String stmt : stmts) {
+        fe.createExecRequest(new PlanCtx(createQueryCtx(stmt)));
+        assertEquals(stmt, 0, planCache.size());
+      }
+      // Text that looks like such a function call doesn't prevent caching, and neither
+      // do deterministic builtins of constant arguments.
+      fe.createExecRequest(new PlanCtx(createQueryCtx(
+          "select upper('now()'), abs(-1) from functional.alltypes " +
+          "tablesample system(10) repeatable(1)")));
+      assertEquals(1, planCache.size());
+    }
+  }
+
+  /**
+   * Tests that a plan is reused for a statement that only differs in whitespace, and
+   * that it is replanned once the version of the referenced table changes.
+   */
+  @Test
+  public void testPlanReuse() throws ImpalaException {
+    try (ImpaladTestCatalog catalog = new ImpaladTestCatalog()) {
+      Frontend fe = new Frontend(new NoopAuthorizationFactory(), catalog);
+      PlanCache planCache = new PlanCache(64L * 1024 * 1024);
+      fe.setPlanCache(planCache);
+      String stmt = "select count(*) from functional.alltypes where month = 1";
+
+      TExecRequest first = fe.createExecRequest(new PlanCtx(createQueryCtx(stmt)));
+      assertEquals(1, getCounter(first, "Misses"));
+      assertEquals(1, planCache.size());
+
+      TQueryCtx queryCtx = createQueryCtx(stmt.replace(" where", "\n  where"));
+      PlanCtx planCtx = new PlanCtx(queryCtx);
+      TExecRequest second = fe.createExecRequest(planCtx);
+      assertEquals(1, getCounter(second, "Hits"));
+      assertEquals(first.query_exec_request.query_plan,
+          second.query_exec_request.query_plan);
+      assertEquals(first.query_exec_request.query_plan, planCtx.getExplainString());
+      assertSame(queryCtx, second.query_exec_request.query_ctx);
+      assertTrue(queryCtx.isSetDesc_tbl_serialized());
+
+      // A new version of the table invalidates the plan.
+      Table tbl = catalog.getOrLoadTable("functional", "alltypes");
+      long version = tbl.getCatalogVersion();
+      try {
+        tbl.setCatalogVersion(version + 1);
+        TExecRequest third = fe.createExecRequest(new PlanCtx(createQueryCtx(stmt)));
+        assertEquals(1, getCounter(third, "Misses"));
+        TExecRequest fourth = fe.createExecRequest(new PlanCtx(createQueryCtx(stmt)));
+        assertEquals(1, getCounter(fourth, "Hits"));
+      } finally {
+        tbl.setCatalogVersion(version);
+      }
+
+      // Different query options don't share plans.
+      TQueryCtx mtDopCtx = createQueryCtx(stmt);
+      mtDopCtx.client_request.query_options.setMt_dop(4);
+      TExecRequest fifth = fe.createExecRequest(new PlanCtx(mtDopCtx));
+      assertEquals(1, getCounter(fifth, "Misses"));
+    }
+  }
+}
@@ -0,0 +1,50 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.testutil;
+
+import java.nio.ByteBuffer;
+
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.JniUtil;
+import org.apache.impala.thrift.TExecRequest;
+
+/**
+ * JNI entry points of be/src/benchmarks/jni-thrift-benchmark.cc, which measures the
+ * JNI transport of large Thrift messages. The benchmark loads this class from the test
+ * classes on the classpath, see bin/set-classpath.sh.
+ */
+public class JniThriftBenchmarkUtil {
+  /**
+   * Deserializes a TExecRequest from 'thriftData' and serializes it again.
+   */
+  public static byte[] echoExecRequest(byte[] thriftData) throws ImpalaException {
+    TExecRequest request = new TExecRequest();
+    JniUtil.deserializeThrift(request, thriftData);
+    return JniUtil.serializeToThrift(request);
+  }
+
+  /**
+   * Same as echoExecRequest(), but passes the messages in direct buffers.
+   */
+  public static ByteBuffer echoExecRequestDirect(ByteBuffer thriftData, boolean compact)
+      throws ImpalaException {
+    TExecRequest request = new TExecRequest();
+    JniUtil.deserializeThrift(request, thriftData, compact);
+    return JniUtil.serializeToDirectBuffer(request, compact);
+  }
+}
@@ -0,0 +1,69 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.UnboundPredicate;
+import org.apache.impala.catalog.CatalogException;
+import org.apache.impala.catalog.FeIcebergTable;
+import org.apache.impala.common.FrontendTestBase;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class IcebergManifestCacheTest extends FrontendTestBase {
+  private static Set<String> paths(List<DataFile> dataFiles) {
+    Set<String> result = new HashSet<>();
+    for (DataFile file : dataFiles) result.add(file.path().toString());
+    return result;
+  }
+
+  /**
+   * Tests that planning through the cache returns the same data files as an Iceberg
+   * TableScan, and that the manifests are only read once.
+   */
+  @Test
+  public void testPlanFiles() throws CatalogException {
+    FeIcebergTable table = (FeIcebergTable) catalog_.getOrLoadTable(
+        "functional_parquet", "iceberg_partitioned");
+    List<List<UnboundPredicate>> predicateLists = ImmutableList.of(
+        ImmutableList.of(),
+        ImmutableList.of(Expressions.equal("action", "click")),
+        ImmutableList.of(Expressions.equal("action", "view"),
+            Expressions.greaterThan("id", 10)),
+        ImmutableList.of(Expressions.equal("action", "unknown")));
+    IcebergManifestCache cache = new IcebergManifestCache(64L * 1024 * 1024);
+    for (int i = 0; i < 2; ++i) {
+      for (List<UnboundPredicate> predicates : predicateLists) {
+        assertEquals(
+            paths(IcebergUtil.getIcebergDataFiles(table, predicates, null)),
+            paths(cache.planFiles(table, predicates, null)));
+      }
+    }
+    assertEquals(0, cache.getStats().evictionCount());
+    assertEquals(cache.size(), cache.getStats().loadCount());
+    assertTrue(cache.getStats().hitCount() > 0);
+  }
+}
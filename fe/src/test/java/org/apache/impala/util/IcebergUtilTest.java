@@ -0,0 +1,138 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.apache.impala.util.IcebergUtil.DataFileDelta;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IcebergUtilTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.IntegerType.get()));
+
+  private static DataFile dataFile(String name) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/test/" + name + ".parquet")
+        .withFileSizeInBytes(1024)
+        .withRecordCount(1)
+        .withFormat(FileFormat.PARQUET)
+        .build();
+  }
+
+  private static Set<String> hashes(DataFile... files) {
+    Set<String> result = new HashSet<>();
+    for (DataFile file : files) result.add(IcebergUtil.getDataFilePathHash(file));
+    return result;
+  }
+
+  private Table createTable() {
+    return new HadoopTables(new Configuration()).create(SCHEMA,
+        PartitionSpec.unpartitioned(), tempFolder.getRoot().getPath() + "/tbl");
+  }
+
+  private static long currentSnapshotId(Table table) {
+    return table.currentSnapshot().snapshotId();
+  }
+
+  /**
+   * Tests that the delta replays the snapshots after the old snapshot in order.
+   */
+  @Test
+  public void testDataFileDelta() {
+    Table table = createTable();
+    DataFile a = dataFile("a");
+    DataFile b = dataFile("b");
+    DataFile c = dataFile("c");
+    table.newAppend().appendFile(a).appendFile(b).commit();
+    long oldSnapshotId = currentSnapshotId(table);
+
+    DataFileDelta delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId,
+        oldSnapshotId);
+    assertTrue(delta.addedFiles.isEmpty());
+    assertTrue(delta.removedPathHashes.isEmpty());
+
+    // An added file.
+    table.newAppend().appendFile(c).commit();
+    delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId,
+        currentSnapshotId(table));
+    assertEquals(hashes(c), delta.addedFiles.keySet());
+    assertTrue(delta.removedPathHashes.isEmpty());
+
+    // A deleted file.
+    table.newDelete().deleteFile(a.path()).commit();
+    delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId,
+        currentSnapshotId(table));
+    assertEquals(hashes(c), delta.addedFiles.keySet());
+    assertEquals(hashes(a), delta.removedPathHashes);
+
+    // A deleted file that is added again is in both collections.
+    table.newAppend().appendFile(a).commit();
+    delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId,
+        currentSnapshotId(table));
+    assertEquals(hashes(a, c), delta.addedFiles.keySet());
+    assertEquals(hashes(a), delta.removedPathHashes);
+
+    // A file that was added after the old snapshot and deleted again is only removed.
+    table.newDelete().deleteFile(c.path()).commit();
+    delta = IcebergUtil.getDataFileDelta(table, oldSnapshotId,
+        currentSnapshotId(table));
+    assertEquals(hashes(a), delta.addedFiles.keySet());
+    assertEquals(hashes(a, c), delta.removedPathHashes);
+  }
+
+  /**
+   * Tests that there is no delta if the old snapshot is not an ancestor of the new one,
+   * so that the caller falls back to loading all data files.
+   */
+  @Test
+  public void testDataFileDeltaOfNonAncestor() {
+    Table table = createTable();
+    table.newAppend().appendFile(dataFile("a")).commit();
+    long firstSnapshotId = currentSnapshotId(table);
+    table.newAppend().appendFile(dataFile("b")).commit();
+    long secondSnapshotId = currentSnapshotId(table);
+    table.manageSnapshots().rollbackTo(firstSnapshotId).commit();
+    DataFile c = dataFile("c");
+    table.newAppend().appendFile(c).commit();
+
+    assertNull(IcebergUtil.getDataFileDelta(table, secondSnapshotId,
+        currentSnapshotId(table)));
+    DataFileDelta delta = IcebergUtil.getDataFileDelta(table, firstSnapshotId,
+        currentSnapshotId(table));
+    assertEquals(hashes(c), delta.addedFiles.keySet());
+    assertTrue(delta.removedPathHashes.isEmpty());
+  }
+}
@@ -0,0 +1,51 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.util;
+
+import static org.junit.Assert.*;
+
+import org.apache.impala.catalog.FeKuduTable;
+import org.apache.impala.common.FrontendTestBase;
+import org.apache.impala.common.ImpalaException;
+import org.apache.kudu.client.KuduTable;
+import org.junit.Test;
+
+public class KuduTableCacheTest extends FrontendTestBase {
+  /**
+   * Tests that a Kudu table is only opened once per catalog version, and opened again
+   * after it was invalidated.
+   */
+  @Test
+  public void testGetTable() throws ImpalaException {
+    FeKuduTable table =
+        (FeKuduTable) catalog_.getOrLoadTable("functional_kudu", "alltypes");
+    KuduTableCache cache = new KuduTableCache(3600);
+    KuduTable kuduTable = cache.getTable(table);
+    assertEquals(table.getKuduTableName(), kuduTable.getName());
+    assertSame(kuduTable, cache.getTable(table));
+    assertEquals(1, cache.getStats().loadCount());
+    assertEquals(1, cache.size());
+
+    cache.invalidate(table);
+    assertEquals(0, cache.size());
+    KuduTable reopened = cache.getTable(table);
+    assertNotSame(kuduTable, reopened);
+    assertEquals(kuduTable.getTableId(), reopened.getTableId());
+    assertEquals(2, cache.getStats().loadCount());
+  }
+}
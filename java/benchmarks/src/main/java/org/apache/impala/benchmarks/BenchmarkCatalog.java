@@ -0,0 +1,211 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.impala.analysis.AnalysisContext;
+import org.apache.impala.analysis.AnalysisContext.AnalysisResult;
+import org.apache.impala.analysis.LiteralExpr;
+import org.apache.impala.analysis.NumericLiteral;
+import org.apache.impala.analysis.Parser;
+import org.apache.impala.analysis.StatementBase;
+import org.apache.impala.analysis.StmtMetadataLoader;
+import org.apache.impala.analysis.StmtMetadataLoader.StmtTableCache;
+import org.apache.impala.authorization.NoopAuthorizationFactory;
+import org.apache.impala.catalog.Column;
+import org.apache.impala.catalog.Db;
+import org.apache.impala.catalog.HdfsPartition;
+import org.apache.impala.catalog.HdfsStorageDescriptor;
+import org.apache.impala.catalog.HdfsTable;
+import org.apache.impala.catalog.ImpaladCatalog;
+import org.apache.impala.catalog.Table;
+import org.apache.impala.catalog.Type;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.service.FeSupport;
+import org.apache.impala.service.Frontend;
+import org.apache.impala.thrift.TClientRequest;
+import org.apache.impala.thrift.TNetworkAddress;
+import org.apache.impala.thrift.TQueryCtx;
+import org.apache.impala.thrift.TQueryOptions;
+import org.apache.impala.thrift.TSessionState;
+import org.apache.impala.thrift.TSessionType;
+import org.apache.impala.thrift.TUniqueId;
+import org.apache.impala.util.EventSequence;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Self-contained, in-memory catalog for the frontend microbenchmarks. All tables are
+ * synthesized from hand-built HMS objects and added directly to an ImpaladCatalog, so
+ * neither a live HMS nor a filesystem is needed. The native frontend support library
+ * (libfesupport.so) must be on java.library.path since analysis relies on it, e.g.
+ * for constant folding.
+ */
+public class BenchmarkCatalog {
+  public static final String DB_NAME = "bench";
+  // Unpartitioned tables used by the parsing/analysis/rewrite benchmarks.
+  public static final String FACT_TBL = "fact";
+  public static final String DIM_TBL = "dim";
+  // Number of values of the inner partition column of partitioned tables.
+  public static final int PARTS_PER_OUTER_VALUE = 100;
+
+  private static final String PARQUET_INPUT_FORMAT =
+      "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat";
+  private static final String PARQUET_OUTPUT_FORMAT =
+      "org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat";
+  private static final String PARQUET_SERDE =
+      "org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe";
+
+  private final ImpaladCatalog catalog_;
+  private final Frontend frontend_;
+  private final Db db_;
+
+  public BenchmarkCatalog() throws ImpalaException {
+    // Initializes the BackendConfig and the SQL scanner keywords.
+    FeSupport.loadLibrary();
+    catalog_ = new ImpaladCatalog("127.0.0.1", null);
+    catalog_.setIsReady(true);
+    frontend_ = new Frontend(new NoopAuthorizationFactory(), catalog_);
+    db_ = new Db(DB_NAME, new Database(DB_NAME, "", "", Collections.emptyMap()));
+    catalog_.addDb(db_);
+    addTable(FACT_TBL, 20, Collections.emptyList());
+    addTable(DIM_TBL, 8, Collections.emptyList());
+  }
+
+  public ImpaladCatalog getCatalog() { return catalog_; }
+  public Frontend getFrontend() { return frontend_; }
+
+  /**
+   * Adds a parquet table 'tblName' with 'numPartitions' synthetic partitions. The table
+   * is partitioned by (p1 INT, p2 INT) where p2 cycles through PARTS_PER_OUTER_VALUE
+   * values for every value of p1. Partitions have no files.
+   */
+  public HdfsTable addPartitionedTable(String tblName, int numPartitions)
+      throws ImpalaException {
+    List<FieldSchema> partCols = new ArrayList<>();
+    partCols.add(new FieldSchema("p1", "int", null));
+    partCols.add(new FieldSchema("p2", "int", null));
+    HdfsTable tbl = addTable(tblName, 4, partCols);
+    HdfsStorageDescriptor sd = HdfsStorageDescriptor.fromStorageDescriptor(
+        tblName, tbl.getMetaStoreTable().getSd());
+    for (int i = 0; i < numPartitions; ++i) {
+      int p1 = i / PARTS_PER_OUTER_VALUE;
+      int p2 = i % PARTS_PER_OUTER_VALUE;
+      List<LiteralExpr> keys = new ArrayList<>();
+      keys.add(new NumericLiteral(BigInteger.valueOf(p1), Type.INT));
+      keys.add(new NumericLiteral(BigInteger.valueOf(p2), Type.INT));
+      HdfsPartition part = new HdfsPartition.Builder(tbl)
+          .setPartitionKeyValues(keys)
+          .setFileFormatDescriptor(sd)
+          .setLocation(String.format("%s/p1=%d/p2=%d", tbl.getHdfsBaseDir(), p1, p2))
+          .build();
+      tbl.addPartition(part);
+    }
+    return tbl;
+  }
+
+  /**
+   * Creates an HdfsTable with 'numCols' columns c0..cN (alternating BIGINT, STRING and
+   * DOUBLE) and the given partition columns and registers it in the bench database.
+   */
+  private HdfsTable addTable(String tblName, int numCols, List<FieldSchema> partCols)
+      throws ImpalaException {
+    List<FieldSchema> cols = new ArrayList<>();
+    String[] colTypes = new String[] {"bigint", "string", "double"};
+    for (int i = 0; i < numCols; ++i) {
+      cols.add(new FieldSchema("c" + i, colTypes[i % colTypes.length], null));
+    }
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(cols);
+    sd.setLocation(
+        "hdfs://localhost:20500/test-warehouse/" + DB_NAME + ".db/" + tblName);
+    sd.setInputFormat(PARQUET_INPUT_FORMAT);
+    sd.setOutputFormat(PARQUET_OUTPUT_FORMAT);
+    sd.setSerdeInfo(new SerDeInfo(null, PARQUET_SERDE, new HashMap<>()));
+    org.apache.hadoop.hive.metastore.api.Table msTbl =
+        new org.apache.hadoop.hive.metastore.api.Table();
+    msTbl.setDbName(DB_NAME);
+    msTbl.setTableName(tblName);
+    msTbl.setOwner("bench");
+    msTbl.setSd(sd);
+    msTbl.setPartitionKeys(partCols);
+    msTbl.setParameters(new HashMap<>());
+    msTbl.setTableType(TableType.EXTERNAL_TABLE.toString());
+
+    Table tbl = Table.fromMetastoreTable(db_, msTbl);
+    Preconditions.checkState(tbl instanceof HdfsTable);
+    HdfsTable hdfsTbl = (HdfsTable) tbl;
+    hdfsTbl.setNumClusteringCols(partCols.size());
+    int pos = 0;
+    for (FieldSchema fs: partCols) {
+      hdfsTbl.addColumn(new Column(fs.getName(), Type.INT, pos++));
+    }
+    for (FieldSchema fs: cols) {
+      hdfsTbl.addColumn(new Column(fs.getName(), Type.parseColumnType(fs.getType()),
+          pos++));
+    }
+    hdfsTbl.initializePartitionMetadata(msTbl);
+    db_.addTable(hdfsTbl);
+    return hdfsTbl;
+  }
+
+  /**
+   * Returns a query context for the bench database with the given query options.
+   */
+  public TQueryCtx createQueryCtx(TQueryOptions options) {
+    TQueryCtx queryCtx = new TQueryCtx();
+    queryCtx.setClient_request(new TClientRequest("Benchmark", options));
+    queryCtx.setQuery_id(new TUniqueId());
+    queryCtx.setSession(new TSessionState(new TUniqueId(), TSessionType.BEESWAX,
+        DB_NAME, System.getProperty("user.name"), new TNetworkAddress("localhost", 0)));
+    queryCtx.setNow_string("2021-01-01 00:00:00.000000000");
+    queryCtx.setUtc_timestamp_string("2021-01-01 00:00:00.000000000");
+    queryCtx.setLocal_time_zone("UTC");
+    queryCtx.setStart_unix_millis(System.currentTimeMillis());
+    queryCtx.setPid(1000);
+    return queryCtx;
+  }
+
+  /**
+   * Parses, loads the metadata for and analyzes 'stmt' using the given options.
+   */
+  public AnalysisResult analyze(String stmt, TQueryOptions options)
+      throws ImpalaException {
+    TQueryCtx queryCtx = createQueryCtx(options);
+    queryCtx.client_request.setStmt(stmt);
+    StatementBase parsedStmt = Parser.parse(stmt, options);
+    EventSequence timeline = new EventSequence("Benchmark");
+    StmtMetadataLoader mdLoader =
+        new StmtMetadataLoader(frontend_, DB_NAME, timeline);
+    StmtTableCache stmtTableCache = mdLoader.loadTables(parsedStmt);
+    AnalysisContext analysisCtx = new AnalysisContext(queryCtx,
+        new NoopAuthorizationFactory(), timeline);
+    return analysisCtx.analyzeAndAuthorize(parsedStmt, stmtTableCache,
+        frontend_.getAuthzChecker());
+  }
+}
@@ -0,0 +1,71 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Joiner;
+
+/**
+ * Synthetic statements against the tables of BenchmarkCatalog. Each shape stresses a
+ * different part of the frontend.
+ */
+public class BenchmarkQueries {
+  public enum Shape {
+    // Single-table scan with a handful of conjuncts.
+    SIMPLE,
+    // Join with an aggregation and ordering.
+    JOIN,
+    // Predicate with a 1000-element IN list, as produced by BI tools.
+    WIDE_IN_LIST,
+    // Deeply nested CASE expressions with constant sub-expressions.
+    CASE_LADDER,
+  }
+
+  public static String get(Shape shape) {
+    switch (shape) {
+      case SIMPLE:
+        return "select c0, c1, c2 from fact where c0 > 10 and c1 like 'abc%' " +
+            "and c2 between 1.0 and 2.0 + 3.0";
+      case JOIN:
+        return "select d.c1, sum(f.c0), count(distinct f.c3) from fact f " +
+            "join dim d on f.c0 = d.c0 where d.c2 < 100 and f.c6 = 1 + 1 " +
+            "group by d.c1 order by 2 desc limit 10";
+      case WIDE_IN_LIST: {
+        List<String> vals = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) vals.add(Integer.toString(i));
+        return "select count(*) from fact where c0 in (" + Joiner.on(",").join(vals) +
+            ") or c3 = 5 or c3 = 6 or c3 = 7";
+      }
+      case CASE_LADDER: {
+        StringBuilder sb = new StringBuilder("select ");
+        for (int i = 0; i < 50; ++i) {
+          sb.append("case when c0 = ").append(i).append(" then ").append(i)
+              .append(" * 2 + 1 else ");
+        }
+        sb.append("0");
+        for (int i = 0; i < 50; ++i) sb.append(" end");
+        sb.append(" from fact where true and c0 is not null");
+        return sb.toString();
+      }
+      default:
+        throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+  }
+}
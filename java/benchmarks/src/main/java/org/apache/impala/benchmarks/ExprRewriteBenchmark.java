@@ -0,0 +1,102 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.impala.analysis.Analyzer;
+import org.apache.impala.analysis.Expr;
+import org.apache.impala.analysis.SelectListItem;
+import org.apache.impala.analysis.SelectStmt;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.rewrite.BetweenToCompoundRule;
+import org.apache.impala.rewrite.EqualityDisjunctsToInRule;
+import org.apache.impala.rewrite.ExprRewriteRule;
+import org.apache.impala.rewrite.ExprRewriter;
+import org.apache.impala.rewrite.ExtractCommonConjunctRule;
+import org.apache.impala.rewrite.ExtractCompoundVerticalBarExprRule;
+import org.apache.impala.rewrite.FoldConstantsRule;
+import org.apache.impala.rewrite.NormalizeBinaryPredicatesRule;
+import org.apache.impala.rewrite.NormalizeExprsRule;
+import org.apache.impala.rewrite.SimplifyConditionalsRule;
+import org.apache.impala.rewrite.SimplifyDistinctFromRule;
+import org.apache.impala.thrift.TQueryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ExprRewriter in isolation. The statement is analyzed once without rewrites
+ * and every invocation rewrites fresh clones of its analyzed select-list and WHERE
+ * exprs with the rule list the Analyzer uses when expression rewrites are enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExprRewriteBenchmark {
+  @Param({"SIMPLE", "WIDE_IN_LIST", "CASE_LADDER"})
+  public BenchmarkQueries.Shape shape;
+
+  private Analyzer analyzer_;
+  private final List<Expr> exprs_ = new ArrayList<>();
+  private final List<ExprRewriteRule> rules_ = new ArrayList<>();
+
+  @Setup
+  public void setup() throws ImpalaException {
+    BenchmarkCatalog catalog = new BenchmarkCatalog();
+    TQueryOptions options = new TQueryOptions();
+    options.setEnable_expr_rewrites(false);
+    SelectStmt stmt = (SelectStmt) catalog.analyze(
+        BenchmarkQueries.get(shape), options).getStmt();
+    analyzer_ = stmt.getAnalyzer();
+    for (SelectListItem item: stmt.getSelectList().getItems()) {
+      if (!item.isStar()) exprs_.add(item.getExpr());
+    }
+    if (stmt.hasWhereClause()) exprs_.add(stmt.getWhereClause());
+
+    rules_.add(BetweenToCompoundRule.INSTANCE);
+    rules_.add(NormalizeBinaryPredicatesRule.INSTANCE);
+    rules_.add(ExtractCompoundVerticalBarExprRule.INSTANCE);
+    rules_.add(FoldConstantsRule.INSTANCE);
+    rules_.add(NormalizeExprsRule.INSTANCE);
+    rules_.add(ExtractCommonConjunctRule.INSTANCE);
+    rules_.add(SimplifyConditionalsRule.INSTANCE);
+    rules_.add(EqualityDisjunctsToInRule.INSTANCE);
+    rules_.add(SimplifyDistinctFromRule.INSTANCE);
+  }
+
+  @Benchmark
+  public List<Expr> rewrite() throws ImpalaException {
+    List<Expr> exprs = Expr.cloneList(exprs_);
+    new ExprRewriter(rules_).rewriteList(exprs, analyzer_);
+    return exprs;
+  }
+}
@@ -0,0 +1,120 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.StorageType;
+import org.apache.impala.catalog.HdfsPartition.FileBlock;
+import org.apache.impala.catalog.HdfsPartition.FileDescriptor;
+import org.apache.impala.common.Reference;
+import org.apache.impala.fb.FbFileBlock;
+import org.apache.impala.thrift.THdfsFileDesc;
+import org.apache.impala.thrift.TNetworkAddress;
+import org.apache.impala.util.ListMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encoding of FileDescriptors into their FlatBuffer representation, the
+ * Thrift round trip used to ship them to impalads, and decoding of the block metadata
+ * as done by the scan range computation in HdfsScanNode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileDescriptorBenchmark {
+  private static final int NUM_DATANODES = 20;
+  private static final int NUM_REPLICAS = 3;
+  private static final long BLOCK_SIZE = 128L * 1024 * 1024;
+
+  @Param({"1", "16", "128"})
+  public int numBlocks;
+
+  private FileStatus fileStatus_;
+  private BlockLocation[] blockLocations_;
+  private ListMap<TNetworkAddress> hostIndex_;
+  private FileDescriptor fd_;
+  private THdfsFileDesc thriftFd_;
+
+  @Setup
+  public void setup() throws IOException {
+    fileStatus_ = new FileStatus(numBlocks * BLOCK_SIZE, false, NUM_REPLICAS, BLOCK_SIZE,
+        1234567890L, new Path("hdfs://localhost:20500/tbl/p=1/000000_0.parq"));
+    blockLocations_ = new BlockLocation[numBlocks];
+    for (int b = 0; b < numBlocks; ++b) {
+      String[] names = new String[NUM_REPLICAS];
+      String[] hosts = new String[NUM_REPLICAS];
+      String[] storageIds = new String[NUM_REPLICAS];
+      StorageType[] storageTypes = new StorageType[NUM_REPLICAS];
+      for (int r = 0; r < NUM_REPLICAS; ++r) {
+        int dn = (b + r) % NUM_DATANODES;
+        hosts[r] = "datanode" + dn;
+        names[r] = hosts[r] + ":50010";
+        storageIds[r] = "DS-" + dn + "-" + (b % 4);
+        storageTypes[r] = StorageType.DISK;
+      }
+      blockLocations_[b] = new BlockLocation(names, hosts, new String[0], new String[0],
+          storageIds, storageTypes, b * BLOCK_SIZE, BLOCK_SIZE, false);
+    }
+    hostIndex_ = new ListMap<>();
+    fd_ = encode();
+    thriftFd_ = fd_.toThrift();
+  }
+
+  @Benchmark
+  public FileDescriptor encode() throws IOException {
+    return FileDescriptor.create(fileStatus_, "000000_0.parq", blockLocations_,
+        hostIndex_, false, new Reference<>(0L));
+  }
+
+  @Benchmark
+  public FileDescriptor thriftRoundTrip() {
+    return FileDescriptor.fromThrift(fd_.toThrift());
+  }
+
+  @Benchmark
+  public long decode() {
+    FileDescriptor fd = FileDescriptor.fromThrift(thriftFd_);
+    long sum = fd.getFileLength() + fd.getModificationTime();
+    for (int i = 0; i < fd.getNumFileBlocks(); ++i) {
+      FbFileBlock block = fd.getFbFileBlock(i);
+      sum += FileBlock.getOffset(block) + FileBlock.getLength(block);
+      for (int r = 0; r < FileBlock.getNumReplicaHosts(block); ++r) {
+        sum += FileBlock.getReplicaHostIdx(block, r) + FileBlock.getDiskId(block, r);
+      }
+    }
+    return sum;
+  }
+}
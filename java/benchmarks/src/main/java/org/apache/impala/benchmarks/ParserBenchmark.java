@@ -0,0 +1,67 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.impala.analysis.Parser;
+import org.apache.impala.analysis.StatementBase;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.thrift.TQueryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of turning SQL text into an AST with the generated parser
+ * (sql-parser.cup). Uses the same statement shapes as AnalysisBenchmark so that the
+ * parse share of the analysis numbers can be derived.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+  @Param({"SIMPLE", "JOIN", "WIDE_IN_LIST", "CASE_LADDER"})
+  public BenchmarkQueries.Shape shape;
+
+  private String sql_;
+  private final TQueryOptions options_ = new TQueryOptions();
+
+  @Setup
+  public void setup() throws ImpalaException {
+    // Parsing needs the keyword table that is initialized with the backend config.
+    new BenchmarkCatalog();
+    sql_ = BenchmarkQueries.get(shape);
+  }
+
+  @Benchmark
+  public StatementBase parse() throws ImpalaException {
+    return Parser.parse(sql_, options_);
+  }
+}
@@ -0,0 +1,111 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.impala.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.impala.analysis.Analyzer;
+import org.apache.impala.analysis.Expr;
+import org.apache.impala.analysis.SelectStmt;
+import org.apache.impala.analysis.TableRef;
+import org.apache.impala.catalog.FeFsPartition;
+import org.apache.impala.common.ImpalaException;
+import org.apache.impala.common.Pair;
+import org.apache.impala.planner.HdfsPartitionPruner;
+import org.apache.impala.thrift.TQueryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures HdfsPartitionPruner against synthetic tables with up to 100k partitions.
+ * The table is partitioned by (p1, p2) as described in
+ * BenchmarkCatalog.addPartitionedTable(). The predicate shapes cover the paths the
+ * pruner takes: simple predicates answered from the table's PartitionKeyIndex, alone
+ * and combined across both partition columns, and predicates that have to be
+ * evaluated per partition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionPruningBenchmark {
+  @Param({"1000", "10000", "100000"})
+  public int numPartitions;
+
+  @Param({"EQ", "RANGE", "IN", "IS_NULL", "NOT_IN", "MULTI", "EXPR"})
+  public String predicate;
+
+  private Analyzer analyzer_;
+  private TableRef tblRef_;
+  private List<Expr> conjuncts_;
+
+  @Setup
+  public void setup() throws ImpalaException {
+    BenchmarkCatalog catalog = new BenchmarkCatalog();
+    String tblName = "parts_" + numPartitions;
+    catalog.addPartitionedTable(tblName, numPartitions);
+    int maxP1 = numPartitions / BenchmarkCatalog.PARTS_PER_OUTER_VALUE;
+    String where;
+    switch (predicate) {
+      case "EQ": where = "p1 = " + (maxP1 / 2); break;
+      case "RANGE":
+        where = String.format("p1 between %d and %d and p2 < 50", maxP1 / 4, maxP1 / 2);
+        break;
+      case "IN": where = "p2 in (1, 3, 5, 7, 11, 13, 17, 19, 23, 29)"; break;
+      case "IS_NULL": where = "p1 is null or p2 = 42"; break;
+      case "NOT_IN": where = "p2 not in (0, 10, 20, 30, 40, 50, 60, 70, 80, 90)"; break;
+      case "MULTI":
+        where = String.format("(p1 >= %d or p1 is null) and p2 != 7 and p2 <= 90",
+            maxP1 / 2);
+        break;
+      // Not handled by the partition key index, evaluated for each partition.
+      case "EXPR": where = "p1 + p2 = 57"; break;
+      default: throw new IllegalArgumentException("Unknown predicate: " + predicate);
+    }
+    TQueryOptions options = new TQueryOptions();
+    options.setEnable_expr_rewrites(false);
+    SelectStmt stmt = (SelectStmt) catalog.analyze(
+        String.format("select count(*) from %s where %s", tblName, where),
+        options).getStmt();
+    analyzer_ = stmt.getAnalyzer();
+    tblRef_ = stmt.getTableRefs().get(0);
+    conjuncts_ = stmt.getWhereClause().getConjuncts();
+  }
+
+  @Benchmark
+  public Pair<List<? extends FeFsPartition>, List<Expr>> prune()
+      throws ImpalaException {
+    // The pruner removes the conjuncts it consumes from the list.
+    List<Expr> conjuncts = new ArrayList<>(conjuncts_);
+    return new HdfsPartitionPruner(tblRef_.getDesc()).prunePartitions(
+        analyzer_, conjuncts, true, tblRef_);
+  }
+}
@@ -18,6 +18,7 @@
 import datetime
 import os
 import random
+import re
 import time
 
 from subprocess import check_call
@@ -445,3 +446,27 @@ class TestIcebergTable(ImpalaTestSuite):
   def test_using_upper_lower_bound_metrics(self, vector, unique_database):
     self.run_test_case('QueryTest/iceberg-upper-lower-bound-metrics', vector,
         use_db=unique_database)
+
+  def test_file_bounds_runtime_filter(self, vector):
+    """Tests that files whose bounds of the join column, taken from the Iceberg
+    manifests, don't overlap a min/max runtime filter are skipped. Each of the 20 data
+    files of iceberg_partitioned has a single row, with ids from 1 to 20."""
+    query_options = {
+        'RUNTIME_FILTER_MODE': 'GLOBAL',
+        'RUNTIME_FILTER_WAIT_TIME_MS': 10000,
+        'ENABLED_RUNTIME_FILTER_TYPES': 'MIN_MAX',
+        'MINMAX_FILTER_THRESHOLD': 0.5}
+    # The ids of the build side are 1, 3, 5 and 7, so the 13 files with ids from 8 to 20
+    # are skipped.
+    result = self.execute_query("""select STRAIGHT_JOIN count(*)
+        from functional_parquet.iceberg_partitioned i join
+        (select id from functional.alltypestiny where int_col = 1) t on i.id = t.id""",
+        query_options)
+    assert result.data == ['4']
+    assert re.search("Files rejected: [1-9]", result.runtime_profile) is not None
+    # The filter overlaps all files.
+    result = self.execute_query("""select STRAIGHT_JOIN count(*)
+        from functional_parquet.iceberg_partitioned i join functional.alltypes t
+        on i.id = t.id""", query_options)
+    assert result.data == ['20']
+    assert re.search("Files rejected: [1-9]", result.runtime_profile) is None